@@ -18,4 +18,11 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Firestore maps documents onto these classes with toObject(), which uses
+# reflection on their no-arg constructors, getters and setters.
+-keep class com.example.apollo.models.** { *; }
+-keepattributes Signature,*Annotation*
+
+# Keep line numbers so release crash reports stay readable.
+-keepattributes SourceFile,LineNumberTable
@@ -0,0 +1,57 @@
+package com.example.apollo;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import com.example.apollo.data.FirestoreOpLog;
+import com.example.apollo.data.RoleCache;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ApolloStartupInitializer.java
+ *
+ * Purpose:
+ * App Startup initializer that warms up what the first screen needs, off the
+ * main thread and in parallel with activity creation:
+ * - the role cache's SharedPreferences file
+ * - the FirebaseAuth instance (restores the signed-in user from disk)
+ * - the Firestore client (opens its local cache)
+ * It also enables the Firestore operation log in debuggable builds.
+ *
+ * Design:
+ * {@link #create} only hands the work to a background thread and returns, so
+ * it adds almost nothing to application startup. Firebase itself is still
+ * registered by its own provider; this class just makes sure the expensive
+ * first getInstance() calls do not land on the main thread.
+ */
+public class ApolloStartupInitializer implements Initializer<Void> {
+
+    @Override
+    public Void create(@NonNull Context context) {
+        Context app = context.getApplicationContext();
+        FirestoreOpLog.init(app);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        executor.execute(() -> {
+            RoleCache.preload(app);
+            FirebaseAuth.getInstance();
+        });
+        executor.execute(FirebaseFirestore::getInstance);
+        executor.shutdown();
+        return null;
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
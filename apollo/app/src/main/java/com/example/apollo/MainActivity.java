@@ -1,12 +1,15 @@
 package com.example.apollo;
 
+import android.app.AlertDialog;
 import android.os.Bundle;
 import android.view.View;
 
+import androidx.annotation.NonNull;
+
+import com.google.android.material.badge.BadgeDrawable;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -15,6 +18,15 @@ import androidx.navigation.Navigation;
 import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
+import com.example.apollo.data.CascadeDeleteWorker;
+import com.example.apollo.data.FirestoreDebugOverlay;
+import com.example.apollo.data.InboxCompactionWorker;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.ListenerRegistry;
+import com.example.apollo.data.NotificationInbox;
+import com.example.apollo.data.NotificationLogRollupWorker;
+import com.example.apollo.data.RoleCache;
+import com.example.apollo.data.SearchBackfillWorker;
 import com.example.apollo.databinding.ActivityMainBinding;
 
 /**
@@ -29,20 +41,30 @@ import com.example.apollo.databinding.ActivityMainBinding;
  * Acts as a Controller in the MVC pattern by managing user navigation and dynamically configuring
  * the view based on the authenticated user's role.
  *
- * Outstanding Issues / TODOs:
- * - Add error handling for Firestore get() failures.
- * - Optimize navigation setup to avoid multiple repeated calls to inflateMenu().
- * - Consider storing role information locally to reduce repeated network requests.
+ * Notes:
+ * - The role is served from {@link RoleCache} and revalidated in the background, so
+ *   returning users do not wait on Firestore before the first screen appears.
+ * - Startup timings per role are logged by {@link StartupTrace}.
+ * - If the role cannot be read and none is cached, the user can retry or
+ *   continue as a guest instead of being left on an empty shell.
+ * - Signed-in entrants get an unread badge on the notifications tab, fed by
+ *   the single counter document of {@link NotificationInbox}.
  */
 public class MainActivity extends AppCompatActivity {
 
+    private static final String ROLE_GUEST = "guest";
+
     private ActivityMainBinding binding;
 
     /**
      * Called when the activity is starting. Sets up the view binding, determines the user type
-     * (guest, entrant, or organizer), and configures the bottom navigation and navController
+     * (guest, entrant, organizer or admin), and configures the bottom navigation and navController
      * accordingly.
      *
+     * Signed-in users get their graph straight from {@link RoleCache} when a role is cached;
+     * the profile is then re-read in the background and the activity is recreated only if the
+     * role actually changed. Without a cached role the profile is read once from Firestore.
+     *
      * @param savedInstanceState If the activity is being re-initialized after previously
      *                           being shut down, this contains the data it most recently
      *                           supplied in onSaveInstanceState(Bundle). Otherwise, it is null.
@@ -54,60 +76,138 @@ public class MainActivity extends AppCompatActivity {
         // Inflate layout using View Binding
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
-
-        BottomNavigationView navView = findViewById(R.id.nav_view);
-        NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
+        StartupTrace.watchFirstFrame(binding.getRoot());
+        FirestoreDebugOverlay.attach(this);
 
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         boolean isGuest = getIntent().getBooleanExtra("isGuest", false);
 
-        if (isGuest) {
-            // Guest user flow
-            navView.getMenu().clear();
-            navView.inflateMenu(R.menu.bottom_nav_menu);
-            navController.setGraph(R.navigation.mobile_navigation);
-            navView.getMenu().findItem(R.id.navigation_profile).setVisible(true);
-            setupNavController(navController, new AppBarConfiguration.Builder(
-                    R.id.navigation_home, R.id.navigation_notifications, R.id.navigation_profile).build());
-        } else if (currentUser != null) {
-            // Registered user flow
-            DocumentReference userRef = FirebaseFirestore.getInstance().collection("users").document(currentUser.getUid());
-            userRef.get().addOnSuccessListener(documentSnapshot -> {
-                if (documentSnapshot.exists()) {
-                    String role = documentSnapshot.getString("role");
-                    if ("organizer".equals(role)) {
-                        // Organizer UI
-                        navView.getMenu().clear();
-                        navView.inflateMenu(R.menu.bottom_nav_organizer_menu);
-                        navController.setGraph(R.navigation.organizer_mobile_navigation);
-                        setupNavController(navController, new AppBarConfiguration.Builder(
-                                R.id.navigation_organizer_events, R.id.navigation_notifications, R.id.navigation_profile).build());
-                    }else if("admin".equals(role)){
-                        // Entrant UI
-                        navView.getMenu().clear();
-                        navView.inflateMenu(R.menu.bottom_nav_menu_admin);
-                        navController.setGraph(R.navigation.admin_mobile_navigation);
-                        setupNavController(navController, new AppBarConfiguration.Builder(
-                                R.id.navigation_events, R.id.navigation_profiles, R.id.navigation_notifications, R.id.navigation_images).build());
-                    } else {
-                        // Entrant UI
-                        navView.getMenu().clear();
-                        navView.inflateMenu(R.menu.bottom_nav_menu);
-                        navController.setGraph(R.navigation.mobile_navigation);
-                        setupNavController(navController, new AppBarConfiguration.Builder(
-                                R.id.navigation_home, R.id.navigation_notifications, R.id.navigation_profile).build());
-                    }
-                }
+        if (isGuest || currentUser == null) {
+            // Guest user flow (also the default if no user and not explicitly guest)
+            showGraphForRole(ROLE_GUEST, "none");
+            return;
+        }
+
+        // Registered user flow
+        String uid = currentUser.getUid();
+        String cachedRole = RoleCache.get(this, uid);
+
+        if (cachedRole != null) {
+            showGraphForRole(cachedRole, "cache");
+            RoleCache.revalidate(this, uid, (role, changed) -> {
+                if (changed && isAlive()) recreate();
             });
         } else {
-            // Default to guest if no user and not explicitly guest
-            navView.getMenu().clear();
+            loadRole(uid);
+        }
+    }
+
+    /**
+     * Reads the role from Firestore when none is cached, offering a retry
+     * (or the guest graph) if the read fails.
+     *
+     * @param uid Signed-in user's ID.
+     */
+    private void loadRole(String uid) {
+        RoleCache.revalidate(this, uid, new RoleCache.RevalidateListener() {
+            @Override
+            public void onRole(@NonNull String role, boolean changed) {
+                if (isAlive()) showGraphForRole(role, "network");
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                if (!isAlive()) return;
+                new AlertDialog.Builder(MainActivity.this)
+                        .setTitle("Could not load your profile")
+                        .setMessage("Check your connection and try again.")
+                        .setCancelable(false)
+                        .setPositiveButton("Retry", (d, w) -> loadRole(uid))
+                        .setNegativeButton("Continue as guest", (d, w) -> showGraphForRole(ROLE_GUEST, "fallback"))
+                        .show();
+            }
+        });
+    }
+
+    /**
+     * @return True while async callbacks may still touch the views and navigation.
+     */
+    private boolean isAlive() {
+        return !isFinishing() && !isDestroyed();
+    }
+
+    /**
+     * Inflates the bottom navigation menu and sets the navigation graph for a role.
+     *
+     * @param role       "guest", "organizer", "admin"; anything else is treated as an entrant.
+     * @param roleSource Where the role came from, recorded by {@link StartupTrace}.
+     */
+    private void showGraphForRole(String role, String roleSource) {
+        BottomNavigationView navView = findViewById(R.id.nav_view);
+        NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
+
+        navView.getMenu().clear();
+        if ("organizer".equals(role)) {
+            // Organizer UI
+            navView.inflateMenu(R.menu.bottom_nav_organizer_menu);
+            navController.setGraph(R.navigation.organizer_mobile_navigation);
+            setupNavController(navController, new AppBarConfiguration.Builder(
+                    R.id.navigation_organizer_events, R.id.navigation_notifications, R.id.navigation_profile).build());
+        } else if ("admin".equals(role)) {
+            // Admin UI
+            navView.inflateMenu(R.menu.bottom_nav_menu_admin);
+            navController.setGraph(R.navigation.admin_mobile_navigation);
+            // Finish deletions that were interrupted on this or another device
+            CascadeDeleteWorker.resumePending(this);
+            // Index users and events saved before admin search used tokens
+            SearchBackfillWorker.enqueue(this);
+            // Fold raw notification logs into the daily totals the log screen reads
+            NotificationLogRollupWorker.schedule(this);
+            setupNavController(navController, new AppBarConfiguration.Builder(
+                    R.id.navigation_events, R.id.navigation_profiles, R.id.navigation_notifications, R.id.navigation_images).build());
+        } else {
+            // Entrant and guest UI
             navView.inflateMenu(R.menu.bottom_nav_menu);
             navController.setGraph(R.navigation.mobile_navigation);
-            navView.getMenu().findItem(R.id.navigation_profile).setVisible(true);
+            if (ROLE_GUEST.equals(role)) {
+                navView.getMenu().findItem(R.id.navigation_profile).setVisible(true);
+            }
             setupNavController(navController, new AppBarConfiguration.Builder(
                     R.id.navigation_home, R.id.navigation_notifications, R.id.navigation_profile).build());
+            if (!ROLE_GUEST.equals(role)) showUnreadBadge(navView);
         }
+
+        // The start destination's view exists after the next layout pass
+        binding.getRoot().post(() -> {
+            StartupTrace.markInteractive(role, roleSource);
+            reportFullyDrawn();
+        });
+    }
+
+    /**
+     * Shows the signed-in user's unread count on the notifications tab and
+     * schedules the daily inbox compaction.
+     *
+     * @param navView Bottom navigation holding the notifications tab.
+     */
+    private void showUnreadBadge(BottomNavigationView navView) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+
+        InboxCompactionWorker.schedule(this);
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        ListenerRegistry.getInstance().listen(this, InstrumentedFirestore.forCaller("MainActivity"),
+                NotificationInbox.stateRef(db, user.getUid()), (snap, e) -> {
+                    if (e != null || snap == null) return;
+                    long unread = NotificationInbox.unreadOf(snap);
+                    if (unread > 0) {
+                        BadgeDrawable badge = navView.getOrCreateBadge(R.id.navigation_notifications);
+                        badge.setNumber((int) Math.min(unread, Integer.MAX_VALUE));
+                        badge.setVisible(true);
+                    } else {
+                        navView.removeBadge(R.id.navigation_notifications);
+                    }
+                });
     }
 
     /**
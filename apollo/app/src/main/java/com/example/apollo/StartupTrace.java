@@ -0,0 +1,85 @@
+package com.example.apollo;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+
+/**
+ * StartupTrace.java
+ *
+ * Purpose:
+ * Measures how long a cold start takes for each role:
+ * - time to first frame: process start until MainActivity first draws
+ * - time to interactive: process start until the role's start destination
+ *   is shown and usable
+ *
+ * Design:
+ * Process-wide, one trace per process. Times are taken from
+ * {@link Process#getStartElapsedRealtime()}, so they include application
+ * and activity creation. Results are logged under the "StartupTrace" tag,
+ * together with where the role came from (local cache or network).
+ *
+ * Notes:
+ * Only the first MainActivity of a process is measured; later launches
+ * are warm starts and would skew the numbers.
+ */
+public final class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    private static boolean firstFrameMarked = false;
+    private static boolean interactiveMarked = false;
+    private static long firstFrameMs = -1;
+
+    private StartupTrace() {}
+
+    /** @return Milliseconds since the process was started. */
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+
+    /**
+     * Records the first frame of the given view hierarchy.
+     *
+     * @param root Root view of the first activity.
+     */
+    public static void watchFirstFrame(@NonNull View root) {
+        if (firstFrameMarked) return;
+
+        ViewTreeObserver observer = root.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (root.getViewTreeObserver().isAlive()) {
+                    root.getViewTreeObserver().removeOnPreDrawListener(this);
+                }
+                if (!firstFrameMarked) {
+                    firstFrameMarked = true;
+                    firstFrameMs = sinceProcessStart();
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Records that the start destination for a role is shown and logs the
+     * startup timings once per process.
+     *
+     * @param role       Role whose graph was shown ("guest", "entrant", ...).
+     * @param roleSource Where the role came from ("cache", "network", "none").
+     */
+    public static void markInteractive(@NonNull String role, @NonNull String roleSource) {
+        if (interactiveMarked) return;
+        interactiveMarked = true;
+
+        Log.i(TAG, "role=" + role
+                + " source=" + roleSource
+                + " firstFrame=" + firstFrameMs + "ms"
+                + " interactive=" + sinceProcessStart() + "ms");
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.storage.FirebaseStorage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CascadeDeleteWorker.java
+ *
+ * Purpose:
+ * Runs {@link CascadeDeleter} for one event or user in the background, so a
+ * large deletion finishes even if the admin leaves the screen or the app is
+ * killed half way.
+ *
+ * Design:
+ * - Enqueued as unique work per target; deleting the same target twice
+ *   keeps the run that is already scheduled.
+ * - Requires a network connection and retries with exponential backoff.
+ *   Each retry resumes from the target's tombstone.
+ * - Publishes progress (phase, phases done/total, documents deleted) through
+ *   WorkManager, so a screen can observe it by the unique work name.
+ *
+ * Notes:
+ * - {@link #resumePending} re-enqueues tombstones that are still running,
+ *   e.g. deletions started on another device.
+ */
+public class CascadeDeleteWorker extends Worker {
+
+    private static final String TAG = "CascadeDeleteWorker";
+
+    static final String KEY_KIND = "kind";
+    static final String KEY_ID = "id";
+    static final String KEY_POSTER_URL = "posterUrl";
+
+    public static final String PROGRESS_PHASE = "phase";
+    public static final String PROGRESS_PHASES_DONE = "phasesDone";
+    public static final String PROGRESS_PHASES_TOTAL = "phasesTotal";
+    public static final String PROGRESS_DOCS_DELETED = "docsDeleted";
+
+    public CascadeDeleteWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * @param target Target being deleted.
+     * @return Unique work name of its deletion.
+     */
+    @NonNull
+    public static String workName(@NonNull CascadeDeleter.Target target) {
+        return "cascade-delete-" + target.key();
+    }
+
+    /**
+     * Schedules the deletion of a target and everything that refers to it.
+     *
+     * @param context Any context.
+     * @param target  What to delete.
+     */
+    public static void enqueue(@NonNull Context context, @NonNull CascadeDeleter.Target target) {
+        Data.Builder input = new Data.Builder()
+                .putString(KEY_KIND, target.kind.name())
+                .putString(KEY_ID, target.id);
+        if (target.posterUrl != null) input.putString(KEY_POSTER_URL, target.posterUrl);
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(CascadeDeleteWorker.class)
+                .setInputData(input.build())
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(workName(target), ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Enqueues every deletion whose tombstone is still running.
+     *
+     * @param context Any context.
+     */
+    public static void resumePending(@NonNull Context context) {
+        Context app = context.getApplicationContext();
+        FirebaseFirestore.getInstance()
+                .collection(CascadeDeleter.TOMBSTONES)
+                .whereEqualTo("status", CascadeDeleter.STATUS_RUNNING)
+                .get()
+                .addOnSuccessListener(snap -> {
+                    for (DocumentSnapshot tomb : snap.getDocuments()) {
+                        String kind = tomb.getString("kind");
+                        String id = tomb.getString("targetId");
+                        if (kind == null || id == null) continue;
+
+                        CascadeDeleter.Target target = CascadeDeleter.Kind.EVENT.name().equals(kind)
+                                ? CascadeDeleter.Target.event(id, tomb.getString("posterUrl"))
+                                : CascadeDeleter.Target.user(id);
+                        enqueue(app, target);
+                    }
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Could not look for pending deletions", e));
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String kind = getInputData().getString(KEY_KIND);
+        String id = getInputData().getString(KEY_ID);
+        if (kind == null || id == null || id.isEmpty()) return Result.failure();
+
+        CascadeDeleter.Target target = CascadeDeleter.Kind.EVENT.name().equals(kind)
+                ? CascadeDeleter.Target.event(id, getInputData().getString(KEY_POSTER_URL))
+                : CascadeDeleter.Target.user(id);
+
+        try {
+            CascadeDeleter.Result result = new CascadeDeleter(
+                    FirebaseFirestore.getInstance(), FirebaseStorage.getInstance())
+                    .run(target, (phase, phasesDone, phasesTotal, docsDeleted) ->
+                            setProgressAsync(new Data.Builder()
+                                    .putString(PROGRESS_PHASE, phase)
+                                    .putInt(PROGRESS_PHASES_DONE, phasesDone)
+                                    .putInt(PROGRESS_PHASES_TOTAL, phasesTotal)
+                                    .putLong(PROGRESS_DOCS_DELETED, docsDeleted)
+                                    .build()));
+            Log.d(TAG, "Deleted " + target.key() + ": " + result.docsDeleted + " documents");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Deleting " + target.key() + " failed, will resume", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.example.apollo.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CascadeDeleter.java
+ *
+ * Purpose:
+ * Deletes an event or a user account together with everything that refers
+ * to it, so no orphaned documents are left to inflate later scans.
+ *
+ * An event takes with it:
+ * - its waitlist, invites, registrations, cancellations, lotteryResults,
+ *   lotteryAudit, locations, waitlistSlots and lotteryPlan subcollections
+ * - the invitees' membership entries for the event
+ * - every user notification and notification log about the event
+ * - its poster in Storage
+ *
+ * A user account takes with it:
+ * - its waitlist, invite, registration and cancellation entries in every
+ *   event, found by collection group queries on "uid", adjusting the
+ *   event's counters and slot shards as it goes
+ * - its memberships and notifications subcollections
+ * - the notification logs addressed to it
+ *
+ * Design:
+ * - Work is split into phases (one per subcollection or query). Each phase
+ *   deletes in pages of at most {@link #PAGE_SIZE} documents, one batch per
+ *   page; phases with related writes (counters, shards, memberships) use
+ *   smaller pages so a page's deletes and related writes always fit in one
+ *   batch. At most {@link #MAX_PARALLEL} phases run at the same time. The
+ *   Storage object and the target document itself are deleted last.
+ * - Resumable: a tombstone document, deletions/{kind}_{id}, records the
+ *   finished phases and the number of documents deleted so far. Each page's
+ *   count is written in the same batch as its deletes. A run that fails or
+ *   is killed picks up from the tombstone the next time; a finished
+ *   tombstone is kept (status "done") so repeated requests do nothing.
+ *
+ * Notes:
+ * - Blocks on Firestore tasks; call {@link #run} from a background thread
+ *   ({@link CascadeDeleteWorker}) or use {@link #runAsync}.
+ * - Pages are read from the server so a page is never served from a cache
+ *   that still holds documents deleted a moment ago.
+ * - The notifications phase of an event uses a collection group query on
+ *   eventId, and a user's entry phases query on uid; both need collection
+ *   group indexes on those fields.
+ * - Entries written before they carried a "uid" field are not found by
+ *   the entry phases; a lottery run adds the field to every waitlist entry.
+ */
+public class CascadeDeleter {
+
+    private static final String TAG = "CascadeDeleter";
+
+    /** Collection holding one tombstone per deletion. */
+    public static final String TOMBSTONES = "deletions";
+
+    static final String STATUS_RUNNING = "running";
+    static final String STATUS_DONE = "done";
+
+    /** Most documents deleted per page (and per batch). */
+    static final int PAGE_SIZE = 200;
+
+    /** Writes in one page's batch, under Firestore's limit of 500. */
+    static final int MAX_BATCH_WRITES = ChunkedBatchWriter.MAX_OPS_PER_BATCH;
+
+    /** Event subcollections holding one entry per user, found by their "uid" field. */
+    static final List<String> ENTRY_COLLECTIONS = Arrays.asList(
+            "waitlist", "invites", "registrations", "cancellations");
+
+    /** Phases that run at the same time. */
+    static final int MAX_PARALLEL = 3;
+
+    /** Event subcollections, each deleted as its own phase. */
+    static final List<String> EVENT_SUBCOLLECTIONS = Arrays.asList(
+            "waitlist", "invites", "registrations", "cancellations",
+            "lotteryResults", "lotteryAudit", "locations", "waitlistSlots", "lotteryPlan");
+
+    private static final String PHASE_POSTER = "poster";
+    private static final String PHASE_ROOT = "root";
+
+    /** Runs {@link #runAsync} deletions one after another. */
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /** What is being deleted. */
+    public enum Kind { EVENT, USER }
+
+    /**
+     * A document to delete along with everything that refers to it.
+     */
+    public static final class Target {
+        public final Kind kind;
+        public final String id;
+        /** Poster download URL of an event, if already known. */
+        @Nullable
+        public final String posterUrl;
+
+        private Target(Kind kind, String id, @Nullable String posterUrl) {
+            this.kind = kind;
+            this.id = id;
+            this.posterUrl = posterUrl;
+        }
+
+        /**
+         * @param eventId   Event to delete.
+         * @param posterUrl Its poster URL, or null to read it from the event
+         *                  (needed when the event document is already gone).
+         */
+        public static Target event(@NonNull String eventId, @Nullable String posterUrl) {
+            return new Target(Kind.EVENT, eventId, posterUrl);
+        }
+
+        /** @param uid User whose account data should be deleted. */
+        public static Target user(@NonNull String uid) {
+            return new Target(Kind.USER, uid, null);
+        }
+
+        /** @return ID of this target's tombstone, e.g. "event_abc123". */
+        @NonNull
+        public String key() {
+            return kind.name().toLowerCase(Locale.US) + "_" + id;
+        }
+    }
+
+    /**
+     * Receives progress after every page and phase. Called on the deleting
+     * thread, which is never the main thread.
+     */
+    public interface ProgressListener {
+        void onProgress(@NonNull String phase, int phasesDone, int phasesTotal, long docsDeleted);
+    }
+
+    /**
+     * Result of one run.
+     */
+    public static class Result {
+        /** Documents deleted by this run. */
+        public final long docsDeleted;
+        /** True if the tombstone said the deletion had already finished. */
+        public final boolean alreadyDone;
+
+        Result(long docsDeleted, boolean alreadyDone) {
+            this.docsDeleted = docsDeleted;
+            this.alreadyDone = alreadyDone;
+        }
+    }
+
+    /** One unit of resumable work; returns the number of documents it deleted. */
+    private interface Phase {
+        long run(Reporter reporter) throws Exception;
+    }
+
+    /** Reports documents deleted as a phase goes along. */
+    private interface Reporter {
+        void report(String phase, long docs);
+    }
+
+    /** Extra deletes that go into the same batch as a deleted document. */
+    private interface Related {
+        void add(DocumentSnapshot doc, WriteBatch w);
+    }
+
+    private final FirebaseFirestore db;
+    private final FirebaseStorage storage;
+
+    public CascadeDeleter(@NonNull FirebaseFirestore db, @NonNull FirebaseStorage storage) {
+        this.db = db;
+        this.storage = storage;
+    }
+
+    /**
+     * Runs {@link #run} on a background thread.
+     *
+     * @param target   What to delete.
+     * @param progress Optional progress listener.
+     * @return Task with the result of the run.
+     */
+    public Task<Result> runAsync(@NonNull Target target, @Nullable ProgressListener progress) {
+        TaskCompletionSource<Result> source = new TaskCompletionSource<>();
+        EXECUTOR.execute(() -> {
+            try {
+                source.setResult(run(target, progress));
+            } catch (Exception e) {
+                Log.e(TAG, "Deleting " + target.key() + " failed", e);
+                source.setException(e);
+            }
+        });
+        return source.getTask();
+    }
+
+    /**
+     * Deletes the target and everything that refers to it, resuming from its
+     * tombstone if an earlier run did not finish. Blocks until done.
+     *
+     * @param target   What to delete.
+     * @param progress Optional progress listener.
+     * @return Result of this run.
+     * @throws Exception If any phase fails; finished phases are kept.
+     */
+    public Result run(@NonNull Target target, @Nullable ProgressListener progress) throws Exception {
+        DocumentReference tombRef = db.collection(TOMBSTONES).document(target.key());
+        DocumentSnapshot tomb = Tasks.await(tombRef.get(Source.SERVER));
+        if (tomb.exists() && STATUS_DONE.equals(tomb.getString("status"))) {
+            return new Result(0, true);
+        }
+
+        Set<String> done = new HashSet<>();
+        String posterUrl = target.posterUrl;
+        if (tomb.exists()) {
+            Object finished = tomb.get("phasesDone");
+            if (finished instanceof List) {
+                for (Object phase : (List<?>) finished) done.add(String.valueOf(phase));
+            }
+            if (posterUrl == null) posterUrl = tomb.getString("posterUrl");
+        } else {
+            if (target.kind == Kind.EVENT && posterUrl == null) {
+                DocumentSnapshot event = Tasks.await(rootRef(target).get());
+                if (event.exists()) posterUrl = event.getString("eventPosterUrl");
+            }
+            Map<String, Object> data = new HashMap<>();
+            data.put("kind", target.kind.name());
+            data.put("targetId", target.id);
+            data.put("status", STATUS_RUNNING);
+            data.put("phasesDone", new ArrayList<String>());
+            data.put("docsDeleted", 0);
+            data.put("posterUrl", posterUrl);
+            data.put("createdAt", FieldValue.serverTimestamp());
+            Tasks.await(tombRef.set(data));
+        }
+
+        Map<String, Phase> phases = target.kind == Kind.EVENT
+                ? eventPhases(target.id, tombRef)
+                : userPhases(target.id, tombRef);
+        Map<String, Phase> finalPhases = new LinkedHashMap<>();
+        if (target.kind == Kind.EVENT) {
+            String url = posterUrl;
+            finalPhases.put(PHASE_POSTER, r -> deletePoster(url, tombRef, r));
+        }
+        finalPhases.put(PHASE_ROOT, r -> deleteRoot(target, tombRef, r));
+
+        int total = phases.size() + finalPhases.size();
+        AtomicInteger phasesDone = new AtomicInteger(0);
+        AtomicLong deleted = new AtomicLong(0);
+        Reporter reporter = (phase, docs) -> {
+            long sum = deleted.addAndGet(docs);
+            if (progress != null) progress.onProgress(phase, phasesDone.get(), total, sum);
+        };
+
+        runParallel(phases, done, tombRef, phasesDone, reporter);
+        for (Map.Entry<String, Phase> phase : finalPhases.entrySet()) {
+            runPhase(phase.getKey(), phase.getValue(), done, tombRef, phasesDone, reporter);
+        }
+
+        Map<String, Object> finish = new HashMap<>();
+        finish.put("status", STATUS_DONE);
+        finish.put("finishedAt", FieldValue.serverTimestamp());
+        Tasks.await(tombRef.set(finish, SetOptions.merge()));
+
+        Log.d(TAG, "Deleted " + target.key() + ": " + deleted.get() + " documents");
+        return new Result(deleted.get(), false);
+    }
+
+    // ---------------------------------------------------------------------
+    // Phases
+    // ---------------------------------------------------------------------
+
+    private Map<String, Phase> eventPhases(String eventId, DocumentReference tombRef) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        Map<String, Phase> phases = new LinkedHashMap<>();
+
+        for (String sub : EVENT_SUBCOLLECTIONS) {
+            // Invite doc IDs are user IDs; the invitee's membership entry goes with the invite
+            Related related = "invites".equals(sub)
+                    ? (doc, w) -> w.delete(db.collection("users").document(doc.getId())
+                            .collection("memberships").document(eventId))
+                    : null;
+            phases.put(sub, r -> deletePages(sub, eventRef.collection(sub), related, tombRef, r));
+        }
+        // Unread notifications leave their owner's unread counter in the same batch
+        Related unread = (doc, w) -> {
+            DocumentReference owner = doc.getReference().getParent().getParent();
+            if (owner != null && Boolean.FALSE.equals(doc.getBoolean("read"))) {
+                w.set(NotificationInbox.stateRef(db, owner.getId()),
+                        NotificationInbox.unreadDelta(-1), SetOptions.merge());
+            }
+        };
+        phases.put("notifications", r -> deletePages("notifications",
+                db.collectionGroup("notifications").whereEqualTo("eventId", eventId), unread, tombRef, r));
+        phases.put("notification_logs", r -> deletePages("notification_logs",
+                db.collection("notification_logs").whereEqualTo("eventId", eventId), null, tombRef, r));
+        phases.put("notification_log_rollups", r -> deletePages("notification_log_rollups",
+                NotificationLogs.rollups(db).whereEqualTo("eventId", eventId), null, tombRef, r));
+        return phases;
+    }
+
+    private Map<String, Phase> userPhases(String uid, DocumentReference tombRef) {
+        DocumentReference userRef = db.collection("users").document(uid);
+        Map<String, Phase> phases = new LinkedHashMap<>();
+
+        for (String sub : ENTRY_COLLECTIONS) {
+            String name = sub + "Entries";
+            phases.put(name, r -> deletePages(name, db.collectionGroup(sub).whereEqualTo("uid", uid),
+                    entryRelated(sub), "waitlist".equals(sub) ? 4 : 2, tombRef, r));
+        }
+        phases.put("memberships", r -> deletePages("memberships",
+                userRef.collection("memberships"), null, tombRef, r));
+        // No unread counter updates: the inbox phase deletes the counter itself,
+        // so it does not matter which of the two runs first
+        phases.put("notifications", r -> deletePages("notifications",
+                userRef.collection("notifications"), null, tombRef, r));
+        phases.put("notificationArchive", r -> deletePages("notificationArchive",
+                userRef.collection("notificationArchive"), null, tombRef, r));
+        phases.put("inbox", r -> deletePages("inbox",
+                userRef.collection("inbox"), null, tombRef, r));
+        phases.put("notification_logs", r -> deletePages("notification_logs",
+                db.collection("notification_logs").whereEqualTo("recipientId", uid), null, tombRef, r));
+        return phases;
+    }
+
+    private DocumentReference rootRef(Target target) {
+        return db.collection(target.kind == Kind.EVENT ? "events" : "users").document(target.id);
+    }
+
+    // ---------------------------------------------------------------------
+    // Running phases
+    // ---------------------------------------------------------------------
+
+    private void runParallel(Map<String, Phase> phases, Set<String> done, DocumentReference tombRef,
+                             AtomicInteger phasesDone, Reporter reporter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(MAX_PARALLEL);
+        try {
+            List<Future<Void>> running = new ArrayList<>();
+            for (Map.Entry<String, Phase> phase : phases.entrySet()) {
+                running.add(pool.submit(() -> {
+                    runPhase(phase.getKey(), phase.getValue(), done, tombRef, phasesDone, reporter);
+                    return null;
+                }));
+            }
+
+            Exception failure = null;
+            for (Future<Void> f : running) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) throw failure;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void runPhase(String name, Phase phase, Set<String> done, DocumentReference tombRef,
+                          AtomicInteger phasesDone, Reporter reporter) throws Exception {
+        if (done.contains(name)) {
+            phasesDone.incrementAndGet();
+            reporter.report(name, 0);
+            return;
+        }
+
+        long deleted = phase.run(reporter);
+        Map<String, Object> update = new HashMap<>();
+        update.put("phasesDone", FieldValue.arrayUnion(name));
+        update.put("updatedAt", FieldValue.serverTimestamp());
+        Tasks.await(tombRef.set(update, SetOptions.merge()));
+
+        phasesDone.incrementAndGet();
+        reporter.report(name, 0);
+        Log.d(TAG, "Phase " + name + " done (" + deleted + ")");
+    }
+
+    /**
+     * Deletes every document a query matches, one page per batch, with at
+     * most one related write per document.
+     */
+    private long deletePages(String phase, Query query, @Nullable Related related,
+                             DocumentReference tombRef, Reporter reporter) throws Exception {
+        return deletePages(phase, query, related, related == null ? 1 : 2, tombRef, reporter);
+    }
+
+    /**
+     * Deletes every document a query matches, one page per batch. Pages are
+     * sized so every document's writes and the tombstone's document count,
+     * which is updated in the same batch, fit in that one batch.
+     *
+     * @param writesPerDoc Most writes one document adds, its own delete included.
+     */
+    private long deletePages(String phase, Query query, @Nullable Related related, int writesPerDoc,
+                             DocumentReference tombRef, Reporter reporter) throws Exception {
+        int pageSize = Math.min(PAGE_SIZE, (MAX_BATCH_WRITES - 1) / writesPerDoc);
+        long deleted = 0;
+        while (true) {
+            QuerySnapshot page = Tasks.await(query.limit(pageSize).get(Source.SERVER));
+            if (page.isEmpty()) return deleted;
+
+            WriteBatch w = db.batch();
+            for (DocumentSnapshot doc : page.getDocuments()) {
+                w.delete(doc.getReference());
+                if (related != null) related.add(doc, w);
+            }
+            long pageDeleted = page.size();
+            w.set(tombRef, countUpdate(pageDeleted), SetOptions.merge());
+            Tasks.await(w.commit());
+
+            deleted += pageDeleted;
+            reporter.report(phase, pageDeleted);
+            if (page.size() < pageSize) return deleted;
+        }
+    }
+
+    /**
+     * Counter updates for one of a user's entries in an event, added to the
+     * batch that deletes the entry. Waitlist entries also release their
+     * location and slot shard (up to 4 writes per entry; others up to 2).
+     *
+     * @param sub One of {@link #ENTRY_COLLECTIONS}.
+     */
+    private Related entryRelated(String sub) {
+        return (doc, w) -> {
+            // events/{eventId}/{sub}/{uid}
+            DocumentReference ev = doc.getReference().getParent().getParent();
+            if (ev == null) return;
+
+            Map<String, Object> counters = new HashMap<>();
+            switch (sub) {
+                case "waitlist":
+                    w.delete(ev.collection("locations").document(doc.getId()));
+                    counters.put("waitlistCount", FieldValue.increment(-1));
+                    Long shard = doc.getLong("slotShard");
+                    if (shard != null) {
+                        Map<String, Object> release = new HashMap<>();
+                        release.put("count", FieldValue.increment(-1));
+                        w.set(ev.collection("waitlistSlots").document(String.valueOf(shard)),
+                                release, SetOptions.merge());
+                    }
+                    break;
+                case "invites":
+                    String status = doc.getString("status");
+                    if (status == null || "invited".equals(status)) {
+                        counters.put("invitedCount", FieldValue.increment(-1));
+                    }
+                    break;
+                case "registrations":
+                    counters.put("registeredCount", FieldValue.increment(-1));
+                    break;
+                case "cancellations":
+                    counters.put("cancelledCount", FieldValue.increment(-1));
+                    break;
+                default:
+                    break;
+            }
+            if (!counters.isEmpty()) w.set(ev, counters, SetOptions.merge());
+        };
+    }
+
+    /** Deletes the target document, counting it in the same batch. */
+    private long deleteRoot(Target target, DocumentReference tombRef, Reporter reporter)
+            throws Exception {
+        ChunkedBatchWriter w = new ChunkedBatchWriter(db);
+        w.delete(rootRef(target));
+        w.set(tombRef, countUpdate(1), SetOptions.merge());
+        Tasks.await(w.commit());
+        reporter.report(PHASE_ROOT, 1);
+        return 1;
+    }
+
+    /** Deletes an event poster from Storage; a missing object counts as deleted. */
+    private long deletePoster(@Nullable String url, DocumentReference tombRef, Reporter reporter)
+            throws Exception {
+        if (url == null || url.isEmpty()) return 0;
+        try {
+            Tasks.await(storage.getReferenceFromUrl(url).delete());
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Poster is not in Firebase Storage, skipping: " + url);
+            return 0;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException
+                    && ((StorageException) e.getCause()).getErrorCode()
+                    == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                return 0;
+            }
+            throw e;
+        }
+        Tasks.await(tombRef.set(countUpdate(1), SetOptions.merge()));
+        reporter.report(PHASE_POSTER, 1);
+        return 1;
+    }
+
+    private static Map<String, Object> countUpdate(long deleted) {
+        Map<String, Object> count = new HashMap<>();
+        count.put("docsDeleted", FieldValue.increment(deleted));
+        count.put("updatedAt", FieldValue.serverTimestamp());
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.apollo.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ChunkedBatchWriter.java
+ *
+ * Purpose:
+ * Collects any number of Firestore writes and commits them as several
+ * {@link WriteBatch}es, since a single batch is limited to 500 operations.
+ * A lottery over a few hundred entrants easily writes thousands of documents
+ * (results, invites, notifications, logs), which would fail as one batch.
+ *
+ * Notes:
+ * - Each chunk is atomic on its own, but the chunks are not atomic together.
+ *   Callers that need all-or-nothing semantics for a small set of writes
+ *   should use a transaction instead.
+ * - Chunks are committed in parallel; {@link #commit()} fails if any chunk fails.
+ * - {@link #group} keeps a few related operations in the same chunk.
+ * - {@link #commit(InstrumentedFirestore)} charges each chunk's writes to
+ *   the wrapper's caller.
+ */
+public class ChunkedBatchWriter {
+
+    /** Operations per batch, kept under Firestore's limit of 500. */
+    public static final int MAX_OPS_PER_BATCH = 450;
+
+    private final FirebaseFirestore db;
+    private final List<WriteBatch> batches = new ArrayList<>();
+    private final List<Integer> opsPerBatch = new ArrayList<>();
+    private WriteBatch current;
+    private int opsInCurrent = 0;
+    private int totalOps = 0;
+
+    public ChunkedBatchWriter(@NonNull FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public ChunkedBatchWriter set(@NonNull DocumentReference ref, @NonNull Map<String, Object> data) {
+        next().set(ref, data);
+        return this;
+    }
+
+    public ChunkedBatchWriter set(@NonNull DocumentReference ref, @NonNull Map<String, Object> data,
+                                  @NonNull SetOptions options) {
+        next().set(ref, data, options);
+        return this;
+    }
+
+    public ChunkedBatchWriter update(@NonNull DocumentReference ref, @NonNull Map<String, Object> data) {
+        next().update(ref, data);
+        return this;
+    }
+
+    public ChunkedBatchWriter delete(@NonNull DocumentReference ref) {
+        next().delete(ref);
+        return this;
+    }
+
+    /**
+     * Keeps the next {@code ops} operations in one chunk, starting a new one
+     * if they do not fit in the current chunk, so they are committed
+     * together or not at all.
+     *
+     * @param ops Operations that must stay together; at most {@link #MAX_OPS_PER_BATCH}.
+     * @return This writer.
+     */
+    public ChunkedBatchWriter group(int ops) {
+        if (current != null && opsInCurrent + ops > MAX_OPS_PER_BATCH) current = null;
+        return this;
+    }
+
+    /** @return Number of operations queued so far. */
+    public int size() {
+        return totalOps;
+    }
+
+    /**
+     * Commits every chunk.
+     *
+     * @return Task that succeeds once all chunks are committed.
+     */
+    public Task<Void> commit() {
+        return commit(null);
+    }
+
+    /**
+     * Commits every chunk, recording the writes through {@code fs}.
+     *
+     * @param fs Wrapper to account the commits in, or null to commit directly.
+     * @return Task that succeeds once all chunks are committed.
+     */
+    public Task<Void> commit(@Nullable InstrumentedFirestore fs) {
+        List<Task<Void>> commits = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            WriteBatch batch = batches.get(i);
+            commits.add(fs != null ? fs.commit(batch, opsPerBatch.get(i)) : batch.commit());
+        }
+        batches.clear();
+        opsPerBatch.clear();
+        current = null;
+        opsInCurrent = 0;
+        return Tasks.whenAll(commits);
+    }
+
+    private WriteBatch next() {
+        if (current == null || opsInCurrent >= MAX_OPS_PER_BATCH) {
+            current = db.batch();
+            batches.add(current);
+            opsPerBatch.add(0);
+            opsInCurrent = 0;
+        }
+        opsInCurrent++;
+        opsPerBatch.set(batches.size() - 1, opsInCurrent);
+        totalOps++;
+        return current;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.apollo.data;
+
+import android.content.pm.ApplicationInfo;
+import android.graphics.Color;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * FirestoreDebugOverlay.java
+ *
+ * Purpose:
+ * Small text overlay, shown only in debuggable builds, with the Firestore
+ * cost of the current screen: reads this visit against the read budget,
+ * cached reads, writes, active listeners, bytes and latency, plus the
+ * shared listeners held by {@link ListenerRegistry}.
+ *
+ * Design:
+ * A TextView added on top of the activity's content view. It listens to
+ * {@link FirestoreMetrics} and redraws at most once per frame. The
+ * background turns red while the screen is over its read budget.
+ * Tapping the overlay switches between the current screen and all screens.
+ */
+public final class FirestoreDebugOverlay {
+
+    private static final int COLOR_OK = 0xB0000000;
+    private static final int COLOR_OVER_BUDGET = 0xD0B00020;
+
+    private FirestoreDebugOverlay() {}
+
+    /**
+     * Adds the overlay to an activity if the app is debuggable. It is removed
+     * together with the activity.
+     *
+     * @param activity Activity to draw over.
+     */
+    public static void attach(@NonNull AppCompatActivity activity) {
+        boolean debuggable =
+                (activity.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (!debuggable) return;
+
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        if (content == null) return;
+
+        TextView view = new TextView(activity);
+        view.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10);
+        view.setTextColor(Color.WHITE);
+        view.setBackgroundColor(COLOR_OK);
+        int pad = (int) TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_DIP, 4, activity.getResources().getDisplayMetrics());
+        view.setPadding(pad, pad, pad, pad);
+
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.TOP | Gravity.END);
+        content.addView(view, params);
+
+        boolean[] showAll = {false};
+        boolean[] pending = {false};
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+
+        Runnable render = () -> {
+            pending[0] = false;
+            render(view, metrics, showAll[0]);
+        };
+        FirestoreMetrics.Listener listener = () -> {
+            if (pending[0]) return;
+            pending[0] = true;
+            view.post(render);
+        };
+
+        view.setOnClickListener(v -> {
+            showAll[0] = !showAll[0];
+            render(view, metrics, showAll[0]);
+        });
+
+        metrics.addListener(listener);
+        render(view, metrics, false);
+
+        activity.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner owner) {
+                metrics.removeListener(listener);
+                view.removeCallbacks(render);
+            }
+        });
+    }
+
+    private static void render(TextView view, FirestoreMetrics metrics, boolean showAll) {
+        String current = metrics.getCurrentScreen();
+        StringBuilder text = new StringBuilder();
+        boolean overBudget = false;
+
+        for (FirestoreMetrics.ScreenStats s : metrics.all()) {
+            boolean isCurrent = s.screen.equals(current);
+            if (!showAll && !isCurrent) continue;
+            if (text.length() > 0) text.append('\n');
+            text.append(metrics.summary(s.screen));
+            if (isCurrent && s.overBudget) overBudget = true;
+        }
+        if (text.length() == 0) text.append("Firestore: no calls yet");
+        text.append('\n').append(ListenerRegistry.getInstance().summary());
+
+        view.setText(text);
+        view.setBackgroundColor(overBudget ? COLOR_OVER_BUDGET : COLOR_OK);
+    }
+}
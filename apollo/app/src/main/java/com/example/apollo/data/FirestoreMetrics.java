@@ -0,0 +1,317 @@
+package com.example.apollo.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * FirestoreMetrics.java
+ *
+ * Purpose:
+ * Process-wide accounting of Firestore usage per screen: billed document
+ * reads, reads served from the local cache, writes, snapshot listeners,
+ * bytes received and call latency. Reads are also counted per visit (one
+ * opening of a screen) and checked against a read budget.
+ *
+ * Design Pattern:
+ * Singleton with a sliding latency window per screen, in the same style as
+ * {@link JoinMetrics}. {@link InstrumentedFirestore} records one sample per
+ * call; the debug overlay and the operation log read from here.
+ *
+ * Notes:
+ * - A screen goes over budget when the reads of its current visit exceed
+ *   {@link #getReadBudget}. This is logged once per visit as an error and
+ *   shown in red on the debug overlay.
+ * - Work that does not belong to an open screen is recorded under the
+ *   screen name it was tagged with (e.g. "EventRepo").
+ */
+public class FirestoreMetrics {
+
+    private static final String TAG = "FirestoreMetrics";
+
+    /** Number of recent calls per screen kept for percentile calculations. */
+    private static final int WINDOW = 64;
+
+    /** Reads allowed per visit for screens without their own budget. */
+    public static final int DEFAULT_READ_BUDGET = 200;
+
+    /**
+     * Notified after every recorded sample. Called on the thread that
+     * recorded it (normally the main thread).
+     */
+    public interface Listener {
+        void onMetricsChanged();
+    }
+
+    /**
+     * Counters for one screen. Returned as copies, so they can be read
+     * without holding the metrics lock.
+     */
+    public static final class ScreenStats {
+        public final String screen;
+        public long visits;
+        public long reads;
+        public long cacheReads;
+        public long writes;
+        public long bytes;
+        public long calls;
+        public long failures;
+        public long listenersAttached;
+        public long activeListeners;
+        public long visitReads;
+        public boolean overBudget;
+
+        private final long[] latenciesMs = new long[WINDOW];
+        private int count = 0;
+        private int next = 0;
+
+        ScreenStats(String screen) {
+            this.screen = screen;
+        }
+
+        private ScreenStats copy() {
+            ScreenStats c = new ScreenStats(screen);
+            c.visits = visits;
+            c.reads = reads;
+            c.cacheReads = cacheReads;
+            c.writes = writes;
+            c.bytes = bytes;
+            c.calls = calls;
+            c.failures = failures;
+            c.listenersAttached = listenersAttached;
+            c.activeListeners = activeListeners;
+            c.visitReads = visitReads;
+            c.overBudget = overBudget;
+            System.arraycopy(latenciesMs, 0, c.latenciesMs, 0, WINDOW);
+            c.count = count;
+            c.next = next;
+            return c;
+        }
+
+        private void addLatency(long ms) {
+            latenciesMs[next] = ms;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        /**
+         * @param percentile Value between 0 and 100.
+         * @return Call latency at that percentile over the window, or 0 if empty.
+         */
+        public long latencyPercentileMs(double percentile) {
+            if (count == 0) return 0;
+            long[] sorted = Arrays.copyOf(latenciesMs, count);
+            Arrays.sort(sorted);
+
+            // Nearest-rank method
+            int rank = (int) Math.ceil(percentile / 100.0 * count);
+            return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+        }
+    }
+
+    private static FirestoreMetrics instance;
+
+    private final Map<String, ScreenStats> screens = new LinkedHashMap<>();
+    private final Map<String, Integer> budgets = new HashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private String currentScreen;
+
+    private FirestoreMetrics() {}
+
+    /** @return The shared metrics instance. */
+    public static synchronized FirestoreMetrics getInstance() {
+        if (instance == null) instance = new FirestoreMetrics();
+        return instance;
+    }
+
+    private ScreenStats stats(String screen) {
+        ScreenStats s = screens.get(screen);
+        if (s == null) {
+            s = new ScreenStats(screen);
+            screens.put(screen, s);
+        }
+        return s;
+    }
+
+    /**
+     * Starts a new visit of a screen: resets its per-visit read count and
+     * makes it the current screen.
+     *
+     * @param screen Screen name.
+     */
+    public void beginVisit(@NonNull String screen) {
+        synchronized (this) {
+            ScreenStats s = stats(screen);
+            s.visits++;
+            s.visitReads = 0;
+            s.overBudget = false;
+            currentScreen = screen;
+        }
+        notifyListeners();
+    }
+
+    /** @return The screen that most recently began a visit, or null. */
+    @Nullable
+    public synchronized String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    /**
+     * Sets the number of billed reads one visit of a screen may cost.
+     *
+     * @param screen Screen name.
+     * @param reads  Allowed reads per visit.
+     */
+    public synchronized void setReadBudget(@NonNull String screen, int reads) {
+        budgets.put(screen, reads);
+    }
+
+    /**
+     * @param screen Screen name.
+     * @return Allowed reads per visit.
+     */
+    public synchronized int getReadBudget(@NonNull String screen) {
+        Integer budget = budgets.get(screen);
+        return budget != null ? budget : DEFAULT_READ_BUDGET;
+    }
+
+    /**
+     * Records a read call or a listener snapshot.
+     *
+     * @param screen     Screen the call was made for.
+     * @param reads      Billed document reads.
+     * @param cacheReads Documents served from the local cache (not billed).
+     * @param bytes      Estimated bytes received.
+     * @param latencyMs  Time until the result arrived; negative to skip
+     *                   (later listener snapshots).
+     * @param ok         False if the call failed.
+     */
+    public void recordRead(@NonNull String screen, long reads, long cacheReads, long bytes,
+                           long latencyMs, boolean ok) {
+        String overBudget = null;
+        synchronized (this) {
+            ScreenStats s = stats(screen);
+            s.calls++;
+            if (!ok) s.failures++;
+            s.reads += reads;
+            s.cacheReads += cacheReads;
+            s.bytes += bytes;
+            s.visitReads += reads;
+            if (latencyMs >= 0) s.addLatency(latencyMs);
+
+            int budget = getReadBudget(screen);
+            if (!s.overBudget && s.visitReads > budget) {
+                s.overBudget = true;
+                overBudget = screen + " is over its read budget: "
+                        + s.visitReads + " reads > " + budget + " in one visit";
+            }
+        }
+        if (overBudget != null) {
+            Log.e(TAG, overBudget);
+            FirestoreOpLog.budgetExceeded(screen, overBudget);
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Records a write call (set, update, delete, batch or transaction commit).
+     *
+     * @param screen    Screen the call was made for.
+     * @param writes    Documents written.
+     * @param latencyMs Time until the commit finished.
+     * @param ok        False if the call failed.
+     */
+    public void recordWrite(@NonNull String screen, long writes, long latencyMs, boolean ok) {
+        synchronized (this) {
+            ScreenStats s = stats(screen);
+            s.calls++;
+            if (!ok) s.failures++;
+            s.writes += writes;
+            s.addLatency(latencyMs);
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Records that a snapshot listener was attached or removed.
+     *
+     * @param screen   Screen the listener belongs to.
+     * @param attached True on attach, false on remove.
+     */
+    public void recordListener(@NonNull String screen, boolean attached) {
+        synchronized (this) {
+            ScreenStats s = stats(screen);
+            if (attached) {
+                s.listenersAttached++;
+                s.activeListeners++;
+            } else if (s.activeListeners > 0) {
+                s.activeListeners--;
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * @param screen Screen name.
+     * @return A copy of the screen's counters, or null if nothing was recorded.
+     */
+    @Nullable
+    public synchronized ScreenStats get(@NonNull String screen) {
+        ScreenStats s = screens.get(screen);
+        return s != null ? s.copy() : null;
+    }
+
+    /** @return Copies of the counters of every screen, in first-seen order. */
+    @NonNull
+    public synchronized List<ScreenStats> all() {
+        List<ScreenStats> out = new ArrayList<>(screens.size());
+        for (ScreenStats s : screens.values()) out.add(s.copy());
+        return out;
+    }
+
+    /**
+     * Builds a one-line summary suitable for logcat or the overlay.
+     *
+     * @param screen Screen name.
+     * @return Human readable summary of the screen's counters.
+     */
+    @NonNull
+    public String summary(@NonNull String screen) {
+        ScreenStats s = get(screen);
+        if (s == null) return screen + ": no calls";
+        return String.format(Locale.US,
+                "%s visit=%d/%d reads=%d cached=%d writes=%d listeners=%d/%d "
+                        + "bytes=%d failed=%d p50=%dms p90=%dms",
+                screen, s.visitReads, getReadBudget(screen), s.reads, s.cacheReads, s.writes,
+                s.activeListeners, s.listenersAttached, s.bytes, s.failures,
+                s.latencyPercentileMs(50), s.latencyPercentileMs(90));
+    }
+
+    /** @param listener Listener to add. */
+    public synchronized void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** @param listener Listener to remove. */
+    public synchronized void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners() {
+        List<Listener> copy;
+        synchronized (this) {
+            if (listeners.isEmpty()) return;
+            copy = new ArrayList<>(listeners);
+        }
+        for (Listener l : copy) l.onMetricsChanged();
+    }
+}
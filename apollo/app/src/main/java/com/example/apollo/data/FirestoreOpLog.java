@@ -0,0 +1,147 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * FirestoreOpLog.java
+ *
+ * Purpose:
+ * Structured log of every instrumented Firestore call, one JSON object per
+ * line in files/firestore_ops.jsonl, so read costs can be analysed off the
+ * device (adb pull) and compared between builds.
+ *
+ * Each line has: ts, screen, op, path, reads, cacheReads, writes, bytes,
+ * latencyMs and ok. Budget violations are logged as op "budget_exceeded".
+ *
+ * Design:
+ * - Only enabled in debuggable builds; {@link #init} is a no-op otherwise,
+ *   and every other method does nothing until it has been called.
+ * - Lines are appended on a single background thread.
+ * - The file is rotated to firestore_ops.1.jsonl once it passes
+ *   {@link #MAX_BYTES}, so it never grows without bound.
+ */
+public final class FirestoreOpLog {
+
+    private static final String TAG = "FirestoreOpLog";
+    private static final String FILE_NAME = "firestore_ops.jsonl";
+    private static final String ROTATED_NAME = "firestore_ops.1.jsonl";
+    private static final long MAX_BYTES = 1024 * 1024;
+
+    private static volatile File file;
+    private static ExecutorService executor;
+
+    private FirestoreOpLog() {}
+
+    /**
+     * Enables the log for debuggable builds. Safe to call more than once.
+     *
+     * @param context Any context.
+     */
+    public static synchronized void init(@NonNull Context context) {
+        if (file != null) return;
+        boolean debuggable =
+                (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (!debuggable) return;
+
+        executor = Executors.newSingleThreadExecutor();
+        file = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    /** @return The current log file, or null if the log is disabled. */
+    @Nullable
+    public static File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends one call.
+     *
+     * @param screen     Screen the call was made for.
+     * @param op         Operation ("get", "query", "listen", "set", "commit", ...).
+     * @param path       Document or collection path, if known.
+     * @param reads      Billed document reads.
+     * @param cacheReads Documents served from the local cache.
+     * @param writes     Documents written.
+     * @param bytes      Estimated bytes received.
+     * @param latencyMs  Call latency, or -1 if not applicable.
+     * @param ok         False if the call failed.
+     */
+    public static void record(@NonNull String screen, @NonNull String op, @Nullable String path,
+                              long reads, long cacheReads, long writes, long bytes,
+                              long latencyMs, boolean ok) {
+        if (file == null) return;
+        try {
+            JSONObject line = new JSONObject();
+            line.put("ts", System.currentTimeMillis());
+            line.put("screen", screen);
+            line.put("op", op);
+            line.put("path", path != null ? path : JSONObject.NULL);
+            line.put("reads", reads);
+            line.put("cacheReads", cacheReads);
+            line.put("writes", writes);
+            line.put("bytes", bytes);
+            line.put("latencyMs", latencyMs);
+            line.put("ok", ok);
+            append(line.toString());
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not encode log line", e);
+        }
+    }
+
+    /**
+     * Appends a budget violation.
+     *
+     * @param screen  Screen that went over its budget.
+     * @param message Description of the violation.
+     */
+    static void budgetExceeded(@NonNull String screen, @NonNull String message) {
+        if (file == null) return;
+        try {
+            JSONObject line = new JSONObject();
+            line.put("ts", System.currentTimeMillis());
+            line.put("screen", screen);
+            line.put("op", "budget_exceeded");
+            line.put("message", message);
+            append(line.toString());
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not encode log line", e);
+        }
+    }
+
+    private static void append(String line) {
+        File target = file;
+        executor.execute(() -> {
+            if (target.length() > MAX_BYTES) {
+                File rotated = new File(target.getParentFile(), ROTATED_NAME);
+                if (rotated.exists() && !rotated.delete()) {
+                    Log.w(TAG, "Could not delete " + rotated);
+                }
+                if (!target.renameTo(rotated)) Log.w(TAG, "Could not rotate " + target);
+            }
+            try (Writer out = new OutputStreamWriter(
+                    new FileOutputStream(target, true), StandardCharsets.UTF_8)) {
+                out.write(line);
+                out.write('\n');
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write " + target, e);
+            }
+        });
+    }
+}
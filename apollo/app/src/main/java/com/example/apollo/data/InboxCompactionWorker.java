@@ -0,0 +1,147 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InboxCompactionWorker.java
+ *
+ * Purpose:
+ * Keeps the signed-in user's inbox short: once a day, notifications older
+ * than {@link #ARCHIVE_AFTER_DAYS} move from users/{uid}/notifications to
+ * users/{uid}/notificationArchive, and the unread counter is recounted
+ * ({@link NotificationInbox#recount}) to correct any drift.
+ *
+ * Design:
+ * - Scans by createdAt, {@link #PAGE_SIZE} at a time. A page's copies,
+ *   deletes and the unread counter decrement for its unread notifications
+ *   fit in one batch, so a notification is never deleted without its
+ *   archived copy and the badge stops counting it at the same time.
+ * - Lottery invites that were never answered stay in the inbox, since the
+ *   accept / decline buttons live there.
+ */
+public class InboxCompactionWorker extends Worker {
+
+    private static final String TAG = "InboxCompactionWorker";
+
+    private static final String WORK_NAME = "inbox-compaction";
+
+    /** Age after which a notification is archived. */
+    static final int ARCHIVE_AFTER_DAYS = 30;
+
+    /** Notifications per page; two operations each, plus the counter, must fit in one batch. */
+    static final int PAGE_SIZE = 200;
+
+    public InboxCompactionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the daily compaction unless it is already scheduled.
+     *
+     * @param context Any context.
+     */
+    public static void schedule(@NonNull Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                InboxCompactionWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 1, TimeUnit.MINUTES)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return Result.success();
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        String uid = user.getUid();
+
+        try {
+            int archived = archiveOld(db, uid);
+            long unread = Tasks.await(NotificationInbox.recount(db, uid));
+            Log.d(TAG, "Archived " + archived + " notifications, " + unread + " unread");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Inbox compaction failed", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Moves every old notification except unanswered invites to the archive.
+     *
+     * @return Number of notifications archived.
+     */
+    private int archiveOld(FirebaseFirestore db, String uid) throws Exception {
+        Timestamp cutoff = new Timestamp(new Date(
+                System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ARCHIVE_AFTER_DAYS)));
+
+        int archived = 0;
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = NotificationInbox.notifications(db, uid)
+                    .whereLessThan("createdAt", cutoff)
+                    .orderBy("createdAt")
+                    .limit(PAGE_SIZE);
+            if (last != null) page = page.startAfter(last);
+            List<DocumentSnapshot> docs = Tasks.await(page.get()).getDocuments();
+            if (docs.isEmpty()) return archived;
+
+            ChunkedBatchWriter w = new ChunkedBatchWriter(db);
+            int unread = 0;
+            for (DocumentSnapshot doc : docs) {
+                if ("lottery_win".equals(doc.getString("type")) && doc.getString("status") == null) continue;
+                if (doc.getData() == null) continue;
+
+                Map<String, Object> copy = new HashMap<>(doc.getData());
+                copy.put("archivedAt", FieldValue.serverTimestamp());
+                w.set(NotificationInbox.archive(db, uid).document(doc.getId()), copy);
+                w.delete(doc.getReference());
+                if (Boolean.FALSE.equals(doc.getBoolean("read"))) unread++;
+                archived++;
+            }
+            if (unread > 0) {
+                w.set(NotificationInbox.stateRef(db, uid), NotificationInbox.unreadDelta(-unread),
+                        SetOptions.merge());
+            }
+            if (w.size() > 0) Tasks.await(w.commit());
+
+            last = docs.get(docs.size() - 1);
+            if (docs.size() < PAGE_SIZE) return archived;
+        }
+    }
+}
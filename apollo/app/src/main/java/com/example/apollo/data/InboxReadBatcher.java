@@ -0,0 +1,116 @@
+package com.example.apollo.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * InboxReadBatcher.java
+ *
+ * Purpose:
+ * Coalesces "mark as read" writes. Scrolling through the inbox marks every
+ * notification shown; instead of one write per row, the IDs are collected
+ * and written together at most every {@link #FLUSH_DELAY_MS}, along with a
+ * single decrement of the unread counter ({@link NotificationInbox}).
+ *
+ * Design:
+ * - One batch holds the read flags and the counter change, so they are
+ *   applied together or not at all.
+ * - A batch is written early once {@link #MAX_PENDING} IDs are waiting, and
+ *   on {@link #flush()}, which the screen calls when it stops.
+ * - Each notification is submitted at most once per batcher.
+ *
+ * Notes:
+ * - Uses update(), so a notification archived in the meantime fails its
+ *   batch instead of being recreated as a stub; the IDs are dropped and the
+ *   next recount corrects the counter. Main thread only.
+ */
+public class InboxReadBatcher {
+
+    private static final String TAG = "InboxReadBatcher";
+
+    /** Longest time a read stays unwritten. */
+    static final long FLUSH_DELAY_MS = 5_000;
+
+    /** IDs per batch; one operation is left for the counter. */
+    static final int MAX_PENDING = ChunkedBatchWriter.MAX_OPS_PER_BATCH - 1;
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs;
+    private final String uid;
+
+    private final Set<String> pending = new LinkedHashSet<>();
+    private final Set<String> submitted = new HashSet<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flush;
+    private boolean scheduled = false;
+
+    /**
+     * @param db  Firestore instance.
+     * @param fs  Wrapper the batches are charged to.
+     * @param uid Owner of the inbox.
+     */
+    public InboxReadBatcher(@NonNull FirebaseFirestore db, @NonNull InstrumentedFirestore fs,
+                            @NonNull String uid) {
+        this.db = db;
+        this.fs = fs;
+        this.uid = uid;
+    }
+
+    /**
+     * Queues a notification to be marked as read.
+     *
+     * @param notificationId ID of an unread notification.
+     */
+    public void markRead(@NonNull String notificationId) {
+        if (!submitted.add(notificationId)) return;
+        pending.add(notificationId);
+
+        if (pending.size() >= MAX_PENDING) {
+            flush();
+        } else if (!scheduled) {
+            scheduled = true;
+            handler.postDelayed(flushTask, FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Writes every queued read now.
+     *
+     * @return Task completing when the batch is committed.
+     */
+    public Task<Void> flush() {
+        handler.removeCallbacks(flushTask);
+        scheduled = false;
+        if (pending.isEmpty()) return Tasks.forResult(null);
+
+        List<String> ids = new ArrayList<>(pending);
+        pending.clear();
+
+        WriteBatch batch = db.batch();
+        for (String id : ids) {
+            batch.update(NotificationInbox.notifications(db, uid).document(id),
+                    "read", true, "readAt", FieldValue.serverTimestamp());
+        }
+        batch.set(NotificationInbox.stateRef(db, uid), NotificationInbox.unreadDelta(-ids.size()),
+                SetOptions.merge());
+
+        return fs.commit(batch, ids.size() + 1)
+                .addOnFailureListener(e -> Log.w(TAG, "Could not mark " + ids.size() + " notifications read", e));
+    }
+}
@@ -0,0 +1,499 @@
+package com.example.apollo.data;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.apollo.utils.DocSize;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.SnapshotMetadata;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InstrumentedFirestore.java
+ *
+ * Purpose:
+ * Thin wrapper around the Firestore calls that cost money or time. Screens
+ * and repositories still build their references with {@link FirebaseFirestore},
+ * but run them through this class, which:
+ * - counts billed document reads, cached reads, writes and listener attachments
+ * - estimates the bytes received ({@link DocSize})
+ * - times each call
+ * - tags everything with the calling screen
+ *
+ * Results go to {@link FirestoreMetrics} (per-screen totals, read budgets and
+ * the debug overlay) and to {@link FirestoreOpLog} (one JSON line per call).
+ *
+ * Design:
+ * Every method returns the same Task / registration the plain Firestore call
+ * would, so callers chain listeners exactly as before. Accounting happens in
+ * an extra completion listener and never affects the call itself.
+ *
+ * Reads are counted the way Firestore bills them:
+ * - a query costs one read per document, and one read if it matches nothing
+ * - results served from the local cache are not billed
+ * - a listener is billed for every document in its first snapshot, then only
+ *   for documents that were added or changed
+ * - every attempt of a transaction pays for its reads again
+ *
+ * Usage:
+ * <pre>
+ * fs = InstrumentedFirestore.forScreen("entrant/home");   // in onCreateView
+ * fs.get(db.collection("events")).addOnSuccessListener(...);
+ * </pre>
+ */
+public class InstrumentedFirestore {
+
+    private static final String TAG = "InstrumentedFirestore";
+
+    private final String screen;
+    private final boolean followCurrentScreen;
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+
+    private InstrumentedFirestore(String screen, boolean followCurrentScreen) {
+        this.screen = screen;
+        this.followCurrentScreen = followCurrentScreen;
+    }
+
+    /**
+     * Creates the wrapper for a screen and starts a new visit of it, which
+     * resets the screen's per-visit read count. Call once per view creation.
+     *
+     * @param screen Screen name, e.g. "admin/notifications".
+     * @return Wrapper that tags every call with the screen.
+     */
+    public static InstrumentedFirestore forScreen(@NonNull String screen) {
+        FirestoreMetrics.getInstance().beginVisit(screen);
+        return new InstrumentedFirestore(screen, false);
+    }
+
+    /**
+     * Creates a wrapper for code that serves screens, such as repositories.
+     * Calls are charged to whichever screen is current when they are made,
+     * or to {@code caller} if no screen has been opened.
+     *
+     * @param caller Name used when no screen is current, e.g. "EventRepo".
+     * @return Wrapper that follows the current screen.
+     */
+    public static InstrumentedFirestore forCaller(@NonNull String caller) {
+        return new InstrumentedFirestore(caller, true);
+    }
+
+    /** @return The screen the next call will be charged to. */
+    @NonNull
+    public String getScreen() {
+        if (followCurrentScreen) {
+            String current = metrics.getCurrentScreen();
+            if (current != null) return current;
+        }
+        return screen;
+    }
+
+    // ---------------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------------
+
+    /**
+     * Reads one document.
+     *
+     * @param ref Document to read.
+     * @return The Task returned by {@link DocumentReference#get()}.
+     */
+    public Task<DocumentSnapshot> get(@NonNull DocumentReference ref) {
+        String tag = getScreen();
+        long start = SystemClock.elapsedRealtime();
+        Task<DocumentSnapshot> task = ref.get();
+        task.addOnCompleteListener(t -> {
+            long latency = SystemClock.elapsedRealtime() - start;
+            DocumentSnapshot doc = t.isSuccessful() ? t.getResult() : null;
+            recordDocument(tag, "get", ref.getPath(), doc, false, latency, t.isSuccessful());
+        });
+        return task;
+    }
+
+    /**
+     * Runs a query (or reads a whole collection).
+     *
+     * @param query Query to run.
+     * @return The Task returned by {@link Query#get()}.
+     */
+    public Task<QuerySnapshot> get(@NonNull Query query) {
+        String tag = getScreen();
+        long start = SystemClock.elapsedRealtime();
+        Task<QuerySnapshot> task = query.get();
+        task.addOnCompleteListener(t -> {
+            long latency = SystemClock.elapsedRealtime() - start;
+            QuerySnapshot snap = t.isSuccessful() ? t.getResult() : null;
+            recordQuery(tag, "query", pathOf(query), snap, true, latency, t.isSuccessful());
+        });
+        return task;
+    }
+
+    // ---------------------------------------------------------------------
+    // Listeners
+    // ---------------------------------------------------------------------
+
+    /**
+     * Attaches a snapshot listener to a document.
+     *
+     * @param ref      Document to listen to.
+     * @param listener Receives snapshots exactly as with addSnapshotListener.
+     * @return Registration; removing it also updates the active listener count.
+     */
+    public ListenerRegistration listen(@NonNull DocumentReference ref,
+                                       @NonNull EventListener<DocumentSnapshot> listener) {
+        String tag = getScreen();
+        String path = ref.getPath();
+        long start = SystemClock.elapsedRealtime();
+        AtomicBoolean first = new AtomicBoolean(true);
+
+        ListenerRegistration registration = ref.addSnapshotListener((doc, e) -> {
+            boolean initial = first.getAndSet(false);
+            long latency = initial ? SystemClock.elapsedRealtime() - start : -1;
+            recordDocument(tag, "listen", path, doc, initial, latency, e == null);
+            listener.onEvent(doc, e);
+        });
+        return track(tag, registration);
+    }
+
+    /**
+     * Attaches a snapshot listener to a query.
+     *
+     * @param query    Query to listen to.
+     * @param listener Receives snapshots exactly as with addSnapshotListener.
+     * @return Registration; removing it also updates the active listener count.
+     */
+    public ListenerRegistration listen(@NonNull Query query,
+                                       @NonNull EventListener<QuerySnapshot> listener) {
+        String tag = getScreen();
+        String path = pathOf(query);
+        long start = SystemClock.elapsedRealtime();
+        AtomicBoolean first = new AtomicBoolean(true);
+
+        ListenerRegistration registration = query.addSnapshotListener((snap, e) -> {
+            boolean initial = first.getAndSet(false);
+            long latency = initial ? SystemClock.elapsedRealtime() - start : -1;
+            recordQuery(tag, "listen", path, snap, initial, latency, e == null);
+            listener.onEvent(snap, e);
+        });
+        return track(tag, registration);
+    }
+
+    private ListenerRegistration track(String tag, @Nullable ListenerRegistration registration) {
+        metrics.recordListener(tag, true);
+        FirestoreOpLog.record(tag, "attach", null, 0, 0, 0, 0, -1, true);
+
+        AtomicBoolean removed = new AtomicBoolean(false);
+        return () -> {
+            if (removed.getAndSet(true)) return;
+            metrics.recordListener(tag, false);
+            if (registration != null) registration.remove();
+        };
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------------
+
+    /**
+     * Writes a document.
+     *
+     * @param ref  Document to write.
+     * @param data Map or POJO to store.
+     * @return The Task returned by {@link DocumentReference#set(Object)}.
+     */
+    public Task<Void> set(@NonNull DocumentReference ref, @NonNull Object data) {
+        return recordWrite("set", ref.getPath(), 1, ref.set(data));
+    }
+
+    /**
+     * Writes a document with options (e.g. merge).
+     *
+     * @param ref     Document to write.
+     * @param data    Map or POJO to store.
+     * @param options Set options.
+     * @return The Task returned by {@link DocumentReference#set(Object, SetOptions)}.
+     */
+    public Task<Void> set(@NonNull DocumentReference ref, @NonNull Object data,
+                          @NonNull SetOptions options) {
+        return recordWrite("set", ref.getPath(), 1, ref.set(data, options));
+    }
+
+    /**
+     * Updates fields of an existing document.
+     *
+     * @param ref    Document to update.
+     * @param fields Fields to change.
+     * @return The Task returned by {@link DocumentReference#update(Map)}.
+     */
+    public Task<Void> update(@NonNull DocumentReference ref, @NonNull Map<String, Object> fields) {
+        return recordWrite("update", ref.getPath(), 1, ref.update(fields));
+    }
+
+    /**
+     * Updates fields of an existing document.
+     *
+     * @param ref   Document to update.
+     * @param field First field to change.
+     * @param value Its new value.
+     * @param more  Further field / value pairs.
+     * @return The Task returned by {@link DocumentReference#update(String, Object, Object...)}.
+     */
+    public Task<Void> update(@NonNull DocumentReference ref, @NonNull String field,
+                             @Nullable Object value, Object... more) {
+        return recordWrite("update", ref.getPath(), 1, ref.update(field, value, more));
+    }
+
+    /**
+     * Deletes a document.
+     *
+     * @param ref Document to delete.
+     * @return The Task returned by {@link DocumentReference#delete()}.
+     */
+    public Task<Void> delete(@NonNull DocumentReference ref) {
+        return recordWrite("delete", ref.getPath(), 1, ref.delete());
+    }
+
+    /**
+     * Commits a write batch.
+     *
+     * @param batch  Batch to commit.
+     * @param writes Number of operations in the batch.
+     * @return The Task returned by {@link WriteBatch#commit()}.
+     */
+    public Task<Void> commit(@NonNull WriteBatch batch, int writes) {
+        return recordWrite("commit", null, writes, batch.commit());
+    }
+
+    private Task<Void> recordWrite(String op, @Nullable String path, long writes, Task<Void> task) {
+        String tag = getScreen();
+        long start = SystemClock.elapsedRealtime();
+        task.addOnCompleteListener(t -> {
+            long latency = SystemClock.elapsedRealtime() - start;
+            metrics.recordWrite(tag, writes, latency, t.isSuccessful());
+            FirestoreOpLog.record(tag, op, path, 0, 0, writes, 0, latency, t.isSuccessful());
+        });
+        return task;
+    }
+
+    // ---------------------------------------------------------------------
+    // Transactions
+    // ---------------------------------------------------------------------
+
+    /**
+     * Transaction handle that counts what it reads and writes. Has the same
+     * methods as {@link Transaction}, so transaction bodies do not change.
+     */
+    public static final class Tx {
+
+        /** Transaction body, as {@link Transaction.Function} but with a {@link Tx}. */
+        public interface Function<T> {
+            T apply(@NonNull Tx tx) throws FirebaseFirestoreException;
+        }
+
+        private final Transaction tx;
+        private final AtomicLong reads;
+        private final AtomicLong bytes;
+        private long writes = 0;
+
+        private Tx(Transaction tx, AtomicLong reads, AtomicLong bytes) {
+            this.tx = tx;
+            this.reads = reads;
+            this.bytes = bytes;
+        }
+
+        @NonNull
+        public DocumentSnapshot get(@NonNull DocumentReference ref) throws FirebaseFirestoreException {
+            DocumentSnapshot doc = tx.get(ref);
+            reads.incrementAndGet();
+            bytes.addAndGet(DocSize.of(ref.getPath(), doc.getData()));
+            return doc;
+        }
+
+        @NonNull
+        public Tx set(@NonNull DocumentReference ref, @NonNull Object data) {
+            tx.set(ref, data);
+            writes++;
+            return this;
+        }
+
+        @NonNull
+        public Tx set(@NonNull DocumentReference ref, @NonNull Object data, @NonNull SetOptions options) {
+            tx.set(ref, data, options);
+            writes++;
+            return this;
+        }
+
+        @NonNull
+        public Tx update(@NonNull DocumentReference ref, @NonNull Map<String, Object> fields) {
+            tx.update(ref, fields);
+            writes++;
+            return this;
+        }
+
+        @NonNull
+        public Tx update(@NonNull DocumentReference ref, @NonNull String field,
+                         @Nullable Object value, Object... more) {
+            tx.update(ref, field, value, more);
+            writes++;
+            return this;
+        }
+
+        @NonNull
+        public Tx delete(@NonNull DocumentReference ref) {
+            tx.delete(ref);
+            writes++;
+            return this;
+        }
+    }
+
+    /**
+     * Runs a transaction and records its reads (over every attempt), the
+     * writes of the attempt that committed, and its latency.
+     *
+     * @param body Transaction body.
+     * @param <T>  Result type.
+     * @return The Task returned by {@link FirebaseFirestore#runTransaction}.
+     */
+    public <T> Task<T> runTransaction(@NonNull Tx.Function<T> body) {
+        String tag = getScreen();
+        long start = SystemClock.elapsedRealtime();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+
+        Task<T> task = FirebaseFirestore.getInstance().runTransaction(transaction -> {
+            Tx tx = new Tx(transaction, reads, bytes);
+            T result = body.apply(tx);
+            writes.set(tx.writes);
+            return result;
+        });
+        task.addOnCompleteListener(t -> {
+            long latency = SystemClock.elapsedRealtime() - start;
+            boolean ok = t.isSuccessful();
+            long committed = ok ? writes.get() : 0;
+            metrics.recordRead(tag, reads.get(), 0, bytes.get(), latency, ok);
+            if (committed > 0) metrics.recordWrite(tag, committed, latency, true);
+            FirestoreOpLog.record(tag, "transaction", null, reads.get(), 0, committed,
+                    bytes.get(), latency, ok);
+        });
+        return task;
+    }
+
+    // ---------------------------------------------------------------------
+    // Accounting
+    // ---------------------------------------------------------------------
+
+    /**
+     * @param listenStart True for a listener's first snapshot. Attaching a
+     *                    listener always costs a server read, even when the
+     *                    cache answers first and the server's copy matches
+     *                    it (no second snapshot is delivered then), so the
+     *                    first snapshot is billed whatever its source.
+     */
+    private void recordDocument(String tag, String op, @Nullable String path,
+                                @Nullable DocumentSnapshot doc, boolean listenStart,
+                                long latencyMs, boolean ok) {
+        try {
+            long reads = 0, cacheReads = 0, bytes = 0;
+            if (doc != null) {
+                SnapshotMetadata meta = doc.getMetadata();
+                // Local echo of our own write, not billed
+                if (meta.hasPendingWrites() && !listenStart) return;
+                if (meta.isFromCache() && !listenStart) cacheReads = 1;
+                else reads = 1;
+                bytes = bytesOf(doc);
+            } else if (ok) {
+                reads = 1;
+            }
+            metrics.recordRead(tag, reads, cacheReads, bytes, latencyMs, ok);
+            FirestoreOpLog.record(tag, op, path, reads, cacheReads, 0, bytes, latencyMs, ok);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not account " + op + " " + path, e);
+        }
+    }
+
+    /**
+     * @param initial True for a one-shot query or a listener's first snapshot.
+     *                A listener's first snapshot is billed for its whole
+     *                result set even when it came from the cache: the server
+     *                runs the query anyway, and if its result matches the
+     *                cache no further snapshot arrives to bill it by.
+     */
+    private void recordQuery(String tag, String op, @Nullable String path,
+                             @Nullable QuerySnapshot snap, boolean initial,
+                             long latencyMs, boolean ok) {
+        try {
+            long docs = 0, bytes = 0;
+            boolean billed = true;
+            if (snap != null) {
+                SnapshotMetadata meta = snap.getMetadata();
+                boolean listenStart = initial && "listen".equals(op);
+                // Local echo of our own write, not billed
+                if (meta.hasPendingWrites() && !listenStart) return;
+                billed = !meta.isFromCache() || listenStart;
+
+                // On the first snapshot every document is an ADDED change
+                for (DocumentChange change : snap.getDocumentChanges()) {
+                    if (change.getType() != DocumentChange.Type.REMOVED) docs++;
+                }
+                bytes = bytesOf(snap);
+                // An empty result still costs one read
+                if (initial && billed && docs == 0) docs = 1;
+            }
+
+            long reads = billed ? docs : 0;
+            long cacheReads = billed ? 0 : docs;
+            metrics.recordRead(tag, reads, cacheReads, bytes, latencyMs, ok);
+            FirestoreOpLog.record(tag, op, path, reads, cacheReads, 0, bytes, latencyMs, ok);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not account " + op + " " + path, e);
+        }
+    }
+
+    /**
+     * @param doc Document snapshot.
+     * @return Estimated bytes received for it.
+     */
+    static long bytesOf(@NonNull DocumentSnapshot doc) {
+        return DocSize.of(doc.getReference().getPath(), doc.getData());
+    }
+
+    /**
+     * @param snap Query snapshot.
+     * @return Estimated bytes received for it: the documents that were added
+     *         or changed since the previous snapshot.
+     */
+    static long bytesOf(@NonNull QuerySnapshot snap) {
+        long bytes = 0;
+        for (DocumentChange change : snap.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED) continue;
+            bytes += bytesOf(change.getDocument());
+        }
+        return bytes;
+    }
+
+    @Nullable
+    private static String pathOf(Query query) {
+        if (query instanceof CollectionReference) return ((CollectionReference) query).getPath();
+        return null;
+    }
+}
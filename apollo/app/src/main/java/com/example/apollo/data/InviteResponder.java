@@ -0,0 +1,189 @@
+package com.example.apollo.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.apollo.ui.organizer.events.ReplacementDrawProcessor;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * InviteResponder.java
+ *
+ * Purpose:
+ * The single place where an entrant accepts or declines a lottery invite.
+ * Every screen that offers Accept / Decline (notifications list, invite
+ * response screen, event details) goes through this class, so they all write
+ * the same documents and keep the event counters in step.
+ *
+ * Design:
+ * One Firestore transaction per response. It reads the invite and the
+ * waitlist entry, then writes in one commit:
+ * - the invite status ("accepted" / "declined"), keeping the invite document
+ * - registrations/{uid} on accept, cancellations/{uid} on decline
+ * - removal of the waitlist entry, its location and its capacity slot
+ * - invitedCount / registeredCount / cancelledCount / waitlistCount
+ * - users/{uid}/memberships/{eventId}, the per-user index of event status
+ * - the status of the notification the response came from, if any
+ *
+ * Responses to an invite that is no longer open (already answered, or on a
+ * second device) fail with FAILED_PRECONDITION and write nothing, so double
+ * taps can never move the counters twice.
+ *
+ * Notes:
+ * - Pass an {@link OptimisticUpdate} to update the UI immediately; it is
+ *   rolled back if the commit fails. Transactions are not applied to the
+ *   local cache until they commit, so snapshot listeners alone would lag.
+ * - A decline stamps the event's
+ *   {@link ReplacementDrawProcessor#FIELD_RELEASED_AT}; the organizer's
+ *   devices see it and run the replacement draw. Entrants never draw for
+ *   other users.
+ */
+public class InviteResponder {
+
+    private static final String TAG = "InviteResponder";
+
+    /**
+     * UI changes applied before the commit and undone if it fails.
+     * Both methods run on the main thread.
+     */
+    public interface OptimisticUpdate {
+        void apply();
+        void rollback(@NonNull Exception e);
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final String uid;
+
+    /**
+     * @throws IllegalStateException If no user is signed in.
+     */
+    public InviteResponder() {
+        this.db = FirebaseFirestore.getInstance();
+        this.uid = FirebaseAuth.getInstance().getCurrentUser() != null
+                ? FirebaseAuth.getInstance().getCurrentUser().getUid()
+                : null;
+        if (uid == null) throw new IllegalStateException("User must be signed in");
+    }
+
+    /**
+     * Accepts the current user's invite and registers them for the event.
+     *
+     * @param eventId        Event ID.
+     * @param notificationId Notification the user responded from, or null.
+     * @param ui             Optimistic UI update, or null.
+     * @return Task that completes when the response is committed.
+     */
+    public Task<Void> accept(@NonNull String eventId, @Nullable String notificationId,
+                             @Nullable OptimisticUpdate ui) {
+        return respond(eventId, notificationId, true, null, ui);
+    }
+
+    /**
+     * Declines the current user's invite and frees the spot for a replacement.
+     *
+     * @param eventId        Event ID.
+     * @param notificationId Notification the user responded from, or null.
+     * @param reason         Reason stored with the cancellation (defaults to "declined").
+     * @param ui             Optimistic UI update, or null.
+     * @return Task that completes when the response is committed.
+     */
+    public Task<Void> decline(@NonNull String eventId, @Nullable String notificationId,
+                              @Nullable String reason, @Nullable OptimisticUpdate ui) {
+        return respond(eventId, notificationId, false, reason, ui);
+    }
+
+    private Task<Void> respond(String eventId, @Nullable String notificationId, boolean accept,
+                               @Nullable String reason, @Nullable OptimisticUpdate ui) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference inviteRef = eventRef.collection("invites").document(uid);
+        DocumentReference waitlistRef = eventRef.collection("waitlist").document(uid);
+
+        if (ui != null) ui.apply();
+
+        Task<Void> commit = fs.runTransaction(tx -> {
+            DocumentSnapshot invite = tx.get(inviteRef);
+            DocumentSnapshot waitlist = tx.get(waitlistRef);
+
+            String status = invite.getString("status");
+            if (!invite.exists() || (status != null && !"invited".equals(status))) {
+                throw new FirebaseFirestoreException("Invite is no longer open",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+
+            String outcome = accept ? "accepted" : "declined";
+
+            Map<String, Object> inviteUpdate = new HashMap<>();
+            inviteUpdate.put("status", outcome);
+            inviteUpdate.put("respondedAt", FieldValue.serverTimestamp());
+            tx.set(inviteRef, inviteUpdate, SetOptions.merge());
+
+            Map<String, Object> counters = new HashMap<>();
+            counters.put("invitedCount", FieldValue.increment(-1));
+
+            if (accept) {
+                Map<String, Object> reg = new HashMap<>();
+                reg.put("uid", uid);
+                reg.put("registeredAt", FieldValue.serverTimestamp());
+                tx.set(eventRef.collection("registrations").document(uid), reg);
+                counters.put("registeredCount", FieldValue.increment(1));
+            } else {
+                Map<String, Object> cancel = new HashMap<>();
+                cancel.put("uid", uid);
+                cancel.put("reason", reason == null ? "declined" : reason);
+                cancel.put("cancelledAt", FieldValue.serverTimestamp());
+                tx.set(eventRef.collection("cancellations").document(uid), cancel);
+                counters.put("cancelledCount", FieldValue.increment(1));
+                // Tells the organizer's devices a replacement is due
+                counters.put(ReplacementDrawProcessor.FIELD_RELEASED_AT, FieldValue.serverTimestamp());
+            }
+
+            // The waitlist entry (and its location) only lives until the entrant responds
+            if (waitlist.exists()) {
+                tx.delete(waitlistRef);
+                tx.delete(eventRef.collection("locations").document(uid));
+                counters.put("waitlistCount", FieldValue.increment(-1));
+
+                Long shard = waitlist.getLong("slotShard");
+                if (shard != null) {
+                    Map<String, Object> release = new HashMap<>();
+                    release.put("count", FieldValue.increment(-1));
+                    tx.set(eventRef.collection("waitlistSlots").document(String.valueOf(shard)),
+                            release, SetOptions.merge());
+                }
+            }
+            tx.set(eventRef, counters, SetOptions.merge());
+
+            Map<String, Object> membership = new HashMap<>();
+            membership.put("status", accept ? "registered" : "declined");
+            membership.put("updatedAt", FieldValue.serverTimestamp());
+            tx.set(db.collection("users").document(uid)
+                    .collection("memberships").document(eventId), membership, SetOptions.merge());
+
+            if (notificationId != null) {
+                Map<String, Object> notif = new HashMap<>();
+                notif.put("status", outcome);
+                tx.set(db.collection("users").document(uid)
+                        .collection("notifications").document(notificationId), notif, SetOptions.merge());
+            }
+            return null;
+        });
+
+        return commit.addOnFailureListener(e -> {
+            Log.e(TAG, "Invite response failed for " + eventId, e);
+            if (ui != null) ui.rollback(e);
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.apollo.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JoinMetrics.java
+ *
+ * Purpose:
+ * Process-wide statistics for waitlist joins, to make contention on hot
+ * events visible: how often a join transaction had to be retried, how many
+ * slot shards were probed, and how long joins took to commit.
+ *
+ * Design Pattern:
+ * Singleton with a sliding window of the most recent joins, in the same
+ * style as the scanner's ScanMetrics. EventRepo records one sample per join
+ * and logs {@link #summary()}.
+ */
+public class JoinMetrics {
+
+    /** Number of recent joins kept for percentile calculations. */
+    private static final int WINDOW = 128;
+
+    /** Outcome of a join attempt as seen by the metrics. */
+    public enum Outcome { JOINED, ALREADY_JOINED, FULL, FAILED }
+
+    private static JoinMetrics instance;
+
+    private final long[] latenciesMs = new long[WINDOW];
+    private final int[] attempts = new int[WINDOW];
+    private int count = 0;
+    private int next = 0;
+
+    private final Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+    private long retriedJoins = 0;
+    private long shardsProbed = 0;
+
+    private JoinMetrics() {}
+
+    /** @return The shared metrics instance. */
+    public static synchronized JoinMetrics getInstance() {
+        if (instance == null) instance = new JoinMetrics();
+        return instance;
+    }
+
+    /**
+     * Records one completed join.
+     *
+     * @param outcome      How the join ended.
+     * @param txAttempts   Times the transaction body ran, across all shards
+     *                     (1 per shard means no contention).
+     * @param shards       Shards probed before the join finished.
+     * @param latencyMs    Time from the tap to the final commit.
+     */
+    public synchronized void record(@NonNull Outcome outcome, int txAttempts, int shards, long latencyMs) {
+        outcomes.put(outcome, outcomes.getOrDefault(outcome, 0L) + 1);
+        if (txAttempts > Math.max(shards, 1)) retriedJoins++;
+        shardsProbed += shards;
+
+        latenciesMs[next] = latencyMs;
+        attempts[next] = txAttempts;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) count++;
+    }
+
+    /**
+     * @param percentile Value between 0 and 100.
+     * @return Commit latency at that percentile over the window, or 0 if empty.
+     */
+    public synchronized long latencyPercentileMs(double percentile) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(latenciesMs, count);
+        Arrays.sort(sorted);
+
+        // Nearest-rank method
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    /** @return Largest number of transaction attempts in the window. */
+    public synchronized int maxAttempts() {
+        int max = 0;
+        for (int i = 0; i < count; i++) max = Math.max(max, attempts[i]);
+        return max;
+    }
+
+    /** @return Number of joins that ended with the given outcome. */
+    public synchronized long count(@NonNull Outcome outcome) {
+        return outcomes.getOrDefault(outcome, 0L);
+    }
+
+    /**
+     * Builds a one-line summary suitable for logcat.
+     *
+     * @return Human readable metrics summary.
+     */
+    public synchronized String summary() {
+        long total = 0;
+        for (long c : outcomes.values()) total += c;
+        return String.format(Locale.US,
+                "joins=%d joined=%d full=%d already=%d failed=%d retried=%d "
+                        + "avgShards=%.2f maxAttempts=%d p50=%dms p90=%dms p99=%dms",
+                total, count(Outcome.JOINED), count(Outcome.FULL), count(Outcome.ALREADY_JOINED),
+                count(Outcome.FAILED), retriedJoins,
+                total == 0 ? 0.0 : (double) shardsProbed / total, maxAttempts(),
+                latencyPercentileMs(50), latencyPercentileMs(90), latencyPercentileMs(99));
+    }
+}
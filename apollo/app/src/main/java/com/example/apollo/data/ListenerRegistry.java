@@ -0,0 +1,266 @@
+package com.example.apollo.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ListenerRegistry.java
+ *
+ * Purpose:
+ * Owns every long-lived Firestore snapshot listener in the app. Screens
+ * subscribe with their view lifecycle instead of calling addSnapshotListener,
+ * so listeners can no longer outlive the view that attached them.
+ *
+ * Design:
+ * - Subscriptions are bound to a {@link LifecycleOwner} (normally
+ *   {@code getViewLifecycleOwner()}) and removed on ON_DESTROY, or earlier
+ *   through the returned {@link Subscription}, e.g. when a screen swaps
+ *   one query for another.
+ * - Identical targets share one underlying listener. Document references
+ *   and queries compare by value, so two screens watching the same event
+ *   document cost one listener; a late subscriber immediately receives the
+ *   last snapshot.
+ * - When the last subscriber leaves, the underlying listener is kept for
+ *   {@link #LINGER_MS} so a quick back/forward navigation reuses it instead
+ *   of paying for a fresh initial snapshot.
+ * - Keeps live counts of underlying listeners, subscribers and the bytes
+ *   they have streamed, shown on the debug overlay. Crossing
+ *   {@link #LEAK_THRESHOLD} active listeners is logged as a probable leak.
+ *
+ * Notes:
+ * Main thread only, like the lifecycle callbacks and snapshot listeners
+ * that drive it.
+ */
+public final class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+
+    /** How long an unused listener is kept before it is removed. */
+    static final long LINGER_MS = 2_000;
+
+    /** Active listener count above which a leak is suspected. */
+    static final int LEAK_THRESHOLD = 25;
+
+    private static ListenerRegistry instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<Object, Entry<?>> entries = new HashMap<>();
+    private long bytesStreamed;
+    private boolean leakReported;
+
+    /** One shared underlying listener and its subscribers. */
+    private final class Entry<T> implements EventListener<T> {
+        final Object key;
+        final List<EventListener<T>> subscribers = new ArrayList<>();
+        ListenerRegistration registration;
+        T last;
+        long bytes;
+        final Runnable release = this::release;
+
+        Entry(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onEvent(@Nullable T value, @Nullable FirebaseFirestoreException e) {
+            if (e != null) {
+                // Firestore removes a listener after an error; start fresh next time
+                entries.remove(key);
+                handler.removeCallbacks(release);
+                for (EventListener<T> s : new ArrayList<>(subscribers)) s.onEvent(null, e);
+                subscribers.clear();
+                return;
+            }
+
+            long size = sizeOf(value);
+            bytes += size;
+            bytesStreamed += size;
+            last = value;
+            for (EventListener<T> s : new ArrayList<>(subscribers)) s.onEvent(value, null);
+        }
+
+        void release() {
+            if (!subscribers.isEmpty()) return;
+            entries.remove(key);
+            if (registration != null) registration.remove();
+        }
+    }
+
+    /** Handle to one subscription. */
+    public interface Subscription {
+        /** Stops delivering snapshots to the subscriber; safe to call more than once. */
+        void remove();
+    }
+
+    private ListenerRegistry() {}
+
+    /** @return The shared registry. */
+    public static synchronized ListenerRegistry getInstance() {
+        if (instance == null) instance = new ListenerRegistry();
+        return instance;
+    }
+
+    /**
+     * Listens to a document for as long as {@code owner} is alive.
+     *
+     * @param owner    Lifecycle to bind to, normally the view lifecycle.
+     * @param fs       Wrapper used if a new underlying listener is needed.
+     * @param ref      Document to listen to.
+     * @param listener Receives snapshots exactly as with addSnapshotListener.
+     * @return Handle to unsubscribe before the lifecycle ends.
+     */
+    @NonNull
+    public Subscription listen(@NonNull LifecycleOwner owner, @NonNull InstrumentedFirestore fs,
+                       @NonNull DocumentReference ref,
+                       @NonNull EventListener<DocumentSnapshot> listener) {
+        return subscribe(owner, ref, listener, entry -> fs.listen(ref, entry));
+    }
+
+    /**
+     * Listens to a query for as long as {@code owner} is alive.
+     *
+     * @param owner    Lifecycle to bind to, normally the view lifecycle.
+     * @param fs       Wrapper used if a new underlying listener is needed.
+     * @param query    Query to listen to.
+     * @param listener Receives snapshots exactly as with addSnapshotListener.
+     * @return Handle to unsubscribe before the lifecycle ends.
+     */
+    @NonNull
+    public Subscription listen(@NonNull LifecycleOwner owner, @NonNull InstrumentedFirestore fs,
+                       @NonNull Query query,
+                       @NonNull EventListener<QuerySnapshot> listener) {
+        return subscribe(owner, query, listener, entry -> fs.listen(query, entry));
+    }
+
+    private interface Attach<T> {
+        ListenerRegistration attach(Entry<T> entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Subscription subscribe(LifecycleOwner owner, Object key, EventListener<T> listener,
+                                       Attach<T> attach) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) return () -> {};
+
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key);
+            entries.put(key, entry);
+            entry.registration = attach.attach(entry);
+            checkForLeaks();
+        } else {
+            handler.removeCallbacks(entry.release);
+            if (entry.last != null) listener.onEvent(entry.last, null);
+        }
+        entry.subscribers.add(listener);
+
+        Entry<T> bound = entry;
+        DefaultLifecycleObserver observer = new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                unsubscribe(bound, listener);
+            }
+        };
+        lifecycle.addObserver(observer);
+
+        return () -> {
+            lifecycle.removeObserver(observer);
+            unsubscribe(bound, listener);
+        };
+    }
+
+    private <T> void unsubscribe(Entry<T> entry, EventListener<T> listener) {
+        if (!entry.subscribers.remove(listener)) return;
+        if (entry.subscribers.isEmpty() && entries.get(entry.key) == entry) {
+            handler.postDelayed(entry.release, LINGER_MS);
+        }
+    }
+
+    private void checkForLeaks() {
+        int active = entries.size();
+        if (active > LEAK_THRESHOLD && !leakReported) {
+            leakReported = true;
+            Log.w(TAG, active + " snapshot listeners active, probable leak:\n" + describe());
+        } else if (active <= LEAK_THRESHOLD) {
+            leakReported = false;
+        }
+    }
+
+    private static long sizeOf(@Nullable Object value) {
+        try {
+            if (value instanceof DocumentSnapshot) {
+                return InstrumentedFirestore.bytesOf((DocumentSnapshot) value);
+            }
+            if (value instanceof QuerySnapshot) {
+                return InstrumentedFirestore.bytesOf((QuerySnapshot) value);
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not size snapshot", e);
+        }
+        return 0;
+    }
+
+    /** @return Underlying Firestore listeners currently attached. */
+    public int getActiveCount() {
+        return entries.size();
+    }
+
+    /** @return Subscribers across all listeners. */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (Entry<?> e : entries.values()) count += e.subscribers.size();
+        return count;
+    }
+
+    /** @return Estimated bytes streamed by all listeners since start-up. */
+    public long getBytesStreamed() {
+        return bytesStreamed;
+    }
+
+    /** @return One-line summary for logcat or the debug overlay. */
+    @NonNull
+    public String summary() {
+        return String.format(Locale.US, "listeners active=%d subscribers=%d streamed=%d bytes",
+                getActiveCount(), getSubscriberCount(), bytesStreamed);
+    }
+
+    /** @return One line per active listener: target, subscribers and bytes. */
+    @NonNull
+    public String describe() {
+        StringBuilder out = new StringBuilder();
+        for (Entry<?> e : entries.values()) {
+            if (out.length() > 0) out.append('\n');
+            out.append(describeKey(e.key))
+                    .append(" subscribers=").append(e.subscribers.size())
+                    .append(" bytes=").append(e.bytes);
+        }
+        return out.toString();
+    }
+
+    private static String describeKey(Object key) {
+        if (key instanceof DocumentReference) return ((DocumentReference) key).getPath();
+        return key.toString();
+    }
+}
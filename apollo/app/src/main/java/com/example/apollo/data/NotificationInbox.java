@@ -0,0 +1,127 @@
+package com.example.apollo.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NotificationInbox.java
+ *
+ * Purpose:
+ * Shared layout of a user's notification inbox, so every writer and reader
+ * agrees on where the unread counter and the archive live:
+ * - users/{uid}/notifications: the live inbox, paged by createdAt
+ * - users/{uid}/inbox/state: "unread" counter read by the bottom-nav badge
+ * - users/{uid}/notificationArchive: notifications moved out by
+ *   {@link InboxCompactionWorker}
+ *
+ * Design:
+ * - Whoever adds an unread notification also applies {@link #unreadDelta}(+1)
+ *   to {@link #stateRef} in the same batch or transaction; marking as read
+ *   ({@link InboxReadBatcher}) and archiving apply the matching decrement.
+ *   Opening the app then costs one document read for the badge instead of
+ *   streaming the whole inbox.
+ *
+ * Notes:
+ * - Increments from different devices can race with a read on a third one,
+ *   so the counter may drift; {@link #recount} resets it from a server-side
+ *   count of unread notifications, keeping changes made during the count,
+ *   and the compaction worker calls it daily.
+ *   Readers clamp negative values to 0.
+ */
+public final class NotificationInbox {
+
+    private static final String TAG = "NotificationInbox";
+
+    /** Counter field on the state document. */
+    public static final String FIELD_UNREAD = "unread";
+
+    private NotificationInbox() {}
+
+    /** @return The user's live notifications. */
+    @NonNull
+    public static CollectionReference notifications(@NonNull FirebaseFirestore db, @NonNull String uid) {
+        return db.collection("users").document(uid).collection("notifications");
+    }
+
+    /** @return The user's archived notifications. */
+    @NonNull
+    public static CollectionReference archive(@NonNull FirebaseFirestore db, @NonNull String uid) {
+        return db.collection("users").document(uid).collection("notificationArchive");
+    }
+
+    /** @return The document holding the user's unread counter. */
+    @NonNull
+    public static DocumentReference stateRef(@NonNull FirebaseFirestore db, @NonNull String uid) {
+        return db.collection("users").document(uid).collection("inbox").document("state");
+    }
+
+    /**
+     * @param delta Change of the unread count.
+     * @return Fields to merge into {@link #stateRef}.
+     */
+    @NonNull
+    public static Map<String, Object> unreadDelta(long delta) {
+        Map<String, Object> update = new HashMap<>();
+        update.put(FIELD_UNREAD, FieldValue.increment(delta));
+        update.put("updatedAt", FieldValue.serverTimestamp());
+        return update;
+    }
+
+    /**
+     * @param state Snapshot of {@link #stateRef} (may be missing).
+     * @return Unread count for display, never negative.
+     */
+    public static long unreadOf(@NonNull DocumentSnapshot state) {
+        Long unread = state.getLong(FIELD_UNREAD);
+        return unread == null ? 0 : Math.max(unread, 0);
+    }
+
+    /**
+     * Recomputes the unread counter with a server-side count aggregation
+     * (billed as one read per 1000 notifications counted).
+     * <p>
+     * Aggregations cannot run inside a transaction, so the counter is read
+     * before the count and the new value is written by a transaction that
+     * adds whatever the counter moved by in the meantime. Changes that land
+     * between that first read and the count are in both and counted twice;
+     * the window is one round trip, and the next recount corrects it.
+     *
+     * @return Task with the new count.
+     */
+    @NonNull
+    public static Task<Long> recount(@NonNull FirebaseFirestore db, @NonNull String uid) {
+        DocumentReference ref = stateRef(db, uid);
+        return ref.get(Source.SERVER).onSuccessTask(before -> {
+            Long counter = before.getLong(FIELD_UNREAD);
+            long startCounter = counter == null ? 0 : counter;
+
+            return notifications(db, uid).whereEqualTo("read", false).count()
+                    .get(AggregateSource.SERVER)
+                    .onSuccessTask(snap -> db.runTransaction(tx -> {
+                        Long current = tx.get(ref).getLong(FIELD_UNREAD);
+                        long delta = (current == null ? 0 : current) - startCounter;
+                        long unread = Math.max(snap.getCount() + delta, 0);
+
+                        Map<String, Object> state = new HashMap<>();
+                        state.put(FIELD_UNREAD, unread);
+                        state.put("recountedAt", FieldValue.serverTimestamp());
+                        tx.set(ref, state, SetOptions.merge());
+                        return unread;
+                    }));
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not recount unread notifications for " + uid, e));
+    }
+}
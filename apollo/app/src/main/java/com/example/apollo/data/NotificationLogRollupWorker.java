@@ -0,0 +1,201 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.apollo.utils.LogRollup;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificationLogRollupWorker.java
+ *
+ * Purpose:
+ * Folds raw notification_logs entries into the daily per-event rollups of
+ * {@link NotificationLogs}, so the admin overview reads one document per
+ * event and day instead of one per recipient.
+ *
+ * Design:
+ * - Scans raw entries in (timestamp, document ID) order from a cursor kept
+ *   at meta/notificationLogRollup, {@link #PAGE_SIZE} at a time, up to
+ *   {@link #LAG_MINUTES} ago so entries still being written are not skipped.
+ * - Each page's increments and the advanced cursor are written in one
+ *   transaction that first checks the cursor is where the page started. A
+ *   retried run, or a second admin device, therefore never counts an entry
+ *   twice.
+ * - Every entry gets its {@link NotificationLogs#FIELD_EXPIRE_AT} in the
+ *   same transaction, so it expires a fixed time after being counted and
+ *   never before. Entries that cannot be counted (no eventId) are stamped
+ *   too, so they do not stay forever.
+ * - Only admins may write the rollups; on other accounts the run does
+ *   nothing.
+ */
+public class NotificationLogRollupWorker extends Worker {
+
+    private static final String TAG = "NotificationLogRollup";
+
+    private static final String WORK_NAME = "notification-log-rollup";
+
+    /** Raw entries per page; each needs an expiry write. */
+    static final int PAGE_SIZE = 200;
+
+    /** Entries newer than this are left for the next run. */
+    static final int LAG_MINUTES = 15;
+
+    public NotificationLogRollupWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the rollup every few hours unless it is already scheduled.
+     *
+     * @param context Any context.
+     */
+    public static void schedule(@NonNull Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                NotificationLogRollupWorker.class, 6, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 1, TimeUnit.MINUTES)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null || !"admin".equals(RoleCache.get(getApplicationContext(), user.getUid()))) {
+            // Scheduled by an admin who signed out; nothing this account may do
+            return Result.success();
+        }
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        try {
+            int counted = rollUp(db);
+            Log.d(TAG, "Rolled up " + counted + " notification log entries");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Notification log rollup failed", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Rolls up every raw entry older than {@link #LAG_MINUTES} past the cursor.
+     *
+     * @return Number of entries counted.
+     */
+    private int rollUp(FirebaseFirestore db) throws Exception {
+        DocumentReference cursorRef = NotificationLogs.rollupCursor(db);
+        Timestamp cutoff = new Timestamp(new Date(
+                System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(LAG_MINUTES)));
+
+        int counted = 0;
+        while (true) {
+            DocumentSnapshot cursor = Tasks.await(cursorRef.get());
+            Timestamp lastTimestamp = cursor.getTimestamp("timestamp");
+            String lastId = cursor.getString("docId");
+
+            Query page = NotificationLogs.logs(db)
+                    .whereLessThan("timestamp", cutoff)
+                    .orderBy("timestamp")
+                    .orderBy(FieldPath.documentId())
+                    .limit(PAGE_SIZE);
+            if (lastTimestamp != null && lastId != null) page = page.startAfter(lastTimestamp, lastId);
+            List<DocumentSnapshot> docs = Tasks.await(page.get()).getDocuments();
+            if (docs.isEmpty()) return counted;
+
+            LogRollup rollup = new LogRollup();
+            List<DocumentSnapshot> unexpiring = new ArrayList<>();
+            for (DocumentSnapshot doc : docs) {
+                Timestamp ts = doc.getTimestamp("timestamp");
+                if (ts == null) continue;
+                String eventId = doc.getString("eventId");
+                if (eventId != null) rollup.add(eventId, doc.getString("notificationType"), ts.toDate().getTime());
+                if (doc.get(NotificationLogs.FIELD_EXPIRE_AT) == null) unexpiring.add(doc);
+            }
+            Timestamp expireAt = NotificationLogs.expireAt(System.currentTimeMillis());
+
+            DocumentSnapshot last = docs.get(docs.size() - 1);
+            boolean applied = Tasks.await(db.runTransaction(tx -> {
+                DocumentSnapshot current = tx.get(cursorRef);
+                if (!Objects.equals(current.getTimestamp("timestamp"), lastTimestamp)
+                        || !Objects.equals(current.getString("docId"), lastId)) {
+                    // Another run got here first; re-read the cursor
+                    return false;
+                }
+
+                for (LogRollup.Bucket bucket : rollup.buckets()) {
+                    tx.set(NotificationLogs.rollups(db).document(bucket.id()), rollupUpdate(bucket),
+                            SetOptions.merge());
+                }
+                for (DocumentSnapshot doc : unexpiring) {
+                    tx.update(doc.getReference(), NotificationLogs.FIELD_EXPIRE_AT, expireAt);
+                }
+
+                Map<String, Object> next = new HashMap<>();
+                next.put("timestamp", last.getTimestamp("timestamp"));
+                next.put("docId", last.getId());
+                next.put("updatedAt", FieldValue.serverTimestamp());
+                tx.set(cursorRef, next);
+                return true;
+            }));
+
+            if (applied) {
+                for (LogRollup.Bucket bucket : rollup.buckets()) counted += bucket.total;
+                if (docs.size() < PAGE_SIZE) return counted;
+            }
+        }
+    }
+
+    /**
+     * @param bucket Counts of one event and day from one page.
+     * @return Fields to merge into the bucket's rollup document.
+     */
+    private static Map<String, Object> rollupUpdate(LogRollup.Bucket bucket) {
+        Map<String, Object> counts = new HashMap<>();
+        for (Map.Entry<String, Long> e : bucket.counts.entrySet()) {
+            counts.put(e.getKey(), FieldValue.increment(e.getValue()));
+        }
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("eventId", bucket.eventId);
+        update.put("day", bucket.day);
+        update.put("dayStart", new Timestamp(new Date(bucket.dayStart)));
+        update.put("counts", counts);
+        update.put("total", FieldValue.increment(bucket.total));
+        update.put("updatedAt", FieldValue.serverTimestamp());
+        return update;
+    }
+}
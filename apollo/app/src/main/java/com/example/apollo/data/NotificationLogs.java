@@ -0,0 +1,107 @@
+package com.example.apollo.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.apollo.utils.LogRollup;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NotificationLogs.java
+ *
+ * Purpose:
+ * Shared layout of the admin notification log:
+ * - notification_logs: one raw entry per recipient per message, deleted by
+ *   Firestore TTL once {@link #FIELD_EXPIRE_AT} has passed
+ * - meta/notificationLogRollup: cursor (timestamp, docId) of the last raw
+ *   entry counted into the rollups ({@link #rollupCursor})
+ * - notification_log_rollups/{eventId}_{yyyyMMdd}: counts per notification
+ *   type for one event and UTC day, kept indefinitely
+ *
+ * Design:
+ * - Writers build entries with {@link #entry}, without an expiry.
+ *   {@link NotificationLogRollupWorker} stamps it when it folds an entry
+ *   into the rollups, {@link #RETENTION_DAYS} after that moment, so no
+ *   entry expires before it is counted, however late the rollup runs.
+ *   The admin screen reads the rollups and opens raw entries only for the
+ *   day an admin drills into.
+ *
+ * Notes:
+ * - The TTL policy itself is configured once per project on the
+ *   notification_logs collection group, field {@link #FIELD_EXPIRE_AT}.
+ */
+public final class NotificationLogs {
+
+    /** Raw log collection. */
+    public static final String COLLECTION = "notification_logs";
+
+    /** Daily rollup collection. */
+    public static final String ROLLUPS = "notification_log_rollups";
+
+    /** TTL field on raw entries. */
+    public static final String FIELD_EXPIRE_AT = "expireAt";
+
+    /** Days a raw entry is kept once counted into the rollups. */
+    public static final int RETENTION_DAYS = 90;
+
+    private NotificationLogs() {}
+
+    /** @return Raw log entries. */
+    @NonNull
+    public static CollectionReference logs(@NonNull FirebaseFirestore db) {
+        return db.collection(COLLECTION);
+    }
+
+    /** @return Daily rollups. */
+    @NonNull
+    public static CollectionReference rollups(@NonNull FirebaseFirestore db) {
+        return db.collection(ROLLUPS);
+    }
+
+    /** @return Position of the last raw entry counted into the rollups. */
+    @NonNull
+    public static DocumentReference rollupCursor(@NonNull FirebaseFirestore db) {
+        return db.collection("meta").document("notificationLogRollup");
+    }
+
+    /**
+     * @param countedMillis When the entry was counted into the rollups.
+     * @return Value for {@link #FIELD_EXPIRE_AT}.
+     */
+    @NonNull
+    public static Timestamp expireAt(long countedMillis) {
+        return new Timestamp(new Date(LogRollup.expireAt(countedMillis, RETENTION_DAYS)));
+    }
+
+    /**
+     * Builds a raw log entry.
+     *
+     * @param eventId     Event ID.
+     * @param organizerId Sender's user ID.
+     * @param recipientId Recipient's user ID.
+     * @param type        Logical type (e.g. "lottery_win").
+     * @param title       Notification title.
+     * @param message     Notification message body.
+     * @return Fields of the new notification_logs document.
+     */
+    @NonNull
+    public static Map<String, Object> entry(String eventId, String organizerId, String recipientId,
+                                            String type, String title, String message) {
+        Map<String, Object> log = new HashMap<>();
+        log.put("eventId", eventId);
+        log.put("timestamp", FieldValue.serverTimestamp());
+        log.put("organizerId", organizerId);
+        log.put("recipientId", recipientId);
+        log.put("notificationType", type);
+        log.put("notificationTitle", title);
+        log.put("notificationMessage", message);
+        return log;
+    }
+}
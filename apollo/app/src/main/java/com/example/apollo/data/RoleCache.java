@@ -0,0 +1,129 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * RoleCache.java
+ *
+ * Purpose:
+ * Remembers each signed-in user's role ("entrant", "organizer", "admin") on
+ * the device, so MainActivity can pick the navigation graph on a cold start
+ * without waiting for users/{uid} to come back from Firestore.
+ *
+ * Design:
+ * Stale-while-revalidate. {@link #get} answers from SharedPreferences
+ * immediately; {@link #revalidate} re-reads the profile in the background,
+ * stores the fresh role and reports whether it changed.
+ *
+ * Notes:
+ * - Roles are stored per uid, so switching accounts never shows another
+ *   user's graph.
+ * - Call {@link #clear} when an account is deleted.
+ */
+public final class RoleCache {
+
+    private static final String TAG = "RoleCache";
+    private static final String PREFS = "role_cache";
+    private static final String KEY_PREFIX = "role_";
+
+    /** Role used when a profile has no role or does not exist. */
+    public static final String DEFAULT_ROLE = "entrant";
+
+    /**
+     * Receives the result of a background revalidation on the main thread.
+     */
+    public interface RevalidateListener {
+        /**
+         * @param role    Role read from Firestore.
+         * @param changed True if it differs from what was cached.
+         */
+        void onRole(@NonNull String role, boolean changed);
+
+        /**
+         * Called instead of {@link #onRole} when the profile could not be read.
+         *
+         * @param e Cause.
+         */
+        default void onError(@NonNull Exception e) {}
+    }
+
+    private RoleCache() {}
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Warms the preferences file so the first {@link #get} on the main thread
+     * does not wait for disk. Safe to call from any thread.
+     *
+     * @param context Any context.
+     */
+    public static void preload(@NonNull Context context) {
+        prefs(context).getAll();
+    }
+
+    /**
+     * @param context Any context.
+     * @param uid     User ID.
+     * @return The cached role, or null if this user's role was never stored.
+     */
+    @Nullable
+    public static String get(@NonNull Context context, @NonNull String uid) {
+        return prefs(context).getString(KEY_PREFIX + uid, null);
+    }
+
+    /**
+     * Stores a user's role.
+     *
+     * @param context Any context.
+     * @param uid     User ID.
+     * @param role    Role to store; null stores {@link #DEFAULT_ROLE}.
+     */
+    public static void put(@NonNull Context context, @NonNull String uid, @Nullable String role) {
+        prefs(context).edit().putString(KEY_PREFIX + uid, role != null ? role : DEFAULT_ROLE).apply();
+    }
+
+    /**
+     * Removes every cached role.
+     *
+     * @param context Any context.
+     */
+    public static void clear(@NonNull Context context) {
+        prefs(context).edit().clear().apply();
+    }
+
+    /**
+     * Reads the user's profile from Firestore, updates the cache and reports
+     * the role. Failures are logged, reported to the listener and leave the
+     * cache untouched.
+     *
+     * @param context  Any context.
+     * @param uid      User ID.
+     * @param listener Receives the fresh role; may be null.
+     */
+    public static void revalidate(@NonNull Context context, @NonNull String uid,
+                                  @Nullable RevalidateListener listener) {
+        Context app = context.getApplicationContext();
+        FirebaseFirestore.getInstance().collection("users").document(uid).get()
+                .addOnSuccessListener(doc -> {
+                    String role = doc.exists() ? doc.getString("role") : null;
+                    if (role == null) role = DEFAULT_ROLE;
+
+                    boolean changed = !role.equals(get(app, uid));
+                    if (changed) put(app, uid, role);
+                    if (listener != null) listener.onRole(role, changed);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Could not revalidate role for " + uid, e);
+                    if (listener != null) listener.onError(e);
+                });
+    }
+}
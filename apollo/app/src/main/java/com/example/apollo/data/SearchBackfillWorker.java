@@ -0,0 +1,135 @@
+package com.example.apollo.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.apollo.utils.SearchTokens;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchBackfillWorker.java
+ *
+ * Purpose:
+ * Adds {@link SearchTokens} to user and event documents written before the
+ * search index existed (or with an older token format), so admin search
+ * finds them. New and edited documents get their tokens when they are saved.
+ *
+ * Design:
+ * - Runs once per token format: meta/searchIndex records the
+ *   {@link SearchTokens#VERSION} that was last backfilled, and a run that
+ *   finds the current version there finishes after that one read.
+ * - Scans each collection in document ID order, {@link #PAGE_SIZE} at a time,
+ *   and only writes documents whose tokens are missing or out of date.
+ */
+public class SearchBackfillWorker extends Worker {
+
+    private static final String TAG = "SearchBackfillWorker";
+
+    private static final String WORK_NAME = "search-backfill";
+
+    /** Documents read per page. */
+    static final int PAGE_SIZE = 200;
+
+    public SearchBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules a backfill unless one is already pending.
+     *
+     * @param context Any context.
+     */
+    public static void enqueue(@NonNull Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SearchBackfillWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference marker = db.collection("meta").document("searchIndex");
+
+        try {
+            Long version = Tasks.await(marker.get()).getLong("version");
+            if (version != null && version >= SearchTokens.VERSION) return Result.success();
+
+            int users = backfill(db, "users", "name", "username");
+            int events = backfill(db, "events", "title");
+
+            Map<String, Object> done = new HashMap<>();
+            done.put("version", SearchTokens.VERSION);
+            done.put("updatedAt", FieldValue.serverTimestamp());
+            Tasks.await(marker.set(done, SetOptions.merge()));
+
+            Log.d(TAG, "Search tokens written for " + users + " users and " + events + " events");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Search backfill failed", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Writes tokens for every document of a collection that needs them.
+     *
+     * @return Number of documents updated.
+     */
+    private int backfill(FirebaseFirestore db, String collection, String... fields) throws Exception {
+        int updated = 0;
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = db.collection(collection).orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+            if (last != null) page = page.startAfter(last);
+            List<DocumentSnapshot> docs = Tasks.await(page.get()).getDocuments();
+            if (docs.isEmpty()) return updated;
+
+            ChunkedBatchWriter w = new ChunkedBatchWriter(db);
+            for (DocumentSnapshot doc : docs) {
+                String[] values = new String[fields.length];
+                for (int i = 0; i < fields.length; i++) values[i] = doc.getString(fields[i]);
+
+                List<String> tokens = SearchTokens.forFields(values);
+                if (tokens.equals(doc.get(SearchTokens.FIELD))) continue;
+
+                Map<String, Object> update = new HashMap<>();
+                update.put(SearchTokens.FIELD, tokens);
+                w.set(doc.getReference(), update, SetOptions.merge());
+            }
+            if (w.size() > 0) Tasks.await(w.commit());
+            updated += w.size();
+
+            last = docs.get(docs.size() - 1);
+            if (docs.size() < PAGE_SIZE) return updated;
+        }
+    }
+}
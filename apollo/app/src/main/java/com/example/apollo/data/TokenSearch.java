@@ -0,0 +1,139 @@
+package com.example.apollo.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.apollo.utils.SearchTokens;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TokenSearch.java
+ *
+ * Purpose:
+ * Indexed search over one collection whose documents carry a
+ * {@link SearchTokens#FIELD} array. A query reads only matching documents
+ * (at most the result limit) instead of the whole collection.
+ *
+ * Design:
+ * - The most selective query word becomes one {@code whereArrayContains}
+ *   query; the remaining words are checked on the results.
+ * - Results are cached per query token. A cached result that was not cut
+ *   off by the limit is complete, so it also answers any longer query that
+ *   starts with the same token: typing "ama", "amar", "amara" costs one query.
+ *
+ * Notes:
+ * Main thread only, like the screens that use it.
+ */
+public class TokenSearch {
+
+    /** Cached query tokens kept per instance. */
+    private static final int MAX_CACHED = 32;
+
+    /** Extracts the searchable field values of a document. */
+    public interface Fields {
+        String[] of(@NonNull DocumentSnapshot doc);
+    }
+
+    private static final class Entry {
+        final List<DocumentSnapshot> docs;
+        final boolean complete;
+
+        Entry(List<DocumentSnapshot> docs, boolean complete) {
+            this.docs = docs;
+            this.complete = complete;
+        }
+    }
+
+    private final InstrumentedFirestore fs;
+    private final Query base;
+    private final int limit;
+    private final Fields fields;
+
+    private final Map<String, Entry> cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * @param fs     Wrapper the queries are charged through.
+     * @param base   Collection (or query) to search.
+     * @param limit  Most documents read per query.
+     * @param fields Searchable fields, the same ones the tokens were built from.
+     */
+    public TokenSearch(@NonNull InstrumentedFirestore fs, @NonNull Query base, int limit,
+                       @NonNull Fields fields) {
+        this.fs = fs;
+        this.base = base;
+        this.limit = limit;
+        this.fields = fields;
+    }
+
+    /**
+     * Searches the collection.
+     *
+     * @param query Search text as typed.
+     * @return Matching documents, or an empty list for an empty query.
+     */
+    public Task<List<DocumentSnapshot>> search(@NonNull String query) {
+        String token = SearchTokens.queryToken(query);
+        if (token == null) return Tasks.forResult(Collections.emptyList());
+
+        Entry cached = cached(token);
+        if (cached != null) return Tasks.forResult(filter(cached.docs, query));
+
+        return fs.get(base.whereArrayContains(SearchTokens.FIELD, token).limit(limit))
+                .continueWith(task -> {
+                    List<DocumentSnapshot> docs = task.getResult().getDocuments();
+                    cache.put(token, new Entry(docs, docs.size() < limit));
+                    return filter(docs, query);
+                });
+    }
+
+    /**
+     * Drops a deleted document from every cached result.
+     *
+     * @param docId ID of the deleted document.
+     */
+    public void forget(@NonNull String docId) {
+        for (Map.Entry<String, Entry> e : cache.entrySet()) {
+            List<DocumentSnapshot> kept = new ArrayList<>(e.getValue().docs);
+            kept.removeIf(doc -> docId.equals(doc.getId()));
+            e.setValue(new Entry(kept, e.getValue().complete));
+        }
+    }
+
+    /** Forgets every cached result. */
+    public void clear() {
+        cache.clear();
+    }
+
+    private Entry cached(String token) {
+        Entry exact = cache.get(token);
+        if (exact != null) return exact;
+
+        // Every document holding the token also holds its shorter prefixes
+        for (int len = token.length() - 1; len >= 1; len--) {
+            Entry shorter = cache.get(token.substring(0, len));
+            if (shorter != null && shorter.complete) return shorter;
+        }
+        return null;
+    }
+
+    private List<DocumentSnapshot> filter(List<DocumentSnapshot> docs, String query) {
+        List<DocumentSnapshot> out = new ArrayList<>();
+        for (DocumentSnapshot doc : docs) {
+            if (SearchTokens.matches(query, fields.of(doc))) out.add(doc);
+        }
+        return out;
+    }
+}
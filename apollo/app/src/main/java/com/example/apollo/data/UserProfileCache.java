@@ -0,0 +1,225 @@
+package com.example.apollo.data;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserProfileCache.java
+ *
+ * Purpose:
+ * Shared, in-memory cache of users/{uid} profile fields used by organizer and
+ * admin lists. Instead of one document read per user, missing profiles are
+ * fetched with {@code whereIn(documentId, chunk)} queries of up to
+ * {@link #CHUNK_SIZE} IDs each, which is Firestore's limit for "in" filters.
+ *
+ * Design Pattern:
+ * Process-wide singleton. Entries expire after {@link #TTL_MS}. Users that do
+ * not exist are remembered too, so deleted accounts are not re-queried on
+ * every screen.
+ *
+ * Notes:
+ * - Callbacks run on the main thread (Firestore's default).
+ * - {@link ChunkListener#onChunk} fires once for cached profiles and once per
+ *   fetched chunk, so lists can render rows as soon as each chunk lands.
+ */
+public class UserProfileCache {
+
+    private static final String TAG = "UserProfileCache";
+
+    /** Firestore's maximum number of values in a whereIn filter. */
+    public static final int CHUNK_SIZE = 30;
+
+    /** How long a cached profile is considered fresh. */
+    private static final long TTL_MS = 5 * 60 * 1000;
+
+    private static UserProfileCache instance;
+
+    /**
+     * Display fields of a user profile.
+     */
+    public static class Profile {
+        public final String uid;
+        @Nullable public final String name;
+        @Nullable public final String email;
+        @Nullable public final String phone;
+        /** False when users/{uid} does not exist. */
+        public final boolean exists;
+        final long fetchedAt;
+
+        Profile(String uid, @Nullable String name, @Nullable String email,
+                @Nullable String phone, boolean exists) {
+            this.uid = uid;
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+            this.exists = exists;
+            this.fetchedAt = SystemClock.elapsedRealtime();
+        }
+
+        /**
+         * @return The user's name, or their uid when no name is set.
+         */
+        @NonNull
+        public String displayName() {
+            return (name != null && !name.isEmpty()) ? name : uid;
+        }
+    }
+
+    /**
+     * Receives profiles as they become available.
+     */
+    public interface ChunkListener {
+        /**
+         * @param profiles Profiles resolved in this chunk, keyed by uid.
+         *                 Includes entries with {@code exists == false}.
+         */
+        void onChunk(@NonNull Map<String, Profile> profiles);
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final Map<String, Profile> cache = new HashMap<>();
+
+    private UserProfileCache(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /** @return The shared cache instance. */
+    public static synchronized UserProfileCache getInstance() {
+        if (instance == null) {
+            instance = new UserProfileCache(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a fresh cached profile without touching the network.
+     *
+     * @param uid User ID.
+     * @return Cached profile, or null if missing or expired.
+     */
+    @Nullable
+    public synchronized Profile peek(@NonNull String uid) {
+        Profile p = cache.get(uid);
+        if (p == null) return null;
+        if (SystemClock.elapsedRealtime() - p.fetchedAt > TTL_MS) {
+            cache.remove(uid);
+            return null;
+        }
+        return p;
+    }
+
+    /**
+     * Resolves profiles for the given users. Cached profiles are delivered
+     * immediately; the rest are fetched in chunks of {@link #CHUNK_SIZE}.
+     *
+     * @param uids     User IDs to resolve (duplicates are ignored).
+     * @param listener Called with each batch of resolved profiles; may be null.
+     * @return Task that completes with every resolved profile once all chunks are done.
+     */
+    public Task<Map<String, Profile>> resolve(@NonNull Collection<String> uids,
+                                              @Nullable ChunkListener listener) {
+        Map<String, Profile> cached = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String uid : new LinkedHashSet<>(uids)) {
+            if (uid == null || uid.isEmpty()) continue;
+            Profile p = peek(uid);
+            if (p != null) cached.put(uid, p);
+            else missing.add(uid);
+        }
+
+        if (listener != null && !cached.isEmpty()) listener.onChunk(cached);
+
+        List<Task<Map<String, Profile>>> chunkTasks = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i += CHUNK_SIZE) {
+            List<String> chunk = missing.subList(i, Math.min(missing.size(), i + CHUNK_SIZE));
+            chunkTasks.add(fetchChunk(new ArrayList<>(chunk), listener));
+        }
+
+        return Tasks.whenAllComplete(chunkTasks).continueWith(done -> {
+            Map<String, Profile> all = new HashMap<>(cached);
+            for (Task<Map<String, Profile>> t : chunkTasks) {
+                if (t.isSuccessful() && t.getResult() != null) all.putAll(t.getResult());
+            }
+            return all;
+        });
+    }
+
+    /**
+     * Stores a profile read elsewhere (e.g. a full users listing) so later
+     * lookups can skip the network.
+     *
+     * @param doc A users/{uid} document snapshot.
+     */
+    public void put(@NonNull DocumentSnapshot doc) {
+        Profile p = fromDoc(doc.getId(), doc);
+        synchronized (this) {
+            cache.put(p.uid, p);
+        }
+    }
+
+    /**
+     * Removes a user from the cache, e.g. after their profile was edited or deleted.
+     *
+     * @param uid User ID.
+     */
+    public synchronized void invalidate(@NonNull String uid) {
+        cache.remove(uid);
+    }
+
+    private Task<Map<String, Profile>> fetchChunk(List<String> chunk, @Nullable ChunkListener listener) {
+        Task<QuerySnapshot> query = fs.get(db.collection("users")
+                .whereIn(FieldPath.documentId(), chunk));
+
+        return query.continueWith(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to resolve " + chunk.size() + " profiles", task.getException());
+                throw task.getException() != null ? task.getException() : new IllegalStateException("Query failed");
+            }
+
+            Map<String, Profile> found = new HashMap<>();
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                found.put(doc.getId(), fromDoc(doc.getId(), doc));
+            }
+            // Remember users that no longer exist so they are not re-queried
+            for (String uid : chunk) {
+                if (!found.containsKey(uid)) found.put(uid, new Profile(uid, null, null, null, false));
+            }
+
+            synchronized (this) {
+                cache.putAll(found);
+            }
+            if (listener != null) listener.onChunk(found);
+            return found;
+        });
+    }
+
+    private static Profile fromDoc(String uid, DocumentSnapshot doc) {
+        if (!doc.exists()) return new Profile(uid, null, null, null, false);
+        return new Profile(
+                uid,
+                doc.getString("name"),
+                doc.getString("email"),
+                doc.getString("phone"),
+                true
+        );
+    }
+}
@@ -7,7 +7,9 @@
  * The fragment also loads and displays the current waitlist count.
  *
  * This is a read-only screen for admins to verify event data and understand
- * how many entrants are currently registered or waiting.
+ * how many entrants are currently registered or waiting. Once the event's
+ * lottery has been drawn, admins can also verify the draw against its audit
+ * log, or check a single entrant's inclusion, to settle disputes.
  */
 package com.example.apollo.ui.admin.events;
 
@@ -15,15 +17,20 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.ui.organizer.events.LotteryAuditLog;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 /**
@@ -34,8 +41,10 @@ import com.google.firebase.firestore.FirebaseFirestore;
 public class EventDetailsFragment extends Fragment {
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private ImageView posterImage;
     private TextView titleText, descriptionText, waitlistText, summaryText;
+    private Button verifyLotteryButton;
     private String eventId;
 
     /**
@@ -55,12 +64,15 @@ public class EventDetailsFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_event_details_admin, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("admin/event-details");
 
         posterImage = view.findViewById(R.id.eventPosterImage);
         titleText = view.findViewById(R.id.textEventTitle);
         descriptionText = view.findViewById(R.id.textEventDescription);
         waitlistText = view.findViewById(R.id.textWaitlistCount);
         summaryText = view.findViewById(R.id.textEventSummary);
+        verifyLotteryButton = view.findViewById(R.id.verifyLotteryButton);
+        verifyLotteryButton.setOnClickListener(v -> verifyDraw());
 
         if (getArguments() != null) {
             eventId = getArguments().getString("eventId");
@@ -82,8 +94,7 @@ public class EventDetailsFragment extends Fragment {
      * @param eventId The Firestore ID of the event document to load.
      */
     private void loadEventDetails(String eventId) {
-        db.collection("events").document(eventId)
-                .get()
+        fs.get(db.collection("events").document(eventId))
                 .addOnSuccessListener(document -> {
                     if (document.exists()) {
 
@@ -99,10 +110,13 @@ public class EventDetailsFragment extends Fragment {
                         Double price = document.getDouble("price");
                         String posterUrl = document.getString("eventPosterUrl");
 
+                        verifyLotteryButton.setVisibility(
+                                document.getString(LotteryAuditLog.EVENT_FIELD) != null
+                                        ? View.VISIBLE : View.GONE);
+
                         // Waitlist fetch
-                        db.collection("events").document(eventId)
-                                .collection("waitlist")
-                                .get()
+                        fs.get(db.collection("events").document(eventId)
+                                .collection("waitlist"))
                                 .addOnSuccessListener(waitlistSnapshot -> {
 
                                     int waitlistCount = waitlistSnapshot.size();
@@ -142,4 +156,66 @@ public class EventDetailsFragment extends Fragment {
                         Toast.makeText(getContext(), "Failed to load event", Toast.LENGTH_SHORT).show()
                 );
     }
+
+    /**
+     * Verifies the event's latest audited lottery draw and shows the findings,
+     * with an option to check one entrant's inclusion.
+     */
+    private void verifyDraw() {
+        if (eventId == null) return;
+        verifyLotteryButton.setEnabled(false);
+
+        LotteryAuditLog.verifyDraw(db, eventId)
+                .addOnSuccessListener(result -> {
+                    verifyLotteryButton.setEnabled(true);
+                    if (getContext() == null) return;
+                    new AlertDialog.Builder(requireContext())
+                            .setTitle("Lottery audit")
+                            .setMessage(result.toText())
+                            .setPositiveButton("OK", null)
+                            .setNeutralButton("Check entrant", (d, w) -> askForEntrant())
+                            .show();
+                })
+                .addOnFailureListener(e -> {
+                    verifyLotteryButton.setEnabled(true);
+                    if (getContext() == null) return;
+                    Toast.makeText(getContext(), "Failed to verify lottery: " + e.getMessage(),
+                            Toast.LENGTH_LONG).show();
+                });
+    }
+
+    /**
+     * Asks for a user ID and checks that user's inclusion in the latest draw
+     * with their Merkle proof.
+     */
+    private void askForEntrant() {
+        if (getContext() == null) return;
+
+        EditText input = new EditText(requireContext());
+        input.setHint("User ID");
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Check entrant")
+                .setView(input)
+                .setPositiveButton("Check", (d, w) -> {
+                    String uid = input.getText() == null ? "" : input.getText().toString().trim();
+                    if (uid.isEmpty()) return;
+                    LotteryAuditLog.verifyInclusion(db, eventId, uid)
+                            .addOnSuccessListener(result -> {
+                                if (getContext() == null) return;
+                                new AlertDialog.Builder(requireContext())
+                                        .setTitle("Entrant " + uid)
+                                        .setMessage(result.toText())
+                                        .setPositiveButton("OK", null)
+                                        .show();
+                            })
+                            .addOnFailureListener(e -> {
+                                if (getContext() == null) return;
+                                Toast.makeText(getContext(), "Failed to check entrant: " + e.getMessage(),
+                                        Toast.LENGTH_LONG).show();
+                            });
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 }
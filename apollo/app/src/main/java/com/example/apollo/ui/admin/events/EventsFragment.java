@@ -27,10 +27,15 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.CascadeDeleteWorker;
+import com.example.apollo.data.CascadeDeleter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.TokenSearch;
+import com.example.apollo.utils.SearchTokens;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
@@ -40,14 +45,31 @@ import java.util.List;
  * Fragment that lists all events for admins.
  * Events are fetched from Firestore and shown as cards with basic details.
  * Admins can search by title, tap a card to see full details, or delete an event.
+ * Searches run against the events' search tokens ({@link TokenSearch}), so
+ * each one reads only the matching events.
  */
 public class EventsFragment extends Fragment {
 
+    /** Events shown before anything is typed. */
+    private static final int BROWSE_LIMIT = 50;
+
+    /** Most events read per search. */
+    private static final int SEARCH_LIMIT = 50;
+
+    /** Wait after the last keystroke before searching. */
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
+    private TokenSearch search;
     private LinearLayout eventsContainer;
     private final List<Event> allEvents = new ArrayList<>();
     private TextView searchInput;
 
+    /** Incremented per search so results of an older search are dropped. */
+    private int searchGeneration = 0;
+    private final Runnable pendingSearch = this::runSearch;
+
     /**
      * Inflates the admin events layout, initializes UI components,
      * and starts loading events from Firestore. Also attaches a text
@@ -64,19 +86,25 @@ public class EventsFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_events_admin, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("admin/events");
         eventsContainer = view.findViewById(R.id.eventsContainer);
         searchInput = view.findViewById(R.id.search_events_input);
+        search = new TokenSearch(fs, db.collection("events"), SEARCH_LIMIT,
+                doc -> new String[]{doc.getString("title")});
 
         loadEventsFromFirestore();
 
-        // Filter the list as the admin types in the search bar
+        // Search as the admin types, once typing pauses
         searchInput.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Narrow what is already shown right away, then search the index
                 filterEvents(s.toString());
+                searchInput.removeCallbacks(pendingSearch);
+                searchInput.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -87,63 +115,101 @@ public class EventsFragment extends Fragment {
     }
 
     /**
-     * Loads all events from the "events" collection in Firestore.
-     * For each event, it also loads the waitlist size and stores
-     * the result in {@code allEvents}, then refreshes the filtered list.
+     * Stops a pending search so it cannot run after the view is gone.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (searchInput != null) searchInput.removeCallbacks(pendingSearch);
+    }
+
+    /**
+     * Loads the first {@link #BROWSE_LIMIT} events from the "events"
+     * collection in Firestore, shown while nothing is typed.
      */
     private void loadEventsFromFirestore() {
-        db.collection("events")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    allEvents.clear();
-                    List<Task<QuerySnapshot>> waitlistTasks = new ArrayList<>();
-                    List<Event> unprocessedEvents = new ArrayList<>();
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        String eventId = document.getId();
-                        String title = document.getString("title");
-                        String posterUrl = document.getString("eventPosterUrl");
-                        String location = document.getString("location");
-                        Long capacity = document.getLong("eventCapacity");
-                        Long waitlistCapacity = document.getLong("waitlistCapacity");
-
-                        Event event = new Event(eventId, title, posterUrl, location, capacity, waitlistCapacity, 0);
-                        unprocessedEvents.add(event);
-
-                        Task<QuerySnapshot> waitlistTask = db.collection("events")
-                                .document(eventId)
-                                .collection("waitlist")
-                                .get();
-                        waitlistTasks.add(waitlistTask);
-                    }
+        int generation = ++searchGeneration;
+        fs.get(db.collection("events").limit(BROWSE_LIMIT))
+                .addOnSuccessListener(snap -> {
+                    if (generation == searchGeneration) showEvents(snap.getDocuments());
+                })
+                .addOnFailureListener(e -> Log.e("Firestore", "Error loading events", e));
+    }
 
-                    Tasks.whenAllSuccess(waitlistTasks).addOnSuccessListener(waitlistSnapshots -> {
-                        for (int i = 0; i < waitlistSnapshots.size(); i++) {
-                            int waitlistCount = ((QuerySnapshot) waitlistSnapshots.get(i)).size();
-                            unprocessedEvents.get(i).setWaitlistCount(waitlistCount);
-                        }
-                        allEvents.addAll(unprocessedEvents);
-                        if (isAdded() && getContext() != null) {
-                            filterEvents(searchInput.getText().toString());
-                        }
-                    });
+    /**
+     * Runs the search for the current text: the browse list for an empty
+     * query, otherwise an indexed search.
+     */
+    private void runSearch() {
+        if (!isAdded()) return;
+        String query = searchInput.getText().toString();
+        if (SearchTokens.queryToken(query) == null) {
+            loadEventsFromFirestore();
+            return;
+        }
 
+        int generation = ++searchGeneration;
+        search.search(query)
+                .addOnSuccessListener(docs -> {
+                    if (generation == searchGeneration) showEvents(docs);
                 })
-                .addOnFailureListener(e -> Log.e("Firestore", "Error loading events", e));
+                .addOnFailureListener(e -> Log.e("Firestore", "Error searching events", e));
     }
 
     /**
-     * Filters the in-memory list of events by title and rebuilds the
-     * cards shown in the container. Matches are case-insensitive.
+     * For each event, loads the waitlist size and stores the result in
+     * {@code allEvents}, then refreshes the filtered list.
+     *
+     * @param documents Event documents to show.
+     */
+    private void showEvents(List<DocumentSnapshot> documents) {
+        int generation = searchGeneration;
+        List<Task<QuerySnapshot>> waitlistTasks = new ArrayList<>();
+        List<Event> unprocessedEvents = new ArrayList<>();
+
+        for (DocumentSnapshot document : documents) {
+            String eventId = document.getId();
+            String title = document.getString("title");
+            String posterUrl = document.getString("eventPosterUrl");
+            String location = document.getString("location");
+            Long capacity = document.getLong("eventCapacity");
+            Long waitlistCapacity = document.getLong("waitlistCapacity");
+
+            Event event = new Event(eventId, title, posterUrl, location, capacity, waitlistCapacity, 0);
+            unprocessedEvents.add(event);
+
+            Task<QuerySnapshot> waitlistTask = fs.get(db.collection("events")
+                    .document(eventId)
+                    .collection("waitlist"));
+            waitlistTasks.add(waitlistTask);
+        }
+
+        Tasks.whenAllSuccess(waitlistTasks).addOnSuccessListener(waitlistSnapshots -> {
+            if (generation != searchGeneration) return;
+            for (int i = 0; i < waitlistSnapshots.size(); i++) {
+                int waitlistCount = ((QuerySnapshot) waitlistSnapshots.get(i)).size();
+                unprocessedEvents.get(i).setWaitlistCount(waitlistCount);
+            }
+            allEvents.clear();
+            allEvents.addAll(unprocessedEvents);
+            if (isAdded() && getContext() != null) {
+                filterEvents(searchInput.getText().toString());
+            }
+        });
+    }
+
+    /**
+     * Filters the loaded events by title and rebuilds the cards shown in the
+     * container. Every word typed must start a word of the title; matches
+     * are case-insensitive.
      *
      * @param query The search text typed by the admin.
      */
     private void filterEvents(String query) {
         eventsContainer.removeAllViews();
-        String lowerQuery = query.toLowerCase();
 
         for (Event event : allEvents) {
-            if (event.getTitle() != null && event.getTitle().toLowerCase().contains(lowerQuery)) {
+            if (event.getTitle() != null && SearchTokens.matches(query, event.getTitle())) {
                 View card = LayoutInflater.from(getContext())
                         .inflate(R.layout.item_event_card_admin, eventsContainer, false);
 
@@ -256,21 +322,39 @@ public class EventsFragment extends Fragment {
     /**
      * Deletes an event document from Firestore and removes its card from the UI
      * if the delete succeeds. Logs and shows a toast for both success and failure.
+     * Its subcollections, notifications and poster are then removed in the
+     * background by {@link CascadeDeleteWorker}.
      *
      * @param eventId ID of the event to delete.
      * @param card    The card view to remove from the container on success.
      */
     private void deleteEvent(String eventId, View card) {
-        db.collection("events").document(eventId)
-                .delete()
+        fs.delete(db.collection("events").document(eventId))
                 .addOnSuccessListener(aVoid -> {
                     eventsContainer.removeView(card);
+                    search.forget(eventId);
                     Toast.makeText(getContext(), "Event deleted", Toast.LENGTH_SHORT).show();
                     Log.d("Firestore", "Deleted event: " + eventId);
+
+                    if (getContext() != null) {
+                        CascadeDeleteWorker.enqueue(getContext(),
+                                CascadeDeleter.Target.event(eventId, posterUrlOf(eventId)));
+                    }
                 })
                 .addOnFailureListener(e -> {
                     Toast.makeText(getContext(), "Failed to delete event", Toast.LENGTH_SHORT).show();
                     Log.e("Firestore", "Error deleting event", e);
                 });
     }
+
+    /**
+     * @param eventId ID of a loaded event.
+     * @return Its poster URL, or null if unknown.
+     */
+    private String posterUrlOf(String eventId) {
+        for (Event event : allEvents) {
+            if (event.getId().equals(eventId)) return event.getPosterUrl();
+        }
+        return null;
+    }
 }
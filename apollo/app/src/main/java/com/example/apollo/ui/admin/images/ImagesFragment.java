@@ -28,6 +28,7 @@ import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
@@ -42,6 +43,7 @@ import java.util.List;
 public class ImagesFragment extends Fragment {
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private LinearLayout imagesContainer;
     private EditText searchInput;
 
@@ -61,6 +63,7 @@ public class ImagesFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_images_admin, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("admin/images");
         imagesContainer = view.findViewById(R.id.imagesContainer);
         searchInput = view.findViewById(R.id.search_images_input);
 
@@ -86,8 +89,7 @@ public class ImagesFragment extends Fragment {
      * the UI is refreshed immediately to reflect new data.
      */
     private void loadImagesFromFirestore() {
-        db.collection("events")
-                .get()
+        fs.get(db.collection("events"))
                 .addOnSuccessListener(querySnapshot -> {
                     allImages.clear();
 
@@ -194,8 +196,7 @@ public class ImagesFragment extends Fragment {
      * @param card    view to remove from the list
      */
     private void deleteImage(String eventId, View card) {
-        db.collection("events").document(eventId)
-                .update("eventPosterUrl", "")
+        fs.update(db.collection("events").document(eventId), "eventPosterUrl", "")
                 .addOnSuccessListener(aVoid -> {
                     imagesContainer.removeView(card);
                     Toast.makeText(getContext(), "Image removed", Toast.LENGTH_SHORT).show();
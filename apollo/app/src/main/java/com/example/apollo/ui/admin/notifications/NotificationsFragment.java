@@ -2,11 +2,14 @@
  * NotificationsFragment.java
  *
  * This fragment lets admin users view a log of sent notifications.
- * It loads recent notification log entries from Firestore and displays them
- * as cards with title, message, event, sender, recipient, and timestamp.
+ * The overview shows one card per event and day from the daily rollups
+ * ({@link NotificationLogs}), with counts per notification type. Raw log
+ * entries are only read when an admin taps a day, or the "latest entries"
+ * card for messages not yet in the daily totals; they are displayed as
+ * cards with title, message, event, sender, recipient, and timestamp.
  *
  * Extra details like event name and user names are resolved by additional
- * Firestore lookups after the initial log data is loaded.
+ * Firestore lookups after the log data is loaded, once per document.
  */
 package com.example.apollo.ui.admin.notifications;
 
@@ -24,9 +27,22 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.NotificationLogs;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Fragment that displays a list of notification logs for admins.
  * Each log card shows the notification content along with event,
@@ -34,8 +50,18 @@ import com.google.firebase.firestore.QueryDocumentSnapshot;
  */
 public class NotificationsFragment extends Fragment {
 
+    /** Event-days shown in the overview. */
+    private static final int ROLLUP_LIMIT = 60;
+
+    /** Raw entries shown per drill-down. */
+    private static final int ENTRY_LIMIT = 100;
+
     private LinearLayout eventsContainer;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
+
+    /** Event and user lookups by path, so repeated IDs are read once. */
+    private final Map<String, Task<DocumentSnapshot>> lookups = new HashMap<>();
 
     /**
      * Inflates the notification logs layout, initializes the container,
@@ -56,26 +82,29 @@ public class NotificationsFragment extends Fragment {
 
         eventsContainer = view.findViewById(R.id.eventsContainer);
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("admin/notifications");
 
-        loadLogs();
+        loadRollups();
 
         return view;
     }
 
     /**
-     * Loads recent notification logs from Firestore and creates a card
-     * for each log entry. If no logs are found, an empty message is shown.
+     * Loads the most recent daily rollups and creates a card for each event
+     * and day, below a card for the latest raw entries. If no rollups are
+     * found, an empty message is shown.
      */
-    private void loadLogs() {
+    private void loadRollups() {
         eventsContainer.removeAllViews();
+        addLatestCard();
 
-        db.collection("notification_logs")
-                .orderBy("timestamp", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .limit(1000)
-                .get()
+        fs.get(NotificationLogs.rollups(db)
+                .orderBy("dayStart", Query.Direction.DESCENDING)
+                .limit(ROLLUP_LIMIT))
                 .addOnSuccessListener(snap -> {
+                    if (getContext() == null) return;
                     for (QueryDocumentSnapshot doc : snap) {
-                        addLogCard(doc);
+                        addRollupCard(doc);
                     }
 
                     if (snap.isEmpty()) {
@@ -84,17 +113,141 @@ public class NotificationsFragment extends Fragment {
                 });
     }
 
+    /**
+     * Adds the card that drills into the raw entries the rollup worker has
+     * not counted yet, i.e. those after its cursor.
+     */
+    private void addLatestCard() {
+        View card = LayoutInflater.from(getContext()).inflate(R.layout.item_log_card, eventsContainer, false);
+        ((TextView) card.findViewById(R.id.logTitle)).setText("Latest entries");
+        ((TextView) card.findViewById(R.id.logMessage)).setText(
+                "Notifications sent since the daily totals were last updated.");
+        ((TextView) card.findViewById(R.id.logMeta)).setText("Tap to show entries");
+
+        eventsContainer.addView(card);
+        LinearLayout entries = addEntriesContainer();
+        card.setOnClickListener(v -> {
+            if (entries.getChildCount() > 0) {
+                entries.removeAllViews();
+                return;
+            }
+            fs.get(NotificationLogs.rollupCursor(db)).addOnSuccessListener(cursor -> {
+                Query query = NotificationLogs.logs(db)
+                        .orderBy("timestamp", Query.Direction.DESCENDING)
+                        .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+                Timestamp lastTimestamp = cursor.getTimestamp("timestamp");
+                String lastId = cursor.getString("docId");
+                if (lastTimestamp != null && lastId != null) query = query.endBefore(lastTimestamp, lastId);
+                toggleEntries(entries, query.limit(ENTRY_LIMIT));
+            });
+        });
+    }
+
+    /**
+     * Creates a card for one rollup document: the event, the day, and the
+     * count per notification type. Tapping it shows that day's raw entries.
+     *
+     * @param doc The Firestore document representing one event and day.
+     */
+    private void addRollupCard(QueryDocumentSnapshot doc) {
+        View card = LayoutInflater.from(getContext()).inflate(R.layout.item_log_card, eventsContainer, false);
+
+        TextView title = card.findViewById(R.id.logTitle);
+        TextView message = card.findViewById(R.id.logMessage);
+        TextView meta = card.findViewById(R.id.logMeta);
+
+        String eventId = doc.getString("eventId");
+        String day = doc.getString("day");
+        Timestamp dayStart = doc.getTimestamp("dayStart");
+        Long total = doc.getLong("total");
+
+        StringBuilder counts = new StringBuilder();
+        Object raw = doc.get("counts");
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) raw).entrySet()) {
+                if (counts.length() > 0) counts.append('\n');
+                counts.append(e.getKey()).append(": ").append(e.getValue());
+            }
+        }
+
+        title.setText("Event: loading...");
+        message.setText(counts.toString());
+        meta.setText("Day: " + formatDay(day) + " (UTC)"
+                + "\nTotal: " + (total == null ? 0 : total)
+                + "\nTap to show entries");
+
+        lookup("events", eventId).addOnSuccessListener(eventDoc -> {
+            if (eventDoc.exists()) {
+                title.setText(eventDoc.getString("title"));
+            }
+        });
+
+        eventsContainer.addView(card);
+        if (eventId == null || dayStart == null) return;
+
+        Timestamp dayEnd = new Timestamp(new Date(dayStart.toDate().getTime() + TimeUnit.DAYS.toMillis(1)));
+        LinearLayout entries = addEntriesContainer();
+        card.setOnClickListener(v -> toggleEntries(entries, NotificationLogs.logs(db)
+                .whereEqualTo("eventId", eventId)
+                .whereGreaterThanOrEqualTo("timestamp", dayStart)
+                .whereLessThan("timestamp", dayEnd)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(ENTRY_LIMIT)));
+    }
+
+    /**
+     * @return An empty container placed below the card just added, holding
+     *         its raw entries while they are shown.
+     */
+    private LinearLayout addEntriesContainer() {
+        LinearLayout entries = new LinearLayout(getContext());
+        entries.setOrientation(LinearLayout.VERTICAL);
+        entries.setPadding(30, 0, 0, 0);
+        eventsContainer.addView(entries);
+        return entries;
+    }
+
+    /**
+     * Shows the raw entries of a query below its card, or hides them if
+     * they are already shown.
+     *
+     * @param entries Container below the card.
+     * @param query   Raw notification_logs entries to show.
+     */
+    private void toggleEntries(LinearLayout entries, Query query) {
+        if (entries.getChildCount() > 0) {
+            entries.removeAllViews();
+            return;
+        }
+
+        fs.get(query).addOnSuccessListener(snap -> {
+            if (getContext() == null) return;
+            entries.removeAllViews();
+            for (QueryDocumentSnapshot doc : snap) {
+                addLogCard(entries, doc);
+            }
+
+            if (snap.isEmpty()) {
+                TextView msg = new TextView(getContext());
+                msg.setText("No entries. Entries are kept for " + NotificationLogs.RETENTION_DAYS + " days.");
+                msg.setPadding(20, 20, 20, 20);
+                entries.addView(msg);
+            }
+        });
+    }
+
     /**
      * Creates and populates a single log card view based on a Firestore document.
      * The card shows the notification title, message, and metadata such as event,
      * sender, recipient, and timestamp. Some fields are filled in asynchronously
      * with extra Firestore requests.
      *
-     * @param doc The Firestore document representing a notification log entry.
+     * @param parent Container the card is added to.
+     * @param doc    The Firestore document representing a notification log entry.
      */
-    private void addLogCard(QueryDocumentSnapshot doc) {
+    private void addLogCard(LinearLayout parent, QueryDocumentSnapshot doc) {
         LayoutInflater inflater = LayoutInflater.from(getContext());
-        View card = inflater.inflate(R.layout.item_log_card, eventsContainer, false);
+        View card = inflater.inflate(R.layout.item_log_card, parent, false);
 
         TextView title = card.findViewById(R.id.logTitle);
         TextView message = card.findViewById(R.id.logMessage);
@@ -120,10 +273,7 @@ public class NotificationsFragment extends Fragment {
         );
 
         // Fetch event title
-        FirebaseFirestore.getInstance()
-                .collection("events")
-                .document(eventId)
-                .get()
+        lookup("events", eventId)
                 .addOnSuccessListener(eventDoc -> {
                     if (eventDoc.exists()) {
                         String eventName = eventDoc.getString("title");
@@ -132,10 +282,7 @@ public class NotificationsFragment extends Fragment {
                 });
 
         // Fetch organizer name
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(organizerId)
-                .get()
+        lookup("users", organizerId)
                 .addOnSuccessListener(userDoc -> {
                     if (userDoc.exists()) {
                         String name = userDoc.getString("fullName");
@@ -145,10 +292,7 @@ public class NotificationsFragment extends Fragment {
                 });
 
         // Fetch recipient name
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(recipientId)
-                .get()
+        lookup("users", recipientId)
                 .addOnSuccessListener(userDoc -> {
                     if (userDoc.exists()) {
                         String name = userDoc.getString("fullName");
@@ -157,7 +301,36 @@ public class NotificationsFragment extends Fragment {
                     }
                 });
 
-        eventsContainer.addView(card);
+        parent.addView(card);
+    }
+
+    /**
+     * Reads an event or user document once per screen visit.
+     *
+     * @param collection "events" or "users".
+     * @param id         Document ID (may be null).
+     * @return Task with the document; a failed task for a null ID.
+     */
+    private Task<DocumentSnapshot> lookup(String collection, String id) {
+        if (id == null) {
+            return Tasks.forException(new IllegalArgumentException("Missing " + collection + " ID"));
+        }
+        String path = collection + "/" + id;
+        Task<DocumentSnapshot> task = lookups.get(path);
+        if (task == null) {
+            task = fs.get(db.collection(collection).document(id));
+            lookups.put(path, task);
+        }
+        return task;
+    }
+
+    /**
+     * @param day Day as "yyyyMMdd" (may be null).
+     * @return The day as "yyyy-MM-dd", or the input if it has another form.
+     */
+    private static String formatDay(String day) {
+        if (day == null || day.length() != 8) return String.valueOf(day);
+        return day.substring(0, 4) + "-" + day.substring(4, 6) + "-" + day.substring(6);
     }
 
     /**
@@ -24,6 +24,11 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.apollo.R;
+import com.example.apollo.data.CascadeDeleteWorker;
+import com.example.apollo.data.CascadeDeleter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.TokenSearch;
+import com.example.apollo.utils.SearchTokens;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
@@ -33,17 +38,34 @@ import java.util.List;
 /**
  * Fragment that displays a list of user profiles for admins.
  * Each profile card shows basic account information and includes
- * a delete button with confirmation.
+ * a delete button with confirmation. Searches run against the users'
+ * search tokens ({@link TokenSearch}), so each one reads only the matching
+ * profiles.
  */
 public class ProfilesFragment extends Fragment {
 
+    /** Profiles shown before anything is typed. */
+    private static final int BROWSE_LIMIT = 50;
+
+    /** Most profiles read per search. */
+    private static final int SEARCH_LIMIT = 50;
+
+    /** Wait after the last keystroke before searching. */
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
+    private TokenSearch search;
     private LinearLayout profilesContainer;
     private EditText searchInput;
 
-    /** In-memory list of all profiles, used for filtering. */
+    /** Profiles loaded by the last browse or search, used for filtering. */
     private final List<DocumentSnapshot> allProfiles = new ArrayList<>();
 
+    /** Incremented per search so results of an older search are dropped. */
+    private int searchGeneration = 0;
+    private final Runnable pendingSearch = this::runSearch;
+
     /**
      * Inflates the profiles layout, initializes Firestore and UI views,
      * loads the list of user profiles, and sets up the search bar.
@@ -62,8 +84,11 @@ public class ProfilesFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_profiles_admin, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("admin/profiles");
         profilesContainer = view.findViewById(R.id.profilesContainer);
         searchInput = view.findViewById(R.id.search_input);
+        search = new TokenSearch(fs, db.collection("users"), SEARCH_LIMIT,
+                doc -> new String[]{doc.getString("name"), doc.getString("username")});
 
         loadProfiles();
         setupSearchBar();
@@ -72,27 +97,63 @@ public class ProfilesFragment extends Fragment {
     }
 
     /**
-     * Loads all user documents from the "users" collection in Firestore.
-     * The results are stored in {@code allProfiles} and rendered as cards.
+     * Stops a pending search so it cannot run after the view is gone.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (searchInput != null) searchInput.removeCallbacks(pendingSearch);
+    }
+
+    /**
+     * Loads the first {@link #BROWSE_LIMIT} user documents from the "users"
+     * collection in Firestore, shown while nothing is typed.
      */
     private void loadProfiles() {
-        db.collection("users")
-                .get()
+        int generation = ++searchGeneration;
+        fs.get(db.collection("users").limit(BROWSE_LIMIT))
                 .addOnSuccessListener(query -> {
-                    profilesContainer.removeAllViews();
-                    allProfiles.clear();
-
-                    allProfiles.addAll(query.getDocuments());
-
-                    for (DocumentSnapshot doc : allProfiles) {
-                        addProfileCard(doc);
-                    }
+                    if (generation == searchGeneration) showProfiles(query.getDocuments());
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(getContext(), "Failed to load profiles", Toast.LENGTH_SHORT).show()
                 );
     }
 
+    /**
+     * Runs the search for the current text: the browse list for an empty
+     * query, otherwise an indexed search.
+     */
+    private void runSearch() {
+        if (!isAdded()) return;
+        String query = searchInput.getText().toString().trim();
+        if (SearchTokens.queryToken(query) == null) {
+            loadProfiles();
+            return;
+        }
+
+        int generation = ++searchGeneration;
+        search.search(query)
+                .addOnSuccessListener(docs -> {
+                    if (generation == searchGeneration) showProfiles(docs);
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(getContext(), "Search failed", Toast.LENGTH_SHORT).show());
+    }
+
+    /**
+     * Stores the given profiles in {@code allProfiles} and renders the ones
+     * matching the current text as cards.
+     *
+     * @param docs User documents to show.
+     */
+    private void showProfiles(List<DocumentSnapshot> docs) {
+        if (!isAdded()) return;
+        allProfiles.clear();
+        allProfiles.addAll(docs);
+        filterProfiles(searchInput.getText().toString().trim());
+    }
+
 
     /**
      * Creates and adds a single profile card view to the container using
@@ -140,18 +201,26 @@ public class ProfilesFragment extends Fragment {
 
     /**
      * Deletes the given user document from Firestore and removes its card
-     * from the layout if the delete succeeds.
+     * from the layout if the delete succeeds. The user's waitlist entries,
+     * memberships and notifications are then removed in the background by
+     * {@link CascadeDeleteWorker}.
      *
      * @param doc  Firestore document to delete.
      * @param card Card view associated with this profile.
      */
     private void deleteProfile(DocumentSnapshot doc, View card) {
-        db.collection("users")
-                .document(doc.getId())
-                .delete()
+        fs.delete(db.collection("users")
+                .document(doc.getId()))
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(getContext(), "Profile deleted", Toast.LENGTH_SHORT).show();
                     profilesContainer.removeView(card);
+                    allProfiles.remove(doc);
+                    search.forget(doc.getId());
+
+                    if (getContext() != null) {
+                        CascadeDeleteWorker.enqueue(getContext(),
+                                CascadeDeleter.Target.user(doc.getId()));
+                    }
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(getContext(), "Failed to delete profile", Toast.LENGTH_SHORT).show());
@@ -169,7 +238,10 @@ public class ProfilesFragment extends Fragment {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Narrow what is already shown right away, then search the index
                 filterProfiles(s.toString().trim());
+                searchInput.removeCallbacks(pendingSearch);
+                searchInput.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -180,8 +252,9 @@ public class ProfilesFragment extends Fragment {
 
 
     /**
-     * Filters the full list of profiles against the given query and
-     * redraws the visible cards. Matches are done on name or username.
+     * Filters the loaded profiles against the given query and redraws the
+     * visible cards. Every word typed must start a word of the name or
+     * username; matches are case-insensitive.
      *
      * @param query The search query entered by the admin.
      */
@@ -197,15 +270,8 @@ public class ProfilesFragment extends Fragment {
             return;
         }
 
-        String lowerQuery = query.toLowerCase();
-
         for (DocumentSnapshot doc : allProfiles) {
-            String name = doc.getString("name");
-            String username = doc.getString("username");
-
-            if ((name != null && name.toLowerCase().contains(lowerQuery))
-                    || (username != null && username.toLowerCase().contains(lowerQuery))) {
-
+            if (SearchTokens.matches(query, doc.getString("name"), doc.getString("username"))) {
                 addProfileCard(doc);
             }
         }
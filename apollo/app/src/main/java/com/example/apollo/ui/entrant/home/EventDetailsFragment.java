@@ -43,24 +43,24 @@ import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.InviteResponder;
+import com.example.apollo.data.ListenerRegistry;
 import com.example.apollo.ui.login.LoginActivity;
+import com.example.apollo.ui.organizer.events.EventRepo;
+import com.example.apollo.utils.QrModules;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.SetOptions;
-import com.google.firebase.firestore.WriteBatch;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Fragment that shows entrant-side event details and controls waitlist behavior.
@@ -70,6 +70,7 @@ import java.util.Map;
 public class EventDetailsFragment extends Fragment {
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseAuth mAuth;
     private TextView textEventTitle, textEventDescription, textEventSummary, loginText;
     private TextView textWaitlistCount;
@@ -79,7 +80,9 @@ public class EventDetailsFragment extends Fragment {
 
     private String eventId;
     private String uid;
-    private HashMap<String, Object> pendingData;
+    // stored "eventQR" value; events created before it existed use their ID
+    private String qrValue;
+    private EventRepo eventRepo;
 
     private FusedLocationProviderClient fusedLocationClient;
 
@@ -94,6 +97,10 @@ public class EventDetailsFragment extends Fragment {
     // keep latest snapshots to avoid races
     private Boolean hasRegistered = null, hasInvited = null, hasWaiting = null, isGeolocation = null;
 
+    // latest waitlist capacity and "waiting" count from the waitlist listeners
+    private Long waitlistCapacity = null;
+    private int waitlistCount = -1;
+
     /**
      * Inflates the event details layout, initializes Firestore/auth/location,
      * loads event information, and sets up logic depending on whether the
@@ -113,6 +120,7 @@ public class EventDetailsFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_event_details, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/event-details");
         mAuth = FirebaseAuth.getInstance();
 
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(requireActivity());
@@ -128,9 +136,16 @@ public class EventDetailsFragment extends Fragment {
         textWaitlistCount = view.findViewById(R.id.textWaitlistCount);
         eventPosterImage = view.findViewById(R.id.eventPosterImage);
 
+        EventPrefetchCache.Entry prefetched = null;
         if (getArguments() != null) {
             eventId = getArguments().getString("eventId");
-            loadEventDetails(eventId);
+            prefetched = EventPrefetchCache.getInstance().take(eventId);
+            if (prefetched != null) {
+                // Opened right after a QR scan: render what was prefetched during the dialog
+                bindEventDetails(prefetched.event);
+            } else {
+                loadEventDetails(eventId);
+            }
             listenToWaitlistCount(eventId);
         }
 
@@ -149,6 +164,10 @@ public class EventDetailsFragment extends Fragment {
         } else {
             loginText.setVisibility(View.GONE);
             uid = currentUser.getUid();
+            eventRepo = new EventRepo();
+            if (prefetched != null) {
+                recalcState(prefetched.registered, prefetched.invited, prefetched.waiting);
+            }
             observeUserEventState();
             wireJoinLeaveAction();
         }
@@ -166,142 +185,10 @@ public class EventDetailsFragment extends Fragment {
      */
     private void loadEventDetails(String eventId) {
         if (eventId == null) return;
-        db.collection("events").document(eventId)
-                .get()
+        fs.get(db.collection("events").document(eventId))
                 .addOnSuccessListener(document -> {
                     if (document.exists()) {
-                        String title = document.getString("title");
-                        String description = document.getString("description");
-                        String location = document.getString("location");
-                        String date = document.getString("date");
-                        String time = document.getString("time");
-                        String registrationOpen = document.getString("registrationOpen");
-                        String registrationClose = document.getString("registrationClose");
-                        Long eventCapacity = document.getLong("eventCapacity");
-                        Long waitlistCapacity = document.getLong("waitlistCapacity");
-                        Double price = document.getDouble("price");
-                        String posterUrl = document.getString("eventPosterUrl");
-                        isGeolocation = Boolean.TRUE.equals(document.getBoolean("geolocation"));
-
-                        if (posterUrl != null && !posterUrl.isEmpty()) {
-                            Glide.with(this)
-                                    .load(posterUrl)
-                                    .into(eventPosterImage);
-                        }
-
-                        String registrationPeriod = (registrationOpen != null && registrationClose != null)
-                                ? registrationOpen + " - " + registrationClose
-                                : "Not specified";
-                        String capacityText = (eventCapacity != null) ? "Event Capacity: " + eventCapacity : "Event Capacity:  N/A";
-                        String waitlistText = (waitlistCapacity != null) ? "Waitlist Capacity: " + waitlistCapacity : "Waitlist Capacity: N/A";
-                        String dateText = (date != null) ? date : "N/A";
-                        String timeText = (time != null) ? time : "N/A";
-                        String priceText = (price != null) ? "$" + price : "Free";
-                        String locationText = (location != null) ? location : "TBD";
-
-                        textEventTitle.setText(title != null ? title : "Untitled Event");
-                        textEventDescription.setText(description != null ? description : "No description available");
-                        textEventSummary.setText(
-                                "Location: " + locationText +
-                                        "\nDate: " + dateText +
-                                        "\nTime: " + timeText +
-                                        "\nPrice: " + priceText +
-                                        "\nRegistration: " + registrationPeriod +
-                                        "\n" + capacityText +
-                                        "\n" + waitlistText
-                        );
-
-                        if (waitlistCapacity != null) {
-                            db.collection("events").document(eventId)
-                                    .collection("waitlist")
-                                    .whereEqualTo("state", "waiting")
-                                    .get()
-                                    .addOnSuccessListener(snapshot -> {
-                                        int currentCount = snapshot.size();
-                                        if (currentCount >= waitlistCapacity) {
-                                            // Disable join button because waitlist is full
-                                            buttonJoinWaitlist.setText("WAITLIST FULL");
-                                            buttonJoinWaitlist.setEnabled(false);
-                                            buttonJoinWaitlist.setBackgroundTintList(
-                                                    ContextCompat.getColorStateList(requireContext(), android.R.color.darker_gray));
-                                            buttonJoinWaitlist.setTextColor(
-                                                    ContextCompat.getColor(requireContext(), android.R.color.white));
-                                        }
-                                    })
-                                    .addOnFailureListener(e ->
-                                            Log.e("Firestore", "Failed to check waitlist capacity", e));
-                        }
-
-                        // Save for UI text later (used in renderButton)
-                        registrationOpenText = registrationOpen;
-
-                        boolean notStarted = false;
-                        boolean ended = false;
-                        boolean isOpen = true;
-
-                        try {
-                            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-                            // strip time to compare date-only
-                            Date today = sdf.parse(sdf.format(new Date()));
-
-                            Date openDate = registrationOpen != null ? sdf.parse(registrationOpen) : null;
-                            Date closeDate = registrationClose != null ? sdf.parse(registrationClose) : null;
-
-                            if (openDate != null && closeDate != null) {
-                                if (today.before(openDate)) {
-                                    notStarted = true;
-                                    isOpen = false;
-                                } else if (today.after(closeDate)) {
-                                    ended = true;
-                                    isOpen = false;
-                                } else {
-                                    // between open and close
-                                    isOpen = true;
-                                }
-                            } else if (openDate != null) {
-                                if (today.before(openDate)) {
-                                    notStarted = true;
-                                    isOpen = false;
-                                } else {
-                                    isOpen = true;
-                                }
-                            } else if (closeDate != null) {
-                                if (today.after(closeDate)) {
-                                    ended = true;
-                                    isOpen = false;
-                                } else {
-                                    isOpen = true;
-                                }
-                            } else {
-
-                                isOpen = true;
-                            }
-                        } catch (Exception e) {
-                            Log.w("DateParse", "Failed to parse registration dates", e);
-                        }
-
-
-                        registrationNotStartedYet = notStarted;
-                        registrationEnded = ended;
-                        registrationOpenNow = isOpen;
-
-
-                        if (registrationNotStartedYet) {
-                            buttonJoinWaitlist.setText("REGISTRATION NOT OPEN");
-                            buttonJoinWaitlist.setEnabled(false);
-                            buttonJoinWaitlist.setBackgroundTintList(
-                                    ContextCompat.getColorStateList(requireContext(), android.R.color.darker_gray));
-                            buttonJoinWaitlist.setTextColor(
-                                    ContextCompat.getColor(requireContext(), android.R.color.white));
-                        } else if (registrationEnded) {
-                            buttonJoinWaitlist.setText("REGISTRATION CLOSED");
-                            buttonJoinWaitlist.setEnabled(false);
-                            buttonJoinWaitlist.setBackgroundTintList(
-                                    ContextCompat.getColorStateList(requireContext(), android.R.color.darker_gray));
-                            buttonJoinWaitlist.setTextColor(
-                                    ContextCompat.getColor(requireContext(), android.R.color.white));
-                        }
-
+                        bindEventDetails(document);
                     } else {
                         Log.w("Firestore", "No such event found with ID: " + eventId);
                     }
@@ -309,34 +196,155 @@ public class EventDetailsFragment extends Fragment {
                 .addOnFailureListener(e -> Log.e("Firestore", "Error loading event details", e));
     }
 
+    /**
+     * Fills the screen from an event document, whether it was just fetched
+     * or prefetched by {@link EventPrefetchCache} after a QR scan.
+     *
+     * @param document Existing event document snapshot.
+     */
+    private void bindEventDetails(DocumentSnapshot document) {
+        if (!isAdded() || getContext() == null) return;
+
+        String title = document.getString("title");
+        String description = document.getString("description");
+        String location = document.getString("location");
+        String date = document.getString("date");
+        String time = document.getString("time");
+        String registrationOpen = document.getString("registrationOpen");
+        String registrationClose = document.getString("registrationClose");
+        Long eventCapacity = document.getLong("eventCapacity");
+        Long waitlistCapacity = document.getLong("waitlistCapacity");
+        Double price = document.getDouble("price");
+        String posterUrl = document.getString("eventPosterUrl");
+        isGeolocation = Boolean.TRUE.equals(document.getBoolean("geolocation"));
+
+        if (posterUrl != null && !posterUrl.isEmpty()) {
+            Glide.with(this)
+                    .load(posterUrl)
+                    .into(eventPosterImage);
+        }
+
+        String registrationPeriod = (registrationOpen != null && registrationClose != null)
+                ? registrationOpen + " - " + registrationClose
+                : "Not specified";
+        String capacityText = (eventCapacity != null) ? "Event Capacity: " + eventCapacity : "Event Capacity:  N/A";
+        String waitlistText = (waitlistCapacity != null) ? "Waitlist Capacity: " + waitlistCapacity : "Waitlist Capacity: N/A";
+        String dateText = (date != null) ? date : "N/A";
+        String timeText = (time != null) ? time : "N/A";
+        String priceText = (price != null) ? "$" + price : "Free";
+        String locationText = (location != null) ? location : "TBD";
+
+        textEventTitle.setText(title != null ? title : "Untitled Event");
+        textEventDescription.setText(description != null ? description : "No description available");
+        textEventSummary.setText(
+                "Location: " + locationText +
+                        "\nDate: " + dateText +
+                        "\nTime: " + timeText +
+                        "\nPrice: " + priceText +
+                        "\nRegistration: " + registrationPeriod +
+                        "\n" + capacityText +
+                        "\n" + waitlistText
+        );
+
+        // The full-waitlist state comes from listenToWaitlistCount
+
+        // Save for UI text later (used in renderButton)
+        registrationOpenText = registrationOpen;
+        qrValue = document.getString("eventQR");
+
+        boolean notStarted = false;
+        boolean ended = false;
+        boolean isOpen = true;
+
+        try {
+            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
+            // strip time to compare date-only
+            Date today = sdf.parse(sdf.format(new Date()));
+
+            Date openDate = registrationOpen != null ? sdf.parse(registrationOpen) : null;
+            Date closeDate = registrationClose != null ? sdf.parse(registrationClose) : null;
+
+            if (openDate != null && closeDate != null) {
+                if (today.before(openDate)) {
+                    notStarted = true;
+                    isOpen = false;
+                } else if (today.after(closeDate)) {
+                    ended = true;
+                    isOpen = false;
+                } else {
+                    // between open and close
+                    isOpen = true;
+                }
+            } else if (openDate != null) {
+                if (today.before(openDate)) {
+                    notStarted = true;
+                    isOpen = false;
+                } else {
+                    isOpen = true;
+                }
+            } else if (closeDate != null) {
+                if (today.after(closeDate)) {
+                    ended = true;
+                    isOpen = false;
+                } else {
+                    isOpen = true;
+                }
+            } else {
+
+                isOpen = true;
+            }
+        } catch (Exception e) {
+            Log.w("DateParse", "Failed to parse registration dates", e);
+        }
+
+
+        registrationNotStartedYet = notStarted;
+        registrationEnded = ended;
+        registrationOpenNow = isOpen;
+
+
+        if (registrationNotStartedYet) {
+            buttonJoinWaitlist.setText("REGISTRATION NOT OPEN");
+            buttonJoinWaitlist.setEnabled(false);
+            buttonJoinWaitlist.setBackgroundTintList(
+                    ContextCompat.getColorStateList(requireContext(), android.R.color.darker_gray));
+            buttonJoinWaitlist.setTextColor(
+                    ContextCompat.getColor(requireContext(), android.R.color.white));
+        } else if (registrationEnded) {
+            buttonJoinWaitlist.setText("REGISTRATION CLOSED");
+            buttonJoinWaitlist.setEnabled(false);
+            buttonJoinWaitlist.setBackgroundTintList(
+                    ContextCompat.getColorStateList(requireContext(), android.R.color.darker_gray));
+            buttonJoinWaitlist.setTextColor(
+                    ContextCompat.getColor(requireContext(), android.R.color.white));
+        }
+    }
+
 
 
     /**
      * Attaches snapshot listeners to the registrations, invites, and waitlist
      * subcollections so the fragment always knows the user's latest state.
      * The combined state is later used to control the button behavior.
+     * The listeners are bound to the view lifecycle through {@link ListenerRegistry}.
      */
     private void observeUserEventState() {
         if (eventId == null || uid == null) return;
 
+        ListenerRegistry listeners = ListenerRegistry.getInstance();
 
-        db.collection("events").document(eventId)
-                .collection("registrations").document(uid)
-                .addSnapshotListener((doc, e) -> {
+        listeners.listen(getViewLifecycleOwner(), fs, db.collection("events").document(eventId)
+                .collection("registrations").document(uid), (doc, e) -> {
                     boolean registered = (doc != null && doc.exists());
                     recalcState(registered, /*invited*/null, /*waiting*/null);
                 });
 
-
-        db.collection("events").document(eventId)
-                .collection("invites").document(uid)
-                .addSnapshotListener((doc, e) -> {
-                    boolean invited = (doc != null && doc.exists());
-                    recalcState(/*registered*/null, invited, /*waiting*/null);
+        listeners.listen(getViewLifecycleOwner(), fs, db.collection("events").document(eventId)
+                .collection("invites").document(uid), (doc, e) -> {
+                    recalcState(/*registered*/null, EventPrefetchCache.isOpenInvite(doc), /*waiting*/null);
                 });
 
-
-        waitlistRef().addSnapshotListener((doc, e) -> {
+        listeners.listen(getViewLifecycleOwner(), fs, waitlistRef(), (doc, e) -> {
             boolean waiting = (doc != null && doc.exists() &&
                     "waiting".equals(doc.getString("state")));
             recalcState(/*registered*/null, /*invited*/null, waiting);
@@ -422,41 +430,12 @@ public class EventDetailsFragment extends Fragment {
             if (grantResults.length > 0 &&
                     grantResults[0] == PackageManager.PERMISSION_GRANTED) {
 
-                getUserLocation((lat, lon) -> {
-                    if (lat != null && lon != null) {
-                        pendingData.put("latitude", lat);
-                        pendingData.put("longitude", lon);
-
-                        DocumentReference eventRef = db.collection("events").document(eventId);
-
-                        eventRef.get().addOnSuccessListener(doc -> {
-                            List<Map<String, Object>> coords =
-                                    (List<Map<String, Object>>) doc.get("coordinate");
-
-                            if (coords == null) coords = new ArrayList<>();
-
-                            Map<String, Object> newPoint = new HashMap<>();
-                            newPoint.put("lat", lat);
-                            newPoint.put("lon", lon);
-                            coords.add(newPoint);
-
-                            eventRef.update("coordinate", coords)
-                                    .addOnSuccessListener(a -> {
-                                        // Now save waitlist
-                                        waitlistRef().set(pendingData, SetOptions.merge())
-                                                .addOnSuccessListener(ok -> toast("Joined waitlist"))
-                                                .addOnFailureListener(err -> toast("Failed: " + err.getMessage()));
-                                    })
-                                    .addOnFailureListener(err -> toast("Coord update failed: " + err.getMessage()));
-                        });
-
-                    } else {
-                        waitlistRef().set(pendingData, SetOptions.merge());
-                    }
-                });
+                // Continue the join that was waiting on the permission
+                getUserLocation(this::joinWaitlist);
 
             } else {
                 toast("Location permission denied");
+                setLoading(false);
             }
         }
 
@@ -478,15 +457,18 @@ public class EventDetailsFragment extends Fragment {
 
             if (state == State.INVITED) {
                 setLoading(true);
-                HashMap<String, Object> regData = new HashMap<>();
-                regData.put("registeredAt", FieldValue.serverTimestamp());
-
-                WriteBatch batch = db.batch();
-                batch.set(registrationRef(), regData, SetOptions.merge());
-                batch.delete(waitlistRef());
-                batch.delete(inviteRef());
+                new InviteResponder()
+                        .accept(eventId, null, new InviteResponder.OptimisticUpdate() {
+                            @Override
+                            public void apply() {
+                                recalcState(true, false, false);
+                            }
 
-                batch.commit()
+                            @Override
+                            public void rollback(@NonNull Exception e) {
+                                recalcState(false, true, null);
+                            }
+                        })
                         .addOnSuccessListener(ok -> {
                             toast("You’re registered for this event!");
                             setLoading(false);
@@ -501,7 +483,7 @@ public class EventDetailsFragment extends Fragment {
             if (state == State.WAITING) {
                 // leave waitlist
                 setLoading(true);
-                waitlistRef().delete()
+                eventRepo.leaveWaitlist(eventId)
                         .addOnSuccessListener(ok -> {
                             toast("Left waitlist");
                             setLoading(false);
@@ -513,114 +495,61 @@ public class EventDetailsFragment extends Fragment {
             } else {
 
                 setLoading(true);
-                HashMap<String, Object> data = new HashMap<>();
-                data.put("joinedAt", FieldValue.serverTimestamp());
-                data.put("state", "waiting");
-                data.put("lastResult", null);
-                pendingData = data;
 
                 if (isGeolocation != null && isGeolocation) {
-
-                    getUserLocation((lat, lon) -> {
-
-                        if (lat != null && lon != null) {
-
-
-                            data.put("latitude", lat);
-                            data.put("longitude", lon);
-
-
-                            DocumentReference eventRef = db.collection("events").document(eventId);
-
-                            eventRef.get().addOnSuccessListener(doc -> {
-
-                                List<Map<String, Object>> coords =
-                                        (List<Map<String, Object>>) doc.get("coordinate");
-
-                                if (coords == null) {
-                                    coords = new ArrayList<>();
-                                }
-
-                                Map<String, Object> newPoint = new HashMap<>();
-                                newPoint.put("lat", lat);
-                                newPoint.put("lon", lon);
-                                coords.add(newPoint);
-
-                                // Update the event's coordinates
-                                eventRef.update("coordinate", coords)
-                                        .addOnSuccessListener(a -> {
-                                            Log.d("Geo", "Coordinate appended.");
-
-                                            //  save the entrant to waitlist
-                                            waitlistRef().set(data, SetOptions.merge())
-                                                    .addOnSuccessListener(ok -> {
-                                                        toast("Joined waitlist");
-                                                        setLoading(false);
-                                                    })
-                                                    .addOnFailureListener(e -> {
-                                                        toast("Failed to join: " + e.getMessage());
-                                                        setLoading(false);
-                                                    });
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            Log.e("Geo", "Failed to append coord", e);
-                                            setLoading(false);
-                                        });
-                            });
-
-                        } else {
-
-                            waitlistRef().set(data, SetOptions.merge())
-                                    .addOnSuccessListener(ok -> {
-                                        toast("Joined waitlist");
-                                        setLoading(false);
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        toast("Failed: " + e.getMessage());
-                                        setLoading(false);
-                                    });
-                        }
-
-                    });
-
+                    getUserLocation(this::joinWaitlist);
                 } else {
                     // No geolocation means simple save
-                    waitlistRef().set(data, SetOptions.merge())
-                            .addOnSuccessListener(ok -> {
-                                toast("Joined waitlist");
-                                setLoading(false);
-                            })
-                            .addOnFailureListener(e -> {
-                                toast("Failed to join: " + e.getMessage());
-                                setLoading(false);
-                            });
+                    joinWaitlist(null, null);
                 }
             }
 
         });
     }
 
+    /**
+     * Joins the waitlist through {@link EventRepo}, which reserves a capacity
+     * slot and writes the waitlist entry and (when available) the entrant's
+     * location document in one transaction.
+     *
+     * @param lat Latitude of the entrant, or null.
+     * @param lon Longitude of the entrant, or null.
+     */
+    private void joinWaitlist(@Nullable Double lat, @Nullable Double lon) {
+        eventRepo.joinWaitlist(eventId, lat, lon)
+                .addOnSuccessListener(result -> {
+                    switch (result) {
+                        case FULL:
+                            toast("Sorry, the waitlist is full.");
+                            break;
+                        case ALREADY_JOINED:
+                            toast("You’re already on the waitlist.");
+                            break;
+                        default:
+                            toast("Joined waitlist");
+                            break;
+                    }
+                    setLoading(false);
+                })
+                .addOnFailureListener(e -> {
+                    toast("Failed to join: " + e.getMessage());
+                    setLoading(false);
+                });
+    }
+
     /** @return DocumentReference for this user's waitlist entry under the current event. */
     private DocumentReference waitlistRef() {
         return db.collection("events").document(eventId)
                 .collection("waitlist").document(uid);
     }
 
-    /** @return DocumentReference for this user's invite entry under the current event. */
-    private DocumentReference inviteRef() {
-        return db.collection("events").document(eventId)
-                .collection("invites").document(uid);
-    }
-
-    /** @return DocumentReference for this user's registration entry under the current event. */
-    private DocumentReference registrationRef() {
-        return db.collection("events").document(eventId)
-                .collection("registrations").document(uid);
-    }
-
     /**
      * Listens for changes to the event's waitlist and updates the displayed
      * count. If the waitlist is full, this method also disables the join button.
+     * Both the capacity and the count come from the event document, whose
+     * waitlistCount is maintained by every join and leave, so only one
+     * document is streamed however long the waitlist is. Events whose count
+     * was never stored fall back to a single count() aggregation.
      *
      * @param eventId The ID of the event whose waitlist should be observed.
      */
@@ -628,49 +557,62 @@ public class EventDetailsFragment extends Fragment {
         if (eventId == null) return;
 
         DocumentReference eventRef = db.collection("events").document(eventId);
+        waitlistCapacity = null;
+        waitlistCount = -1;
+        boolean[] counted = {false};
 
-        eventRef.addSnapshotListener((eventSnapshot, eventError) -> {
+        ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, eventRef, (eventSnapshot, eventError) -> {
             if (eventError != null || eventSnapshot == null || !eventSnapshot.exists()) {
                 Log.e("Firestore", "Error listening to event document", eventError);
                 return;
             }
 
-            Long waitlistCapacity = eventSnapshot.getLong("waitlistCapacity");
-            if (waitlistCapacity == null) waitlistCapacity = 0L;
-
-            Long finalWaitlistCapacity = waitlistCapacity;
-            eventRef.collection("waitlist")
-                    .whereEqualTo("state", "waiting")
-                    .addSnapshotListener((waitlistSnapshot, waitlistError) -> {
-                        if (waitlistError != null) {
-                            Log.e("Firestore", "Error listening to waitlist", waitlistError);
-                            return;
-                        }
-
-                        if (!isAdded() || getContext() == null) {
-                            Log.w("EventDetailsFragment", "waitlist listener: fragment not attached, skipping UI update");
-                            return;
-                        }
-
-                        android.content.Context ctx = getContext();
-
-                        int count = (waitlistSnapshot == null) ? 0 : waitlistSnapshot.size();
-                        textWaitlistCount.setText("Waitlist count: " + count);
-
-                        // If full disable button and show "WAITLIST FULL"
-                        if (count >= finalWaitlistCapacity && finalWaitlistCapacity > 0) {
-                            buttonJoinWaitlist.setText("WAITLIST FULL");
-                            buttonJoinWaitlist.setEnabled(false);
-                            buttonJoinWaitlist.setBackgroundTintList(
-                                    ContextCompat.getColorStateList(ctx, android.R.color.darker_gray));
-                            buttonJoinWaitlist.setTextColor(
-                                    ContextCompat.getColor(ctx, android.R.color.white));
-                        }
-                    });
+            Long capacity = eventSnapshot.getLong("waitlistCapacity");
+            waitlistCapacity = (capacity == null) ? 0L : capacity;
+
+            Long count = eventSnapshot.getLong("waitlistCount");
+            if (count != null) {
+                waitlistCount = (int) Math.max(0, count);
+            } else if (!counted[0]) {
+                counted[0] = true;
+                eventRef.collection("waitlist").count().get(AggregateSource.SERVER)
+                        .addOnSuccessListener(agg -> {
+                            waitlistCount = (int) agg.getCount();
+                            renderWaitlistCount();
+                        })
+                        .addOnFailureListener(e -> Log.e("Firestore", "Error counting waitlist", e));
+            }
+            renderWaitlistCount();
         });
     }
 
+    /**
+     * Shows the latest waitlist count and, once the waitlist is full,
+     * disables the join button and shows "WAITLIST FULL". Does nothing until
+     * both the capacity and the count have arrived.
+     */
+    private void renderWaitlistCount() {
+        if (waitlistCapacity == null || waitlistCount < 0) return;
+
+        if (!isAdded() || getContext() == null) {
+            Log.w("EventDetailsFragment", "waitlist listener: fragment not attached, skipping UI update");
+            return;
+        }
 
+        android.content.Context ctx = getContext();
+
+        textWaitlistCount.setText("Waitlist count: " + waitlistCount);
+
+        // If full disable button and show "WAITLIST FULL"
+        if (waitlistCount >= waitlistCapacity && waitlistCapacity > 0) {
+            buttonJoinWaitlist.setText("WAITLIST FULL");
+            buttonJoinWaitlist.setEnabled(false);
+            buttonJoinWaitlist.setBackgroundTintList(
+                    ContextCompat.getColorStateList(ctx, android.R.color.darker_gray));
+            buttonJoinWaitlist.setTextColor(
+                    ContextCompat.getColor(ctx, android.R.color.white));
+        }
+    }
 
     /**
      * Updates the main action button text, enabled state, and styling based on
@@ -773,7 +715,8 @@ public class EventDetailsFragment extends Fragment {
 
     /**
      * Shows a modal dialog with a QR code for this event. The QR code content
-     * is based on the event ID.
+     * is the event's stored "eventQR" value, or its ID for older events, the
+     * same values the scanner resolves.
      */
     private void showQrCodeModal() {
         if (eventId == null) return;
@@ -784,7 +727,7 @@ public class EventDetailsFragment extends Fragment {
         Button closeButton = dialogView.findViewById(R.id.closeButton);
 
 
-        Bitmap qrBitmap = generateQRCode(eventId);
+        Bitmap qrBitmap = generateQRCode(qrValue != null ? qrValue : eventId);
         qrImageView.setImageBitmap(qrBitmap);
 
 
@@ -811,12 +754,7 @@ public class EventDetailsFragment extends Fragment {
             int width = bitMatrix.getWidth();
             int height = bitMatrix.getHeight();
             Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bmp.setPixel(x, y, bitMatrix.get(x, y) ? android.graphics.Color.BLACK : android.graphics.Color.WHITE);
-                }
-            }
+            bmp.setPixels(QrModules.toPixels(bitMatrix), 0, width, 0, 0, width, height);
             return bmp;
         } catch (Exception e) {
             Log.e("QR", "Error generating QR code", e);
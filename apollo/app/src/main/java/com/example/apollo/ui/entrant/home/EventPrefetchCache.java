@@ -0,0 +1,293 @@
+package com.example.apollo.ui.entrant.home;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EventPrefetchCache.java
+ *
+ * Purpose:
+ * Warms everything {@link EventDetailsFragment} needs while the user is still
+ * looking at the "Open this event?" dialog after a QR scan, so the details screen
+ * can render immediately instead of starting its reads from scratch.
+ *
+ * What gets prefetched:
+ * - The scanned value is resolved to an event ID. Organizer posters encode the
+ *   "eventQR" UUID written by AddEventFragment, while older codes encode the
+ *   document ID directly; both lookups run in parallel and the UUID match wins.
+ * - The event document.
+ * - The signed-in user's registration / invite / waitlist documents.
+ * - The event poster, loaded into Glide's cache.
+ *
+ * Design Pattern:
+ * Process-wide singleton cache. Entries expire after {@link #TTL_MS} so a stale
+ * prefetch is never shown long after it was taken; the details screen still
+ * attaches its live listeners and corrects anything that changed.
+ */
+public class EventPrefetchCache {
+
+    private static final String TAG = "EventPrefetchCache";
+
+    /** How long a prefetched entry is considered fresh. */
+    private static final long TTL_MS = 60_000;
+
+    private static EventPrefetchCache instance;
+
+    /**
+     * Snapshot of an event and the current user's membership in it.
+     */
+    public static class Entry {
+        public final String eventId;
+        public final DocumentSnapshot event;
+        /** Membership flags; null when no user was signed in at prefetch time. */
+        @Nullable public final Boolean registered;
+        @Nullable public final Boolean invited;
+        @Nullable public final Boolean waiting;
+        final long fetchedAt;
+
+        Entry(String eventId, DocumentSnapshot event,
+              @Nullable Boolean registered, @Nullable Boolean invited, @Nullable Boolean waiting) {
+            this.eventId = eventId;
+            this.event = event;
+            this.registered = registered;
+            this.invited = invited;
+            this.waiting = waiting;
+            this.fetchedAt = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final Map<String, String> resolvedIds = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private EventPrefetchCache(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /** @return The shared cache instance. */
+    public static synchronized EventPrefetchCache getInstance() {
+        if (instance == null) {
+            instance = new EventPrefetchCache(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Resolves a scanned QR value and prefetches the event it points to.
+     * The returned task completes as soon as the event ID is known; the
+     * remaining reads keep running in the background and fill the cache.
+     *
+     * @param context Context used for the Glide poster preload.
+     * @param rawValue Raw string decoded from the QR code.
+     * @return Task with the resolved event ID, or null if no event matches.
+     */
+    public Task<String> prefetchFromScan(@NonNull Context context, @NonNull String rawValue) {
+        Context appContext = context.getApplicationContext();
+        Task<String> resolve = resolveEventId(rawValue);
+
+        resolve.addOnSuccessListener(eventId -> {
+            if (eventId != null) prefetch(appContext, eventId);
+        });
+
+        return resolve;
+    }
+
+    /**
+     * Resolves a scanned value to an event ID. The "eventQR" lookup is an
+     * equality query on a single field, which Firestore serves from its
+     * automatic index; the direct document lookup covers legacy codes.
+     *
+     * @param rawValue Raw string decoded from the QR code.
+     * @return Task with the event ID, or null when nothing matches.
+     */
+    public Task<String> resolveEventId(@NonNull String rawValue) {
+        synchronized (this) {
+            String known = resolvedIds.get(rawValue);
+            if (known != null) return Tasks.forResult(known);
+        }
+
+        Task<QuerySnapshot> byQr = fs.get(db.collection("events")
+                .whereEqualTo("eventQR", rawValue)
+                .limit(1));
+
+        // Document IDs cannot contain '/', so only try the direct lookup when valid
+        Task<DocumentSnapshot> byId = (rawValue.isEmpty() || rawValue.contains("/"))
+                ? Tasks.forResult(null)
+                : fs.get(db.collection("events").document(rawValue));
+
+        TaskCompletionSource<String> result = new TaskCompletionSource<>();
+
+        Tasks.whenAllComplete(byQr, byId).addOnCompleteListener(done -> {
+            String eventId = null;
+            DocumentSnapshot eventDoc = null;
+
+            if (byQr.isSuccessful() && byQr.getResult() != null && !byQr.getResult().isEmpty()) {
+                eventDoc = byQr.getResult().getDocuments().get(0);
+            } else if (byId.isSuccessful() && byId.getResult() != null && byId.getResult().exists()) {
+                eventDoc = byId.getResult();
+            }
+
+            if (eventDoc != null) {
+                eventId = eventDoc.getId();
+                synchronized (this) {
+                    resolvedIds.put(rawValue, eventId);
+                }
+            } else if (!byQr.isSuccessful() && !byId.isSuccessful()) {
+                Exception e = byQr.getException() != null ? byQr.getException() : byId.getException();
+                Log.e(TAG, "Failed to resolve scanned code", e);
+                result.setException(e != null ? e : new IllegalStateException("Lookup failed"));
+                return;
+            }
+
+            result.setResult(eventId);
+        });
+
+        return result.getTask();
+    }
+
+    /**
+     * Fetches the event document, the user's membership documents and the
+     * poster image in parallel, storing the result for {@link #peek(String)}.
+     *
+     * @param context Application context for Glide.
+     * @param eventId Firestore ID of the event.
+     */
+    public void prefetch(@NonNull Context context, @NonNull String eventId) {
+        if (peek(eventId) != null) return;
+
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+
+        Task<DocumentSnapshot> eventTask = fs.get(eventRef);
+        Task<DocumentSnapshot> regTask = null, inviteTask = null, waitTask = null;
+
+        if (user != null) {
+            String uid = user.getUid();
+            regTask = fs.get(eventRef.collection("registrations").document(uid));
+            inviteTask = fs.get(eventRef.collection("invites").document(uid));
+            waitTask = fs.get(eventRef.collection("waitlist").document(uid));
+        }
+
+        // Start the poster download as soon as the event document arrives
+        eventTask.addOnSuccessListener(doc -> {
+            String posterUrl = doc.getString("eventPosterUrl");
+            if (posterUrl != null && !posterUrl.isEmpty()) {
+                Glide.with(context).load(posterUrl).preload();
+            }
+        });
+
+        final Task<DocumentSnapshot> reg = regTask, invite = inviteTask, wait = waitTask;
+        Task<?> all = (user != null)
+                ? Tasks.whenAllComplete(eventTask, reg, invite, wait)
+                : Tasks.whenAllComplete(eventTask);
+
+        all.addOnCompleteListener(done -> {
+            if (!eventTask.isSuccessful() || eventTask.getResult() == null || !eventTask.getResult().exists()) {
+                Log.w(TAG, "Prefetch failed for event " + eventId);
+                return;
+            }
+
+            Boolean waiting = null;
+            if (wait != null && wait.isSuccessful()) {
+                DocumentSnapshot w = wait.getResult();
+                waiting = w != null && w.exists() && "waiting".equals(w.getString("state"));
+            }
+
+            Entry entry = new Entry(
+                    eventId,
+                    eventTask.getResult(),
+                    existsOrNull(reg),
+                    (invite != null && invite.isSuccessful()) ? isOpenInvite(invite.getResult()) : null,
+                    waiting
+            );
+
+            synchronized (this) {
+                entries.put(eventId, entry);
+            }
+        });
+    }
+
+    /**
+     * Returns a fresh prefetched entry for the event, if there is one.
+     *
+     * @param eventId Firestore ID of the event.
+     * @return Cached entry, or null when missing or expired.
+     */
+    @Nullable
+    public synchronized Entry peek(@Nullable String eventId) {
+        if (eventId == null) return null;
+        Entry entry = entries.get(eventId);
+        if (entry == null) return null;
+
+        if (SystemClock.elapsedRealtime() - entry.fetchedAt > TTL_MS) {
+            entries.remove(eventId);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns and removes the prefetched entry. The details screen consumes an
+     * entry once, so a later visit never renders membership state that the
+     * user has since changed.
+     *
+     * @param eventId Firestore ID of the event.
+     * @return Cached entry, or null when missing or expired.
+     */
+    @Nullable
+    public synchronized Entry take(@Nullable String eventId) {
+        Entry entry = peek(eventId);
+        if (entry != null) entries.remove(eventId);
+        return entry;
+    }
+
+    /**
+     * Drops any cached data for the event, e.g. after the user changes their membership.
+     *
+     * @param eventId Firestore ID of the event.
+     */
+    public synchronized void invalidate(@NonNull String eventId) {
+        entries.remove(eventId);
+    }
+
+    /**
+     * Invites stay in place after the entrant answers, with their status
+     * changed, so only an unanswered invite counts as "invited".
+     *
+     * @param invite The events/{id}/invites/{uid} snapshot, or null.
+     * @return True if the invite exists and is still waiting for a response.
+     */
+    static boolean isOpenInvite(@Nullable DocumentSnapshot invite) {
+        if (invite == null || !invite.exists()) return false;
+        String status = invite.getString("status");
+        return status == null || "invited".equals(status);
+    }
+
+    /** @return Whether the read document exists, or null if the read failed. */
+    @Nullable
+    private static Boolean existsOrNull(@Nullable Task<DocumentSnapshot> task) {
+        if (task == null || !task.isSuccessful()) return null;
+        DocumentSnapshot doc = task.getResult();
+        return doc != null && doc.exists();
+    }
+}
@@ -17,15 +17,22 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.utils.EventDates;
+import com.example.apollo.utils.FeedFilter;
+import com.example.apollo.utils.FeedSearchIndex;
+import com.example.apollo.utils.SearchTokens;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * HomeFragment.java
@@ -35,6 +42,11 @@ import java.util.Locale;
  * - Info dialog explaining the lottery system
  * - Navigation to filters and QR scanner
  * - Filtering by open/closed status, title, location, date, and categories
+ *
+ * The title keyword is a full-text search: it matches words of the title,
+ * description, location and categories through a {@link FeedSearchIndex},
+ * and matching events are listed best match first. The index lives as long
+ * as the fragment, so reloading the feed only re-indexes events that changed.
  */
 public class HomeFragment extends Fragment {
 
@@ -42,8 +54,10 @@ public class HomeFragment extends Fragment {
     private boolean showClosed = true;
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private LinearLayout eventsContainer;
     private final List<Event> allEvents = new ArrayList<>();
+    private final FeedSearchIndex searchIndex = new FeedSearchIndex();
 
     private String titleKeyword = "";
     private String locationKeyword = "";
@@ -66,6 +80,7 @@ public class HomeFragment extends Fragment {
 
         // Initialize Firestore
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/home");
 
         // Bind views
         ImageButton infoButton = view.findViewById(R.id.buttonInfo);
@@ -132,22 +147,17 @@ public class HomeFragment extends Fragment {
     /**
      * Loads all events from Firestore, builds a card for each event,
      * and stores a lightweight {@link Event} model for filtering.
-     * Also determines whether each event is "open" or "closed" based on dates.
+     * Keeps the search index in step: changed events are re-indexed and
+     * events that no longer exist are dropped. Also determines whether each event is "open" or "closed" based on dates.
      */
     private void loadEventsFromFirestore() {
-        db.collection("events")
-                .get()
+        fs.get(db.collection("events"))
                 .addOnSuccessListener(querySnapshot -> {
                     eventsContainer.removeAllViews();
                     allEvents.clear();
 
-                    SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-                    Date today = null;
-                    try {
-                        today = sdf.parse(sdf.format(new Date()));
-                    } catch (Exception e) {
-                        today = new Date();
-                    }
+                    Date today = EventDates.today();
+                    Set<String> loadedIds = new HashSet<>();
 
                     for (QueryDocumentSnapshot document : querySnapshot) {
                         String eventId = document.getId();
@@ -159,22 +169,15 @@ public class HomeFragment extends Fragment {
 
                         boolean isOpen = true;
                         boolean isClosed = false;
-                        Date openDate = null;
-                        Date closeDate = null;
-
-                        try {
-                            openDate = openDateStr != null ? sdf.parse(openDateStr) : null;
-                            closeDate = closeDateStr != null ? sdf.parse(closeDateStr) : null;
-
-                            if (closeDate != null && closeDate.before(today)) {
-                                isClosed = true;
-                                isOpen = false;
-                            } else if (openDate != null && openDate.after(today)) {
-                                isOpen = true;
-                                isClosed = false;
-                            }
-                        } catch (Exception e) {
-                            Log.w("DateParse", "Failed to parse registration dates", e);
+                        Date openDate = EventDates.parse(openDateStr);
+                        Date closeDate = EventDates.parse(closeDateStr);
+
+                        if (closeDate != null && closeDate.before(today)) {
+                            isClosed = true;
+                            isOpen = false;
+                        } else if (openDate != null && openDate.after(today)) {
+                            isOpen = true;
+                            isClosed = false;
                         }
 
                         View card = LayoutInflater.from(getContext())
@@ -202,9 +205,12 @@ public class HomeFragment extends Fragment {
                         List<String> categories = (List<String>) document.get("categories");
                         if (categories == null) categories = new ArrayList<>();
 
-                        allEvents.add(new Event(title, location, isOpen, isClosed, card, openDate, closeDate, categories));
+                        allEvents.add(new Event(eventId, title, location, isOpen, isClosed, card, openDate, closeDate, categories));
 
+                        searchIndex.put(eventId, title, document.getString("description"), location, categories);
+                        loadedIds.add(eventId);
                     }
+                    searchIndex.retainAll(loadedIds);
 
                     // Apply current filters
                     filterEvents();
@@ -215,49 +221,44 @@ public class HomeFragment extends Fragment {
     /**
      * Applies all active filters (open/closed, title, location, date, categories)
      * to the in-memory list of events and shows/hides event cards accordingly.
+     * With a title keyword, only events the search index matches are shown,
+     * ranked by relevance; otherwise cards keep their load order. Cards are
+     * never re-inflated or re-attached wholesale: only visibility flips and
+     * the shown cards that are out of order are moved.
      */
     private void filterEvents() {
-        boolean showAll = !showOpen && !showClosed;
-
-        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-        Date filterDate = null;
-        if (!dateFilter.isEmpty()) {
-            try { filterDate = sdf.parse(dateFilter); } catch (Exception ignored) {}
+        boolean searching = !SearchTokens.words(titleKeyword).isEmpty();
+        FeedFilter filter = new FeedFilter(showOpen, showClosed, searching ? "" : titleKeyword,
+                locationKeyword, EventDates.parse(dateFilter), selectedCategories);
+
+        List<Event> shown = new ArrayList<>();
+        if (searching) {
+            Map<String, Event> byId = new HashMap<>();
+            for (Event e : allEvents) byId.put(e.getId(), e);
+
+            for (String id : searchIndex.search(titleKeyword)) {
+                Event e = byId.get(id);
+                if (e != null && filter.matches(e)) shown.add(e);
+            }
+        } else {
+            for (Event e : allEvents) {
+                if (filter.matches(e)) shown.add(e);
+            }
         }
 
+        // Toggle visibility only where it changes
+        Set<Event> visible = new HashSet<>(shown);
         for (Event e : allEvents) {
-            boolean show = false;
-
-            if (showAll) show = true;
-            else {
-                if (showOpen && e.isOpen()) show = true;
-                if (showClosed && e.isClosed()) show = true;
-            }
-
-            if (show && !titleKeyword.isEmpty() && !e.getTitle().toLowerCase().contains(titleKeyword)) show = false;
-            if (show && !locationKeyword.isEmpty() && !e.getLocation().toLowerCase().contains(locationKeyword)) show = false;
-
-            if (show && filterDate != null && !e.isAvailableOn(filterDate)) show = false;
-
-            if (show && !selectedCategories.isEmpty()) {
-                List<String> eventCategories = e.getCategories();
-                if (eventCategories == null || eventCategories.isEmpty()) {
-                    show = false;
-                } else {
-                    boolean matchesCategory = false;
-
-                    for (String c : selectedCategories) {
-                        if (eventCategories.contains(c)) {
-                            matchesCategory = true;
-                            break;
-                        }
-                    }
-
-                    if (!matchesCategory) show = false;
-                }
-            }
+            int wanted = visible.contains(e) ? View.VISIBLE : View.GONE;
+            if (e.getView().getVisibility() != wanted) e.getView().setVisibility(wanted);
+        }
 
-            e.getView().setVisibility(show ? View.VISIBLE : View.GONE);
+        // Move only the shown cards that are out of place; hidden ones drift to the end
+        for (int i = 0; i < shown.size(); i++) {
+            View card = shown.get(i).getView();
+            if (eventsContainer.getChildAt(i) == card) continue;
+            eventsContainer.removeView(card);
+            eventsContainer.addView(card, i);
         }
     }
 
@@ -265,7 +266,8 @@ public class HomeFragment extends Fragment {
      * Lightweight model representing a single event in the home list.
      * Stores display information and the associated card view used for filtering.
      */
-    private static class Event {
+    private static class Event implements FeedFilter.Item {
+        private final String id;
         private final String title;
         private final String location;
         private final boolean isOpen;
@@ -278,6 +280,7 @@ public class HomeFragment extends Fragment {
         /**
          * Creates a new event entry used by the home screen.
          *
+         * @param id                Firestore event ID.
          * @param title             Event title.
          * @param location          Event location.
          * @param isOpen            Whether registration is currently considered open.
@@ -287,8 +290,9 @@ public class HomeFragment extends Fragment {
          * @param registrationClose Parsed registration close date (may be null).
          * @param categories        List of category labels attached to the event.
          */
-        public Event(String title, String location, boolean isOpen, boolean isClosed, View view,
+        public Event(String id, String title, String location, boolean isOpen, boolean isClosed, View view,
                      Date registrationOpen, Date registrationClose, List<String> categories) {
+            this.id = id;
             this.title = title;
             this.location = location;
             this.isOpen = isOpen;
@@ -300,18 +304,25 @@ public class HomeFragment extends Fragment {
         }
 
         /** @return true if the event is currently marked as open. */
+        @Override
         public boolean isOpen() { return isOpen; }
 
         /** @return true if the event is currently marked as closed. */
+        @Override
         public boolean isClosed() { return isClosed; }
 
+        /** @return The Firestore event ID. */
+        public String getId() { return id; }
+
         /** @return The associated card view. */
         public View getView() { return view; }
 
         /** @return The event title (may be null). */
+        @Override
         public String getTitle() { return title; }
 
         /** @return The event location (may be null). */
+        @Override
         public String getLocation() { return location; }
 
         /**
@@ -321,6 +332,7 @@ public class HomeFragment extends Fragment {
          * @param date Date to check against registration window.
          * @return true if the given date falls within the registration period.
          */
+        @Override
         public boolean isAvailableOn(Date date) {
             if (date == null) return true;
             if (registrationOpen != null && date.before(registrationOpen)) return false;
@@ -329,6 +341,7 @@ public class HomeFragment extends Fragment {
         }
 
         /** @return List of category labels associated with this event. */
+        @Override
         public List<String> getCategories() { return categories; }
     }
 }
@@ -0,0 +1,211 @@
+package com.example.apollo.ui.entrant.home;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * QrFrameAnalyzer.java
+ *
+ * CameraX analyzer that feeds QR decoding with as little work per frame as possible:
+ * - Skips frames so only every Nth frame is considered.
+ * - Drops frames while a previous decode is still running instead of queueing them.
+ * - Crops a centered square region of interest out of the luminance plane, so
+ *   ML Kit only looks at the part of the frame where the user aims the code.
+ * - Uses an atomic latch so exactly one decoded value is ever reported until
+ *   {@link #reset()} is called.
+ *
+ * Timing for every frame is recorded in a {@link ScanMetrics} instance.
+ */
+public class QrFrameAnalyzer implements ImageAnalysis.Analyzer {
+
+    private static final String TAG = "QrFrameAnalyzer";
+
+    /**
+     * Tuning knobs for the analysis pipeline.
+     */
+    public static class Config {
+        /** Resolution requested from CameraX for analysis frames. */
+        public Size targetResolution = new Size(1280, 720);
+        /** Side of the square ROI as a fraction of the shorter frame edge (0..1]. */
+        public float roiFraction = 0.7f;
+        /** Analyze one frame out of every N delivered frames. */
+        public int analyzeEveryNthFrame = 2;
+
+        /**
+         * Returns a config suited to the current device. Low-RAM devices get a
+         * smaller analysis resolution and skip more frames.
+         *
+         * @param context Any context.
+         * @return Device-appropriate configuration.
+         */
+        public static Config forDevice(@NonNull Context context) {
+            Config config = new Config();
+            ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            if (am != null && am.isLowRamDevice()) {
+                config.targetResolution = new Size(640, 480);
+                config.analyzeEveryNthFrame = 3;
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Receives the first decoded QR value. Called on the main thread.
+     */
+    public interface Listener {
+        void onDecoded(@NonNull String rawValue);
+    }
+
+    private final BarcodeScanner scanner;
+    private final Config config;
+    private final Listener listener;
+    private final ScanMetrics metrics = new ScanMetrics();
+
+    private final AtomicBoolean latched = new AtomicBoolean(false);
+    private final AtomicBoolean decodeInFlight = new AtomicBoolean(false);
+
+    /** Reused NV21 buffer for the cropped ROI. Only touched while decodeInFlight is held. */
+    private byte[] roiBuffer;
+    private long frameIndex = 0;
+
+    /**
+     * @param scanner  ML Kit barcode scanner configured for QR codes.
+     * @param config   Pipeline configuration.
+     * @param listener Receives the first decoded value.
+     */
+    public QrFrameAnalyzer(@NonNull BarcodeScanner scanner,
+                           @NonNull Config config,
+                           @NonNull Listener listener) {
+        this.scanner = scanner;
+        this.config = config;
+        this.listener = listener;
+    }
+
+    /** @return Metrics collected since this analyzer was created. */
+    public ScanMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Re-arms the latch so the next decoded code is reported again.
+     */
+    public void reset() {
+        latched.set(false);
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy imageProxy) {
+        long now = System.nanoTime();
+        metrics.onFrameReceived(now);
+
+        boolean skip = latched.get()
+                || (frameIndex++ % Math.max(1, config.analyzeEveryNthFrame)) != 0
+                || !decodeInFlight.compareAndSet(false, true);
+
+        if (skip) {
+            imageProxy.close();
+            return;
+        }
+
+        InputImage image;
+        try {
+            image = cropRoi(imageProxy);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to crop frame", e);
+            decodeInFlight.set(false);
+            return;
+        } finally {
+            // The ROI has been copied out, so the camera can reuse this frame right away
+            imageProxy.close();
+        }
+
+        long submitted = System.nanoTime();
+        scanner.process(image)
+                .addOnSuccessListener(barcodes -> {
+                    String value = null;
+                    if (barcodes != null) {
+                        for (Barcode code : barcodes) {
+                            if (code.getRawValue() != null) {
+                                value = code.getRawValue();
+                                break;
+                            }
+                        }
+                    }
+
+                    long done = System.nanoTime();
+                    metrics.onFrameAnalyzed(done - submitted, value != null, done);
+
+                    if (value != null && latched.compareAndSet(false, true)) {
+                        Log.d(TAG, "Decoded: " + metrics.summary(done));
+                        listener.onDecoded(value);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    long done = System.nanoTime();
+                    metrics.onFrameAnalyzed(done - submitted, false, done);
+                    Log.e(TAG, "Scan failed", e);
+                })
+                .addOnCompleteListener(task -> decodeInFlight.set(false));
+    }
+
+    /**
+     * Copies a centered square of the Y plane into an NV21 buffer with neutral chroma.
+     * QR detection only uses luminance, so this is all ML Kit needs.
+     */
+    private InputImage cropRoi(ImageProxy imageProxy) {
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+
+        int side = (int) (Math.min(width, height) * Math.max(0.1f, Math.min(1f, config.roiFraction)));
+        side &= ~1; // NV21 needs even dimensions
+        int left = ((width - side) / 2) & ~1;
+        int top = ((height - side) / 2) & ~1;
+
+        int lumaSize = side * side;
+        int nv21Size = lumaSize + lumaSize / 2;
+        if (roiBuffer == null || roiBuffer.length != nv21Size) {
+            roiBuffer = new byte[nv21Size];
+            Arrays.fill(roiBuffer, lumaSize, nv21Size, (byte) 128);
+        }
+
+        ImageProxy.PlaneProxy yPlane = imageProxy.getPlanes()[0];
+        ByteBuffer yBuffer = yPlane.getBuffer();
+        int rowStride = yPlane.getRowStride();
+        int pixelStride = yPlane.getPixelStride();
+
+        for (int row = 0; row < side; row++) {
+            int srcRow = (top + row) * rowStride;
+            int dst = row * side;
+            if (pixelStride == 1) {
+                yBuffer.position(srcRow + left);
+                yBuffer.get(roiBuffer, dst, side);
+            } else {
+                for (int col = 0; col < side; col++) {
+                    roiBuffer[dst + col] = yBuffer.get(srcRow + (left + col) * pixelStride);
+                }
+            }
+        }
+
+        return InputImage.fromByteArray(
+                roiBuffer,
+                side,
+                side,
+                imageProxy.getImageInfo().getRotationDegrees(),
+                InputImage.IMAGE_FORMAT_NV21
+        );
+    }
+}
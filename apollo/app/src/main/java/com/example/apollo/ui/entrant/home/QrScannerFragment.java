@@ -2,7 +2,6 @@ package com.example.apollo.ui.entrant.home;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
-import android.media.Image;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -10,15 +9,15 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.annotation.OptIn;
 import androidx.camera.core.CameraSelector;
-import androidx.camera.core.ExperimentalGetImage;
 import androidx.camera.core.ImageAnalysis;
-import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
@@ -26,6 +25,7 @@ import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.apollo.R;
+import com.google.android.gms.tasks.Task;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -34,7 +34,6 @@ import com.google.mlkit.vision.barcode.common.Barcode;
 import com.google.mlkit.vision.barcode.BarcodeScanner;
 import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
 import com.google.mlkit.vision.barcode.BarcodeScanning;
-import com.google.mlkit.vision.common.InputImage;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -49,12 +48,14 @@ import java.util.concurrent.Executors;
  *
  * Responsibilities:
  * - Handle camera permission and camera lifecycle
- * - Stream frames into ML Kit's barcode scanner
- * - Prevent duplicate scans with a simple hasScanned flag
+ * - Stream throttled, center-cropped frames into ML Kit via {@link QrFrameAnalyzer}
+ * - Prevent duplicate scans with the analyzer's atomic scan latch
+ * - Log decode latency and frame rate metrics when the scanner closes
  * - Navigate to EventDetailsFragment when user confirms
  */
 public class QrScannerFragment extends Fragment {
 
+    private static final String TAG = "QrScannerFragment";
     private static final int REQUEST_CAMERA_PERMISSION = 1001;
 
     private PreviewView previewView;
@@ -62,7 +63,8 @@ public class QrScannerFragment extends Fragment {
 
     private ExecutorService cameraExecutor;
     private BarcodeScanner barcodeScanner;
-    private boolean hasScanned = false;
+    private QrFrameAnalyzer.Config analyzerConfig;
+    private QrFrameAnalyzer frameAnalyzer;
 
     /**
      * Inflates the QR scanner layout.
@@ -97,6 +99,9 @@ public class QrScannerFragment extends Fragment {
 
         barcodeScanner = BarcodeScanning.getClient(options);
 
+        analyzerConfig = QrFrameAnalyzer.Config.forDevice(requireContext());
+        frameAnalyzer = new QrFrameAnalyzer(barcodeScanner, analyzerConfig, this::onCodeDecoded);
+
         // Permission
         if (ContextCompat.checkSelfPermission(
                 requireContext(),
@@ -115,13 +120,13 @@ public class QrScannerFragment extends Fragment {
 
     /**
      * Sets up the CameraX pipeline: preview + image analysis.
-     * The analyzer forwards frames to {@link #analyzeImage(ImageProxy)}.
-     * This method resets the hasScanned flag so scanning can restart.
+     * Analysis frames are requested at the configured target resolution and
+     * handed to {@link QrFrameAnalyzer}, which throttles and crops them.
+     * This method re-arms the scan latch so scanning can restart.
      */
-    @OptIn(markerClass = ExperimentalGetImage.class)
     private void startCamera() {
 
-        hasScanned = false; // Reset scanning each time camera restarts
+        frameAnalyzer.reset(); // Reset scanning each time camera restarts
 
         ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
                 ProcessCameraProvider.getInstance(requireContext());
@@ -134,107 +139,104 @@ public class QrScannerFragment extends Fragment {
                 Preview preview = new Preview.Builder().build();
                 CameraSelector selector = CameraSelector.DEFAULT_BACK_CAMERA;
 
+                ResolutionSelector resolutionSelector =
+                        new ResolutionSelector.Builder()
+                                .setResolutionStrategy(new ResolutionStrategy(
+                                        analyzerConfig.targetResolution,
+                                        ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                                .build();
+
                 ImageAnalysis analysis =
                         new ImageAnalysis.Builder()
+                                .setResolutionSelector(resolutionSelector)
                                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
                                 .build();
 
-                analysis.setAnalyzer(cameraExecutor, this::analyzeImage);
+                analysis.setAnalyzer(cameraExecutor, frameAnalyzer);
 
                 preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
                 provider.unbindAll();
-                provider.bindToLifecycle(this, selector, preview, analysis);
+                provider.bindToLifecycle(getViewLifecycleOwner(), selector, preview, analysis);
 
             } catch (ExecutionException | InterruptedException e) {
-                Log.e("QrScannerFragment", "Camera error", e);
+                Log.e(TAG, "Camera error", e);
             }
         }, ContextCompat.getMainExecutor(requireContext()));
     }
 
     /**
-     * Analyzer callback for CameraX image frames. Converts the frame into an
-     * ML Kit {@link InputImage}, runs barcode detection, and when a QR code
-     * is detected for the first time, shows a dialog asking whether to open
-     * the corresponding event.
+     * Called once per scan with the decoded QR value. Starts resolving and
+     * prefetching the event right away, then asks the user to confirm, so the
+     * reads overlap with the time spent looking at the dialog.
      *
-     * @param imageProxy The camera frame being analyzed.
+     * @param rawValue The value decoded from the QR code.
      */
-    @ExperimentalGetImage
-    private void analyzeImage(@NonNull ImageProxy imageProxy) {
-
-        if (hasScanned) {
-            imageProxy.close();
-            return;
-        }
-
-        Image mediaImage = imageProxy.getImage();
-        if (mediaImage == null) {
-            imageProxy.close();
-            return;
-        }
-
-        InputImage image = InputImage.fromMediaImage(
-                mediaImage,
-                imageProxy.getImageInfo().getRotationDegrees()
-        );
-
-        barcodeScanner.process(image)
-                .addOnSuccessListener(barcodes -> {
-
-                    if (barcodes == null || barcodes.isEmpty())
-                        return;
+    private void onCodeDecoded(String rawValue) {
+        if (!isAdded()) return;
 
-                    Barcode code = barcodes.get(0);
-                    String eventId = code.getRawValue();
+        Task<String> resolving = EventPrefetchCache.getInstance()
+                .prefetchFromScan(requireContext(), rawValue);
 
-                    if (eventId != null && !hasScanned) {
-                        hasScanned = true;
-                        showResultDialog(eventId);
-                    }
-                })
-                .addOnFailureListener(e ->
-                        Log.e("QrScannerFragment", "Scan failed", e))
-                .addOnCompleteListener(task -> imageProxy.close());
+        showResultDialog(resolving);
     }
 
     /**
      * Shows a confirmation dialog when a QR code is detected.
-     * If the user taps "Open", navigates to the event details screen
-     * using the scanned eventId. If the user cancels, scanning restarts.
+     * If the user taps "Open", navigates to the event details screen once the
+     * scanned value has been resolved to an event ID. If the user cancels, or
+     * the code does not match any event, scanning restarts.
      *
-     * @param eventId The event ID decoded from the QR code.
+     * @param resolving Task that resolves the scanned value to an event ID.
      */
-    private void showResultDialog(String eventId) {
+    private void showResultDialog(Task<String> resolving) {
 
         if (!isAdded()) return;
 
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle("QR Code Detected")
                 .setMessage("Open this event?")
-                .setPositiveButton("Open", (dialog, which) -> {
-
-                    Bundle args = new Bundle();
-                    args.putString("eventId", eventId);
-
-                    NavHostFragment.findNavController(this)
-                            .navigate(R.id.action_qrScannerFragment_to_navigation_event_details, args);
-                })
-                .setNegativeButton("Cancel", (dialog, which) -> {
-                    hasScanned = false;
-                    startCamera();
-                })
+                .setPositiveButton("Open", (dialog, which) ->
+                        resolving.addOnCompleteListener(requireActivity(), task -> openEvent(task)))
+                // Camera stays bound, so re-arming the latch is enough to resume
+                .setNegativeButton("Cancel", (dialog, which) -> frameAnalyzer.reset())
                 .setCancelable(false)
                 .show();
     }
 
     /**
-     * Cleans up the camera executor and closes the barcode scanner
-     * when the view is destroyed to avoid leaks.
+     * Navigates to the resolved event, or resumes scanning with a message if
+     * the scanned code could not be matched to an event.
+     *
+     * @param task Completed resolution task.
+     */
+    private void openEvent(Task<String> task) {
+        if (!isAdded()) return;
+
+        String eventId = task.isSuccessful() ? task.getResult() : null;
+        if (eventId == null) {
+            Toast.makeText(requireContext(),
+                    task.isSuccessful() ? "No event found for this code" : "Could not look up event",
+                    Toast.LENGTH_SHORT).show();
+            frameAnalyzer.reset();
+            return;
+        }
+
+        Bundle args = new Bundle();
+        args.putString("eventId", eventId);
+
+        NavHostFragment.findNavController(this)
+                .navigate(R.id.action_qrScannerFragment_to_navigation_event_details, args);
+    }
+
+    /**
+     * Logs scan metrics, then cleans up the camera executor and closes the
+     * barcode scanner when the view is destroyed to avoid leaks.
      */
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        Log.d(TAG, "Scan metrics: " + frameAnalyzer.getMetrics().summary(System.nanoTime()));
         cameraExecutor.shutdown();
         barcodeScanner.close();
     }
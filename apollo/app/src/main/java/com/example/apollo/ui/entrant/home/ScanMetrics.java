@@ -0,0 +1,111 @@
+package com.example.apollo.ui.entrant.home;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ScanMetrics.java
+ *
+ * Collects timing data for the QR scanning pipeline:
+ * - frames delivered by the camera vs. frames actually sent to the decoder
+ * - decode latency percentiles over a sliding window of recent frames
+ * - time from the first frame to the first successful decode
+ *
+ * All methods are synchronized because frames are recorded on the analysis
+ * thread while results arrive on the main thread.
+ */
+public class ScanMetrics {
+
+    /** Number of recent decode latencies kept for percentile calculations. */
+    private static final int WINDOW = 256;
+
+    private final long[] latenciesNanos = new long[WINDOW];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+
+    private long framesReceived = 0;
+    private long framesAnalyzed = 0;
+    private long firstFrameNanos = -1;
+    private long firstDecodeNanos = -1;
+
+    /**
+     * Records that the camera delivered a frame (analyzed or skipped).
+     *
+     * @param nowNanos Current {@link System#nanoTime()}.
+     */
+    public synchronized void onFrameReceived(long nowNanos) {
+        if (firstFrameNanos < 0) firstFrameNanos = nowNanos;
+        framesReceived++;
+    }
+
+    /**
+     * Records one completed decode attempt.
+     *
+     * @param latencyNanos Time spent between submitting the frame and getting a result.
+     * @param decoded      True if the frame produced a QR value.
+     * @param nowNanos     Current {@link System#nanoTime()}.
+     */
+    public synchronized void onFrameAnalyzed(long latencyNanos, boolean decoded, long nowNanos) {
+        framesAnalyzed++;
+        latenciesNanos[latencyNext] = latencyNanos;
+        latencyNext = (latencyNext + 1) % WINDOW;
+        if (latencyCount < WINDOW) latencyCount++;
+
+        if (decoded && firstDecodeNanos < 0) firstDecodeNanos = nowNanos;
+    }
+
+    /**
+     * Returns the given decode latency percentile over the recent window.
+     *
+     * @param percentile Value between 0 and 100.
+     * @return Latency in milliseconds, or 0 if nothing has been recorded.
+     */
+    public synchronized double latencyPercentileMs(double percentile) {
+        if (latencyCount == 0) return 0;
+
+        long[] sorted = Arrays.copyOf(latenciesNanos, latencyCount);
+        Arrays.sort(sorted);
+
+        // Nearest-rank method
+        int rank = (int) Math.ceil(percentile / 100.0 * latencyCount);
+        int index = Math.max(0, Math.min(latencyCount - 1, rank - 1));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    /**
+     * @param nowNanos Current {@link System#nanoTime()}.
+     * @return Frames sent to the decoder per second since the first frame.
+     */
+    public synchronized double framesAnalyzedPerSecond(long nowNanos) {
+        if (firstFrameNanos < 0 || nowNanos <= firstFrameNanos) return 0;
+        return framesAnalyzed / ((nowNanos - firstFrameNanos) / 1_000_000_000.0);
+    }
+
+    /**
+     * @return Milliseconds from the first camera frame to the first decode, or -1 if none yet.
+     */
+    public synchronized long timeToFirstDecodeMs() {
+        if (firstFrameNanos < 0 || firstDecodeNanos < 0) return -1;
+        return (firstDecodeNanos - firstFrameNanos) / 1_000_000;
+    }
+
+    /** @return Total frames delivered by the camera. */
+    public synchronized long getFramesReceived() { return framesReceived; }
+
+    /** @return Total frames sent to the decoder. */
+    public synchronized long getFramesAnalyzed() { return framesAnalyzed; }
+
+    /**
+     * Builds a one-line summary suitable for logcat.
+     *
+     * @param nowNanos Current {@link System#nanoTime()}.
+     * @return Human readable metrics summary.
+     */
+    public synchronized String summary(long nowNanos) {
+        return String.format(Locale.US,
+                "frames=%d analyzed=%d (%.1f/s) p50=%.1fms p90=%.1fms p99=%.1fms firstDecode=%dms",
+                framesReceived, framesAnalyzed, framesAnalyzedPerSecond(nowNanos),
+                latencyPercentileMs(50), latencyPercentileMs(90), latencyPercentileMs(99),
+                timeToFirstDecodeMs());
+    }
+}
@@ -16,24 +16,21 @@ import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InviteResponder;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.HashMap;
 
 /**
  * InviteResponseFragment.java
  *
  * This fragment lets an entrant respond to an event invite.
  * The user can accept (which registers them for the event) or decline
- * (which records a declined state and cleans up invite/waitlist entries).
+ * (which records a cancellation and frees the spot for a replacement).
+ * Both go through {@link InviteResponder}.
  */
 public class InviteResponseFragment extends Fragment {
 
-    private FirebaseFirestore db;
     private String eventId;
     private String uid;
 
@@ -57,7 +54,6 @@ public class InviteResponseFragment extends Fragment {
 
         View view = inflater.inflate(R.layout.fragment_invite_response, container, false);
 
-        db = FirebaseFirestore.getInstance();
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
 
         if (user == null) {
@@ -86,88 +82,58 @@ public class InviteResponseFragment extends Fragment {
     }
 
     /**
-     * Handles the "Accept" flow:
-     * - Creates a registration entry for the user under the event.
-     * - Deletes any existing waitlist and invite entries for this user.
-     * - Shows a confirmation toast and navigates back.
+     * Handles the "Accept" flow through {@link InviteResponder}: registers
+     * the user, closes the invite and waitlist entry, then navigates back.
+     * Both buttons are disabled while the response is in flight.
      */
     private void acceptInvite() {
         if (eventId == null || uid == null) return;
 
-        //  Create registration entry
-        DocumentReference regRef = db.collection("events")
-                .document(eventId)
-                .collection("registrations")
-                .document(uid);
-
-        HashMap<String, Object> regData = new HashMap<>();
-        regData.put("registeredAt", FieldValue.serverTimestamp());
-
-        //  Delete waitlist entry
-        DocumentReference waitRef = db.collection("events")
-                .document(eventId)
-                .collection("waitlist")
-                .document(uid);
-
-        //  Delete invite entry
-        DocumentReference inviteRef = db.collection("events")
-                .document(eventId)
-                .collection("invites")
-                .document(uid);
-
-        regRef.set(regData)
+        new InviteResponder()
+                .accept(eventId, null, disableButtons())
                 .addOnSuccessListener(ok -> {
-                    waitRef.delete();
-                    inviteRef.delete();
-
+                    if (!isAdded()) return;
                     Toast.makeText(getContext(), "You are now registered!", Toast.LENGTH_SHORT).show();
                     goBack();
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                });
     }
 
     /**
-     * Handles the "Decline" flow:
-     * - Writes a declined entry in the "declined" subcollection.
-     * - Deletes the user's invite and any waitlist entry.
-     * - Shows a confirmation toast and navigates back.
+     * Handles the "Decline" flow through {@link InviteResponder}: records the
+     * cancellation, schedules a replacement draw and navigates back.
      */
     private void declineInvite() {
         if (eventId == null || uid == null) return;
 
-        //  Create DECLINED entry
-        DocumentReference declinedRef = db.collection("events")
-                .document(eventId)
-                .collection("declined")
-                .document(uid);
-
-        HashMap<String, Object> declinedData = new HashMap<>();
-        declinedData.put("state", "declined");
-        declinedData.put("declinedAt", FieldValue.serverTimestamp());
-
-        //  References to delete
-        DocumentReference inviteRef = db.collection("events")
-                .document(eventId)
-                .collection("invites")
-                .document(uid);
-
-        DocumentReference waitRef = db.collection("events")
-                .document(eventId)
-                .collection("waitlist")
-                .document(uid);
-
-        //  Write declined entry, then delete invite + waitlist
-        declinedRef.set(declinedData)
+        new InviteResponder()
+                .decline(eventId, null, null, disableButtons())
                 .addOnSuccessListener(ok -> {
-                    Log.d("Invite", "DECLINED WRITE DONE at: events/" + eventId + "/declined/" + uid);
+                    if (!isAdded()) return;
                     Toast.makeText(getContext(), "Invitation declined.", Toast.LENGTH_SHORT).show();
-                    inviteRef.delete();
-                    waitRef.delete();
                     goBack();
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(getContext(), "Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                });
+    }
+
+    /**
+     * Disables the buttons while a response is committing and re-enables
+     * them with an error message if it fails.
+     */
+    private InviteResponder.OptimisticUpdate disableButtons() {
+        return new InviteResponder.OptimisticUpdate() {
+            @Override
+            public void apply() {
+                buttonAccept.setEnabled(false);
+                buttonDecline.setEnabled(false);
+            }
+
+            @Override
+            public void rollback(@NonNull Exception e) {
+                if (!isAdded()) return;
+                buttonAccept.setEnabled(true);
+                buttonDecline.setEnabled(true);
+                Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        };
     }
 
     /**
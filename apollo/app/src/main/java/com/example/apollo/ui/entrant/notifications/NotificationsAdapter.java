@@ -1,5 +1,6 @@
 package com.example.apollo.ui.entrant.notifications;
 
+import android.graphics.Typeface;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -44,6 +45,13 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
          * @param position The adapter position of the item.
          */
         void onDecline(NotificationsViewModel n, int position);
+
+        /**
+         * Called when a notification is bound to a row, i.e. shown to the user.
+         *
+         * @param n The notification item.
+         */
+        default void onShown(NotificationsViewModel n) {}
     }
 
     private final List<NotificationsViewModel> data = new ArrayList<>();
@@ -69,6 +77,23 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         notifyDataSetChanged();
     }
 
+    /**
+     * Changes the response status of one notification in place, e.g. for an
+     * optimistic update before the write is committed.
+     *
+     * @param notificationId ID of the notification.
+     * @param status         New status ("accepted", "declined", or null).
+     */
+    public void setStatus(String notificationId, String status) {
+        for (int i = 0; i < data.size(); i++) {
+            if (data.get(i).id.equals(notificationId)) {
+                data.get(i).status = status;
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -84,6 +109,10 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         holder.title.setText(n.title);
         holder.message.setText(n.message);
 
+        // Unread notifications keep a bold title until they are shown once
+        holder.title.setTypeface(null, n.read ? Typeface.NORMAL : Typeface.BOLD);
+        listener.onShown(n);
+
         boolean isWin = "lottery_win".equals(n.type);
         holder.acceptBtn.setVisibility(isWin ? View.VISIBLE : View.GONE);
         holder.declineBtn.setVisibility(isWin ? View.VISIBLE : View.GONE);
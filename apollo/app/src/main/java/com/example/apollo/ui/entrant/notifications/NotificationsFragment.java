@@ -11,19 +11,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.apollo.data.InboxReadBatcher;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.InviteResponder;
+import com.example.apollo.data.ListenerRegistry;
+import com.example.apollo.data.NotificationInbox;
 import com.example.apollo.databinding.FragmentNotificationsBinding;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -34,18 +36,47 @@ import java.util.List;
  * or decline directly from the list.
  *
  * Responsibilities:
- * - Subscribe to Firestore user notifications collection
+ * - Subscribe to the newest notifications, newest first by createdAt,
+ *   {@link #PAGE_SIZE} more each time the list nears its end. Each page
+ *   has its own listener over a fixed createdAt range, so loading a page
+ *   never re-reads the ones before it
  * - Feed updates into {@link NotificationsAdapter}
- * - Handle accept/decline actions and update Firestore state
+ * - Mark notifications read once shown, through {@link InboxReadBatcher}
+ *   (which also maintains the unread badge counter)
+ * - Handle accept/decline actions through {@link InviteResponder}
  */
 public class NotificationsFragment extends Fragment {
 
     private FragmentNotificationsBinding binding;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseAuth auth;
-    private ListenerRegistration reg;
     private NotificationsAdapter adapter;
 
+    /** Notifications loaded per page. */
+    static final int PAGE_SIZE = 20;
+
+    /** Rows from the end of the list at which the next page is requested. */
+    private static final int PREFETCH_DISTANCE = 5;
+
+    /** Oldest notification of every closed page, newest page first. */
+    private final List<DocumentSnapshot> pageEnds = new ArrayList<>();
+
+    /** One listener per loaded page, in list order. */
+    private final List<ListenerRegistry.Subscription> pageSubscriptions = new ArrayList<>();
+
+    /** Latest documents of each page, in list order. */
+    private final List<List<DocumentSnapshot>> pages = new ArrayList<>();
+
+    /** True while the next page has been requested but not yet received. */
+    private boolean loadingMore;
+
+    /** False once the tail page came back smaller than a page, i.e. everything is loaded. */
+    private boolean hasMore = true;
+
+    /** Coalesces read flags; null for signed-out users. */
+    private InboxReadBatcher readBatcher;
+
     /**
      * Inflates the notifications layout, initializes Firestore/auth,
      * sets up the RecyclerView + adapter, and wires the action callbacks
@@ -64,9 +95,15 @@ public class NotificationsFragment extends Fragment {
 
         binding = FragmentNotificationsBinding.inflate(inflater, container, false);
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/notifications");
         auth = FirebaseAuth.getInstance();
 
-        binding.recycler.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.recycler.setLayoutManager(layoutManager);
+
+        if (auth.getCurrentUser() != null) {
+            readBatcher = new InboxReadBatcher(db, fs, auth.getCurrentUser().getUid());
+        }
 
         // Listener hooks for Accept / Decline actions
         adapter = new NotificationsAdapter(new NotificationsAdapter.OnNotificationAction() {
@@ -80,116 +117,204 @@ public class NotificationsFragment extends Fragment {
             public void onDecline(NotificationsViewModel n, int position) {
                 declineInvite(n.eventId, n.id);
             }
+
+            @Override
+            public void onShown(NotificationsViewModel n) {
+                if (n.read || readBatcher == null) return;
+                n.read = true;
+                readBatcher.markRead(n.id);
+            }
         });
 
         binding.recycler.setAdapter(adapter);
         binding.empty.setVisibility(View.VISIBLE);
 
+        binding.recycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || loadingMore || !hasMore) return;
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (last >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadingMore = true;
+                    loadMore();
+                }
+            }
+        });
+
         return binding.getRoot();
     }
 
     /**
-     * Handles the "Accept" action for a notification. Marks the user
-     * as accepted/registered for the event and updates the notification
-     * document's status to "accepted".
+     * Handles the "Accept" action for a notification. Registers the user
+     * through {@link InviteResponder}; the row is shown as accepted right
+     * away and restored if the write fails.
      *
      * @param eventId        ID of the event related to the notification.
      * @param notificationId ID of the notification document.
      */
     private void acceptInvite(String eventId, String notificationId) {
-        String uid = auth.getCurrentUser().getUid();
-
-        DocumentReference notifRef = db.collection("users")
-                .document(uid)
-                .collection("notifications")
-                .document(notificationId);
-
-        DocumentReference acceptedRef = db.collection("events")
-                .document(eventId)
-                .collection("registration")
-                .document(uid);
-
-        HashMap<String, Object> acceptedData = new HashMap<>();
-        acceptedData.put("acceptedAt", FieldValue.serverTimestamp());
-        acceptedData.put("userId", uid);
-
-        acceptedRef.set(acceptedData).addOnSuccessListener(ok -> {
-
-            // update notification status
-            notifRef.update("status", "accepted");
+        if (auth.getCurrentUser() == null || eventId == null) return;
 
-            Toast.makeText(getContext(), "You are now registered!", Toast.LENGTH_SHORT).show();
-        });
+        new InviteResponder()
+                .accept(eventId, notificationId, optimisticStatus(notificationId, "accepted"))
+                .addOnSuccessListener(ok -> {
+                    if (getContext() != null) {
+                        Toast.makeText(getContext(), "You are now registered!", Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
     /**
-     * Handles the "Decline" action for a notification. Writes a declined
-     * entry under the event and updates the notification status to "declined".
+     * Handles the "Decline" action for a notification. Declines through
+     * {@link InviteResponder}, which also schedules a replacement draw.
      *
      * @param eventId        ID of the event related to the notification.
      * @param notificationId ID of the notification document.
      */
     private void declineInvite(String eventId, String notificationId) {
-        String uid = auth.getCurrentUser().getUid();
-
-        DocumentReference notifRef = db.collection("users")
-                .document(uid)
-                .collection("notifications")
-                .document(notificationId);
-
-        DocumentReference declinedRef = db.collection("events")
-                .document(eventId)
-                .collection("declined")
-                .document(uid);
-
-        HashMap<String, Object> declinedData = new HashMap<>();
-        declinedData.put("declinedAt", FieldValue.serverTimestamp());
-        declinedData.put("userId", uid);
+        if (auth.getCurrentUser() == null || eventId == null) return;
 
-        declinedRef.set(declinedData).addOnSuccessListener(ok -> {
+        new InviteResponder()
+                .decline(eventId, notificationId, null, optimisticStatus(notificationId, "declined"))
+                .addOnSuccessListener(ok -> {
+                    if (getContext() != null) {
+                        Toast.makeText(getContext(), "Invitation declined.", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-            notifRef.update("status", "declined");
+    /**
+     * Shows a notification as answered before the response is committed,
+     * and puts it back with an error message if the commit fails.
+     */
+    private InviteResponder.OptimisticUpdate optimisticStatus(String notificationId, String status) {
+        return new InviteResponder.OptimisticUpdate() {
+            @Override
+            public void apply() {
+                adapter.setStatus(notificationId, status);
+            }
 
-            Toast.makeText(getContext(), "Invitation declined.", Toast.LENGTH_SHORT).show();
-        });
+            @Override
+            public void rollback(@NonNull Exception e) {
+                if (binding == null) return;
+                adapter.setStatus(notificationId, null);
+                Toast.makeText(getContext(), "Could not respond: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        };
     }
 
     /**
-     * Starts listening to the current user's notifications collection.
-     * Whenever the Firestore snapshot changes, it rebuilds the list of
-     * {@link NotificationsViewModel} and updates the adapter + empty state.
+     * Starts listening to the current user's notifications.
      */
     @Override
     public void onStart() {
         super.onStart();
+        listenToInbox();
+    }
 
+    /**
+     * Listens to the current user's notifications, one listener per page.
+     * <p>
+     * The first page is open towards newer notifications, so new ones land
+     * there; it and every later page but the last end at the notification
+     * stored in {@link #pageEnds}. The last (tail) page starts after the
+     * previous page's end with a limit of {@link #PAGE_SIZE}.
+     */
+    private void listenToInbox() {
+        if (auth.getCurrentUser() == null) return;
+
+        removePageListeners();
+        for (int i = 0; i <= pageEnds.size(); i++) {
+            pages.add(new ArrayList<>());
+            pageSubscriptions.add(null);
+            listenToPage(i, i == 0 ? null : pageEnds.get(i - 1), i < pageEnds.size() ? pageEnds.get(i) : null);
+        }
+    }
+
+    /**
+     * Closes the tail page at its current oldest notification and opens a
+     * new tail page after it.
+     */
+    private void loadMore() {
+        int tail = pages.size() - 1;
+        List<DocumentSnapshot> tailDocs = pages.get(tail);
+        if (tailDocs.isEmpty()) {
+            loadingMore = false;
+            return;
+        }
+        DocumentSnapshot end = tailDocs.get(tailDocs.size() - 1);
+        DocumentSnapshot start = tail == 0 ? null : pageEnds.get(tail - 1);
+        pageEnds.add(end);
+
+        // The old tail stays on screen until its bounded listener answers
+        ListenerRegistry.Subscription open = pageSubscriptions.get(tail);
+        listenToPage(tail, start, end);
+        if (open != null) open.remove();
+
+        pages.add(new ArrayList<>());
+        pageSubscriptions.add(null);
+        listenToPage(tail + 1, end, null);
+    }
+
+    /**
+     * Attaches the listener of one page. Whenever a page changes, the list
+     * of {@link NotificationsViewModel} is rebuilt from all pages and the
+     * adapter + empty state are updated.
+     *
+     * @param index Page index.
+     * @param after Oldest notification of the previous page, or null for the first page.
+     * @param end   Oldest notification of this page, or null for the open tail page.
+     */
+    private void listenToPage(int index, @Nullable DocumentSnapshot after, @Nullable DocumentSnapshot end) {
         if (auth.getCurrentUser() == null) return;
         String uid = auth.getCurrentUser().getUid();
 
-        reg = db.collection("users")
-                .document(uid)
-                .collection("notifications")
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((snap, e) -> {
-                    if (e != null || snap == null) return;
+        // Snapshot cursors also compare document IDs, so equal createdAt values are not skipped
+        Query query = NotificationInbox.notifications(db, uid)
+                .orderBy("createdAt", Query.Direction.DESCENDING);
+        if (after != null) query = query.startAfter(after);
+        query = end != null ? query.endAt(end) : query.limit(PAGE_SIZE);
+
+        pageSubscriptions.set(index, ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, query,
+                (snap, e) -> {
+                    if (e != null || snap == null) {
+                        if (end == null) loadingMore = false;
+                        return;
+                    }
+                    if (binding == null || index >= pages.size()) return;
 
+                    pages.set(index, snap.getDocuments());
                     List<NotificationsViewModel> fresh = new ArrayList<>();
-                    for (DocumentSnapshot d : snap.getDocuments()) {
-                        fresh.add(NotificationsViewModel.from(d));
+                    for (List<DocumentSnapshot> page : pages) {
+                        for (DocumentSnapshot d : page) fresh.add(NotificationsViewModel.from(d));
                     }
 
                     adapter.setData(fresh);
                     binding.empty.setVisibility(fresh.isEmpty() ? View.VISIBLE : View.GONE);
-                });
+                    if (end == null) {
+                        hasMore = snap.size() >= PAGE_SIZE;
+                        loadingMore = false;
+                    }
+                }));
+    }
+
+    /** Detaches every page listener. */
+    private void removePageListeners() {
+        for (ListenerRegistry.Subscription subscription : pageSubscriptions) {
+            if (subscription != null) subscription.remove();
+        }
+        pageSubscriptions.clear();
+        pages.clear();
     }
 
     /**
-     * Removes the Firestore listener when the fragment is no longer visible
-     * to avoid leaking the snapshot subscription.
+     * Removes the Firestore listeners when the fragment is no longer visible
+     * to avoid leaking the snapshot subscriptions, and writes pending reads.
      */
     @Override
     public void onStop() {
-        if (reg != null) reg.remove();
+        removePageListeners();
+        if (readBatcher != null) readBatcher.flush();
         super.onStop();
     }
 
@@ -13,16 +13,15 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
 import com.example.apollo.models.Event;
+import com.example.apollo.utils.EventDates;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * HistoryEventsFragment.java
@@ -41,6 +40,7 @@ public class HistoryEventsFragment extends Fragment {
     private EventsAdapter adapter;
     private List<Event> events = new ArrayList<>();
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
 
     @Nullable
     @Override
@@ -62,6 +62,7 @@ public class HistoryEventsFragment extends Fragment {
         recyclerView.setAdapter(adapter);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/profile-history");
 
         adapter.setOnEventClickListener(event -> {
             Bundle bundle = new Bundle();
@@ -86,21 +87,21 @@ public class HistoryEventsFragment extends Fragment {
         List<String> interactedEventIds = new ArrayList<>();
 
         // Registrations
-        db.collection("registrations").document(uid).get()
+        fs.get(db.collection("registrations").document(uid))
                 .addOnSuccessListener(regSnap -> {
 
                     if (regSnap.exists())
                         interactedEventIds.addAll(regSnap.getData().keySet());
 
                     // Invites
-                    db.collection("invites").document(uid).get()
+                    fs.get(db.collection("invites").document(uid))
                             .addOnSuccessListener(invSnap -> {
 
                                 if (invSnap.exists())
                                     interactedEventIds.addAll(invSnap.getData().keySet());
 
                                 // Waitlist
-                                db.collection("waitlist").document(uid).get()
+                                fs.get(db.collection("waitlist").document(uid))
                                         .addOnSuccessListener(waitSnap -> {
 
                                             if (waitSnap.exists())
@@ -130,7 +131,7 @@ public class HistoryEventsFragment extends Fragment {
         events.clear();
 
         for (String eventId : eventIds) {
-            db.collection("events").document(eventId).get()
+            fs.get(db.collection("events").document(eventId))
                     .addOnSuccessListener(doc -> {
                         if (!doc.exists()) return;
 
@@ -154,12 +155,6 @@ public class HistoryEventsFragment extends Fragment {
      * @return true if the event happened in the past.
      */
     private boolean isPast(String dateStr) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
-            Date eventDate = sdf.parse(dateStr);
-            return eventDate.before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return EventDates.isPast(dateStr);
     }
 }
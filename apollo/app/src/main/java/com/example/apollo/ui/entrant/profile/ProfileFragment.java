@@ -14,6 +14,7 @@ import androidx.constraintlayout.widget.Group;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
+import com.example.apollo.data.InstrumentedFirestore;
 import com.example.apollo.ui.login.LoginActivity;
 import com.example.apollo.R;
 import com.google.firebase.auth.FirebaseAuth;
@@ -43,6 +44,7 @@ public class ProfileFragment extends Fragment {
 
     private TextView tvName;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseAuth mAuth;
     private Button buttonLogin;
     private Group profileGroup;
@@ -76,6 +78,7 @@ public class ProfileFragment extends Fragment {
 
         tvName = v.findViewById(R.id.tvName);
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/profile");
         mAuth = FirebaseAuth.getInstance();
         buttonLogin = v.findViewById(R.id.buttonLogin);
         profileGroup = v.findViewById(R.id.profile_group);
@@ -102,7 +105,7 @@ public class ProfileFragment extends Fragment {
             if (currentUser != null) {
                 String uid = currentUser.getUid();
                 DocumentReference userRef = db.collection("users").document(uid);
-                userRef.get().addOnCompleteListener(task -> {
+                fs.get(userRef).addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         DocumentSnapshot document = task.getResult();
                         if (document.exists()) {
@@ -18,7 +18,11 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
 import com.example.apollo.R;
+import com.example.apollo.data.CascadeDeleter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.RoleCache;
 import com.example.apollo.ui.login.LoginActivity;
+import com.example.apollo.utils.SearchTokens;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthCredential;
@@ -27,6 +31,7 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.storage.FirebaseStorage;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -54,6 +59,7 @@ public class SettingsFragment extends Fragment {
     private Switch notificationsSwitch;
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseUser currentUser;
 
     /**
@@ -84,6 +90,7 @@ public class SettingsFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/settings");
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         editName = view.findViewById(R.id.editName);
@@ -117,7 +124,7 @@ public class SettingsFragment extends Fragment {
      */
     private void loadUserProfile() {
         DocumentReference userRef = db.collection("users").document(currentUser.getUid());
-        userRef.get().addOnSuccessListener(documentSnapshot -> {
+        fs.get(userRef).addOnSuccessListener(documentSnapshot -> {
             if (documentSnapshot.exists()) {
                 String name = documentSnapshot.getString("name");
                 String username = documentSnapshot.getString("username");
@@ -172,9 +179,10 @@ public class SettingsFragment extends Fragment {
         user.put("username", username);
         user.put("email", email);
         user.put("phone", phone);
+        user.put(SearchTokens.FIELD, SearchTokens.forFields(name, username));
 
         DocumentReference userRef = db.collection("users").document(currentUser.getUid());
-        userRef.set(user)
+        fs.set(userRef, user)
                 .addOnSuccessListener(aVoid -> Toast.makeText(getContext(), "Profile updated successfully", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e -> Toast.makeText(getContext(), "Error updating profile", Toast.LENGTH_SHORT).show());
     }
@@ -207,7 +215,7 @@ public class SettingsFragment extends Fragment {
     private void loadNotificationSetting() {
         DocumentReference userRef = db.collection("users").document(currentUser.getUid());
 
-        userRef.get().addOnSuccessListener(snapshot -> {
+        fs.get(userRef).addOnSuccessListener(snapshot -> {
             if (snapshot.exists()) {
                 Boolean enabled = snapshot.getBoolean("notificationsEnabled");
 
@@ -226,7 +234,7 @@ public class SettingsFragment extends Fragment {
         }
         DocumentReference userRef = db.collection("users").document(currentUser.getUid());
 
-        userRef.update("notificationsEnabled", enabled)
+        fs.update(userRef, "notificationsEnabled", enabled)
                 .addOnSuccessListener(aVoid ->
                         Toast.makeText(getContext(), "Notification preference updated", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e ->
@@ -245,14 +253,18 @@ public class SettingsFragment extends Fragment {
         user.reauthenticate(credential)
                 .addOnCompleteListener(reauthTask -> {
                     if (reauthTask.isSuccessful()) {
-                        db.collection("users").document(user.getUid())
-                                .delete()
+                        // Remove the account's data first: the writes need the user
+                        // to still be signed in
+                        Toast.makeText(getContext(), "Deleting account data...", Toast.LENGTH_SHORT).show();
+                        new CascadeDeleter(db, FirebaseStorage.getInstance())
+                                .runAsync(CascadeDeleter.Target.user(user.getUid()), null)
                                 .addOnCompleteListener(firestoreTask -> {
                                     if (firestoreTask.isSuccessful()) {
                                         user.delete()
                                                 .addOnCompleteListener(authTask -> {
                                                     if (authTask.isSuccessful()) {
                                                         Log.d("SettingsFragment", "User account deleted.");
+                                                        RoleCache.clear(requireContext());
                                                         Toast.makeText(getContext(), "Account deleted successfully.", Toast.LENGTH_LONG).show();
                                                         Intent intent = new Intent(getActivity(), LoginActivity.class);
                                                         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
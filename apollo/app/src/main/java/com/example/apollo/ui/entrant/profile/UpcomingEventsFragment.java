@@ -13,16 +13,15 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
 import com.example.apollo.models.Event;
+import com.example.apollo.utils.EventDates;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * UpcomingEventsFragment.java
@@ -43,6 +42,7 @@ public class UpcomingEventsFragment extends Fragment {
     private EventsAdapter adapter;
     private List<Event> events = new ArrayList<>();
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseAuth mAuth;
 
     @Nullable
@@ -65,6 +65,7 @@ public class UpcomingEventsFragment extends Fragment {
         recyclerView.setAdapter(adapter);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/profile-upcoming");
         mAuth = FirebaseAuth.getInstance();
 
         loadUpcomingEvents();
@@ -85,8 +86,7 @@ public class UpcomingEventsFragment extends Fragment {
     private void loadUpcomingEvents() {
         String uid = mAuth.getCurrentUser().getUid();
 
-        db.collection("events")
-                .get()
+        fs.get(db.collection("events"))
                 .addOnSuccessListener(snapshot -> {
                     events.clear();
 
@@ -99,10 +99,9 @@ public class UpcomingEventsFragment extends Fragment {
                         if (!isFuture(event.getDate())) continue;
 
                         // Check if user is registered
-                        doc.getReference()
+                        fs.get(doc.getReference()
                                 .collection("registrations")
-                                .document(uid)
-                                .get()
+                                .document(uid))
                                 .addOnSuccessListener(reg -> {
                                     if (reg.exists()) {
                                         events.add(event);
@@ -120,12 +119,6 @@ public class UpcomingEventsFragment extends Fragment {
      * @return true if the event happens after today.
      */
     private boolean isFuture(String dateStr) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
-            Date eventDate = sdf.parse(dateStr);
-            return eventDate.after(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return EventDates.isFuture(dateStr);
     }
 }
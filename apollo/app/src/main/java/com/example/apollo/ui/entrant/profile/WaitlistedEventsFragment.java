@@ -13,16 +13,15 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
 import com.example.apollo.models.Event;
+import com.example.apollo.utils.EventDates;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * WaitlistedEventsFragment.java
@@ -41,6 +40,7 @@ public class WaitlistedEventsFragment extends Fragment {
     private EventsAdapter adapter;
     private List<Event> events = new ArrayList<>();
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseAuth mAuth;
 
     @Nullable
@@ -63,6 +63,7 @@ public class WaitlistedEventsFragment extends Fragment {
         recyclerView.setAdapter(adapter);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("entrant/profile-waitlisted");
         mAuth = FirebaseAuth.getInstance();
 
 
@@ -84,8 +85,7 @@ public class WaitlistedEventsFragment extends Fragment {
     private void loadWaitlistedEvents() {
         String uid = mAuth.getCurrentUser().getUid();
 
-        db.collection("events")
-                .get()
+        fs.get(db.collection("events"))
                 .addOnSuccessListener(snapshot -> {
                     events.clear();
 
@@ -98,10 +98,9 @@ public class WaitlistedEventsFragment extends Fragment {
                         if (!isFuture(event.getDate())) continue;
 
                         // Check user waitlist state
-                        doc.getReference()
+                        fs.get(doc.getReference()
                                 .collection("waitlist")
-                                .document(uid)
-                                .get()
+                                .document(uid))
                                 .addOnSuccessListener(wait -> {
                                     if (wait.exists() &&
                                             "waiting".equals(wait.getString("state"))) {
@@ -121,12 +120,6 @@ public class WaitlistedEventsFragment extends Fragment {
      * @return true if the event has not happened yet.
      */
     private boolean isFuture(String dateStr) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
-            Date eventDate = sdf.parse(dateStr);
-            return eventDate.after(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return EventDates.isFuture(dateStr);
     }
 }
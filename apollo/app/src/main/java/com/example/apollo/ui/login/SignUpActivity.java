@@ -14,6 +14,9 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.apollo.MainActivity;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.RoleCache;
+import com.example.apollo.utils.SearchTokens;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
@@ -48,6 +51,7 @@ public class SignUpActivity extends AppCompatActivity {
 
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
 
     /**
      * Called when the activity is created.
@@ -62,6 +66,7 @@ public class SignUpActivity extends AppCompatActivity {
 
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("login/signup");
 
         // Initialize UI elements
         editTextName = findViewById(R.id.editTextName);
@@ -153,10 +158,10 @@ public class SignUpActivity extends AppCompatActivity {
                                     user.put("username", username);
                                     String role = isOrganizer ? "organizer" : "entrant";
                                     user.put("role", role);
+                                    user.put(SearchTokens.FIELD, SearchTokens.forFields(name, username));
 
                                     // Save profile data to Firestore
-                                    db.collection("users").document(userId)
-                                            .set(user)
+                                    fs.set(db.collection("users").document(userId), user)
                                             .addOnCompleteListener(new OnCompleteListener<Void>() {
                                                 /**
                                                  * Called when Firestore write completes.
@@ -167,6 +172,7 @@ public class SignUpActivity extends AppCompatActivity {
                                                 @Override
                                                 public void onComplete(@NonNull Task<Void> task) {
                                                     if (task.isSuccessful()) {
+                                                        RoleCache.put(SignUpActivity.this, userId, role);
                                                         Toast.makeText(SignUpActivity.this,
                                                                 "Sign up successful.", Toast.LENGTH_SHORT).show();
                                                         startActivity(new Intent(SignUpActivity.this, MainActivity.class));
@@ -20,6 +20,8 @@ import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.utils.SearchTokens;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -62,6 +64,7 @@ public class AddEventFragment extends Fragment {
 
     private String ampm = "";
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private StorageReference storageRef;
     private FirebaseAuth mAuth;
 
@@ -69,6 +72,9 @@ public class AddEventFragment extends Fragment {
     private String existingImageUrl = null;
     private String eventId = null;
 
+    /** True when the event being edited has already been drawn, so no draw is scheduled. */
+    private boolean lotteryDone = false;
+
     private Switch switchButton;
 
     // Category checkboxes
@@ -90,6 +96,7 @@ public class AddEventFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_add_event, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/add-event");
         storageRef = FirebaseStorage.getInstance().getReference();
         mAuth = FirebaseAuth.getInstance();
 
@@ -232,19 +239,33 @@ public class AddEventFragment extends Fragment {
             db.collection("events")
                     .add(event)
                     .addOnSuccessListener(doc -> {
+                        scheduleDraw(doc.getId(), event);
                         Toast.makeText(getContext(), "Event created!", Toast.LENGTH_SHORT).show();
                         getParentFragmentManager().popBackStack();
                     });
         } else {
-            db.collection("events").document(eventId)
-                    .set(event, SetOptions.merge())
+            fs.set(db.collection("events").document(eventId), event, SetOptions.merge())
                     .addOnSuccessListener(aVoid -> {
+                        scheduleDraw(eventId, event);
                         Toast.makeText(getContext(), "Event updated.", Toast.LENGTH_SHORT).show();
                         getParentFragmentManager().popBackStack();
                     });
         }
     }
 
+    /**
+     * Schedules (or moves) the event's automatic lottery to its new
+     * registration close time.
+     *
+     * @param id    ID of the saved event.
+     * @param event Fields that were saved.
+     */
+    private void scheduleDraw(String id, Map<String, Object> event) {
+        if (getContext() == null || lotteryDone) return;
+        LotteryScheduler.schedule(requireContext(), id,
+                (String) event.get("registrationClose"), (String) event.get("time"));
+    }
+
     /**
      * Loads existing event data from Firestore and populates
      * the form fields and category checkboxes for editing.
@@ -252,11 +273,12 @@ public class AddEventFragment extends Fragment {
      * @param id ID of the event document to edit.
      */
     private void loadEventDataForEditing(String id) {
-        db.collection("events").document(id)
-                .get()
+        fs.get(db.collection("events").document(id))
                 .addOnSuccessListener(doc -> {
                     if (!doc.exists()) return;
 
+                    lotteryDone = Boolean.TRUE.equals(doc.getBoolean("lotteryDone"));
+
                     eventTitle.setText(doc.getString("title"));
                     eventDescription.setText(doc.getString("description"));
                     eventLocation.setText(doc.getString("location"));
@@ -341,14 +363,16 @@ public class AddEventFragment extends Fragment {
     /**
      * Builds the Firestore event document map from the current form state,
      * including title, description, registration data, capacity, price,
-     * geolocation flag, and selected categories.
+     * geolocation flag, selected categories and the title's search tokens.
      *
      * @return A mutable map ready to be written to Firestore.
      */
     private Map<String, Object> buildEventMap() {
         Map<String, Object> event = new HashMap<>();
 
-        event.put("title", eventTitle.getText().toString().trim());
+        String title = eventTitle.getText().toString().trim();
+        event.put("title", title);
+        event.put(SearchTokens.FIELD, SearchTokens.forFields(title));
         event.put("description", eventDescription.getText().toString().trim());
         event.put("location", eventLocation.getText().toString().trim());
         event.put("date", eventDate.getText().toString().trim());
@@ -361,10 +385,6 @@ public class AddEventFragment extends Fragment {
         event.put("updatedAt", new Date());
         event.put("geolocation", switchButton.isChecked());
 
-        if (eventId == null) {
-            event.put("coordinate", new ArrayList<>());
-        }
-
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
             event.put("creatorId", user.getUid());
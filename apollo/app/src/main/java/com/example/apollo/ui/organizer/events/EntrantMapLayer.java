@@ -0,0 +1,347 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
+
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.utils.GeoHash;
+import com.example.apollo.utils.GridClusterer;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.config.IConfigurationProvider;
+import org.osmdroid.events.MapListener;
+import org.osmdroid.events.ScrollEvent;
+import org.osmdroid.events.ZoomEvent;
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.views.MapView;
+import org.osmdroid.views.overlay.Marker;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EntrantMapLayer.java
+ *
+ * Purpose:
+ * Shows entrant join locations on the organizer's event map without creating one
+ * overlay per entrant. Only points inside the visible area are loaded, and they
+ * are drawn as clusters with a count.
+ *
+ * Design:
+ * - Loading: the visible bounding box is covered by a handful of geohash cells
+ *   ({@link GeoHash#coveringCells}); each cell not seen before becomes one range
+ *   query on events/{id}/locations. Loaded points are kept by document ID, so
+ *   panning back over an area never re-reads it.
+ * - Clustering: {@link GridClusterer} runs on a background thread with a grid
+ *   sized in screen pixels. Results from an outdated viewport are dropped.
+ * - Rendering: markers are pooled and reused on every pan/zoom; unused ones are
+ *   disabled rather than removed, so the overlay list stays small and stable.
+ *
+ * Notes:
+ * - Call {@link #configureTileCache(Context)} before inflating a MapView so map
+ *   tiles are cached on disk and stay available offline.
+ * - Call {@link #stop()} from onDestroyView.
+ */
+public class EntrantMapLayer implements MapListener {
+
+    private static final String TAG = "EntrantMapLayer";
+
+    /** Delay after the last pan/zoom before the layer refreshes. */
+    private static final long REFRESH_DEBOUNCE_MS = 250;
+
+    /** Maximum number of geohash range queries per viewport. */
+    private static final int MAX_QUERY_CELLS = 12;
+
+    /** Size of one cluster cell on screen. */
+    private static final int CLUSTER_CELL_DP = 64;
+
+    /** Disk tile cache limits for the organizer map. */
+    private static final long TILE_CACHE_MAX_BYTES = 200L * 1024 * 1024;
+    private static final long TILE_CACHE_TRIM_BYTES = 150L * 1024 * 1024;
+
+    /** Keep showing cached tiles for a week past their expiry when offline. */
+    private static final long TILE_EXPIRATION_EXTENSION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private final MapView mapView;
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller("EntrantMapLayer");
+    private final String eventId;
+
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final ExecutorService clusterExecutor = Executors.newSingleThreadExecutor();
+
+    /** Loaded points keyed by entrant uid: {lat, lon}. */
+    private final Map<String, double[]> points = new HashMap<>();
+    private final Set<String> loadedCells = new HashSet<>();
+    private final Set<String> pendingCells = new HashSet<>();
+
+    private final List<Marker> markerPool = new ArrayList<>();
+    private final SparseArray<Drawable> clusterIcons = new SparseArray<>();
+
+    private int generation = 0;
+    private boolean stopped = false;
+
+    private final Runnable refreshRunnable = this::refresh;
+
+    /**
+     * @param mapView Map to draw on.
+     * @param db      Firestore instance.
+     * @param eventId Event whose entrant locations are shown.
+     */
+    public EntrantMapLayer(@NonNull MapView mapView, @NonNull FirebaseFirestore db, @NonNull String eventId) {
+        this.mapView = mapView;
+        this.db = db;
+        this.eventId = eventId;
+    }
+
+    /**
+     * Loads osmdroid's configuration and points its tile cache at app-private
+     * storage with a bounded size. Tiles that have expired are still served
+     * from disk for a while, so a previously viewed map keeps working offline.
+     *
+     * @param context Any context.
+     */
+    public static void configureTileCache(@NonNull Context context) {
+        IConfigurationProvider config = Configuration.getInstance();
+        config.load(context, PreferenceManager.getDefaultSharedPreferences(context));
+        config.setUserAgentValue(context.getPackageName());
+
+        File base = new File(context.getFilesDir(), "osmdroid");
+        config.setOsmdroidBasePath(base);
+        config.setOsmdroidTileCache(new File(base, "tiles"));
+        config.setTileFileSystemCacheMaxBytes(TILE_CACHE_MAX_BYTES);
+        config.setTileFileSystemCacheTrimBytes(TILE_CACHE_TRIM_BYTES);
+        config.setExpirationExtendedDuration(TILE_EXPIRATION_EXTENSION_MS);
+    }
+
+    /**
+     * Starts listening to map movement and loads the current viewport.
+     */
+    public void start() {
+        mapView.addMapListener(this);
+        // Wait for layout so the bounding box reflects the real view size
+        mapView.post(this::refresh);
+    }
+
+    /**
+     * Stops listening to the map and drops pending work.
+     */
+    public void stop() {
+        stopped = true;
+        mapView.removeMapListener(this);
+        main.removeCallbacks(refreshRunnable);
+        clusterExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean onScroll(ScrollEvent event) {
+        scheduleRefresh();
+        return false;
+    }
+
+    @Override
+    public boolean onZoom(ZoomEvent event) {
+        scheduleRefresh();
+        return false;
+    }
+
+    private void scheduleRefresh() {
+        main.removeCallbacks(refreshRunnable);
+        main.postDelayed(refreshRunnable, REFRESH_DEBOUNCE_MS);
+    }
+
+    /**
+     * Requests any geohash cells of the viewport that have not been loaded yet,
+     * then re-clusters with whatever is already in memory.
+     */
+    private void refresh() {
+        if (stopped) return;
+
+        BoundingBox box = mapView.getBoundingBox();
+        List<String> cells = GeoHash.coveringCells(
+                box.getLatSouth(), box.getLonWest(),
+                box.getLatNorth(), box.getLonEast(),
+                MAX_QUERY_CELLS
+        );
+
+        for (String cell : cells) {
+            if (isCovered(cell) || pendingCells.contains(cell)) continue;
+            loadCell(cell);
+        }
+
+        recluster();
+    }
+
+    /**
+     * @return True if this cell, or a coarser cell containing it, was already loaded.
+     */
+    private boolean isCovered(String cell) {
+        for (int len = 1; len <= cell.length(); len++) {
+            if (loadedCells.contains(cell.substring(0, len))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Range-queries the locations whose geohash starts with the given cell.
+     */
+    private void loadCell(String cell) {
+        pendingCells.add(cell);
+
+        fs.get(db.collection("events").document(eventId)
+                .collection("locations")
+                .whereGreaterThanOrEqualTo("geohash", cell)
+                .whereLessThan("geohash", cell + "~"))
+                .addOnSuccessListener(snapshot -> {
+                    pendingCells.remove(cell);
+                    if (stopped) return;
+
+                    loadedCells.add(cell);
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        Double lat = doc.getDouble("lat");
+                        Double lon = doc.getDouble("lon");
+                        if (lat != null && lon != null) {
+                            points.put(doc.getId(), new double[]{lat, lon});
+                        }
+                    }
+                    recluster();
+                })
+                .addOnFailureListener(e -> {
+                    pendingCells.remove(cell);
+                    Log.e(TAG, "Failed to load locations for cell " + cell, e);
+                });
+    }
+
+    /**
+     * Clusters the in-memory points for the current viewport on the background
+     * thread and applies the result on the main thread if it is still current.
+     */
+    private void recluster() {
+        if (stopped || mapView.getWidth() == 0 || mapView.getHeight() == 0) return;
+
+        BoundingBox box = mapView.getBoundingBox();
+        double cellPx = CLUSTER_CELL_DP * Resources.getSystem().getDisplayMetrics().density;
+        double cellLat = box.getLatitudeSpan() * cellPx / mapView.getHeight();
+        double cellLon = box.getLongitudeSpanWithDateLine() * cellPx / mapView.getWidth();
+        if (cellLat <= 0 || cellLon <= 0) return;
+
+        // Copy the points so the worker never touches main-thread state
+        double[] lats = new double[points.size()];
+        double[] lons = new double[points.size()];
+        int i = 0;
+        for (double[] p : points.values()) {
+            lats[i] = p[0];
+            lons[i] = p[1];
+            i++;
+        }
+
+        final int gen = ++generation;
+        clusterExecutor.execute(() -> {
+            List<GridClusterer.Cluster> clusters = GridClusterer.cluster(
+                    lats, lons,
+                    box.getLatSouth(), box.getLonWest(),
+                    box.getLatNorth(), box.getLonEast(),
+                    cellLat, cellLon
+            );
+            main.post(() -> {
+                if (!stopped && gen == generation) applyClusters(clusters);
+            });
+        });
+    }
+
+    /**
+     * Points pooled markers at the new clusters, creating markers only when the
+     * pool is too small and disabling the ones left over.
+     */
+    private void applyClusters(List<GridClusterer.Cluster> clusters) {
+        for (int i = 0; i < clusters.size(); i++) {
+            GridClusterer.Cluster cluster = clusters.get(i);
+
+            Marker marker;
+            if (i < markerPool.size()) {
+                marker = markerPool.get(i);
+            } else {
+                marker = new Marker(mapView);
+                marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_CENTER);
+                markerPool.add(marker);
+                mapView.getOverlays().add(marker);
+            }
+
+            marker.setPosition(new GeoPoint(cluster.lat, cluster.lon));
+            marker.setTitle(cluster.count == 1 ? "Entrant Location" : cluster.count + " entrants");
+            marker.setIcon(clusterIcon(cluster.count));
+            marker.setEnabled(true);
+        }
+
+        for (int i = clusters.size(); i < markerPool.size(); i++) {
+            Marker marker = markerPool.get(i);
+            marker.closeInfoWindow();
+            marker.setEnabled(false);
+        }
+
+        mapView.invalidate();
+    }
+
+    /**
+     * Returns a round badge showing the cluster size. Icons are cached per
+     * count, with large clusters sharing a single "99+" icon.
+     */
+    private Drawable clusterIcon(int count) {
+        int key = Math.min(count, 100);
+        Drawable cached = clusterIcons.get(key);
+        if (cached != null) return cached;
+
+        float density = Resources.getSystem().getDisplayMetrics().density;
+        int size = (int) ((key == 1 ? 20 : 36) * density);
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+        fill.setColor(Color.argb(220, 33, 150, 243));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, fill);
+
+        Paint ring = new Paint(Paint.ANTI_ALIAS_FLAG);
+        ring.setStyle(Paint.Style.STROKE);
+        ring.setStrokeWidth(2 * density);
+        ring.setColor(Color.WHITE);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f - density, ring);
+
+        if (key > 1) {
+            Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+            text.setColor(Color.WHITE);
+            text.setTextSize(12 * density);
+            text.setTextAlign(Paint.Align.CENTER);
+            String label = key >= 100 ? "99+" : String.valueOf(key);
+            float y = size / 2f - (text.descent() + text.ascent()) / 2f;
+            canvas.drawText(label, size / 2f, y, text);
+        }
+
+        Drawable icon = new BitmapDrawable(mapView.getResources(), bitmap);
+        clusterIcons.put(key, icon);
+        return icon;
+    }
+}
@@ -1,16 +1,36 @@
 package com.example.apollo.ui.organizer.events;
 
+import android.os.SystemClock;
+import android.util.Log;
+
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.apollo.data.ChunkedBatchWriter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.InviteResponder;
+import com.example.apollo.data.JoinMetrics;
+import com.example.apollo.utils.GeoHash;
+import com.example.apollo.utils.SlotShards;
 
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * EventRepo.java
@@ -25,12 +45,26 @@ import java.util.Map;
  * the app and Firestore, separating business logic from UI code.
  *
  * Notes:
- * - All operations use Firestore WriteBatch for atomic updates.
+ * - Operations use a Firestore WriteBatch or transaction for atomic updates;
+ *   invite responses go through {@link InviteResponder}.
+ * - Waitlist joins enforce waitlistCapacity through slot shards ({@link SlotShards}).
  * - Requires a logged-in user (FirebaseAuth) for most operations.
+ * - Calls go through {@link InstrumentedFirestore} and are charged to the
+ *   screen that made them.
  */
 public class EventRepo {
 
+    private static final String TAG = "EventRepo";
+
+    /** Event field: the capacity the slot shards were last seeded for. */
+    static final String FIELD_SLOTS_SEEDED = "waitlistSlotsSeededFor";
+
+    /** Waitlist states that may join again; their entry still holds its slot. */
+    private static final List<String> REJOINABLE_STATES = Arrays.asList("loser", "Cancelled");
+
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final Random random = new Random();
     private final String uid;
 
     /**
@@ -45,109 +79,294 @@ public class EventRepo {
         if (uid == null) throw new IllegalStateException("User must be signed in");
     }
 
+    /**
+     * Result of a waitlist join.
+     */
+    public enum JoinResult {
+        /** The user was added to the waitlist. */
+        JOINED,
+        /** The user already had a waitlist entry; nothing was written. */
+        ALREADY_JOINED,
+        /** Every waitlist slot is taken. */
+        FULL
+    }
+
     /**
      * Adds the current user to an event's waitlist and updates the event's waitlist count.
      *
      * @param eventId The ID of the event to join.
-     * @return A Task representing the completion of the Firestore batch operation.
+     * @return A Task with the outcome of the join.
      */
-    public Task<Void> joinWaitlist(@NonNull String eventId) {
-        WriteBatch b = db.batch();
-        DocumentReference wl = db.collection("events").document(eventId)
-                .collection("waitlist").document(uid);
-
-        Map<String, Object> data = new HashMap<>();
-        data.put("joinedAt", FieldValue.serverTimestamp());
-        b.set(wl, data);
+    public Task<JoinResult> joinWaitlist(@NonNull String eventId) {
+        return joinWaitlist(eventId, null, null);
+    }
 
-        // Increment waitlist count
+    /**
+     * Adds the current user to an event's waitlist, optionally recording where
+     * they joined from, while enforcing the event's waitlistCapacity.
+     *
+     * Capacity is split over slot shard documents (events/{id}/waitlistSlots/{n},
+     * see {@link SlotShards}). Each join reserves a slot in one shard inside a
+     * transaction, so concurrent joiners on different shards do not conflict
+     * and the total can never exceed the capacity. A shard that is full sends
+     * the joiner on to the next one; the join is FULL once all shards are.
+     *
+     * Before the first join at a given capacity the shards are seeded from
+     * the existing waitlist (see {@link #seedSlots}), so entrants who joined
+     * before the shards existed, or before the capacity changed, still count.
+     * Losers and cancelled entrants re-join in place and keep the slot their
+     * entry already holds.
+     *
+     * The location goes to its own document under events/{id}/locations/{uid}
+     * in the same commit as the waitlist entry, so concurrent joins never race
+     * on a shared array and the event document itself stays small. A geohash is
+     * stored alongside the coordinates so the organizer map can range-query
+     * the points inside its current viewport.
+     *
+     * Retry counts and commit latency are recorded in {@link JoinMetrics}.
+     *
+     * @param eventId The ID of the event to join.
+     * @param lat     Latitude of the entrant, or null if geolocation is not available.
+     * @param lon     Longitude of the entrant, or null if geolocation is not available.
+     * @return A Task with the outcome of the join.
+     */
+    public Task<JoinResult> joinWaitlist(@NonNull String eventId, @Nullable Double lat, @Nullable Double lon) {
+        long start = SystemClock.elapsedRealtime();
+        AtomicInteger attempts = new AtomicInteger();
+        int[] probed = {0};
         DocumentReference ev = db.collection("events").document(eventId);
-        Map<String, Object> inc = new HashMap<>();
-        inc.put("waitlistCount", FieldValue.increment(1));
-        b.set(ev, inc, com.google.firebase.firestore.SetOptions.merge());
 
-        return b.commit();
+        // Capacity rarely changes, so it is read outside the transaction; reading
+        // the event document inside would make every join conflict with every other
+        Task<JoinResult> join = fs.get(ev).continueWithTask(task -> {
+            DocumentSnapshot event = task.getResult();
+            Long cap = event.getLong("waitlistCapacity");
+            int capacity = cap == null ? 0 : cap.intValue();
+            int shardCount = SlotShards.shardCountFor(capacity);
+            int[] order = shardCount == 0 ? new int[]{-1} : SlotShards.probeOrder(shardCount, random);
+
+            Long seededFor = event.getLong(FIELD_SLOTS_SEEDED);
+            if (capacity > 0 && (seededFor == null || seededFor != capacity)) {
+                // The shards (and waitlistCount) cannot be trusted yet
+                return seedSlots(ev, capacity, shardCount).continueWithTask(seeded -> {
+                    if (!seeded.isSuccessful()) return Tasks.forException(seeded.getException());
+                    return joinShard(ev, order, 0, capacity, shardCount, lat, lon, attempts, probed);
+                });
+            }
+
+            // Cheap early answer; the shards remain the source of truth
+            Long current = event.getLong("waitlistCount");
+            if (capacity > 0 && current != null && current >= capacity) {
+                return Tasks.forResult(JoinResult.FULL);
+            }
+            return joinShard(ev, order, 0, capacity, shardCount, lat, lon, attempts, probed);
+        });
+
+        return join.addOnCompleteListener(t -> {
+            JoinMetrics.Outcome outcome = !t.isSuccessful() ? JoinMetrics.Outcome.FAILED
+                    : JoinMetrics.Outcome.valueOf(t.getResult().name());
+            JoinMetrics metrics = JoinMetrics.getInstance();
+            metrics.record(outcome, attempts.get(), probed[0], SystemClock.elapsedRealtime() - start);
+            Log.d(TAG, "Join " + eventId + " -> " + outcome + " | " + metrics.summary());
+        });
+    }
+
+    /**
+     * Rebuilds the slot shard counts from the waitlist itself. Every waitlist
+     * entry holds a slot; entries without a valid {@code slotShard} are first
+     * tagged with one by {@link SlotShards#fill}. One transaction then writes
+     * the counts, the real waitlistCount and {@link #FIELD_SLOTS_SEEDED}, and
+     * does nothing if another device already seeded this capacity.
+     *
+     * Entrants leaving while the seed runs can be counted once too often,
+     * which only ever errs towards FULL, never past the capacity.
+     */
+    private Task<Void> seedSlots(DocumentReference ev, int capacity, int shardCount) {
+        return fs.get(ev.collection("waitlist")).continueWithTask(read -> {
+            List<DocumentSnapshot> entries = read.getResult().getDocuments();
+            int[] used = new int[shardCount];
+            List<DocumentSnapshot> unplaced = new ArrayList<>();
+            for (DocumentSnapshot entry : entries) {
+                Long shard = entry.getLong("slotShard");
+                if (shard != null && shard >= 0 && shard < shardCount) {
+                    used[shard.intValue()]++;
+                } else {
+                    unplaced.add(entry);
+                }
+            }
+
+            // Same order on every device, so concurrent seeders tag alike
+            unplaced.sort(Comparator.comparing(DocumentSnapshot::getId));
+            int[] assigned = SlotShards.fill(capacity, shardCount, used, unplaced.size());
+            ChunkedBatchWriter tags = new ChunkedBatchWriter(db);
+            for (int i = 0; i < assigned.length; i++) {
+                Map<String, Object> tag = new HashMap<>();
+                tag.put("slotShard", assigned[i]);
+                tags.update(unplaced.get(i).getReference(), tag);
+            }
+            Task<Void> tagged = tags.size() == 0 ? Tasks.forResult(null) : tags.commit();
+
+            return tagged.continueWithTask(t -> {
+                if (!t.isSuccessful()) return t;
+                return fs.runTransaction(tx -> {
+                    Long seededFor = tx.get(ev).getLong(FIELD_SLOTS_SEEDED);
+                    if (seededFor != null && seededFor == capacity) return null;
+
+                    for (int shard = 0; shard < shardCount; shard++) {
+                        Map<String, Object> slot = new HashMap<>();
+                        slot.put("count", used[shard]);
+                        tx.set(ev.collection("waitlistSlots").document(String.valueOf(shard)), slot);
+                    }
+
+                    Map<String, Object> seeded = new HashMap<>();
+                    seeded.put("waitlistCount", entries.size());
+                    seeded.put(FIELD_SLOTS_SEEDED, capacity);
+                    tx.set(ev, seeded, SetOptions.merge());
+                    return null;
+                });
+            });
+        });
+    }
+
+    /**
+     * Tries to reserve a slot in {@code order[index]}, moving on to the next
+     * shard while the current one is full. An entrant whose entry is in a
+     * {@link #REJOINABLE_STATES} state goes back to waiting on the slot it
+     * already holds.
+     */
+    private Task<JoinResult> joinShard(DocumentReference ev, int[] order, int index,
+                                       int capacity, int shardCount,
+                                       @Nullable Double lat, @Nullable Double lon,
+                                       AtomicInteger attempts, int[] probed) {
+        int shard = order[index];
+        probed[0]++;
+
+        Task<JoinResult> attempt = fs.runTransaction(tx -> {
+            attempts.incrementAndGet();
+            DocumentReference wl = ev.collection("waitlist").document(uid);
+
+            DocumentSnapshot existing = tx.get(wl);
+            boolean rejoin = existing.exists();
+            if (rejoin && !REJOINABLE_STATES.contains(existing.getString("state"))) {
+                return JoinResult.ALREADY_JOINED;
+            }
+
+            DocumentReference slot = null;
+            if (!rejoin && shard >= 0) {
+                slot = ev.collection("waitlistSlots").document(String.valueOf(shard));
+                Long used = tx.get(slot).getLong("count");
+                if (used != null && used >= SlotShards.capacityOf(capacity, shardCount, shard)) {
+                    return JoinResult.FULL;
+                }
+            }
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("uid", uid);
+            data.put("joinedAt", FieldValue.serverTimestamp());
+            data.put("state", "waiting");
+            data.put("lastResult", null);
+            if (!rejoin && shard >= 0) data.put("slotShard", shard);
+
+            if (lat != null && lon != null) {
+                data.put("latitude", lat);
+                data.put("longitude", lon);
+
+                Map<String, Object> loc = new HashMap<>();
+                loc.put("lat", lat);
+                loc.put("lon", lon);
+                loc.put("geohash", GeoHash.encode(lat, lon));
+                loc.put("updatedAt", FieldValue.serverTimestamp());
+                tx.set(ev.collection("locations").document(uid), loc);
+            }
+            if (rejoin) {
+                // Already counted in waitlistCount and its slot shard
+                tx.set(wl, data, SetOptions.merge());
+                return JoinResult.JOINED;
+            }
+            tx.set(wl, data);
+
+            if (slot != null) {
+                Map<String, Object> reserve = new HashMap<>();
+                reserve.put("count", FieldValue.increment(1));
+                tx.set(slot, reserve, SetOptions.merge());
+            }
+
+            // Increment waitlist count (a blind increment, so it adds no read conflicts)
+            Map<String, Object> inc = new HashMap<>();
+            inc.put("waitlistCount", FieldValue.increment(1));
+            tx.set(ev, inc, SetOptions.merge());
+
+            return JoinResult.JOINED;
+        });
+
+        return attempt.continueWithTask(t -> {
+            if (t.isSuccessful() && t.getResult() == JoinResult.FULL && index + 1 < order.length) {
+                return joinShard(ev, order, index + 1, capacity, shardCount, lat, lon, attempts, probed);
+            }
+            return t;
+        });
     }
 
     /**
-     * Removes the current user from an event's waitlist and decreases the waitlist count.
+     * Removes the current user from an event's waitlist, releases their slot
+     * and decreases the waitlist count. Does nothing if the user is not on
+     * the waitlist, so repeated calls never drive the count below zero.
      *
      * @param eventId The ID of the event to leave.
-     * @return A Task representing the completion of the Firestore batch operation.
+     * @return A Task representing the completion of the Firestore transaction.
      */
     public Task<Void> leaveWaitlist(@NonNull String eventId) {
-        WriteBatch b = db.batch();
-        DocumentReference wl = db.collection("events").document(eventId)
-                .collection("waitlist").document(uid);
-        b.delete(wl);
-
-        // Decrement waitlist count
         DocumentReference ev = db.collection("events").document(eventId);
-        Map<String, Object> dec = new HashMap<>();
-        dec.put("waitlistCount", FieldValue.increment(-1));
-        b.set(ev, dec, com.google.firebase.firestore.SetOptions.merge());
+        DocumentReference wl = ev.collection("waitlist").document(uid);
+
+        return fs.runTransaction(tx -> {
+            DocumentSnapshot entry = tx.get(wl);
+            if (!entry.exists()) return null;
+
+            tx.delete(wl);
+
+            // The entrant's location is only kept while they are on the waitlist
+            tx.delete(ev.collection("locations").document(uid));
 
-        return b.commit();
+            Long shard = entry.getLong("slotShard");
+            if (shard != null) {
+                Map<String, Object> release = new HashMap<>();
+                release.put("count", FieldValue.increment(-1));
+                tx.set(ev.collection("waitlistSlots").document(String.valueOf(shard)),
+                        release, SetOptions.merge());
+            }
+
+            // Decrement waitlist count
+            Map<String, Object> dec = new HashMap<>();
+            dec.put("waitlistCount", FieldValue.increment(-1));
+            tx.set(ev, dec, SetOptions.merge());
+            return null;
+        });
     }
 
     /**
-     * Accepts an invitation to an event, moves the user to the registrations collection,
-     * and updates event counters.
+     * Accepts an invitation to an event. Delegates to {@link InviteResponder},
+     * which registers the user and updates the invite, counters and membership
+     * index in one transaction.
      *
      * @param eventId The ID of the event whose invite is being accepted.
-     * @return A Task representing the completion of the Firestore batch operation.
+     * @return A Task representing the completion of the Firestore transaction.
      */
     public Task<Void> acceptInvite(@NonNull String eventId) {
-        WriteBatch b = db.batch();
-        DocumentReference invite = db.collection("events").document(eventId)
-                .collection("invites").document(uid);
-        DocumentReference reg = db.collection("events").document(eventId)
-                .collection("registrations").document(uid);
-
-        Map<String, Object> r = new HashMap<>();
-        r.put("registeredAt", FieldValue.serverTimestamp());
-        b.set(reg, r);
-        b.delete(invite);
-
-        // Update event counts
-        DocumentReference ev = db.collection("events").document(eventId);
-        Map<String, Object> delta = new HashMap<>();
-        delta.put("invitedCount", FieldValue.increment(-1));
-        delta.put("registeredCount", FieldValue.increment(1));
-        b.set(ev, delta, com.google.firebase.firestore.SetOptions.merge());
-
-        return b.commit();
+        return new InviteResponder().accept(eventId, null, null);
     }
 
     /**
-     * Declines an invitation to an event, adds a record in cancellations,
-     * and updates event counters.
+     * Declines an invitation to an event. Delegates to {@link InviteResponder},
+     * which records the cancellation, updates counters and flags the event
+     * for a replacement draw on the organizer's side.
      *
      * @param eventId The ID of the event to decline.
      * @param reason Optional reason for declining (defaults to "declined").
-     * @return A Task representing the completion of the Firestore batch operation.
+     * @return A Task representing the completion of the Firestore transaction.
      */
     public Task<Void> declineInvite(@NonNull String eventId, String reason) {
-        WriteBatch b = db.batch();
-        DocumentReference invite = db.collection("events").document(eventId)
-                .collection("invites").document(uid);
-        DocumentReference cancel = db.collection("events").document(eventId)
-                .collection("cancellations").document(uid);
-
-        Map<String, Object> c = new HashMap<>();
-        c.put("reason", reason == null ? "declined" : reason);
-        c.put("cancelledAt", FieldValue.serverTimestamp());
-        b.set(cancel, c);
-        b.delete(invite);
-
-        // Update event counts
-        DocumentReference ev = db.collection("events").document(eventId);
-        Map<String, Object> delta = new HashMap<>();
-        delta.put("invitedCount", FieldValue.increment(-1));
-        delta.put("cancelledCount", FieldValue.increment(1));
-        b.set(ev, delta, com.google.firebase.firestore.SetOptions.merge());
-
-        return b.commit();
+        return new InviteResponder().decline(eventId, null, reason, null);
     }
 
     /**
@@ -167,6 +386,7 @@ public class EventRepo {
                 .collection("cancellations").document(targetUid);
 
         Map<String, Object> c = new HashMap<>();
+        c.put("uid", targetUid);
         c.put("reason", reason == null ? "organizer_cancelled" : reason);
         c.put("cancelledAt", FieldValue.serverTimestamp());
         b.set(cancel, c);
@@ -177,8 +397,8 @@ public class EventRepo {
         Map<String, Object> delta = new HashMap<>();
         delta.put("registeredCount", FieldValue.increment(-1));
         delta.put("cancelledCount", FieldValue.increment(1));
-        b.set(ev, delta, com.google.firebase.firestore.SetOptions.merge());
+        b.set(ev, delta, SetOptions.merge());
 
-        return b.commit();
+        return fs.commit(b, 3);
     }
 }
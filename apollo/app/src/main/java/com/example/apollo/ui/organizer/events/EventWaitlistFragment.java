@@ -1,13 +1,12 @@
 package com.example.apollo.ui.organizer.events;
 
 import android.app.AlertDialog;
-import android.content.Intent;
-import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
@@ -18,25 +17,27 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.apollo.R;
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.ListenerRegistry;
+import com.example.apollo.data.UserProfileCache;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * EventWaitlistFragment.java
@@ -47,9 +48,17 @@ import java.util.Map;
  * - Declined entrants
  *
  * Features:
+ * - Listens to the entrant subcollections one page at a time and resolves
+ *   names through the shared UserProfileCache, showing rows as each page
+ *   arrives and applying later snapshots as document changes, so a status
+ *   change costs one read instead of re-reading every entrant
+ * - Each page has its own listener over a fixed document ID range; the next
+ *   {@link #PAGE_SIZE} entrants of each collection are requested as the list
+ *   nears its end, without re-reading the pages before them
  * - Filters entrants by status using a Spinner (All / Accepted / Declined / Invited / Loser / Waiting)
  * - Allows cancelling an invitation for "Invited" entrants
- * - Exports the currently visible list as a CSV file for sharing
+ * - Exports every participant (waitlist, invites, registrations, cancellations)
+ *   as CSV or a compact columnar file for sharing
  */
 public class EventWaitlistFragment extends Fragment {
 
@@ -86,12 +95,60 @@ public class EventWaitlistFragment extends Fragment {
     private final List<Entrant> allEntrants = new ArrayList<>();
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private String eventId;
     private Spinner filterSpinner;
 
+    /**
+     * Entrant subcollections, lowest precedence first; an entrant found in
+     * several shows the status of the last one.
+     */
+    private static final String[] SOURCES = {"waitlist", "declined", "cancellations", "registrations"};
+
+    /** Fixed status per source, or null to use the document's "state" field. */
+    private static final String[] SOURCE_STATUS = {null, "Declined", "Declined", "Accepted"};
+
+    /** Entrant documents loaded per page of each source. */
+    static final int PAGE_SIZE = 100;
+
+    /** Rows from the end of the list at which the next pages are requested. */
+    private static final int PREFETCH_DISTANCE = 10;
+
+    /**
+     * Pages loaded from one source. Page ends and statuses are kept across
+     * views so a new view re-listens to the same ranges and can tell which
+     * entrants left a page while it was away.
+     */
+    private static class SourcePages {
+        /** Last document ID of every page but the tail, in order. */
+        final List<String> ends = new ArrayList<>();
+        /** Status contributed by each entrant of each page, by document ID. */
+        final List<TreeMap<String, String>> statuses = new ArrayList<>();
+        /** One listener per page of the current view. */
+        final List<ListenerRegistry.Subscription> subscriptions = new ArrayList<>();
+        /** True while the next page has been requested but not yet received. */
+        boolean loadingMore;
+        /** False once the tail page came back smaller than a page. */
+        boolean hasMore = true;
+    }
+
+    private final SourcePages[] sourcePages = new SourcePages[SOURCES.length];
+    {
+        for (int i = 0; i < SOURCES.length; i++) sourcePages[i] = new SourcePages();
+    }
+
+    private final Map<String, Entrant> entrantsById = new HashMap<>();
+    private StateSnapshot states = new StateSnapshot();
+    /** Sources whose first page has arrived for the current view. */
+    private int sourcesLoaded = 0;
+
+    private Button exportButton;
+    private CharSequence exportButtonLabel;
+    private ParticipantExporter participantExporter;
+
     /**
      * Inflates the layout, sets up the ListView, filter Spinner, export button,
-     * and kicks off loading the waitlist for the provided eventId.
+     * and reads the eventId to show.
      */
     @Nullable
     @Override
@@ -129,6 +186,20 @@ public class EventWaitlistFragment extends Fragment {
             }
         });
 
+        // Request the next pages as the list nears its end
+        listView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view1, int scrollState) {
+
+            }
+
+            @Override
+            public void onScroll(AbsListView view1, int firstVisible, int visibleCount, int totalCount) {
+                if (sourcesLoaded < SOURCES.length) return;
+                if (firstVisible + visibleCount >= totalCount - PREFETCH_DISTANCE) loadMore();
+            }
+        });
+
         // Tap entrant to cancel "Invited" entries
         listView.setOnItemClickListener((parent, itemView, position, id) -> {
             Entrant selectedEntrant = entrantsList.get(position);
@@ -142,14 +213,15 @@ public class EventWaitlistFragment extends Fragment {
         });
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/waitlist");
 
         if (getArguments() != null) {
             eventId = getArguments().getString("eventId");
-            loadWaitlistEntrants();
         }
 
-        Button exportButton = view.findViewById(R.id.exportCsvButton);
-        exportButton.setOnClickListener(v -> exportWaitlistToCsv());
+        exportButton = view.findViewById(R.id.exportCsvButton);
+        exportButtonLabel = exportButton.getText();
+        exportButton.setOnClickListener(v -> exportParticipants());
 
         return view;
     }
@@ -170,7 +242,7 @@ public class EventWaitlistFragment extends Fragment {
 
     /**
      * Updates the entrant's waitlist state to "Cancelled" for this event.
-     * After success, the list is reloaded to reflect the new status.
+     * After success, the waitlist listener updates the entrant's row.
      *
      * @param entrant Entrant whose invitation is being cancelled.
      */
@@ -180,14 +252,13 @@ public class EventWaitlistFragment extends Fragment {
             return;
         }
 
-        db.collection("events").document(eventId)
-                .collection("waitlist").document(entrant.getId())
-                .update("state", "Cancelled")
+        fs.update(db.collection("events").document(eventId)
+                .collection("waitlist").document(entrant.getId()), "state", "Cancelled")
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(getContext(),
                             entrant.getName() + "'s invitation has been cancelled.",
                             Toast.LENGTH_SHORT).show();
-                    loadWaitlistEntrants(); // Refresh list
+                    // The waitlist listener applies the new status
                 })
                 .addOnFailureListener(e ->
                         Toast.makeText(getContext(),
@@ -196,106 +267,287 @@ public class EventWaitlistFragment extends Fragment {
     }
 
     /**
-     * Loads all entrants associated with this event from:
+     * Status of every entrant as read from the event's subcollections.
+     * Each entrant keeps one status per source (see {@link #SOURCES}) so a
+     * removed document falls back to the next source; the shown status is
+     * the one from the highest source.
+     */
+    private static class StateSnapshot {
+        final Map<String, String[]> bySource = new HashMap<>();
+        final Map<String, String> statuses = new HashMap<>();
+
+        /**
+         * Records or clears an entrant's status in one source.
+         *
+         * @param status New status, or null if the document was removed.
+         * @return True if the entrant's shown status changed.
+         */
+        boolean set(String uid, int source, @Nullable String status) {
+            String[] slots = bySource.get(uid);
+            if (slots == null) {
+                if (status == null) return false;
+                slots = new String[SOURCES.length];
+                bySource.put(uid, slots);
+            }
+            slots[source] = status;
+
+            String shown = null;
+            for (int i = slots.length - 1; i >= 0 && shown == null; i--) shown = slots[i];
+            if (shown == null) {
+                bySource.remove(uid);
+                return statuses.remove(uid) != null;
+            }
+            return !shown.equals(statuses.put(uid, shown));
+        }
+
+        /**
+         * Replaces everything known about one page of a source.
+         *
+         * @param page Statuses last read from the page; updated in place.
+         * @return Entrants whose shown status changed.
+         */
+        List<String> reset(int source, Map<String, String> page, List<DocumentSnapshot> docs) {
+            Map<String, String> fresh = new HashMap<>();
+            for (DocumentSnapshot doc : docs) fresh.put(doc.getId(), statusOf(source, doc));
+
+            List<String> changed = new ArrayList<>();
+            for (String uid : new ArrayList<>(page.keySet())) {
+                if (fresh.containsKey(uid)) continue;
+                page.remove(uid);
+                if (set(uid, source, null)) changed.add(uid);
+            }
+            for (Map.Entry<String, String> e : fresh.entrySet()) {
+                page.put(e.getKey(), e.getValue());
+                if (set(e.getKey(), source, e.getValue())) changed.add(e.getKey());
+            }
+            return changed;
+        }
+    }
+
+    /** @return Status an entrant document contributes for a source. */
+    private static String statusOf(int source, DocumentSnapshot doc) {
+        String status = SOURCE_STATUS[source];
+        if (status == null) status = doc.getString("state");
+        return status == null ? "unknown" : status;
+    }
+
+    /**
+     * Listens to every entrant subcollection of this event:
      * - waitlist
      * - registrations
-     * - declined
+     * - cancellations (and the legacy declined collection)
      *
-     * Then joins them with user details from "users" and builds the in-memory list used by the UI.
+     * Each collection is read in pages with one listener per page. Pages are
+     * fixed document ID ranges: every page but the last ends at an ID stored
+     * in {@link SourcePages#ends}, and the last (tail) page starts after the
+     * previous page's end with a limit of {@link #PAGE_SIZE}. Loading more
+     * therefore bills only the new page (and the re-bounded tail), never the
+     * pages already on screen.
+     *
+     * The first snapshot of each page replaces what was known about it
+     * (a shared listener may hand over a snapshot whose changes were already
+     * delivered elsewhere); every later snapshot is applied through its
+     * document changes. Profiles are only resolved for entrants without a
+     * row, through the shared {@link UserProfileCache} (whereIn chunks of 30),
+     * and rows are shown as each chunk arrives.
      */
-    private void loadWaitlistEntrants() {
+    private void listenToEntrants() {
         if (eventId == null) return;
 
-        emptyTextView.setText("Loading entrants...");
-        allEntrants.clear();
+        removePageListeners();
+        sourcesLoaded = 0;
         applyFilter();
 
-        Task<QuerySnapshot> waitlistTask =
-                db.collection("events").document(eventId).collection("waitlist").get();
-        Task<QuerySnapshot> registrationsTask =
-                db.collection("events").document(eventId).collection("registrations").get();
-        Task<QuerySnapshot> declinedTask =
-                db.collection("events").document(eventId).collection("declined").get();
-
-        Tasks.whenAllSuccess(waitlistTask, registrationsTask, declinedTask)
-                .addOnSuccessListener(snapshots -> {
-                    Map<String, String> entrantStates = new HashMap<>();
-
-                    // Declined entrants
-                    QuerySnapshot declinedSnapshot = (QuerySnapshot) snapshots.get(2);
-                    for (QueryDocumentSnapshot doc : declinedSnapshot) {
-                        entrantStates.put(doc.getId(), "Declined");
-                    }
+        for (int source = 0; source < SOURCES.length; source++) {
+            SourcePages pages = sourcePages[source];
+            List<String> ends = pages.ends;
+            for (int i = 0; i <= ends.size(); i++) {
+                if (i == pages.statuses.size()) pages.statuses.add(new TreeMap<>());
+                pages.subscriptions.add(null);
+                listenToPage(source, i, i == 0 ? null : ends.get(i - 1), i < ends.size() ? ends.get(i) : null);
+            }
+        }
+    }
 
-                    // Accepted / registered entrants
-                    QuerySnapshot registrationsSnapshot = (QuerySnapshot) snapshots.get(1);
-                    for (QueryDocumentSnapshot doc : registrationsSnapshot) {
-                        entrantStates.put(doc.getId(), "Accepted");
-                    }
+    /**
+     * Requests the next page of every source that has more entrants and is
+     * not already loading one.
+     */
+    private void loadMore() {
+        for (int source = 0; source < SOURCES.length; source++) {
+            SourcePages pages = sourcePages[source];
+            if (pages.hasMore && !pages.loadingMore) {
+                pages.loadingMore = true;
+                loadMore(source);
+            }
+        }
+    }
 
-                    // Waitlist entries (only if not already labeled above)
-                    QuerySnapshot waitlistSnapshot = (QuerySnapshot) snapshots.get(0);
-                    for (QueryDocumentSnapshot doc : waitlistSnapshot) {
-                        if (!entrantStates.containsKey(doc.getId())) {
-                            String state = doc.getString("state");
-                            entrantStates.put(doc.getId(), (state != null) ? state : "unknown");
-                        }
-                    }
+    /**
+     * Closes the tail page of a source at its current last entrant and opens
+     * a new tail page after it.
+     */
+    private void loadMore(int source) {
+        SourcePages pages = sourcePages[source];
+        int tail = pages.subscriptions.size() - 1;
+        TreeMap<String, String> tailStatuses = pages.statuses.get(tail);
+        if (tailStatuses.isEmpty()) {
+            pages.loadingMore = false;
+            return;
+        }
+        String end = tailStatuses.lastKey();
+        String start = tail == 0 ? null : pages.ends.get(tail - 1);
+        pages.ends.add(end);
+
+        // The old tail stays live until its bounded listener is attached
+        ListenerRegistry.Subscription open = pages.subscriptions.get(tail);
+        listenToPage(source, tail, start, end);
+        if (open != null) open.remove();
+
+        if (pages.statuses.size() == tail + 1) pages.statuses.add(new TreeMap<>());
+        pages.subscriptions.add(null);
+        listenToPage(source, tail + 1, end, null);
+    }
 
-                    if (entrantStates.isEmpty()) {
-                        emptyTextView.setText("No one has joined the event");
-                        allEntrants.clear();
-                        applyFilter();
+    /**
+     * Attaches the listener of one page of a source.
+     *
+     * @param index Page index.
+     * @param after Last document ID of the previous page, or null for the first page.
+     * @param end   Last document ID of this page, or null for the open tail page.
+     */
+    private void listenToPage(int source, int index, @Nullable String after, @Nullable String end) {
+        SourcePages pages = sourcePages[source];
+        Query query = db.collection("events").document(eventId).collection(SOURCES[source])
+                .orderBy(FieldPath.documentId());
+        if (after != null) query = query.startAfter(after);
+        query = end != null ? query.endAt(end) : query.limit(PAGE_SIZE);
+
+        final boolean[] first = {true};
+        pages.subscriptions.set(index, ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, query,
+                (snapshot, e) -> {
+                    if (!isAdded()) return;
+                    if (e != null || snapshot == null) {
+                        if (end == null) pages.loadingMore = false;
+                        emptyTextView.setText("Failed to load event data");
+                        if (e != null) {
+                            Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        }
                         return;
                     }
-
-                    // Now fetch user details for each entrant
-                    List<Task<DocumentSnapshot>> userDetailTasks = new ArrayList<>();
-                    for (String entrantId : entrantStates.keySet()) {
-                        userDetailTasks.add(
-                                db.collection("users").document(entrantId).get()
-                        );
+                    if (index >= pages.subscriptions.size()) return;
+
+                    Map<String, String> page = pages.statuses.get(index);
+                    List<String> changed;
+                    if (first[0]) {
+                        first[0] = false;
+                        if (index == 0) sourcesLoaded++;
+                        changed = states.reset(source, page, snapshot.getDocuments());
+                    } else {
+                        changed = applyChanges(source, page, snapshot);
+                    }
+                    if (end == null) {
+                        pages.hasMore = snapshot.size() >= PAGE_SIZE;
+                        pages.loadingMore = false;
                     }
+                    applyStatuses(changed);
+                }));
+    }
 
-                    Tasks.whenAllSuccess(userDetailTasks).addOnSuccessListener(userSnapshots -> {
-                        List<Entrant> newEntrantsList = new ArrayList<>();
-                        for (Object snapshot : userSnapshots) {
-                            DocumentSnapshot userDoc = (DocumentSnapshot) snapshot;
-                            if (!userDoc.exists()) continue;
-
-                            String entrantId = userDoc.getId();
-                            String name = userDoc.getString("name");
-                            String displayName = (name != null) ? name : entrantId;
-                            String status = entrantStates.get(entrantId);
-
-                            if (status != null) {
-                                String displayStatus =
-                                        status.substring(0, 1).toUpperCase() + status.substring(1);
-                                newEntrantsList.add(new Entrant(entrantId, displayName, displayStatus));
-                            }
-                        }
+    /** Detaches every page listener; page ends and statuses are kept. */
+    private void removePageListeners() {
+        for (SourcePages pages : sourcePages) {
+            for (ListenerRegistry.Subscription subscription : pages.subscriptions) {
+                if (subscription != null) subscription.remove();
+            }
+            pages.subscriptions.clear();
+            pages.loadingMore = false;
+        }
+    }
 
-                        // Sort entrants alphabetically by name
-                        Collections.sort(newEntrantsList,
-                                (e1, e2) -> e1.getName().compareToIgnoreCase(e2.getName()));
+    /**
+     * @param page Statuses last read from the page; updated in place.
+     * @return Entrants whose shown status changed with this snapshot.
+     */
+    private List<String> applyChanges(int source, Map<String, String> page, QuerySnapshot snapshot) {
+        List<String> changed = new ArrayList<>();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            String status = change.getType() == DocumentChange.Type.REMOVED
+                    ? null : statusOf(source, doc);
+            if (status == null) {
+                page.remove(doc.getId());
+            } else {
+                page.put(doc.getId(), status);
+            }
+            if (states.set(doc.getId(), source, status)) changed.add(doc.getId());
+        }
+        return changed;
+    }
 
-                        allEntrants.clear();
-                        allEntrants.addAll(newEntrantsList);
-                        applyFilter();
+    /**
+     * Updates the rows of entrants whose status changed: removed entrants
+     * are dropped, known ones updated in place, and new ones resolved.
+     */
+    private void applyStatuses(List<String> changed) {
+        List<String> unknown = new ArrayList<>();
+        for (String uid : changed) {
+            String status = states.statuses.get(uid);
+            Entrant row = entrantsById.get(uid);
+            if (status == null) {
+                entrantsById.remove(uid);
+            } else if (row != null) {
+                row.status = displayStatus(status);
+            } else {
+                unknown.add(uid);
+            }
+        }
+        publishRows();
+        renderEntrants(unknown);
+    }
 
-                        if (allEntrants.isEmpty()) {
-                            emptyTextView.setText("No entrants found");
-                        }
+    /**
+     * Resolves profiles for the given entrants and adds or updates their rows
+     * as each profile chunk arrives.
+     */
+    private void renderEntrants(List<String> uids) {
+        if (uids.isEmpty()) return;
+
+        // Failed chunks are logged by the cache; the rows for them are simply not shown
+        UserProfileCache.getInstance().resolve(uids, profiles -> {
+            if (!isAdded()) return;
+
+            for (UserProfileCache.Profile profile : profiles.values()) {
+                String status = states.statuses.get(profile.uid);
+                if (!profile.exists || status == null) {
+                    entrantsById.remove(profile.uid);
+                    continue;
+                }
+                entrantsById.put(profile.uid,
+                        new Entrant(profile.uid, profile.displayName(), displayStatus(status)));
+            }
+            publishRows();
+        });
+    }
+
+    /**
+     * Copies the current rows into the sorted list and re-applies the filter.
+     */
+    private void publishRows() {
+        allEntrants.clear();
+        allEntrants.addAll(entrantsById.values());
+
+        // Sort entrants alphabetically by name
+        Collections.sort(allEntrants,
+                (e1, e2) -> e1.getName().compareToIgnoreCase(e2.getName()));
 
-                    }).addOnFailureListener(e -> {
-                        emptyTextView.setText("Failed to load entrant details");
-                        Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    });
+        applyFilter();
+    }
 
-                }).addOnFailureListener(e -> {
-                    emptyTextView.setText("Failed to load event data");
-                    Toast.makeText(getContext(), "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+    /** Capitalizes a raw state for display, e.g. "waiting" becomes "Waiting". */
+    private static String displayStatus(String status) {
+        if (status.isEmpty()) return status;
+        return status.substring(0, 1).toUpperCase() + status.substring(1);
     }
 
     /**
@@ -328,7 +580,8 @@ public class EventWaitlistFragment extends Fragment {
             emptyTextView.setText("No entrants match the filter '" + selectedFilter + "'");
             emptyTextView.setVisibility(View.VISIBLE);
         } else if (allEntrants.isEmpty()) {
-            emptyTextView.setText("No one has joined the event");
+            emptyTextView.setText(sourcesLoaded < SOURCES.length
+                    ? "Loading entrants..." : "No one has joined the event");
             emptyTextView.setVisibility(View.VISIBLE);
         } else {
             emptyTextView.setVisibility(View.GONE);
@@ -336,56 +589,91 @@ public class EventWaitlistFragment extends Fragment {
     }
 
     /**
-     * Exports the currently visible entrants (after filtering) to a CSV file
-     * and then calls {@link #shareCsv(File)} to share it via an external app.
+     * Asks which format to use, then exports every participant of the event
+     * (not just the loaded rows) with {@link ParticipantExporter}. While the
+     * export runs, the button shows progress and tapping it cancels.
      */
-    private void exportWaitlistToCsv() {
-        if (entrantsList.isEmpty()) {
-            Toast.makeText(getContext(), "No data to export", Toast.LENGTH_SHORT).show();
+    private void exportParticipants() {
+        if (eventId == null) return;
+
+        if (participantExporter != null) {
+            participantExporter.cancel();
             return;
         }
 
-        StringBuilder csvBuilder = new StringBuilder();
-        csvBuilder.append("Name,Status\n");
+        String[] formats = {"CSV", "Compact (columnar, gzip)"};
+        new AlertDialog.Builder(getContext())
+                .setTitle("Export participants")
+                .setItems(formats, (dialog, which) -> startExport(
+                        which == 0 ? ParticipantExporter.Format.CSV : ParticipantExporter.Format.COLUMNAR))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-        for (Entrant entry : entrantsList) {
-            csvBuilder.append(entry.getName()).append(",").append(entry.getStatus()).append("\n");
+    private void startExport(ParticipantExporter.Format format) {
+        File dir = requireContext().getExternalFilesDir(null);
+        if (dir == null) {
+            Toast.makeText(getContext(), "Failed to export CSV", Toast.LENGTH_SHORT).show();
+            return;
         }
 
-        try {
-            String fileName = "waitlist_export_" + System.currentTimeMillis() + ".csv";
-            File file = new File(getContext().getExternalFilesDir(null), fileName);
+        participantExporter = new ParticipantExporter(db);
+        exportButton.setText("Exporting… (tap to cancel)");
 
-            FileWriter writer = new FileWriter(file);
-            writer.write(csvBuilder.toString());
-            writer.flush();
-            writer.close();
+        participantExporter.export(eventId, format, dir, new ParticipantExporter.Callback() {
+            @Override
+            public void onProgress(long rowsWritten, long totalRows) {
+                if (exportButton == null) return;
+                if (totalRows > 0) {
+                    long percent = Math.min(100, rowsWritten * 100 / totalRows);
+                    exportButton.setText("Exporting… " + percent + "% (tap to cancel)");
+                } else {
+                    exportButton.setText("Exporting… " + rowsWritten + " rows (tap to cancel)");
+                }
+            }
 
-            shareCsv(file);
+            @Override
+            public void onComplete(@NonNull File file, long rowsWritten) {
+                finishExport();
+                if (!isAdded()) return;
+                if (rowsWritten == 0) {
+                    Toast.makeText(getContext(), "No data to export", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                startActivity(ParticipantExporter.shareIntent(requireContext(), file, format));
+            }
 
-        } catch (Exception e) {
-            Toast.makeText(getContext(), "Failed to export CSV", Toast.LENGTH_SHORT).show();
+            @Override
+            public void onError(@NonNull Exception e) {
+                finishExport();
+                if (!isAdded()) return;
+                Toast.makeText(getContext(),
+                        (e instanceof InterruptedException) ? "Export cancelled" : "Failed to export CSV",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void finishExport() {
+        if (participantExporter != null) {
+            participantExporter.shutdown();
+            participantExporter = null;
         }
+        if (exportButton != null) exportButton.setText(exportButtonLabel);
     }
 
     /**
-     * Shares the generated CSV file using an ACTION_SEND intent and FileProvider.
-     *
-     * @param file CSV file to be shared.
+     * Stops a running export and the page listeners when the view goes away.
      */
-    private void shareCsv(File file) {
-        Uri uri = FileProvider.getUriForFile(
-                requireContext(),
-                requireContext().getPackageName() + ".fileprovider",
-                file
-        );
-
-        Intent intent = new Intent(Intent.ACTION_SEND);
-        intent.setType("text/csv");
-        intent.putExtra(Intent.EXTRA_STREAM, uri);
-        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-
-        startActivity(Intent.createChooser(intent, "Share CSV File"));
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        removePageListeners();
+        if (participantExporter != null) {
+            participantExporter.shutdown();
+            participantExporter = null;
+        }
+        exportButton = null;
     }
 
     /**
@@ -410,14 +698,12 @@ public class EventWaitlistFragment extends Fragment {
     }
 
     /**
-     * Refreshes the entrants list whenever the fragment is resumed,
-     * ensuring the UI reflects latest states (accepted/declined/etc.).
+     * Starts listening to the entrants once the view exists. Rows kept from
+     * an earlier view stay on screen until the new snapshots arrive.
      */
     @Override
-    public void onResume() {
-        super.onResume();
-        if (eventId != null) {
-            loadWaitlistEntrants();
-        }
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        listenToEntrants();
     }
 }
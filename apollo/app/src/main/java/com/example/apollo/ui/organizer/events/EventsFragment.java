@@ -1,43 +1,64 @@
 package com.example.apollo.ui.organizer.events;
 
+import android.content.Context;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
-import android.widget.TextView;
-import android.widget.ImageView;
-
-
-import com.bumptech.glide.Glide;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.ListenerRegistry;
 import com.example.apollo.databinding.FragmentOrganizerEventsBinding;
+import com.example.apollo.utils.DrawSchedule;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * EventsFragment.java
  *
  * Purpose:
  * Displays all events created by the currently logged-in organizer.
- * Fetches data from Firestore and displays event cards with title, image, and navigation options.
+ * Shows event cards with title, image, live waitlist/invited/registered counters
+ * and navigation options.
+ * Can also export printable QR posters for all of the organizer's events as one PDF,
+ * and run the lotteries of several closed events together.
  *
  * Design Pattern:
  * Acts as a Controller in the MVC pattern, managing the display of Firestore data (model)
- * inside a scrollable layout (view).
+ * inside a RecyclerView (view).
  *
  * Notes:
- * - Only events created by the logged-in user are displayed.
+ * - Only events created by the logged-in user are displayed, in a stable
+ *   document ID order, {@link #PAGE_SIZE} more each time the list nears its end.
+ * - Each page has its own listener over a fixed document ID range, so a
+ *   new page never re-reads the pages before it; the adapter diffs the
+ *   combined pages and rebinds only the cards that changed.
+ * - The cards last shown are kept in {@link EventsViewModel}, so returning
+ *   from event details draws them at once instead of reloading everything.
+ * - Loaded events that are not drawn yet get their automatic lottery
+ *   scheduled on this device ({@link LotteryScheduler}).
  * - Each card navigates to an event detail page when clicked.
  * - Glide is used for image loading.
  */
@@ -51,6 +72,33 @@ public class EventsFragment extends Fragment {
 
     /** Firestore instance used to load events from the database. */
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
+
+    /** Exporter for the printable QR poster PDF; null when no export is running. */
+    private QrPosterExporter posterExporter;
+
+    /** Events loaded per page. */
+    static final int PAGE_SIZE = 25;
+
+    /** Cards from the end of the list at which the next page is requested. */
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private OrganizerEventsAdapter adapter;
+
+    /** One listener per loaded page, in list order. */
+    private final List<ListenerRegistry.Subscription> pageSubscriptions = new ArrayList<>();
+
+    /** Latest documents of each page, in list order. */
+    private final List<List<DocumentSnapshot>> pages = new ArrayList<>();
+
+    /** True while the next page has been requested but not yet received. */
+    private boolean loadingMore;
+
+    /** False once the tail page came back smaller than a page, i.e. everything is loaded. */
+    private boolean hasMore = true;
+
+    /** True while a multi-event draw is running. */
+    private boolean drawing;
 
     /**
      * Called when the fragment’s view is created.
@@ -69,9 +117,12 @@ public class EventsFragment extends Fragment {
         View root = binding.getRoot();
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/events");
         eventsViewModel = new ViewModelProvider(this).get(EventsViewModel.class);
 
-        // Load all events created by the logged-in organizer
+        setUpEventsList();
+
+        // Listen to the events created by the logged-in organizer
         loadEvents();
 
         // Handle "Add New Event" button click
@@ -80,68 +131,334 @@ public class EventsFragment extends Fragment {
             navController.navigate(R.id.action_navigation_organizer_events_to_navigation_organizer_add_event);
         });
 
+        // Handle "Export QR Posters" button click
+        binding.exportQrPostersButton.setOnClickListener(v -> exportQrPosters());
+
+        // Handle "Run Lotteries" button click
+        binding.runLotteriesButton.setOnClickListener(v -> chooseEventsToDraw());
+        if (drawing) binding.runLotteriesButton.setEnabled(false);
+
         return root;
     }
 
     /**
-     * Fetches and displays all events created by the current organizer.
+     * Sets up the RecyclerView, shows the cards cached from the last visit,
+     * and requests the next page when the user scrolls near the end.
+     */
+    private void setUpEventsList() {
+        adapter = new OrganizerEventsAdapter(eventId -> {
+            Bundle bundle = new Bundle();
+            bundle.putString("eventId", eventId);
+
+            NavController navController = NavHostFragment.findNavController(this);
+            navController.navigate(R.id.action_navigation_organizer_events_to_organizer_event_details, bundle);
+        });
+        adapter.setEvents(eventsViewModel.getCachedEvents());
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        binding.eventsRecyclerView.setLayoutManager(layoutManager);
+        binding.eventsRecyclerView.setAdapter(adapter);
+
+        binding.eventsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || loadingMore || !hasMore) return;
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (last >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadingMore = true;
+                    loadMore();
+                }
+            }
+        });
+    }
+
+    /**
+     * Listens to the events created by the current organizer, one listener
+     * per page.
      * <p>
-     * The method queries Firestore for documents in the "events" collection
-     * where {@code creatorId} matches the current user’s UID. For each event document,
-     * a card view is inflated dynamically and populated with title, image, and click behavior.
-     * If an event poster URL is available, Glide loads and displays it.
+     * Pages are fixed document ID ranges: every page but the last ends at
+     * the ID stored in {@link EventsViewModel#getPageEnds()}, and the last
+     * (tail) page starts after the previous page's end with a limit of
+     * {@link #PAGE_SIZE}. Loading more therefore bills only the new page
+     * (and the re-bounded tail), never the pages already on screen.
      */
     private void loadEvents() {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) {
-            Log.e("Firestore", "No logged-in user");
+        if (currentUser == null) return;
+
+        removePageListeners();
+        List<String> ends = eventsViewModel.getPageEnds();
+        for (int i = 0; i <= ends.size(); i++) {
+            pages.add(new ArrayList<>());
+            pageSubscriptions.add(null);
+            listenToPage(i, i == 0 ? null : ends.get(i - 1), i < ends.size() ? ends.get(i) : null);
+        }
+    }
+
+    /**
+     * Closes the tail page at its current last event and opens a new tail
+     * page after it.
+     */
+    private void loadMore() {
+        int tail = pages.size() - 1;
+        List<DocumentSnapshot> tailDocs = pages.get(tail);
+        if (tailDocs.isEmpty()) {
+            loadingMore = false;
             return;
         }
+        String end = tailDocs.get(tailDocs.size() - 1).getId();
+
+        List<String> ends = eventsViewModel.getPageEnds();
+        String start = tail == 0 ? null : ends.get(tail - 1);
+        ends.add(end);
+        eventsViewModel.setPageEnds(ends);
+
+        // The old tail stays on screen until its bounded listener answers
+        ListenerRegistry.Subscription open = pageSubscriptions.get(tail);
+        listenToPage(tail, start, end);
+        if (open != null) open.remove();
+
+        pages.add(new ArrayList<>());
+        pageSubscriptions.add(null);
+        listenToPage(tail + 1, end, null);
+    }
+
+    /**
+     * Attaches the listener of one page.
+     *
+     * @param index Page index.
+     * @param after Last event ID of the previous page, or null for the first page.
+     * @param end   Last event ID of this page, or null for the open tail page.
+     */
+    private void listenToPage(int index, @Nullable String after, @Nullable String end) {
+        Query query = db.collection("events")
+                .whereEqualTo("creatorId", FirebaseAuth.getInstance().getCurrentUser().getUid())
+                .orderBy(FieldPath.documentId());
+        if (after != null) query = query.startAfter(after);
+        query = end != null ? query.endAt(end) : query.limit(PAGE_SIZE);
+
+        boolean[] first = {true};
+        pageSubscriptions.set(index, ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, query,
+                (snapshot, e) -> {
+                    if (e != null || snapshot == null) {
+                        Log.e("Firestore", "Error loading events", e);
+                        if (end == null) loadingMore = false;
+                        return;
+                    }
+                    if (binding == null || index >= pages.size()) return;
+
+                    pages.set(index, snapshot.getDocuments());
+                    List<DocumentSnapshot> all = new ArrayList<>();
+                    for (List<DocumentSnapshot> page : pages) all.addAll(page);
+                    adapter.setEvents(all);
+                    eventsViewModel.setCachedEvents(all);
+
+                    if (first[0]) {
+                        first[0] = false;
+                        // Re-enqueue automatic draws missing on this device
+                        LotteryScheduler.ensureScheduled(requireContext(), snapshot.getDocuments());
+                    }
+                    // Entrants only flag declines; the organizer's device draws replacements
+                    ReplacementDrawWorker.ensureScheduled(requireContext(), snapshot.getDocuments());
+
+                    if (end == null) {
+                        hasMore = snapshot.size() >= PAGE_SIZE;
+                        loadingMore = false;
+                    }
+                }));
+    }
+
+    /** Detaches every page listener. */
+    private void removePageListeners() {
+        for (ListenerRegistry.Subscription subscription : pageSubscriptions) {
+            if (subscription != null) subscription.remove();
+        }
+        pageSubscriptions.clear();
+        pages.clear();
+    }
 
-        String uid = currentUser.getUid();
+    /**
+     * Exports a printable QR poster for every event created by the current organizer
+     * into a single multi-page PDF and opens the share sheet when it is ready.
+     * Posters are rendered as vector graphics in the background by {@link QrPosterExporter}.
+     */
+    private void exportQrPosters() {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null || posterExporter != null) return;
+
+        binding.exportQrPostersButton.setEnabled(false);
 
-        db.collection("events")
-                .whereEqualTo("creatorId", uid)
-                .get()
+        fs.get(db.collection("events")
+                .whereEqualTo("creatorId", currentUser.getUid()))
                 .addOnSuccessListener(querySnapshot -> {
-                    LinearLayout container = binding.eventsContainer;
-                    container.removeAllViews();
+                    if (binding == null) return;
 
+                    List<QrPosterExporter.Poster> posters = new ArrayList<>();
                     for (QueryDocumentSnapshot document : querySnapshot) {
-                        String eventId = document.getId();
-                        String title = document.getString("title");
-                        String posterUrl = document.getString("eventPosterUrl");
-
-                        // Inflate card layout
-                        View card = LayoutInflater.from(getContext())
-                                .inflate(R.layout.item_event_card, container, false);
-
-                        // Set title
-                        TextView titleView = card.findViewById(R.id.eventTitle);
-                        titleView.setText(title);
-
-                        // Set image if available
-                        ImageView posterView = card.findViewById(R.id.eventPosterImage);
-                        if (posterUrl != null && !posterUrl.isEmpty()) {
-                            Glide.with(this)
-                                    .load(posterUrl)
-                                    .into(posterView);
+                        posters.add(QrPosterExporter.Poster.fromEvent(document));
+                    }
+
+                    if (posters.isEmpty()) {
+                        binding.exportQrPostersButton.setEnabled(true);
+                        Toast.makeText(getContext(), "No events to export", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    File file = new File(requireContext().getExternalFilesDir(null),
+                            "qr_posters_" + System.currentTimeMillis() + ".pdf");
+
+                    posterExporter = new QrPosterExporter();
+                    posterExporter.export(posters, file, new QrPosterExporter.Callback() {
+                        @Override
+                        public void onProgress(int done, int total) {
+                            if (binding != null) {
+                                binding.exportQrPostersButton.setText("EXPORTING " + done + "/" + total);
+                            }
                         }
 
-                        // Navigate to event details on click
-                        card.setOnClickListener(v -> {
-                            Bundle bundle = new Bundle();
-                            bundle.putString("eventId", eventId);
+                        @Override
+                        public void onComplete(@NonNull File file, int pages) {
+                            posterExporter = null;
+                            if (binding == null) return;
+                            resetExportButton();
+                            startActivity(QrPosterExporter.shareIntent(requireContext(), file));
+                        }
 
-                            NavController navController = NavHostFragment.findNavController(this);
-                            navController.navigate(R.id.action_navigation_organizer_events_to_organizer_event_details, bundle);
-                        });
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            posterExporter = null;
+                            if (binding == null) return;
+                            resetExportButton();
+                            Toast.makeText(getContext(), "Failed to export QR posters", Toast.LENGTH_SHORT).show();
+                        }
+                    });
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firestore", "Error loading events for export", e);
+                    if (binding != null) binding.exportQrPostersButton.setEnabled(true);
+                });
+    }
 
-                        // Add card to container layout
-                        container.addView(card);
-                    }
+    /**
+     * Lets the organizer pick which loaded events to draw together. Only
+     * events whose registration has closed and that are not drawn yet are
+     * offered; all of them start selected.
+     */
+    private void chooseEventsToDraw() {
+        if (drawing) return;
+
+        long now = System.currentTimeMillis();
+        List<DocumentSnapshot> ready = new ArrayList<>();
+        for (DocumentSnapshot event : adapter.getEvents()) {
+            if (Boolean.TRUE.equals(event.getBoolean("lotteryDone"))) continue;
+            long closeAt = DrawSchedule.closeTime(
+                    event.getString("registrationClose"), event.getString("time"));
+            if (closeAt >= 0 && closeAt <= now) ready.add(event);
+        }
+
+        if (ready.isEmpty()) {
+            Toast.makeText(getContext(), "No closed events waiting for a lottery", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String[] titles = new String[ready.size()];
+        boolean[] checked = new boolean[ready.size()];
+        for (int i = 0; i < ready.size(); i++) {
+            String title = ready.get(i).getString("title");
+            titles[i] = title != null ? title : "Untitled Event";
+            checked[i] = true;
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Events to draw")
+                .setMultiChoiceItems(titles, checked, (dlg, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Next", (dlg, which) -> {
+                    List<DocumentSnapshot> selected = new ArrayList<>();
+                    for (int i = 0; i < ready.size(); i++) if (checked[i]) selected.add(ready.get(i));
+                    if (!selected.isEmpty()) confirmDraw(selected);
                 })
-                .addOnFailureListener(e -> Log.e("Firestore", "Error loading events", e));
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Asks whether entrants may win more than one of the selected events,
+     * then runs the draw. Each event selects as many winners as its capacity.
+     *
+     * @param selected Events to draw.
+     */
+    private void confirmDraw(@NonNull List<DocumentSnapshot> selected) {
+        boolean[] exclusive = {true};
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Run " + selected.size() + " lotteries")
+                .setMultiChoiceItems(new String[]{"Each entrant wins at most one event"}, exclusive,
+                        (dlg, which, isChecked) -> exclusive[0] = isChecked)
+                .setPositiveButton("Run", (dlg, which) -> runDraws(selected, exclusive[0]))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Draws the selected events together with {@link MultiEventLotteryRunner}
+     * and shows its report.
+     *
+     * @param selected  Events to draw.
+     * @param exclusive True if an entrant may win at most one of the events.
+     */
+    private void runDraws(@NonNull List<DocumentSnapshot> selected, boolean exclusive) {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) return;
+
+        List<MultiEventLotteryRunner.EventSpec> specs = new ArrayList<>();
+        for (DocumentSnapshot event : selected) {
+            Long capacity = event.getLong("eventCapacity");
+            String title = event.getString("title");
+            specs.add(new MultiEventLotteryRunner.EventSpec(event.getId(),
+                    title != null && !title.isEmpty() ? title : "Event",
+                    capacity != null ? (int) Math.min(capacity, Integer.MAX_VALUE) : 0));
+        }
+
+        Context app = requireContext().getApplicationContext();
+        drawing = true;
+        binding.runLotteriesButton.setEnabled(false);
+        binding.runLotteriesButton.setText("DRAWING " + specs.size() + " EVENTS");
+
+        new MultiEventLotteryRunner(db)
+                .runAsync(specs, currentUser.getUid(), exclusive)
+                .addOnCompleteListener(task -> {
+                    drawing = false;
+                    if (task.isSuccessful()) {
+                        // Drawn events no longer need their scheduled draw
+                        for (MultiEventLotteryRunner.EventResult r : task.getResult().events) {
+                            if (r.skipped != null) continue;
+                            LotteryScheduler.cancel(app, r.event.eventId);
+                            LotteryScheduler.clearState(db, r.event.eventId);
+                        }
+                    }
+                    if (binding == null) return;
+
+                    binding.runLotteriesButton.setText("RUN LOTTERIES");
+                    binding.runLotteriesButton.setEnabled(true);
+
+                    if (!task.isSuccessful()) {
+                        Toast.makeText(getContext(), "Failed to run lotteries", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    new AlertDialog.Builder(requireContext())
+                            .setTitle("Lottery report")
+                            .setMessage(task.getResult().toText())
+                            .setPositiveButton("OK", null)
+                            .show();
+                });
+    }
+
+    /**
+     * Restores the export button to its idle label and enabled state.
+     */
+    private void resetExportButton() {
+        binding.exportQrPostersButton.setText("EXPORT QR POSTERS");
+        binding.exportQrPostersButton.setEnabled(true);
     }
 
     /**
@@ -151,6 +468,12 @@ public class EventsFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (posterExporter != null) {
+            posterExporter.cancel();
+            posterExporter = null;
+        }
+        removePageListeners();
+        loadingMore = false;
         binding = null;
     }
 }
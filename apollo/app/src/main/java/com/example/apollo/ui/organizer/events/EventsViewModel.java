@@ -23,6 +23,7 @@ import androidx.lifecycle.ViewModel;
 import java.util.List;
 import java.util.ArrayList;
 import com.example.apollo.models.EntrantEvent;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 public class EventsViewModel extends ViewModel {
 
@@ -32,6 +33,12 @@ public class EventsViewModel extends ViewModel {
     /** LiveData list holding all events visible to the organizer. */
     private final MutableLiveData<List<EntrantEvent>> events = new MutableLiveData<>(new ArrayList<>());
 
+    /** Organizer's event documents as last shown, kept while the fragment is on the back stack. */
+    private List<DocumentSnapshot> cachedEvents = new ArrayList<>();
+
+    /** Last event ID of every closed page of the list; the open tail page follows them. */
+    private List<String> pageEnds = new ArrayList<>();
+
     /**
      * Default constructor that initializes demo data for testing or UI preview purposes.
      * <p>Populates the list with sample events and sets a default fragment label.</p>
@@ -78,4 +85,37 @@ public class EventsViewModel extends ViewModel {
         // Update LiveData so UI can refresh
         events.setValue(eventList);
     }
+
+    /**
+     * Returns the event documents last shown in the list, so the cards can be
+     * drawn immediately when the view is recreated.
+     *
+     * @return Cached events in display order (never null).
+     */
+    public List<DocumentSnapshot> getCachedEvents() {
+        return cachedEvents;
+    }
+
+    /**
+     * Stores the event documents currently shown in the list.
+     *
+     * @param events Events in display order.
+     */
+    public void setCachedEvents(List<DocumentSnapshot> events) {
+        cachedEvents = new ArrayList<>(events);
+    }
+
+    /**
+     * @return Last event ID of each closed page, in list order (never null).
+     */
+    public List<String> getPageEnds() {
+        return new ArrayList<>(pageEnds);
+    }
+
+    /**
+     * @param pageEnds Last event ID of each closed page, in list order.
+     */
+    public void setPageEnds(List<String> pageEnds) {
+        this.pageEnds = new ArrayList<>(pageEnds);
+    }
 }
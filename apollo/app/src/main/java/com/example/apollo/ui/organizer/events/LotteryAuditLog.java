@@ -0,0 +1,342 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.apollo.utils.LotteryAudit;
+import com.example.apollo.utils.MerkleTree;
+import com.example.apollo.utils.SelectionPolicy;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * LotteryAuditLog.java
+ *
+ * Purpose:
+ * Stores and checks the audit trail of lottery draws, so anyone can later
+ * prove which entrants took part in a draw and that its winners follow
+ * from the published seed (see {@link LotteryAudit}).
+ *
+ * Design:
+ * - Each draw appends two documents to events/{id}/lotteryAudit and never
+ *   changes them: "{drawId}-commit" with the seed commitment and the
+ *   candidate list's Merkle root, written and confirmed before winners are
+ *   drawn, and "{drawId}-reveal" with the seed and the winners, written
+ *   in the same batch that marks the event drawn.
+ * - Every entrant's lotteryResults record carries an "audit" map with its
+ *   leaf attributes, leaf index and Merkle proof, so one entrant's
+ *   inclusion is checked with two document reads and about log2(n) hashes.
+ * - The event's "lotteryDrawId" points at its latest audited draw.
+ *
+ * Notes:
+ * - The seed is picked on the organizer's device. The commitment proves the
+ *   seed was fixed before the candidate list was stored, but not that it
+ *   was not chosen: a modified client could try seeds offline against the
+ *   waitlist it can read and commit only one it likes. Nothing here stops
+ *   that; a seed fixed by the server (e.g. derived from "committedAt")
+ *   would, at the cost of a server-side draw. Extra commit entries without
+ *   a reveal are stored for good, so retried commits are visible.
+ * - Multi-event runs share one seed across events; their winners can only
+ *   be replayed together, so {@link #verifyDraw} checks their seed and
+ *   candidates but not the assignment.
+ */
+public final class LotteryAuditLog {
+
+    private static final String TAG = "LotteryAuditLog";
+
+    public static final String COLLECTION = "lotteryAudit";
+
+    /** Event field with the ID of the latest audited draw. */
+    public static final String EVENT_FIELD = "lotteryDrawId";
+
+    /** Policy name recorded for {@link MultiEventLotteryRunner} draws. */
+    public static final String POLICY_MULTI_EVENT = "multi_event";
+    public static final String POLICY_MULTI_EVENT_EXCLUSIVE = "multi_event_exclusive";
+
+    /** Runs verifications one after another. */
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /** Outcome of a check, with one line per finding. */
+    public static class Verification {
+        public final boolean ok;
+        public final List<String> findings;
+
+        Verification(boolean ok, List<String> findings) {
+            this.ok = ok;
+            this.findings = findings;
+        }
+
+        /** @return Findings as text, headed by the verdict. */
+        @NonNull
+        public String toText() {
+            StringBuilder out = new StringBuilder(ok ? "Verified." : "Verification failed.");
+            for (String f : findings) out.append("\n• ").append(f);
+            return out.toString();
+        }
+    }
+
+    private LotteryAuditLog() {}
+
+    /**
+     * @return A new draw ID, unique within the event.
+     */
+    @NonNull
+    public static String newDrawId(@NonNull FirebaseFirestore db, @NonNull String eventId) {
+        return db.collection("events").document(eventId).collection(COLLECTION).document().getId();
+    }
+
+    /**
+     * Publishes the commitment of a draw. Winners must only be drawn after
+     * the returned task succeeds.
+     *
+     * @param tree          Merkle tree over the candidates in canonical order.
+     * @param policyName    Policy the draw will use.
+     * @param winnersToPick Winners the draw will pick.
+     * @return Task completing when the commitment is stored.
+     */
+    public static Task<Void> commit(@NonNull FirebaseFirestore db, @NonNull String eventId,
+                                    @NonNull String drawId, long seed, @NonNull MerkleTree tree,
+                                    @NonNull String policyName, int winnersToPick,
+                                    @NonNull String organizerId) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("type", "commit");
+        entry.put("drawId", drawId);
+        entry.put("seedCommitment", LotteryAudit.commitment(seed));
+        entry.put("candidateRoot", tree.root());
+        entry.put("candidateCount", tree.size());
+        entry.put("policy", policyName);
+        entry.put("winnersToPick", winnersToPick);
+        entry.put("organizerId", organizerId);
+        entry.put("committedAt", FieldValue.serverTimestamp());
+        return entryRef(db, eventId, drawId, "commit").set(entry);
+    }
+
+    /**
+     * Adds the reveal of a draw and points the event at it.
+     *
+     * @param w       Destination of the writes, e.g. the draw's batch.
+     * @param winners Winners in draw order.
+     */
+    public static void writeReveal(@NonNull LotteryRunner.DocWriter w, @NonNull FirebaseFirestore db,
+                                   @NonNull String eventId, @NonNull String drawId, long seed,
+                                   @NonNull List<String> winners) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("type", "reveal");
+        entry.put("drawId", drawId);
+        entry.put("seed", seed);
+        entry.put("winners", new ArrayList<>(winners));
+        entry.put("revealedAt", FieldValue.serverTimestamp());
+        w.set(entryRef(db, eventId, drawId, "reveal"), entry, false);
+
+        Map<String, Object> event = new HashMap<>();
+        event.put(EVENT_FIELD, drawId);
+        w.set(db.collection("events").document(eventId), event, true);
+    }
+
+    /**
+     * @param tree      Merkle tree of the draw.
+     * @param canonical Entrants in canonical order.
+     * @return The "audit" map of each entrant's lotteryResults record, by user ID.
+     */
+    @NonNull
+    public static Map<String, Map<String, Object>> proofs(@NonNull String drawId, @NonNull MerkleTree tree,
+                                                          @NonNull List<SelectionPolicy.Entrant> canonical) {
+        Map<String, Map<String, Object>> proofs = new HashMap<>();
+        for (int i = 0; i < canonical.size(); i++) {
+            SelectionPolicy.Entrant e = canonical.get(i);
+            Map<String, Object> audit = new HashMap<>();
+            audit.put("drawId", drawId);
+            audit.put("index", i);
+            audit.put("size", tree.size());
+            audit.put("proof", tree.proof(i));
+            audit.put("priorLosses", e.priorLosses);
+            audit.put("tier", e.tier);
+            audit.put("stratum", e.stratum);
+            proofs.put(e.uid, audit);
+        }
+        return proofs;
+    }
+
+    /**
+     * Checks that an entrant took part in the event's latest audited draw,
+     * from their own result record and the commitment only.
+     *
+     * @return Task with the verification.
+     */
+    public static Task<Verification> verifyInclusion(@NonNull FirebaseFirestore db, @NonNull String eventId,
+                                                     @NonNull String uid) {
+        return runAsync(() -> {
+            DocumentReference eventRef = db.collection("events").document(eventId);
+            String drawId = Tasks.await(eventRef.get()).getString(EVENT_FIELD);
+            if (drawId == null) return failed("This event has no audited draw.");
+
+            DocumentSnapshot commit = Tasks.await(entryRef(db, eventId, drawId, "commit").get());
+            if (!commit.exists()) return failed("The commitment of draw " + drawId + " is missing.");
+
+            for (String result : Arrays.asList("winners", "losers")) {
+                DocumentSnapshot record = Tasks.await(eventRef.collection("lotteryResults")
+                        .document(result).collection("users").document(uid).get());
+                if (!drawId.equals(record.getString("audit.drawId"))) continue;
+
+                SelectionPolicy.Entrant entrant = entrantOf(uid, record);
+                Long index = record.getLong("audit.index");
+                Long size = commit.getLong("candidateCount");
+                if (index == null || size == null) return failed("The audit record of " + uid + " is incomplete.");
+
+                @SuppressWarnings("unchecked")
+                List<String> proof = (List<String>) record.get("audit.proof");
+                boolean valid = MerkleTree.verify(commit.getString("candidateRoot"),
+                        LotteryAudit.leaf(entrant), (int) (long) index, (int) (long) size, proof);
+
+                List<String> findings = new ArrayList<>();
+                findings.add(String.format(Locale.US, "%s was entrant %d of %d in draw %s: %s.",
+                        uid, index + 1, size, drawId,
+                        "winners".equals(result) ? "selected" : "not selected"));
+                findings.add(valid
+                        ? "The Merkle proof matches the committed candidate list."
+                        : "The Merkle proof does NOT match the committed candidate list.");
+                return new Verification(valid, findings);
+            }
+            return failed(uid + " has no result in draw " + drawId + ".");
+        });
+    }
+
+    /**
+     * Checks the event's latest audited draw as a whole: the seed against
+     * its commitment, the stored candidates against the committed root, and
+     * the winners against a replay of the draw.
+     *
+     * @return Task with the verification.
+     */
+    public static Task<Verification> verifyDraw(@NonNull FirebaseFirestore db, @NonNull String eventId) {
+        return runAsync(() -> {
+            DocumentReference eventRef = db.collection("events").document(eventId);
+            String drawId = Tasks.await(eventRef.get()).getString(EVENT_FIELD);
+            if (drawId == null) return failed("This event has no audited draw.");
+
+            DocumentSnapshot commit = Tasks.await(entryRef(db, eventId, drawId, "commit").get());
+            DocumentSnapshot reveal = Tasks.await(entryRef(db, eventId, drawId, "reveal").get());
+            if (!commit.exists() || !reveal.exists()) {
+                return failed("Draw " + drawId + " is missing its " + (commit.exists() ? "reveal." : "commitment."));
+            }
+
+            List<String> findings = new ArrayList<>();
+            boolean ok = true;
+
+            Long seed = reveal.getLong("seed");
+            if (seed != null && LotteryAudit.commitment(seed).equals(commit.getString("seedCommitment"))) {
+                findings.add("The revealed seed matches the commitment made before the draw.");
+            } else {
+                findings.add("The revealed seed does NOT match the commitment.");
+                ok = false;
+            }
+
+            // Rebuild the candidate list from the entrants' result records
+            Long count = commit.getLong("candidateCount");
+            int size = count == null ? 0 : (int) (long) count;
+            SelectionPolicy.Entrant[] entrants = new SelectionPolicy.Entrant[size];
+            Set<String> selected = new HashSet<>();
+            for (String result : Arrays.asList("winners", "losers")) {
+                for (DocumentSnapshot d : Tasks.await(eventRef.collection("lotteryResults").document(result)
+                        .collection("users").whereEqualTo("audit.drawId", drawId).get()).getDocuments()) {
+                    Long index = d.getLong("audit.index");
+                    if (index == null || index < 0 || index >= size) continue;
+                    entrants[(int) (long) index] = entrantOf(d.getId(), d);
+                    if ("winners".equals(result)) selected.add(d.getId());
+                }
+            }
+
+            int missing = 0;
+            for (SelectionPolicy.Entrant e : entrants) if (e == null) missing++;
+            if (missing > 0) {
+                findings.add(String.format(Locale.US,
+                        "%d of %d result records are missing (e.g. deleted accounts); "
+                                + "the candidate list cannot be rebuilt.", missing, size));
+                return new Verification(false, findings);
+            }
+
+            List<SelectionPolicy.Entrant> canonical = Arrays.asList(entrants);
+            if (LotteryAudit.tree(canonical).root().equals(commit.getString("candidateRoot"))) {
+                findings.add(String.format(Locale.US,
+                        "All %d candidates match the committed Merkle root.", size));
+            } else {
+                findings.add("The stored candidates do NOT match the committed Merkle root.");
+                ok = false;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<String> winners = (List<String>) reveal.get("winners");
+            if (winners == null || !selected.equals(new HashSet<>(winners))) {
+                findings.add("The published winners do NOT match the stored results.");
+                ok = false;
+            }
+
+            String policy = commit.getString("policy");
+            Long k = commit.getLong("winnersToPick");
+            if (POLICY_MULTI_EVENT.equals(policy) || POLICY_MULTI_EVENT_EXCLUSIVE.equals(policy)) {
+                findings.add("Drawn together with other events; replay the whole run with seed " + seed + ".");
+            } else if (seed != null && k != null && winners != null) {
+                if (LotteryAudit.replay(policy, seed, canonical, (int) (long) k).equals(winners)) {
+                    findings.add("Replaying the " + policy + " draw gives the same " + winners.size() + " winners.");
+                } else {
+                    findings.add("Replaying the " + policy + " draw gives DIFFERENT winners.");
+                    ok = false;
+                }
+            }
+            return new Verification(ok, findings);
+        });
+    }
+
+    private static SelectionPolicy.Entrant entrantOf(String uid, DocumentSnapshot record) {
+        Long losses = record.getLong("audit.priorLosses");
+        Long tier = record.getLong("audit.tier");
+        return new SelectionPolicy.Entrant(uid,
+                losses == null ? 0 : (int) (long) losses,
+                tier == null ? 0 : (int) (long) tier,
+                record.getString("audit.stratum"));
+    }
+
+    private static DocumentReference entryRef(FirebaseFirestore db, String eventId, String drawId, String type) {
+        return db.collection("events").document(eventId).collection(COLLECTION).document(drawId + "-" + type);
+    }
+
+    private static Verification failed(String finding) {
+        List<String> findings = new ArrayList<>();
+        findings.add(finding);
+        return new Verification(false, findings);
+    }
+
+    private interface Check {
+        Verification run() throws Exception;
+    }
+
+    private static Task<Verification> runAsync(Check check) {
+        TaskCompletionSource<Verification> source = new TaskCompletionSource<>();
+        EXECUTOR.execute(() -> {
+            try {
+                source.setResult(check.run());
+            } catch (Exception e) {
+                Log.e(TAG, "Audit check failed", e);
+                source.setException(e);
+            }
+        });
+        return source.getTask();
+    }
+}
@@ -0,0 +1,798 @@
+package com.example.apollo.ui.organizer.events;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.apollo.data.ChunkedBatchWriter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.NotificationInbox;
+import com.example.apollo.data.NotificationLogs;
+import com.example.apollo.utils.LotteryAudit;
+import com.example.apollo.utils.MerkleTree;
+import com.example.apollo.utils.SelectionPolicies;
+import com.example.apollo.utils.SelectionPolicy;
+import com.example.apollo.utils.SplitMixRandom;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * LotteryRunner.java
+ *
+ * Purpose:
+ * Holds the lottery logic that used to live inside OrganizerEventDetailsFragment,
+ * so it can run from the organizer screen and from background workers alike:
+ * - loading candidates from the waitlist
+ * - selecting winners with a {@link SelectionPolicy} (uniform by default)
+ * - writing results, invites, notifications, waitlist states and logs
+ *
+ * Design Pattern:
+ * Service class with no UI dependencies. The per-winner and per-loser writes
+ * are expressed against {@link DocWriter}, so the same document layout is used
+ * whether they go into a chunked batch (initial draw) or a transaction
+ * (replacement draw).
+ *
+ * Notes:
+ * - A runner built with a seed records the policy name and the seed on the
+ *   event ("lotteryPolicy", "lotterySeed") when the draw is written, and its
+ *   initial draw is audited through {@link LotteryAuditLog}: the seed and
+ *   candidate list are committed before winners are drawn.
+ * - An initial draw is stored as a {@link Plan} at events/{id}/lotteryPlan
+ *   before any result is written. If writing fails part way, the next
+ *   attempt finishes that plan instead of drawing again, so the event never
+ *   gets more winners than one draw picked.
+ */
+public class LotteryRunner {
+
+    /** Waitlist states an initial draw picks from. */
+    public static final List<String> INITIAL_POOL = Collections.singletonList("waiting");
+
+    /** Waitlist states a replacement draw picks from: not yet drawn, or not selected before. */
+    public static final List<String> REPLACEMENT_POOL = Arrays.asList("waiting", "loser");
+
+    /**
+     * Waitlist state of an entrant left out only because an exclusive
+     * multi-event draw picked them for another event; not a replacement candidate.
+     */
+    public static final String STATE_SELECTED_ELSEWHERE = "selectedElsewhere";
+
+    /** Writes of one winner: result record, invite, waitlist, notification, unread count, log. */
+    static final int WINNER_WRITES = 6;
+
+    /** Writes of one loser: result record, waitlist, notification, unread count, log. */
+    static final int LOSER_WRITES = 5;
+
+    /** Collection under an event holding its unfinished draw. */
+    public static final String PLAN_COLLECTION = "lotteryPlan";
+
+    /**
+     * Destination for document writes: a batch or a transaction.
+     */
+    public interface DocWriter {
+        void set(@NonNull DocumentReference ref, @NonNull Map<String, Object> data, boolean merge);
+
+        /**
+         * Keeps the next {@code writes} writes in one atomic unit. Batches
+         * and transactions are atomic already, so by default nothing happens.
+         */
+        default void group(int writes) {}
+    }
+
+    /**
+     * @param writer Chunked writer to add to.
+     * @return Writer that keeps each entrant's writes in one chunk, so they
+     *         are stored all together or not at all.
+     */
+    @NonNull
+    public static DocWriter chunked(@NonNull ChunkedBatchWriter writer) {
+        return new DocWriter() {
+            @Override
+            public void set(@NonNull DocumentReference ref, @NonNull Map<String, Object> data, boolean merge) {
+                if (merge) writer.set(ref, data, SetOptions.merge());
+                else writer.set(ref, data);
+            }
+
+            @Override
+            public void group(int writes) {
+                writer.group(writes);
+            }
+        };
+    }
+
+    /**
+     * Winners and losers of a completed draw.
+     */
+    public static class Outcome {
+        public final List<String> winners;
+        public final List<String> losers;
+
+        Outcome(List<String> winners, List<String> losers) {
+            this.winners = winners;
+            this.losers = losers;
+        }
+    }
+
+    /**
+     * A draw whose results are not all written yet. Stored before the first
+     * result, and deleted in the batch that marks the event drawn.
+     */
+    public static class Plan {
+        /** Audit draw ID, or null for an unaudited draw. */
+        @Nullable public final String drawId;
+        /** Seed of the draw, or null if it was not built from a known seed. */
+        @Nullable public final Long seed;
+        @NonNull public final String policyName;
+        /** Candidates in canonical order, kept to rebuild the audit proofs; empty if unaudited. */
+        @NonNull public final List<SelectionPolicy.Entrant> entrants;
+        @NonNull public final Outcome outcome;
+        /** Entrants an exclusive multi-event draw picked for another event. */
+        @NonNull public final List<String> selectedElsewhere;
+
+        public Plan(@Nullable String drawId, @Nullable Long seed, @NonNull String policyName,
+                    @NonNull List<SelectionPolicy.Entrant> entrants, @NonNull Outcome outcome,
+                    @NonNull List<String> selectedElsewhere) {
+            this.drawId = drawId;
+            this.seed = seed;
+            this.policyName = policyName;
+            this.entrants = entrants;
+            this.outcome = outcome;
+            this.selectedElsewhere = selectedElsewhere;
+        }
+
+        /** @return Audit map per user ID, or null for an unaudited draw. */
+        @Nullable
+        Map<String, Map<String, Object>> proofs() {
+            if (drawId == null) return null;
+            return LotteryAuditLog.proofs(drawId, LotteryAudit.tree(entrants), entrants);
+        }
+
+        /** @return Fields of the plan document. */
+        @NonNull
+        Map<String, Object> toMap() {
+            List<Map<String, Object>> candidates = new ArrayList<>(entrants.size());
+            for (SelectionPolicy.Entrant e : entrants) {
+                Map<String, Object> entrant = new HashMap<>();
+                entrant.put("uid", e.uid);
+                entrant.put("priorLosses", e.priorLosses);
+                entrant.put("tier", e.tier);
+                entrant.put("stratum", e.stratum);
+                candidates.add(entrant);
+            }
+
+            Map<String, Object> plan = new HashMap<>();
+            plan.put("drawId", drawId);
+            plan.put("seed", seed);
+            plan.put("policy", policyName);
+            plan.put("entrants", candidates);
+            plan.put("winners", outcome.winners);
+            plan.put("losers", outcome.losers);
+            plan.put("selectedElsewhere", selectedElsewhere);
+            plan.put("createdAt", FieldValue.serverTimestamp());
+            return plan;
+        }
+
+        /**
+         * @param doc Stored plan document.
+         * @return The plan it holds.
+         */
+        @NonNull
+        static Plan from(@NonNull DocumentSnapshot doc) {
+            List<SelectionPolicy.Entrant> entrants = new ArrayList<>();
+            Object raw = doc.get("entrants");
+            if (raw instanceof List) {
+                for (Object item : (List<?>) raw) {
+                    if (!(item instanceof Map)) continue;
+                    Map<?, ?> e = (Map<?, ?>) item;
+                    entrants.add(new SelectionPolicy.Entrant(String.valueOf(e.get("uid")),
+                            intOf(e.get("priorLosses")), intOf(e.get("tier")), (String) e.get("stratum")));
+                }
+            }
+            String policyName = doc.getString("policy");
+            return new Plan(doc.getString("drawId"), doc.getLong("seed"),
+                    policyName != null ? policyName : SelectionPolicies.UNIFORM, entrants,
+                    new Outcome(stringsOf(doc.get("winners")), stringsOf(doc.get("losers"))),
+                    stringsOf(doc.get("selectedElsewhere")));
+        }
+
+        private static int intOf(Object value) {
+            return value instanceof Number ? ((Number) value).intValue() : 0;
+        }
+
+        private static List<String> stringsOf(Object value) {
+            List<String> out = new ArrayList<>();
+            if (value instanceof List) {
+                for (Object item : (List<?>) value) if (item != null) out.add(String.valueOf(item));
+            }
+            return out;
+        }
+    }
+
+    /** Waitlist field with the entrant's priority tier (lower is served first). */
+    public static final String FIELD_TIER = "priorityTier";
+
+    /** Waitlist field with the entrant's stratum for stratified draws. */
+    public static final String FIELD_STRATUM = "stratum";
+
+    /** Most values Firestore accepts in one whereIn filter. */
+    private static final int WHERE_IN_LIMIT = 30;
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller("LotteryRunner");
+    private final Random random;
+    private final SelectionPolicy policy;
+    /** Seed of {@link #random}, or null if it was not built from a known seed. */
+    private final Long seed;
+
+    public LotteryRunner(@NonNull FirebaseFirestore db) {
+        this(db, SelectionPolicies.uniform(), new SecureRandom().nextLong());
+    }
+
+    public LotteryRunner(@NonNull FirebaseFirestore db, @NonNull Random random) {
+        this.db = db;
+        this.random = random;
+        this.policy = SelectionPolicies.uniform();
+        this.seed = null;
+    }
+
+    /**
+     * @param db     Firestore instance.
+     * @param policy How winners are chosen.
+     * @param seed   Seed of the draw, recorded on the event for audit.
+     */
+    public LotteryRunner(@NonNull FirebaseFirestore db, @NonNull SelectionPolicy policy, long seed) {
+        this.db = db;
+        this.random = new SplitMixRandom(seed);
+        this.policy = policy;
+        this.seed = seed;
+    }
+
+    /**
+     * Loads the user IDs on the waitlist whose state is one of {@code states}.
+     *
+     * @param eventId Event ID.
+     * @param states  Waitlist states to include.
+     * @return Task with distinct candidate user IDs.
+     */
+    public Task<List<String>> loadCandidates(@NonNull String eventId, @NonNull List<String> states) {
+        return fs.get(db.collection("events").document(eventId)
+                        .collection("waitlist")
+                        .whereIn("state", new ArrayList<>(states)))
+                .continueWith(task -> {
+                    if (!task.isSuccessful() || task.getResult() == null) {
+                        throw task.getException() != null ? task.getException()
+                                : new IllegalStateException("Failed to load waitlist.");
+                    }
+
+                    Set<String> ids = new HashSet<>();
+                    List<String> candidates = new ArrayList<>();
+                    for (DocumentSnapshot d : task.getResult().getDocuments()) {
+                        String uid = d.getId();
+                        if (uid.isEmpty()) {
+                            Object alt = d.get("uid");
+                            if (alt != null) uid = String.valueOf(alt);
+                        }
+                        if (!uid.isEmpty() && ids.add(uid)) candidates.add(uid);
+                    }
+                    return candidates;
+                });
+    }
+
+    /**
+     * Loads the waitlist entrants whose state is one of {@code states}, with
+     * their tier and stratum and, if the policy needs it, their losses in
+     * other events' lotteries.
+     *
+     * @param eventId Event ID.
+     * @param states  Waitlist states to include.
+     * @return Task with distinct entrants, ordered by user ID.
+     */
+    public Task<List<SelectionPolicy.Entrant>> loadEntrants(@NonNull String eventId,
+                                                           @NonNull List<String> states) {
+        return fs.get(db.collection("events").document(eventId)
+                        .collection("waitlist")
+                        .whereIn("state", new ArrayList<>(states)))
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful() || task.getResult() == null) {
+                        throw task.getException() != null ? task.getException()
+                                : new IllegalStateException("Failed to load waitlist.");
+                    }
+
+                    List<DocumentSnapshot> docs = new ArrayList<>();
+                    Set<String> ids = new HashSet<>();
+                    for (DocumentSnapshot d : task.getResult().getDocuments()) {
+                        if (ids.add(d.getId())) docs.add(d);
+                    }
+
+                    Task<Map<String, Integer>> losses = policy.usesLossHistory()
+                            ? loadPriorLosses(eventId, new ArrayList<>(ids))
+                            : Tasks.forResult(Collections.emptyMap());
+
+                    return losses.continueWith(done -> {
+                        Map<String, Integer> lost = done.getResult();
+                        List<SelectionPolicy.Entrant> entrants = new ArrayList<>();
+                        for (DocumentSnapshot d : docs) {
+                            Long tier = d.getLong(FIELD_TIER);
+                            Integer count = lost.get(d.getId());
+                            entrants.add(new SelectionPolicy.Entrant(d.getId(),
+                                    count == null ? 0 : count,
+                                    tier == null ? 0 : (int) (long) tier,
+                                    d.getString(FIELD_STRATUM)));
+                        }
+                        return entrants;
+                    });
+                });
+    }
+
+    /**
+     * Counts, per user, the other events whose lottery the user lost, from
+     * the "lotteryResults/losers/users" records the draws write. A loss does
+     * not count if the user was drawn later in the same event (a replacement
+     * draw writes a "lotteryResults/winners/users" record), since they got,
+     * and may have taken, a spot there after all.
+     *
+     * @param eventId Event being drawn; its own results are not counted.
+     * @param uids    Users to look up.
+     * @return Task with losses per user ID; users without losses are absent.
+     */
+    public Task<Map<String, Integer>> loadPriorLosses(@NonNull String eventId, @NonNull List<String> uids) {
+        // Loser and winner records share the "users" collection group; one query finds both
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (int i = 0; i < uids.size(); i += WHERE_IN_LIMIT) {
+            queries.add(fs.get(db.collectionGroup("users")
+                    .whereIn("uid", new ArrayList<>(uids.subList(i, Math.min(i + WHERE_IN_LIMIT, uids.size()))))));
+        }
+
+        return Tasks.whenAllSuccess(queries).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+
+            Map<String, Set<String>> lostIn = new HashMap<>();
+            Set<String> wonIn = new HashSet<>();
+            for (Object result : task.getResult()) {
+                for (DocumentSnapshot d : ((QuerySnapshot) result).getDocuments()) {
+                    // events/{id}/lotteryResults/{losers|winners}/users/{uid}; skips top-level users
+                    String[] path = d.getReference().getPath().split("/");
+                    if (path.length != 6 || !"lotteryResults".equals(path[2]) || eventId.equals(path[1])) {
+                        continue;
+                    }
+                    if ("winners".equals(path[3])) {
+                        wonIn.add(path[5] + "/" + path[1]);
+                    } else if ("losers".equals(path[3]) && "rejected".equals(d.getString("status"))) {
+                        Set<String> events = lostIn.get(path[5]);
+                        if (events == null) lostIn.put(path[5], events = new HashSet<>());
+                        events.add(path[1]);
+                    }
+                }
+            }
+
+            Map<String, Integer> losses = new HashMap<>();
+            for (Map.Entry<String, Set<String>> e : lostIn.entrySet()) {
+                int count = 0;
+                for (String lostEvent : e.getValue()) {
+                    if (!wonIn.contains(e.getKey() + "/" + lostEvent)) count++;
+                }
+                if (count > 0) losses.put(e.getKey(), count);
+            }
+            return losses;
+        });
+    }
+
+    /**
+     * Selects up to {@code k} winners; everyone else becomes a loser.
+     *
+     * @param candidates Candidate user IDs.
+     * @param k          Number of winners wanted.
+     * @return Winners and losers.
+     */
+    public Outcome select(@NonNull List<String> candidates, int k) {
+        List<SelectionPolicy.Entrant> entrants = new ArrayList<>(candidates.size());
+        for (String uid : candidates) entrants.add(SelectionPolicy.Entrant.of(uid));
+        return selectEntrants(entrants, k);
+    }
+
+    /**
+     * Selects up to {@code k} winners with the runner's policy; everyone
+     * else becomes a loser.
+     *
+     * @param entrants Entrants, e.g. from {@link #loadEntrants}.
+     * @param k        Number of winners wanted.
+     * @return Winners and losers.
+     */
+    public Outcome selectEntrants(@NonNull List<SelectionPolicy.Entrant> entrants, int k) {
+        return outcomeOf(policy.select(entrants, k, random), entrants);
+    }
+
+    /**
+     * @return The winners, and every other entrant as a loser.
+     */
+    private static Outcome outcomeOf(List<String> winners, List<SelectionPolicy.Entrant> entrants) {
+        Set<String> winnerSet = new HashSet<>(winners);
+
+        List<String> losers = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (SelectionPolicy.Entrant e : entrants) {
+            if (e == null || e.uid == null || e.uid.isEmpty()) continue;
+            if (!winnerSet.contains(e.uid) && seen.add(e.uid)) losers.add(e.uid);
+        }
+        return new Outcome(winners, losers);
+    }
+
+    /**
+     * Runs the initial lottery for an event: loads the "waiting" entrants,
+     * selects winners, writes every result and marks the event as drawn.
+     * The draw is stored as a {@link Plan} first; if an earlier attempt left
+     * one behind, that plan is finished instead and no new draw is made.
+     * Results are committed in chunks so large waitlists stay under the
+     * per-batch operation limit, each entrant's writes within one chunk;
+     * the event is marked drawn in a final batch only once every chunk is
+     * stored, so a failed draw is never mistaken for a finished one. With a
+     * seeded runner the draw is audited: the commitment is stored before
+     * winners are drawn, every entrant's inclusion proof is written with the
+     * results, and the reveal with the final batch.
+     *
+     * @param eventId       Event ID.
+     * @param eventName     Event name for notification text.
+     * @param organizerId   Organizer ID recorded in notification_logs.
+     * @param winnersToPick Number of winners to select; ignored when finishing a stored plan.
+     * @return Task with the outcome; empty winners if the waitlist was empty.
+     */
+    public Task<Outcome> runInitialDraw(@NonNull String eventId, @NonNull String eventName,
+                                        @NonNull String organizerId, int winnersToPick) {
+        return fs.get(planRef(db, eventId)).continueWithTask(stored -> {
+            if (!stored.isSuccessful()) throw stored.getException();
+            if (stored.getResult().exists()) {
+                // An earlier attempt drew already but did not finish writing
+                return finishPlan(eventId, eventName, organizerId, Plan.from(stored.getResult()), true);
+            }
+
+            return drawPlan(eventId, organizerId, winnersToPick).continueWithTask(drawn -> {
+                if (!drawn.isSuccessful()) throw drawn.getException();
+                Plan plan = drawn.getResult();
+                if (plan.outcome.winners.isEmpty()) return Tasks.forResult(plan.outcome);
+
+                return fs.set(planRef(db, eventId), plan.toMap()).continueWithTask(saved -> {
+                    if (!saved.isSuccessful()) throw saved.getException();
+                    return finishPlan(eventId, eventName, organizerId, plan, false);
+                });
+            });
+        });
+    }
+
+    /**
+     * @return The document holding an event's unfinished draw, if any.
+     */
+    @NonNull
+    public static DocumentReference planRef(@NonNull FirebaseFirestore db, @NonNull String eventId) {
+        return db.collection("events").document(eventId).collection(PLAN_COLLECTION).document("current");
+    }
+
+    /**
+     * Loads the "waiting" entrants and draws, committing to the seed and
+     * candidate list first if the runner is seeded. Nothing is written for
+     * the results yet.
+     */
+    private Task<Plan> drawPlan(String eventId, String organizerId, int winnersToPick) {
+        return loadEntrants(eventId, INITIAL_POOL).continueWithTask(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            List<SelectionPolicy.Entrant> entrants = LotteryAudit.canonical(task.getResult());
+            if (seed == null || entrants.isEmpty()) {
+                return Tasks.forResult(new Plan(null, seed, policy.name(), Collections.emptyList(),
+                        selectEntrants(entrants, winnersToPick), Collections.emptyList()));
+            }
+
+            // Commit to the seed and the candidate list before drawing
+            MerkleTree tree = LotteryAudit.tree(entrants);
+            String drawId = LotteryAuditLog.newDrawId(db, eventId);
+            return LotteryAuditLog.commit(db, eventId, drawId, seed, tree, policy.name(),
+                    winnersToPick, organizerId).continueWith(committed -> {
+                if (!committed.isSuccessful()) throw committed.getException();
+
+                Outcome outcome = outcomeOf(
+                        LotteryAudit.draw(policy, seed, entrants, winnersToPick), entrants);
+                return new Plan(drawId, seed, policy.name(), entrants, outcome, Collections.emptyList());
+            });
+        });
+    }
+
+    /**
+     * Writes a stored plan's results in chunked batches, skipping entrants
+     * whose results are already stored, then marks the event as drawn, with
+     * the reveal of an audited draw, in a last batch that also deletes the plan.
+     *
+     * @param resumed True if an earlier attempt may have written some results.
+     */
+    private Task<Outcome> finishPlan(String eventId, String eventName, String organizerId,
+                                     Plan plan, boolean resumed) {
+        Task<Set<String>> written = resumed
+                ? loadWritten(eventId) : Tasks.forResult(Collections.emptySet());
+
+        return written.continueWithTask(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            ChunkedBatchWriter writer = new ChunkedBatchWriter(db);
+            writePlan(chunked(writer), eventId, eventName, organizerId, plan, task.getResult());
+            return writer.commit(fs);
+        }).continueWithTask(done -> {
+            if (!done.isSuccessful()) throw done.getException();
+
+            WriteBatch last = db.batch();
+            return fs.commit(last, writeFinished(last, eventId, plan));
+        }).continueWith(done -> {
+            if (!done.isSuccessful()) throw done.getException();
+            return plan.outcome;
+        });
+    }
+
+    /**
+     * Loads the users whose result record for this event is stored. Each
+     * entrant's writes are committed together, so a stored result record
+     * means all of that entrant's writes are.
+     *
+     * @param eventId Event ID.
+     * @return Task with the user IDs already written.
+     */
+    public Task<Set<String>> loadWritten(@NonNull String eventId) {
+        CollectionReference results = db.collection("events").document(eventId).collection("lotteryResults");
+        return Tasks.whenAllSuccess(
+                fs.get(results.document("winners").collection("users")),
+                fs.get(results.document("losers").collection("users"))
+        ).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            Set<String> written = new HashSet<>();
+            for (Object result : task.getResult()) {
+                for (DocumentSnapshot d : ((QuerySnapshot) result).getDocuments()) written.add(d.getId());
+            }
+            return written;
+        });
+    }
+
+    /**
+     * Writes every result of a plan except those of {@code written}, each
+     * entrant's writes as one group.
+     *
+     * @param written User IDs whose results are already stored.
+     */
+    public void writePlan(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                          @NonNull String organizerId, @NonNull Plan plan, @NonNull Set<String> written) {
+        Map<String, Map<String, Object>> proofs = plan.proofs();
+        for (String uid : plan.outcome.winners) {
+            if (written.contains(uid)) continue;
+            writeWinner(w, eventId, eventName, organizerId, uid, proofs == null ? null : proofs.get(uid));
+        }
+        for (String uid : plan.outcome.losers) {
+            if (written.contains(uid)) continue;
+            writeLoser(w, eventId, eventName, organizerId, uid, proofs == null ? null : proofs.get(uid));
+        }
+        // A single merge each, so writing them again is harmless
+        for (String uid : plan.selectedElsewhere) writeSelectedElsewhere(w, eventId, uid);
+    }
+
+    /**
+     * Adds the writes that finish a plan: the drawn flag, the reveal of an
+     * audited draw, and the plan's deletion. Commit them only after every
+     * result of the plan is stored.
+     *
+     * @return Number of writes added.
+     */
+    public int writeFinished(@NonNull WriteBatch batch, @NonNull String eventId, @NonNull Plan plan) {
+        DocWriter w = (ref, data, merge) -> {
+            if (merge) batch.set(ref, data, SetOptions.merge());
+            else batch.set(ref, data);
+        };
+        // Multi-event policy names are not per-event policies; replacement draws must not pick them up
+        boolean recordPolicy = plan.seed != null && SelectionPolicies.NAMES.contains(plan.policyName);
+        writeDrawn(w, eventId, plan.outcome.winners.size(),
+                recordPolicy ? plan.policyName : null, recordPolicy ? plan.seed : null);
+        batch.delete(planRef(db, eventId));
+        if (plan.drawId == null || plan.seed == null) return 2;
+
+        // The reveal goes with the drawn flag, so neither exists without the other
+        LotteryAuditLog.writeReveal(w, db, eventId, plan.drawId, plan.seed, plan.outcome.winners);
+        return 4;
+    }
+
+    /**
+     * Writes every winner's and loser's records and marks the event as drawn.
+     *
+     * @param w           Destination for the writes.
+     * @param eventId     Event ID.
+     * @param eventName   Event name for notification text.
+     * @param organizerId Organizer ID recorded in notification_logs.
+     * @param outcome     Winners and losers of the draw.
+     */
+    public void writeOutcome(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                             @NonNull String organizerId, @NonNull Outcome outcome) {
+        writeOutcome(w, eventId, eventName, organizerId, outcome, null);
+    }
+
+    /**
+     * Writes every winner's and loser's records, each with its audit proof,
+     * and marks the event as drawn. Only for a destination that applies all
+     * writes together, such as a transaction; chunked writers use
+     * {@link #writeResults} and then {@link #writeDrawn} once those are stored.
+     *
+     * @param proofs Audit map per user ID from {@link LotteryAuditLog#proofs}, or null.
+     */
+    public void writeOutcome(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                             @NonNull String organizerId, @NonNull Outcome outcome,
+                             @Nullable Map<String, Map<String, Object>> proofs) {
+        writeResults(w, eventId, eventName, organizerId, outcome, proofs);
+        writeDrawn(w, eventId, outcome);
+    }
+
+    /**
+     * Writes every winner's and loser's records, each with its audit proof.
+     *
+     * @param proofs Audit map per user ID from {@link LotteryAuditLog#proofs}, or null.
+     */
+    public void writeResults(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                             @NonNull String organizerId, @NonNull Outcome outcome,
+                             @Nullable Map<String, Map<String, Object>> proofs) {
+        for (String uid : outcome.winners) {
+            writeWinner(w, eventId, eventName, organizerId, uid, proofs == null ? null : proofs.get(uid));
+        }
+        for (String uid : outcome.losers) {
+            writeLoser(w, eventId, eventName, organizerId, uid, proofs == null ? null : proofs.get(uid));
+        }
+    }
+
+    /**
+     * Marks the event as drawn and counts its invites; write it only after
+     * the draw's results.
+     *
+     * @param w       Destination for the write.
+     * @param eventId Event ID.
+     * @param outcome Winners and losers of the draw.
+     */
+    public void writeDrawn(@NonNull DocWriter w, @NonNull String eventId, @NonNull Outcome outcome) {
+        writeDrawn(w, eventId, outcome.winners.size(), seed != null ? policy.name() : null, seed);
+    }
+
+    /**
+     * @param policyName Policy recorded on the event, or null to leave it.
+     * @param seed       Seed recorded on the event, or null to leave it.
+     */
+    private void writeDrawn(DocWriter w, String eventId, int winners,
+                            @Nullable String policyName, @Nullable Long seed) {
+        Map<String, Object> eventUpdate = new HashMap<>();
+        eventUpdate.put("lotteryDone", true);
+        eventUpdate.put("invitedCount", FieldValue.increment(winners));
+        if (policyName != null && seed != null) {
+            eventUpdate.put("lotteryPolicy", policyName);
+            eventUpdate.put("lotterySeed", seed);
+        }
+        w.set(db.collection("events").document(eventId), eventUpdate, true);
+    }
+
+    /**
+     * Writes everything that makes a user a lottery winner: the lottery result
+     * record, the invite, the waitlist state, a notification and its log entry.
+     */
+    public void writeWinner(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                            @NonNull String organizerId, @NonNull String uid) {
+        writeWinner(w, eventId, eventName, organizerId, uid, null);
+    }
+
+    /**
+     * Writes a winner's records, with the entrant's audit proof on the result record.
+     */
+    public void writeWinner(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                            @NonNull String organizerId, @NonNull String uid,
+                            @Nullable Map<String, Object> audit) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        w.group(WINNER_WRITES);
+
+        // Lottery result log (winners)
+        Map<String, Object> winnerLog = new HashMap<>();
+        winnerLog.put("uid", uid);
+        winnerLog.put("status", "invited");
+        winnerLog.put("timestamp", FieldValue.serverTimestamp());
+        if (audit != null) winnerLog.put("audit", audit);
+        w.set(eventRef.collection("lotteryResults").document("winners")
+                .collection("users").document(uid), winnerLog, false);
+
+        // Invite entry
+        Map<String, Object> invite = new HashMap<>();
+        invite.put("uid", uid);
+        invite.put("status", "invited");
+        invite.put("invitedAt", FieldValue.serverTimestamp());
+        w.set(eventRef.collection("invites").document(uid), invite, true);
+
+        // Update waitlist entry
+        Map<String, Object> wlUpdate = new HashMap<>();
+        wlUpdate.put("uid", uid);
+        wlUpdate.put("state", "invited");
+        wlUpdate.put("updatedAt", FieldValue.serverTimestamp());
+        w.set(eventRef.collection("waitlist").document(uid), wlUpdate, true);
+
+        writeNotification(w, eventId, organizerId, uid, "lottery_win",
+                "You were selected!", "You won the lottery for " + eventName + ".");
+    }
+
+    /**
+     * Writes everything that records a user as not selected.
+     */
+    public void writeLoser(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                           @NonNull String organizerId, @NonNull String uid) {
+        writeLoser(w, eventId, eventName, organizerId, uid, null);
+    }
+
+    /**
+     * Writes a loser's records, with the entrant's audit proof on the result record.
+     */
+    public void writeLoser(@NonNull DocWriter w, @NonNull String eventId, @NonNull String eventName,
+                           @NonNull String organizerId, @NonNull String uid,
+                           @Nullable Map<String, Object> audit) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        w.group(LOSER_WRITES);
+
+        // Lottery result log (losers)
+        Map<String, Object> loserLog = new HashMap<>();
+        loserLog.put("uid", uid);
+        loserLog.put("status", "rejected");
+        loserLog.put("timestamp", FieldValue.serverTimestamp());
+        if (audit != null) loserLog.put("audit", audit);
+        w.set(eventRef.collection("lotteryResults").document("losers")
+                .collection("users").document(uid), loserLog, false);
+
+        // Update waitlist entry
+        Map<String, Object> wlUpdate = new HashMap<>();
+        wlUpdate.put("uid", uid);
+        wlUpdate.put("state", "loser");
+        wlUpdate.put("updatedAt", FieldValue.serverTimestamp());
+        wlUpdate.put("lastResult", "not_selected");
+        w.set(eventRef.collection("waitlist").document(uid), wlUpdate, true);
+
+        writeNotification(w, eventId, organizerId, uid, "lottery_loss",
+                "Not Selected This Time", "You were not selected in the lottery for " + eventName + ".");
+    }
+
+    /**
+     * Records that an exclusive multi-event draw picked the user for another
+     * event. Only the waitlist state changes: it is not a loss, so there is
+     * no result record or notification.
+     */
+    public void writeSelectedElsewhere(@NonNull DocWriter w, @NonNull String eventId, @NonNull String uid) {
+        Map<String, Object> wlUpdate = new HashMap<>();
+        wlUpdate.put("uid", uid);
+        wlUpdate.put("state", STATE_SELECTED_ELSEWHERE);
+        wlUpdate.put("updatedAt", FieldValue.serverTimestamp());
+        wlUpdate.put("lastResult", "selected_elsewhere");
+        w.set(db.collection("events").document(eventId).collection("waitlist").document(uid), wlUpdate, true);
+    }
+
+    /**
+     * Writes a user notification and the matching global notification log entry.
+     */
+    private void writeNotification(DocWriter w, String eventId, String organizerId, String uid,
+                                   String type, String title, String message) {
+        Map<String, Object> notif = new HashMap<>();
+        notif.put("type", type);
+        notif.put("eventId", eventId);
+        notif.put("title", title);
+        notif.put("message", message);
+        notif.put("createdAt", FieldValue.serverTimestamp());
+        notif.put("read", false);
+        w.set(db.collection("users").document(uid).collection("notifications").document(), notif, false);
+        w.set(NotificationInbox.stateRef(db, uid), NotificationInbox.unreadDelta(1), true);
+
+        w.set(NotificationLogs.logs(db).document(),
+                NotificationLogs.entry(eventId, organizerId, uid, type, title, message), false);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.apollo.utils.DrawSchedule;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LotteryScheduler.java
+ *
+ * Purpose:
+ * Schedules each event's lottery to run by itself when registration closes,
+ * through {@link ScheduledLotteryWorker}, instead of waiting for the
+ * organizer to open the event and press the button.
+ *
+ * Design:
+ * - One unique work request per event, delayed until
+ *   {@link DrawSchedule#runAt}: the close time plus a per-event jitter, so
+ *   events closing together are drawn spread over several minutes.
+ * - The job's progress is kept on the event document in a "lotteryJob" map
+ *   (state, runAt, attempts, winners, error, updatedAt) so any device and
+ *   the organizer screen can show it.
+ *
+ * - Every draw, automatic or by hand, first {@link #claim}s the event in a
+ *   transaction, so only one of them can ever draw it.
+ *
+ * Notes:
+ * - Saving an event reschedules it (its close date may have moved); the
+ *   organizer's event list re-enqueues missing jobs, e.g. after a reinstall
+ *   or on a second device, without replacing ones already pending.
+ */
+public final class LotteryScheduler {
+
+    private static final String TAG = "LotteryScheduler";
+
+    /** Event field holding the job state. */
+    public static final String FIELD = "lotteryJob";
+
+    public static final String STATE_SCHEDULED = "scheduled";
+    public static final String STATE_RUNNING = "running";
+    public static final String STATE_DONE = "done";
+    public static final String STATE_FAILED = "failed";
+
+    /** How long a claimed draw is reserved for the run that claimed it. */
+    static final long LEASE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private LotteryScheduler() {}
+
+    /**
+     * @param eventId Event ID.
+     * @return Unique work name of the event's scheduled draw.
+     */
+    @NonNull
+    static String workName(@NonNull String eventId) {
+        return "scheduled-lottery-" + eventId;
+    }
+
+    /**
+     * Schedules (or moves) an event's draw after the event was saved.
+     *
+     * @param context           Any context.
+     * @param eventId           Event ID.
+     * @param registrationClose Close date as stored on the event.
+     * @param time              Event time as stored on the event.
+     */
+    public static void schedule(@NonNull Context context, @NonNull String eventId,
+                                @Nullable String registrationClose, @Nullable String time) {
+        long closeAt = DrawSchedule.closeTime(registrationClose, time);
+        if (closeAt < 0) {
+            Log.w(TAG, "No valid close date for " + eventId + ", draw not scheduled");
+            return;
+        }
+        long runAt = DrawSchedule.runAt(closeAt, eventId, System.currentTimeMillis());
+        enqueue(context, eventId, runAt, ExistingWorkPolicy.REPLACE);
+        writeState(FirebaseFirestore.getInstance(), eventId, STATE_SCHEDULED, runAt, null);
+    }
+
+    /**
+     * Makes sure every undrawn event in the list has a pending draw, keeping
+     * draws that are already scheduled on this device.
+     *
+     * @param context Any context.
+     * @param events  Event documents, e.g. the organizer's event list.
+     */
+    public static void ensureScheduled(@NonNull Context context, @NonNull List<DocumentSnapshot> events) {
+        long now = System.currentTimeMillis();
+        for (DocumentSnapshot event : events) {
+            if (Boolean.TRUE.equals(event.getBoolean("lotteryDone"))) continue;
+
+            String state = event.getString(FIELD + ".state");
+            if (STATE_DONE.equals(state) || STATE_FAILED.equals(state)) continue;
+
+            long closeAt = DrawSchedule.closeTime(
+                    event.getString("registrationClose"), event.getString("time"));
+            if (closeAt < 0) continue;
+
+            // Keep the run time already published for this event, if any
+            Timestamp published = event.getTimestamp(FIELD + ".runAt");
+            long runAt = published != null && STATE_SCHEDULED.equals(state)
+                    ? published.toDate().getTime()
+                    : DrawSchedule.runAt(closeAt, event.getId(), now);
+
+            enqueue(context, event.getId(), runAt, ExistingWorkPolicy.KEEP);
+            if (!STATE_SCHEDULED.equals(state) && !STATE_RUNNING.equals(state)) {
+                writeState(FirebaseFirestore.getInstance(), event.getId(), STATE_SCHEDULED, runAt, null);
+            }
+        }
+    }
+
+    /**
+     * Cancels an event's pending draw on this device, e.g. after the
+     * organizer ran the lottery by hand.
+     *
+     * @param context Any context.
+     * @param eventId Event ID.
+     */
+    public static void cancel(@NonNull Context context, @NonNull String eventId) {
+        WorkManager.getInstance(context.getApplicationContext()).cancelUniqueWork(workName(eventId));
+    }
+
+    /**
+     * @param event Event document.
+     * @return Line describing the automatic draw for the organizer, or null if
+     *         none was scheduled.
+     */
+    @Nullable
+    public static String describe(@NonNull DocumentSnapshot event) {
+        String state = event.getString(FIELD + ".state");
+        if (state == null) return null;
+
+        Timestamp runAt = event.getTimestamp(FIELD + ".runAt");
+        switch (state) {
+            case STATE_SCHEDULED:
+                return "Automatic draw scheduled" + (runAt != null ? " for " + runAt.toDate() : "") + ".";
+            case STATE_RUNNING:
+                return Boolean.TRUE.equals(event.getBoolean(FIELD + ".manual"))
+                        ? "Lottery draw in progress." : "Automatic draw in progress.";
+            case STATE_DONE:
+                Long winners = event.getLong(FIELD + ".winners");
+                return "Automatic draw done" + (winners != null ? ": " + winners + " selected." : ".");
+            case STATE_FAILED:
+                String error = event.getString(FIELD + ".error");
+                return "Automatic draw failed" + (error != null ? ": " + error : "")
+                        + ". Run the lottery manually.";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Marks the draw as running if nobody has drawn or claimed it: the event
+     * must not be drawn yet and no other run may hold an unexpired lease.
+     *
+     * @param db      Firestore instance.
+     * @param eventId Event ID.
+     * @param manual  True for the organizer's button, false for the scheduled job.
+     * @return Task with true if this run may draw.
+     */
+    static Task<Boolean> claim(@NonNull FirebaseFirestore db, @NonNull String eventId, boolean manual) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        return db.runTransaction(tx -> {
+            DocumentSnapshot snap = tx.get(eventRef);
+            if (Boolean.TRUE.equals(snap.getBoolean("lotteryDone"))) return false;
+
+            long now = System.currentTimeMillis();
+            Timestamp lease = snap.getTimestamp(FIELD + ".leaseUntil");
+            if (STATE_RUNNING.equals(snap.getString(FIELD + ".state"))
+                    && lease != null && lease.toDate().getTime() > now) {
+                return false;
+            }
+
+            Map<String, Object> job = new HashMap<>();
+            job.put("state", STATE_RUNNING);
+            job.put("manual", manual);
+            job.put("leaseUntil", new Timestamp(new Date(now + LEASE_MS)));
+            job.put("attempts", FieldValue.increment(1));
+            job.put("updatedAt", FieldValue.serverTimestamp());
+            tx.set(eventRef, Collections.singletonMap(FIELD, job), SetOptions.merge());
+            return true;
+        });
+    }
+
+    /**
+     * Removes the job state from an event whose lottery no longer needs an
+     * automatic draw (it was run by hand).
+     *
+     * @param db      Firestore instance.
+     * @param eventId Event ID.
+     */
+    static void clearState(@NonNull FirebaseFirestore db, @NonNull String eventId) {
+        db.collection("events").document(eventId)
+                .update(FIELD, FieldValue.delete())
+                .addOnFailureListener(e -> Log.w(TAG, "Could not clear draw state for " + eventId, e));
+    }
+
+    private static void enqueue(Context context, String eventId, long runAt, ExistingWorkPolicy policy) {
+        long delay = Math.max(0, runAt - System.currentTimeMillis());
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ScheduledLotteryWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString(ScheduledLotteryWorker.KEY_EVENT_ID, eventId)
+                        .build())
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 1, TimeUnit.MINUTES)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(workName(eventId), policy, request);
+    }
+
+    /**
+     * Writes the job state on the event document.
+     *
+     * @param runAt Scheduled run time, or -1 to leave it unchanged.
+     * @param extra Additional job fields (may be null).
+     */
+    static void writeState(@NonNull FirebaseFirestore db, @NonNull String eventId, @NonNull String state,
+                           long runAt, @Nullable Map<String, Object> extra) {
+        Map<String, Object> job = new HashMap<>();
+        if (extra != null) job.putAll(extra);
+        job.put("state", state);
+        job.put("updatedAt", FieldValue.serverTimestamp());
+        if (runAt >= 0) job.put("runAt", new Timestamp(new Date(runAt)));
+
+        db.collection("events").document(eventId)
+                .set(Collections.singletonMap(FIELD, job), SetOptions.merge())
+                .addOnFailureListener(e -> Log.w(TAG, "Could not record draw state for " + eventId, e));
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.apollo.data.ChunkedBatchWriter;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.utils.LotteryAudit;
+import com.example.apollo.utils.MerkleTree;
+import com.example.apollo.utils.MultiEventDraw;
+import com.example.apollo.utils.SelectionPolicy;
+import com.example.apollo.utils.SplitMixRandom;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * MultiEventLotteryRunner.java
+ *
+ * Purpose:
+ * Runs the initial lottery of several events in one go, for organizers with
+ * many sessions of the same program, and reports the result of all of them
+ * together.
+ *
+ * Design:
+ * - Waitlists are loaded through {@link LotteryRunner#loadCandidates}, at
+ *   most {@link #MAX_PARALLEL} events at a time.
+ * - Winners are chosen for all events at once by {@link MultiEventDraw};
+ *   in exclusive mode an entrant wins at most one of the selected events.
+ * - Each event is first claimed with {@link LotteryScheduler#claim}, the
+ *   transaction the scheduled and manual draws use, so no other run can
+ *   draw it at the same time.
+ * - Each event's draw is stored as a {@link LotteryRunner.Plan} before any
+ *   of its results. An event claimed with a plan already stored is not
+ *   drawn again: its plan is finished, as a retried single draw does.
+ * - Every event's results, invites, notifications and logs go into one
+ *   shared {@link ChunkedBatchWriter}, so 40 small events cost a few full
+ *   batches instead of 40 partly filled ones; each entrant's writes stay
+ *   in one chunk.
+ * - Only once all of those are committed does each event get its own small
+ *   batch with lotteryDone, the audit reveal, the job state and the plan's
+ *   deletion.
+ * - Every event's draw is audited through {@link LotteryAuditLog}: the run's
+ *   seed and each event's candidate list are committed before the draw.
+ * - In exclusive mode an entrant picked for another event is recorded as
+ *   {@link LotteryRunner#STATE_SELECTED_ELSEWHERE}, not as a loser, so later
+ *   replacement draws of this event skip them.
+ *
+ * Notes:
+ * - Events that are already drawn or being drawn are skipped and listed in
+ *   the report.
+ * - If a commit fails, events not yet marked drawn give their claim back
+ *   and keep lotteryDone unset. Running the selection again finishes the
+ *   stored plans, writing only the entrants whose results are missing, and
+ *   draws only the events that have none. An event whose audit commitment
+ *   was stored but whose plan was not is drawn afresh; its first commitment
+ *   stays without a reveal.
+ */
+public class MultiEventLotteryRunner {
+
+    private static final String TAG = "MultiEventLottery";
+
+    /** Waitlists loaded at the same time. */
+    static final int MAX_PARALLEL = 4;
+
+    /** Runs {@link #runAsync} draws one after another. */
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /** One event to draw. */
+    public static class EventSpec {
+        public final String eventId;
+        public final String eventName;
+        public final int winnersToPick;
+
+        public EventSpec(@NonNull String eventId, @NonNull String eventName, int winnersToPick) {
+            this.eventId = eventId;
+            this.eventName = eventName;
+            this.winnersToPick = winnersToPick;
+        }
+    }
+
+    /** Result of one event in the run. */
+    public static class EventResult {
+        public final EventSpec event;
+        public final int candidates;
+        public final int winners;
+        /** Why the event was not drawn, or null if it was. */
+        public final String skipped;
+
+        EventResult(EventSpec event, int candidates, int winners, String skipped) {
+            this.event = event;
+            this.candidates = candidates;
+            this.winners = winners;
+            this.skipped = skipped;
+        }
+    }
+
+    /** Summary of a whole run. */
+    public static class Report {
+        public final List<EventResult> events;
+        public final boolean exclusive;
+        public final long seed;
+        public final int writes;
+
+        Report(List<EventResult> events, boolean exclusive, long seed, int writes) {
+            this.events = events;
+            this.exclusive = exclusive;
+            this.seed = seed;
+            this.writes = writes;
+        }
+
+        /** @return Number of events drawn. */
+        public int drawnCount() {
+            int drawn = 0;
+            for (EventResult r : events) if (r.skipped == null) drawn++;
+            return drawn;
+        }
+
+        /** @return Winners across all events. */
+        public int totalWinners() {
+            int total = 0;
+            for (EventResult r : events) total += r.winners;
+            return total;
+        }
+
+        /** @return Human-readable report, one line per event. */
+        @NonNull
+        public String toText() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.US, "%d of %d events drawn, %d winners%s.\n",
+                    drawnCount(), events.size(), totalWinners(),
+                    exclusive ? " (one win per entrant)" : ""));
+            for (EventResult r : events) {
+                out.append("\n• ").append(r.event.eventName).append(": ");
+                if (r.skipped != null) {
+                    out.append("skipped, ").append(r.skipped);
+                } else {
+                    out.append(String.format(Locale.US, "%d of %d selected", r.winners, r.candidates));
+                }
+            }
+            out.append(String.format(Locale.US, "\n\nSeed %d · %d writes", seed, writes));
+            return out.toString();
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller("MultiEventLottery");
+    private final LotteryRunner runner;
+
+    public MultiEventLotteryRunner(@NonNull FirebaseFirestore db) {
+        this.db = db;
+        // Winners come from MultiEventDraw; the runner only loads and writes
+        this.runner = new LotteryRunner(db, new Random());
+    }
+
+    /**
+     * Runs {@link #run} on a background thread.
+     *
+     * @param events      Events to draw.
+     * @param organizerId Organizer ID recorded in notification_logs.
+     * @param exclusive   True if an entrant may win at most one of the events.
+     * @return Task with the report.
+     */
+    public Task<Report> runAsync(@NonNull List<EventSpec> events, @NonNull String organizerId,
+                                 boolean exclusive) {
+        TaskCompletionSource<Report> source = new TaskCompletionSource<>();
+        EXECUTOR.execute(() -> {
+            try {
+                source.setResult(run(events, organizerId, exclusive, new SecureRandom().nextLong()));
+            } catch (Exception e) {
+                Log.e(TAG, "Multi-event draw failed", e);
+                source.setException(e);
+            }
+        });
+        return source.getTask();
+    }
+
+    /**
+     * Draws every event that is not drawn yet and commits all results.
+     * Blocks until done.
+     *
+     * @param events      Events to draw.
+     * @param organizerId Organizer ID recorded in notification_logs.
+     * @param exclusive   True if an entrant may win at most one of the events.
+     * @param seed        Seed of the draw, recorded in the report.
+     * @return Report of the run.
+     * @throws Exception If loading a waitlist or committing fails.
+     */
+    public Report run(@NonNull List<EventSpec> events, @NonNull String organizerId,
+                      boolean exclusive, long seed) throws Exception {
+        Set<String> claimed = Collections.synchronizedSet(new HashSet<>());
+        try {
+            return draw(events, organizerId, exclusive, seed, claimed);
+        } finally {
+            // Events still claimed here were not drawn; let them be drawn again
+            synchronized (claimed) {
+                for (String eventId : claimed) LotteryScheduler.clearState(db, eventId);
+            }
+        }
+    }
+
+    /**
+     * Body of {@link #run}. {@code claimed} holds the events claimed by this
+     * run and not yet marked drawn.
+     */
+    private Report draw(List<EventSpec> events, String organizerId, boolean exclusive, long seed,
+                        Set<String> claimed) throws Exception {
+        Map<String, String> skipped = new HashMap<>();
+        Map<String, LotteryRunner.Plan> stored = new ConcurrentHashMap<>();
+        Map<String, List<String>> candidates = loadAll(events, skipped, claimed, stored);
+
+        // Winners of unfinished earlier draws keep their invite; in exclusive mode they win nothing else
+        Set<String> wonEarlier = new HashSet<>();
+        if (exclusive) {
+            for (LotteryRunner.Plan plan : stored.values()) wonEarlier.addAll(plan.outcome.winners);
+        }
+        Map<String, List<String>> leftOut = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : candidates.entrySet()) {
+            List<String> out = new ArrayList<>();
+            for (String uid : entry.getValue()) if (wonEarlier.contains(uid)) out.add(uid);
+            entry.getValue().removeAll(out);
+            leftOut.put(entry.getKey(), out);
+        }
+
+        // Commit to the seed and every candidate list before drawing
+        String policy = exclusive
+                ? LotteryAuditLog.POLICY_MULTI_EVENT_EXCLUSIVE : LotteryAuditLog.POLICY_MULTI_EVENT;
+        Map<String, String> drawIds = new HashMap<>();
+        Map<String, List<SelectionPolicy.Entrant>> committed = new HashMap<>();
+        List<Task<Void>> commits = new ArrayList<>();
+        for (EventSpec e : events) {
+            List<String> pool = candidates.get(e.eventId);
+            if (pool == null || pool.isEmpty()) continue;
+
+            List<SelectionPolicy.Entrant> entrants = new ArrayList<>();
+            for (String uid : pool) entrants.add(SelectionPolicy.Entrant.of(uid));
+            entrants = LotteryAudit.canonical(entrants);
+            MerkleTree tree = LotteryAudit.tree(entrants);
+
+            String drawId = LotteryAuditLog.newDrawId(db, e.eventId);
+            drawIds.put(e.eventId, drawId);
+            committed.put(e.eventId, entrants);
+            commits.add(LotteryAuditLog.commit(db, e.eventId, drawId, seed, tree, policy,
+                    e.winnersToPick, organizerId));
+
+            // The draw reads the candidates in the committed order
+            pool.clear();
+            for (SelectionPolicy.Entrant entrant : entrants) pool.add(entrant.uid);
+        }
+        Tasks.await(Tasks.whenAll(commits));
+
+        Map<String, Integer> seats = new HashMap<>();
+        for (EventSpec e : events) seats.put(e.eventId, e.winnersToPick);
+        Map<String, List<String>> winners =
+                MultiEventDraw.assign(candidates, seats, exclusive, new SplitMixRandom(seed));
+
+        Set<String> wonAnywhere = new HashSet<>();
+        for (List<String> won : winners.values()) wonAnywhere.addAll(won);
+
+        // Store every new draw before any of its results, so a retry finishes it instead of drawing again
+        List<EventResult> results = new ArrayList<>();
+        Map<String, LotteryRunner.Plan> plans = new LinkedHashMap<>();
+        List<Task<Void>> saves = new ArrayList<>();
+        for (EventSpec e : events) {
+            LotteryRunner.Plan earlier = stored.get(e.eventId);
+            if (earlier != null) {
+                plans.put(e.eventId, earlier);
+                results.add(new EventResult(e, earlier.outcome.winners.size() + earlier.outcome.losers.size()
+                        + earlier.selectedElsewhere.size(), earlier.outcome.winners.size(), null));
+                continue;
+            }
+
+            List<String> pool = candidates.get(e.eventId);
+            if (pool == null) {
+                results.add(new EventResult(e, 0, 0, skipped.get(e.eventId)));
+                continue;
+            }
+
+            List<String> won = winners.get(e.eventId);
+            if (won == null || won.isEmpty()) {
+                results.add(new EventResult(e, pool.size(), 0,
+                        pool.isEmpty() ? "waitlist is empty" : "no entrant left to select"));
+                continue;
+            }
+
+            Set<String> wonSet = new HashSet<>(won);
+            List<String> lost = new ArrayList<>();
+            List<String> elsewhere = new ArrayList<>(leftOut.get(e.eventId));
+            for (String uid : pool) {
+                if (wonSet.contains(uid)) continue;
+                // Holds another event's invite; must not be drawn as a replacement here
+                if (exclusive && wonAnywhere.contains(uid)) elsewhere.add(uid);
+                else lost.add(uid);
+            }
+
+            LotteryRunner.Plan plan = new LotteryRunner.Plan(drawIds.get(e.eventId), seed, policy,
+                    committed.get(e.eventId), new LotteryRunner.Outcome(won, lost), elsewhere);
+            plans.put(e.eventId, plan);
+            saves.add(fs.set(LotteryRunner.planRef(db, e.eventId), plan.toMap()));
+            results.add(new EventResult(e, pool.size(), won.size(), null));
+        }
+        Tasks.await(Tasks.whenAll(saves));
+        int writes = saves.size();
+
+        ChunkedBatchWriter writer = new ChunkedBatchWriter(db);
+        LotteryRunner.DocWriter batchWriter = LotteryRunner.chunked(writer);
+        Map<String, String> names = new HashMap<>();
+        for (EventSpec e : events) names.put(e.eventId, e.eventName);
+        for (Map.Entry<String, LotteryRunner.Plan> entry : plans.entrySet()) {
+            String eventId = entry.getKey();
+            Set<String> written = stored.containsKey(eventId)
+                    ? Tasks.await(runner.loadWritten(eventId)) : Collections.emptySet();
+            runner.writePlan(batchWriter, eventId, names.get(eventId), organizerId, entry.getValue(), written);
+        }
+        writes += writer.size();
+        if (writer.size() > 0) Tasks.await(writer.commit(fs));
+
+        // Every result is stored; now mark each event drawn, one atomic batch per event
+        List<Task<Void>> drawn = new ArrayList<>();
+        for (Map.Entry<String, LotteryRunner.Plan> entry : plans.entrySet()) {
+            String eventId = entry.getKey();
+            LotteryRunner.Plan plan = entry.getValue();
+            WriteBatch batch = db.batch();
+            int ops = runner.writeFinished(batch, eventId, plan);
+
+            Map<String, Object> job = new HashMap<>();
+            job.put("state", LotteryScheduler.STATE_DONE);
+            job.put("winners", plan.outcome.winners.size());
+            job.put("leaseUntil", FieldValue.delete());
+            job.put("updatedAt", FieldValue.serverTimestamp());
+            batch.set(db.collection("events").document(eventId),
+                    Collections.singletonMap(LotteryScheduler.FIELD, job), SetOptions.merge());
+
+            drawn.add(fs.commit(batch, ops + 1).addOnSuccessListener(v -> claimed.remove(eventId)));
+            writes += ops + 1;
+        }
+        Tasks.await(Tasks.whenAll(drawn));
+
+        return new Report(results, exclusive, seed, writes);
+    }
+
+    /**
+     * Claims every event that still needs a draw and loads its waitlist, or
+     * the plan an earlier unfinished run stored for it.
+     *
+     * @param claimed Filled with the events this run claimed.
+     * @param stored  Filled with the stored plan of every event that has one;
+     *                those events get no candidates.
+     * @param skipped Filled with the reason for every event that is left out.
+     * @return Candidates per event ID, in the order of {@code events}.
+     */
+    private Map<String, List<String>> loadAll(List<EventSpec> events, Map<String, String> skipped,
+                                              Set<String> claimed, Map<String, LotteryRunner.Plan> stored)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(MAX_PARALLEL);
+        try {
+            Map<String, Future<List<String>>> loading = new LinkedHashMap<>();
+            for (EventSpec e : events) {
+                loading.put(e.eventId, pool.submit(() -> {
+                    // Same claim as the scheduled and manual draws
+                    if (!Tasks.await(LotteryScheduler.claim(db, e.eventId, true))) return null;
+                    claimed.add(e.eventId);
+                    DocumentSnapshot plan = Tasks.await(fs.get(LotteryRunner.planRef(db, e.eventId)));
+                    if (plan.exists()) {
+                        stored.put(e.eventId, LotteryRunner.Plan.from(plan));
+                        return Collections.<String>emptyList();
+                    }
+                    return Tasks.await(runner.loadCandidates(e.eventId, LotteryRunner.INITIAL_POOL));
+                }));
+            }
+
+            Map<String, List<String>> candidates = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<List<String>>> f : loading.entrySet()) {
+                try {
+                    List<String> list = f.getValue().get();
+                    if (list == null) skipped.put(f.getKey(), "already drawn or being drawn");
+                    else if (!stored.containsKey(f.getKey())) candidates.put(f.getKey(), list);
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            return candidates;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -6,8 +6,11 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.EditText;
 import android.widget.Toast;
@@ -21,6 +24,12 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.apollo.R;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.ListenerRegistry;
+import com.example.apollo.data.NotificationInbox;
+import com.example.apollo.data.NotificationLogs;
+import com.example.apollo.utils.QrModules;
+import com.example.apollo.utils.SelectionPolicies;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -29,15 +38,13 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
 
-import android.text.TextUtils;
-
-import org.osmdroid.config.Configuration;
 import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
 import org.osmdroid.views.overlay.Marker;
-import androidx.preference.PreferenceManager;
 
+import java.io.File;
+import java.security.SecureRandom;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -46,7 +53,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * OrganizerEventDetailsFragment.java
@@ -56,11 +62,11 @@ import java.util.Random;
  * - Allows organizers to:
  *   • Edit the event
  *   • Run the main lottery for entrants
- *   • Automatically run replacement lotteries when invites are declined/cancelled
+ *   • Schedule replacement draws when invites are declined/cancelled
  *   • View and export the waitlist
  *   • Send targeted notifications to invitees and waitlisted users
  *   • View a map of entrant geolocations (when enabled)
- *   • Generate and view a QR code for the event
+ *   • Generate and view a QR code for the event, and export it as a printable PDF poster
  *
  * Design pattern:
  * - Acts as the Controller in an MVC-style design:
@@ -70,16 +76,21 @@ import java.util.Random;
  *
  * Notes:
  * - Enforces that the main lottery can only be run after registration is closed.
- * - Uses Firestore batch writes for consistent lottery + notification updates.
+ * - Lottery writes go through {@link LotteryRunner}; replacement draws run in
+ *   {@link ReplacementDrawWorker} so they happen exactly once per invite.
+ * - The initial draw also runs by itself when registration closes
+ *   ({@link LotteryScheduler}); its status is shown in the event summary.
  * - Logs user-facing notifications into a global "notification_logs" collection.
  */
 public class OrganizerEventDetailsFragment extends Fragment {
 
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private TextView textEventTitle, textEventDescription, textEventSummary;
     private Button buttonEditEvent, buttonSendLottery, buttonViewParticipants;
     private ImageView eventPosterImage;
     private MapView mapView;
+    private EntrantMapLayer entrantMapLayer;
 
     private String eventId;
     private String eventName = "Event";
@@ -88,6 +99,24 @@ public class OrganizerEventDetailsFragment extends Fragment {
     private Boolean lotteryDone = false;
     private boolean registrationClosed = false;
 
+    /** Selection policy preselected in the lottery dialog, from the event's "lotteryPolicy". */
+    private String lotteryPolicy = SelectionPolicies.UNIFORM;
+
+    /** Labels of {@link SelectionPolicies#NAMES}, in the same order. */
+    private static final String[] POLICY_LABELS = {
+            "Everyone equal",
+            "Favour entrants who lost before",
+            "Priority tiers first",
+            "Proportional per group"
+    };
+
+    /** True while a scheduled draw ({@link ScheduledLotteryWorker}) holds the event. */
+    private boolean automaticDrawRunning = false;
+
+    /** Poster data for the currently shown QR, used by the "Export PDF" dialog action. */
+    private QrPosterExporter.Poster posterForExport;
+    private QrPosterExporter posterExporter;
+
     /**
      * Called when the fragment’s view is created.
      * Initializes Firestore, UI components, event listeners, and loads the event details.
@@ -103,9 +132,13 @@ public class OrganizerEventDetailsFragment extends Fragment {
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
 
+        // Tile cache must be configured before the MapView is inflated
+        EntrantMapLayer.configureTileCache(requireContext());
+
         View view = inflater.inflate(R.layout.fragment_organizer_event_details, container, false);
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/event-details");
 
         textEventTitle = view.findViewById(R.id.textEventTitle);
         textEventDescription = view.findViewById(R.id.textEventDescription);
@@ -140,6 +173,12 @@ public class OrganizerEventDetailsFragment extends Fragment {
                 return;
             }
 
+            // Being drawn in the background right now (runLottery re-checks both in its claim)
+            if (automaticDrawRunning) {
+                Toast.makeText(getContext(), "Automatic draw in progress.", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
             // Ask for how many winners to select
             askForWinnerCountAndRunLottery(eventId, eventName);
         });
@@ -185,71 +224,30 @@ public class OrganizerEventDetailsFragment extends Fragment {
             navController.navigate(R.id.navigation_organizer_add_event, bundle);
         });
 
-        Configuration.getInstance().load(
-                getContext(),
-                PreferenceManager.getDefaultSharedPreferences(getContext())
-        );
-        Configuration.getInstance().setUserAgentValue(requireContext().getPackageName());
-
         // Load event details
         if (getArguments() != null) {
             eventId = getArguments().getString("eventId");
             loadEventDetails(eventId);
         }
 
-        // Listen for invites that get declined/cancelled auto draw a replacement
+        // Declined/cancelled invites are replaced by a background worker; this
+        // screen only makes sure one is scheduled
         if (eventId != null && !eventId.isEmpty()) {
-            db.collection("events")
+            ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, db.collection("events")
                     .document(eventId)
                     .collection("invites")
-                    .addSnapshotListener((snap, e) -> {
+                    .whereIn("status", ReplacementDrawProcessor.RELEASED_STATUSES), (snap, e) -> {
                         if (e != null || snap == null) {
                             Log.e(TAG, "Error listening for invites", e);
                             return;
                         }
 
-                        for (com.google.firebase.firestore.DocumentChange change : snap.getDocumentChanges()) {
-
-                            DocumentSnapshot doc = change.getDocument();
-                            String status = doc.getString("status");
-                            Boolean replacementProcessed = doc.getBoolean("replacementProcessed");
-
-                            boolean isDeclinedOrCancelled =
-                                    "declined".equals(status) || "cancelled".equals(status);
-                            boolean alreadyHandled = Boolean.TRUE.equals(replacementProcessed);
-
-                            if (isDeclinedOrCancelled && !alreadyHandled) {
-                                Log.d(TAG, "Invite declined/cancelled → running replacement lottery");
-
-                                //  Run replacement lottery for exactly 1 entrant
-                                runLottery(eventId, eventName, 1);
-
-                                //  Mark this invite as processed so it never triggers again
-                                doc.getReference()
-                                        .update("replacementProcessed", true)
-                                        .addOnFailureListener(err ->
-                                                Log.e(TAG, "Failed to mark replacementProcessed", err));
-
-                                //  notify organizer about replacement draw
-                                if (organizerId != null && !organizerId.isEmpty()) {
-                                    DocumentReference orgNotifRef = db.collection("users")
-                                            .document(organizerId)
-                                            .collection("notifications")
-                                            .document();
-
-                                    Map<String, Object> orgNotif = new HashMap<>();
-                                    orgNotif.put("type", "replacement_drawn");
-                                    orgNotif.put("eventId", eventId);
-                                    orgNotif.put("title", "Replacement entrant drawn");
-                                    orgNotif.put("message",
-                                            "A replacement entrant was drawn automatically for \"" + eventName + "\".");
-                                    orgNotif.put("createdAt", FieldValue.serverTimestamp());
-                                    orgNotif.put("read", false);
-
-                                    orgNotifRef.set(orgNotif)
-                                            .addOnFailureListener(err ->
-                                                    Log.e(TAG, "Failed to write organizer replacement notification", err));
-                                }
+                        for (DocumentSnapshot doc : snap.getDocuments()) {
+                            if (!Boolean.TRUE.equals(doc.getBoolean("replacementProcessed"))
+                                    && getContext() != null) {
+                                Log.d(TAG, "Invite declined/cancelled → scheduling replacement draw");
+                                ReplacementDrawWorker.enqueue(requireContext(), eventId);
+                                break;
                             }
                         }
                     });
@@ -265,8 +263,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
 
         // QR code button open dialog with QR
         ImageView qrButton = view.findViewById(R.id.qrButton);
-        qrButton.setOnClickListener(v -> db.collection("events").document(eventId)
-                .get()
+        qrButton.setOnClickListener(v -> fs.get(db.collection("events").document(eventId))
                 .addOnSuccessListener(doc -> {
                     if (!doc.exists()) return;
 
@@ -276,6 +273,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
                         return;
                     }
 
+                    posterForExport = QrPosterExporter.Poster.fromEvent(doc);
                     generateAndShowQR(qrValue);
                 })
                 .addOnFailureListener(e ->
@@ -285,6 +283,19 @@ public class OrganizerEventDetailsFragment extends Fragment {
         return view;
     }
 
+    /**
+     * Stops the entrant map layer so it no longer listens to the map or
+     * delivers clustering results after the view is gone.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (entrantMapLayer != null) {
+            entrantMapLayer.stop();
+            entrantMapLayer = null;
+        }
+    }
+
     /**
      * Loads event details from Firestore, derives some state (registrationClosed, lotteryDone),
      * configures the lottery button, shows the event poster, and (if enabled) shows a map of
@@ -296,7 +307,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
 
         DocumentReference eventRef = db.collection("events").document(eventId);
 
-        eventRef.get()
+        fs.get(eventRef)
                 .addOnSuccessListener(document -> {
                     if (document.exists()) {
                         String title = document.getString("title");
@@ -317,6 +328,11 @@ public class OrganizerEventDetailsFragment extends Fragment {
                         // Lottery state
                         lotteryDone = document.getBoolean("lotteryDone");
                         if (lotteryDone == null) lotteryDone = false;
+                        String policy = document.getString("lotteryPolicy");
+                        lotteryPolicy = policy != null ? policy : SelectionPolicies.UNIFORM;
+                        automaticDrawRunning = LotteryScheduler.STATE_RUNNING.equals(
+                                document.getString(LotteryScheduler.FIELD + ".state"));
+                        String drawStatus = LotteryScheduler.describe(document);
                         updateLotteryButtonUi();
 
                         // Determine if registration is closed yet (date + time)
@@ -373,7 +389,9 @@ public class OrganizerEventDetailsFragment extends Fragment {
                                         "Registration: " + registrationPeriod + "\n" +
                                         capacityText + "\n" +
                                         waitlistText +
-                                        "\n\nLottery can be run after registration closes."
+                                        "\n\n" + (drawStatus != null
+                                                ? drawStatus
+                                                : "Lottery can be run after registration closes.")
                         );
 
                         // Map showing entrant coordinates
@@ -382,36 +400,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
                             mapView.setTileSource(TileSourceFactory.MAPNIK);
                             mapView.setMultiTouchControls(true);
 
-                            List<Map<String, Object>> coords =
-                                    (List<Map<String, Object>>) document.get("coordinate");
-
-                            if (coords != null && !coords.isEmpty()) {
-
-                                // Center map on the first point
-                                Map<String, Object> first = coords.get(0);
-                                double lat = (double) first.get("lat");
-                                double lon = (double) first.get("lon");
-
-                                mapView.getController().setZoom(13.0);
-                                mapView.getController().setCenter(new GeoPoint(lat, lon));
-
-                                // Add markers for all recorded entrant locations
-                                for (Map<String, Object> point : coords) {
-                                    double pLat = (double) point.get("lat");
-                                    double pLon = (double) point.get("lon");
-
-                                    Marker marker = new Marker(mapView);
-                                    marker.setPosition(new GeoPoint(pLat, pLon));
-                                    marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
-                                    marker.setTitle("Entrant Location");
-
-                                    mapView.getOverlays().add(marker);
-                                }
-
-                                mapView.invalidate();
-                            } else {
-                                Log.d("MAP", "No coordinates stored in Firestore.");
-                            }
+                            loadEntrantLocations(document);
                         }
 
                     } else {
@@ -424,8 +413,86 @@ public class OrganizerEventDetailsFragment extends Fragment {
     }
 
     /**
-     * Shows a dialog asking the organizer how many winners should be selected,
-     * then calls {@link #runLottery(String, String, int)} with that number.
+     * Centers the map on the entrants and attaches an {@link EntrantMapLayer},
+     * which loads and clusters only the locations inside the visible area.
+     * A single location is read first to pick the initial center.
+     *
+     * Events created before locations moved out of the event document still
+     * carry a small "coordinate" array; those points are drawn directly.
+     *
+     * @param eventDoc The already-loaded event document.
+     */
+    private void loadEntrantLocations(@NonNull DocumentSnapshot eventDoc) {
+        fs.get(db.collection("events").document(eventId)
+                .collection("locations")
+                .limit(1))
+                .addOnSuccessListener(snapshot -> {
+                    if (!isAdded() || mapView == null) return;
+
+                    if (snapshot.isEmpty()) {
+                        showLegacyCoordinates(eventDoc);
+                        return;
+                    }
+
+                    DocumentSnapshot first = snapshot.getDocuments().get(0);
+                    Double lat = first.getDouble("lat");
+                    Double lon = first.getDouble("lon");
+                    if (lat != null && lon != null) {
+                        mapView.getController().setZoom(13.0);
+                        mapView.getController().setCenter(new GeoPoint(lat, lon));
+                    }
+
+                    if (entrantMapLayer == null) {
+                        entrantMapLayer = new EntrantMapLayer(mapView, db, eventId);
+                        entrantMapLayer.start();
+                    }
+                })
+                .addOnFailureListener(e -> Log.e("MAP", "Failed to load entrant locations", e));
+    }
+
+    /**
+     * Draws markers from the legacy "coordinate" array on older events.
+     *
+     * @param eventDoc The already-loaded event document.
+     */
+    private void showLegacyCoordinates(@NonNull DocumentSnapshot eventDoc) {
+        List<Map<String, Object>> coords =
+                (List<Map<String, Object>>) eventDoc.get("coordinate");
+
+        if (coords == null || coords.isEmpty()) {
+            Log.d("MAP", "No coordinates stored in Firestore.");
+            return;
+        }
+
+        boolean centered = false;
+        for (Map<String, Object> point : coords) {
+            Object lat = point.get("lat");
+            Object lon = point.get("lon");
+            if (!(lat instanceof Number) || !(lon instanceof Number)) continue;
+
+            GeoPoint geoPoint = new GeoPoint(((Number) lat).doubleValue(), ((Number) lon).doubleValue());
+
+            // Center map on the first point
+            if (!centered) {
+                mapView.getController().setZoom(13.0);
+                mapView.getController().setCenter(geoPoint);
+                centered = true;
+            }
+
+            Marker marker = new Marker(mapView);
+            marker.setPosition(geoPoint);
+            marker.setAnchor(Marker.ANCHOR_CENTER, Marker.ANCHOR_BOTTOM);
+            marker.setTitle("Entrant Location");
+
+            mapView.getOverlays().add(marker);
+        }
+
+        mapView.invalidate();
+    }
+
+    /**
+     * Shows a dialog asking the organizer how many winners should be selected
+     * and how, then calls {@link #runLottery(String, String, int, String)}.
      *
      * @param eventId   Event ID.
      * @param eventName Event name for notification text.
@@ -437,10 +504,20 @@ public class OrganizerEventDetailsFragment extends Fragment {
         input.setHint("Number of winners");
         input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
 
+        Spinner policyPicker = new Spinner(requireContext());
+        policyPicker.setAdapter(new ArrayAdapter<>(requireContext(),
+                android.R.layout.simple_spinner_dropdown_item, POLICY_LABELS));
+        policyPicker.setSelection(Math.max(0, SelectionPolicies.NAMES.indexOf(lotteryPolicy)));
+
+        LinearLayout form = new LinearLayout(requireContext());
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.addView(input);
+        form.addView(policyPicker);
+
         new androidx.appcompat.app.AlertDialog.Builder(requireContext())
                 .setTitle("Run Lottery")
                 .setMessage("How many entrants should be selected?")
-                .setView(input)
+                .setView(form)
                 .setPositiveButton("Run", (dlg, which) -> {
                     String s = (input.getText() == null) ? "" : input.getText().toString().trim();
                     int k = 0;
@@ -451,7 +528,8 @@ public class OrganizerEventDetailsFragment extends Fragment {
                         Toast.makeText(getContext(), "Must be > 0", Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    runLottery(eventId, eventName, k);
+                    runLottery(eventId, eventName, k,
+                            SelectionPolicies.NAMES.get(policyPicker.getSelectedItemPosition()));
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -465,215 +543,77 @@ public class OrganizerEventDetailsFragment extends Fragment {
      * - Creates per-user notifications
      * - Logs all notifications to "notification_logs"
      * - Sets event.lotteryDone = true on success and updates the lottery button UI
+     * The draw and its writes are done by {@link LotteryRunner}, with the
+     * event's selection policy, after {@link LotteryScheduler#claim} has
+     * reserved the event; a failed draw gives the claim back.
      *
      * @param eventId       Event ID.
      * @param eventName     Event name for message text.
      * @param winnersToPick Number of winners to select.
      */
     public void runLottery(@NonNull String eventId, @NonNull String eventName, int winnersToPick) {
-        if (getContext() == null) return;
+        runLottery(eventId, eventName, winnersToPick, lotteryPolicy);
+    }
 
-        FirebaseFirestore fdb = FirebaseFirestore.getInstance();
+    /**
+     * Runs the lottery with the given selection policy. The policy and a
+     * fresh random seed are recorded on the event with the results.
+     *
+     * @param eventId       Event ID.
+     * @param eventName     Event name for message text.
+     * @param winnersToPick Number of winners to select.
+     * @param policyName    One of {@link SelectionPolicies#NAMES}.
+     */
+    public void runLottery(@NonNull String eventId, @NonNull String eventName, int winnersToPick,
+                           @NonNull String policyName) {
+        if (getContext() == null) return;
 
         // Organizer ID used for logging in notification_logs
         String organizerId = FirebaseAuth.getInstance().getCurrentUser() != null
                 ? FirebaseAuth.getInstance().getCurrentUser().getUid()
                 : "unknown";
 
-        fdb.collection("events").document(eventId)
-                .collection("waitlist")
-                .whereEqualTo("state", "waiting")
-                .get()
-                .addOnSuccessListener(snap -> {
-
-                    if (snap == null) {
-                        Toast.makeText(getContext(), "Failed to load waitlist.", Toast.LENGTH_LONG).show();
-                        return;
+        // Same claim as the scheduled job: fails if the event is drawn or being drawn
+        LotteryScheduler.claim(db, eventId, true)
+                .onSuccessTask(claimed -> {
+                    if (!Boolean.TRUE.equals(claimed)) {
+                        throw new IllegalStateException("The lottery was already drawn or is being drawn.");
                     }
-
-                    List<String> candidates = new ArrayList<>();
-
-                    // Gather candidate UIDs
-                    for (DocumentSnapshot d : snap.getDocuments()) {
-                        String uid = d.getId();
-                        if (TextUtils.isEmpty(uid)) {
-                            Object alt = d.get("uid");
-                            if (alt != null) uid = String.valueOf(alt);
-                        }
-                        if (!TextUtils.isEmpty(uid)) candidates.add(uid);
+                    return new LotteryRunner(db, SelectionPolicies.byName(policyName), new SecureRandom().nextLong())
+                            .runInitialDraw(eventId, eventName, organizerId, winnersToPick)
+                            .addOnFailureListener(e -> LotteryScheduler.clearState(db, eventId));
+                })
+                .addOnSuccessListener(outcome -> {
+                    if (outcome.winners.isEmpty()) {
+                        // Give the claim back so the draw can be run again
+                        LotteryScheduler.clearState(db, eventId);
                     }
+                    if (getContext() == null) return;
 
-                    // Deduplicate
-                    candidates = new ArrayList<>(new java.util.LinkedHashSet<>(candidates));
-
-                    if (candidates.isEmpty()) {
+                    if (outcome.winners.isEmpty()) {
                         Toast.makeText(getContext(), "No entrants in waitlist.", Toast.LENGTH_SHORT).show();
                         return;
                     }
 
-                    // Randomize and pick winners
-                    Collections.shuffle(candidates, new Random());
-                    int numberOfWinner = Math.min(winnersToPick, candidates.size());
-                    List<String> winners = candidates.subList(0, numberOfWinner);
-
-                    // Everyone else is a loser
-                    List<String> losers = new ArrayList<>(candidates);
-                    losers.removeAll(winners);
-
-                    WriteBatch batch = fdb.batch();
-
-                    for (String uid : winners) {
-
-                        // Lottery result log (winners)
-                        DocumentReference lotteryWinnerRef = fdb.collection("events")
-                                .document(eventId)
-                                .collection("lotteryResults")
-                                .document("winners")
-                                .collection("users")
-                                .document(uid);
-
-                        Map<String, Object> winnerLog = new HashMap<>();
-                        winnerLog.put("uid", uid);
-                        winnerLog.put("status", "invited");
-                        winnerLog.put("timestamp", FieldValue.serverTimestamp());
-                        batch.set(lotteryWinnerRef, winnerLog);
-
-                        // Invite entry
-                        DocumentReference inviteRef = fdb.collection("events")
-                                .document(eventId)
-                                .collection("invites")
-                                .document(uid);
-
-                        Map<String, Object> invite = new HashMap<>();
-                        invite.put("status", "invited");
-                        invite.put("invitedAt", FieldValue.serverTimestamp());
-                        batch.set(inviteRef, invite, SetOptions.merge());
-
-                        // User notification
-                        DocumentReference notifRef = fdb.collection("users")
-                                .document(uid)
-                                .collection("notifications")
-                                .document();
-
-                        Map<String, Object> notif = new HashMap<>();
-                        notif.put("type", "lottery_win");
-                        notif.put("eventId", eventId);
-                        notif.put("title", "You were selected!");
-                        notif.put("message", "You won the lottery for " + eventName + ".");
-                        notif.put("createdAt", FieldValue.serverTimestamp());
-                        notif.put("read", false);
-                        batch.set(notifRef, notif);
-
-                        // Update waitlist entry
-                        DocumentReference wlRef = fdb.collection("events")
-                                .document(eventId)
-                                .collection("waitlist")
-                                .document(uid);
-
-                        Map<String, Object> wlUpdate = new HashMap<>();
-                        wlUpdate.put("state", "invited");
-                        wlUpdate.put("updatedAt", FieldValue.serverTimestamp());
-                        batch.set(wlRef, wlUpdate, SetOptions.merge());
-
-                        // winner
-                        DocumentReference logRef = fdb.collection("notification_logs").document();
-
-                        Map<String, Object> logData = new HashMap<>();
-                        logData.put("eventId", eventId);
-                        logData.put("timestamp", FieldValue.serverTimestamp());
-                        logData.put("organizerId", organizerId);
-                        logData.put("recipientId", uid);
-                        logData.put("notificationType", "lottery_win");
-                        logData.put("notificationTitle", "You were selected!");
-                        logData.put("notificationMessage", "You won the lottery for " + eventName + ".");
-
-                        batch.set(logRef, logData);
-                    }
-
-                   //loser stuff
-                    for (String uid : losers) {
-
-                        // losers
-                        DocumentReference lotteryLoserRef = fdb.collection("events")
-                                .document(eventId)
-                                .collection("lotteryResults")
-                                .document("losers")
-                                .collection("users")
-                                .document(uid);
-
-                        Map<String, Object> loserLog = new HashMap<>();
-                        loserLog.put("uid", uid);
-                        loserLog.put("status", "rejected");
-                        loserLog.put("timestamp", FieldValue.serverTimestamp());
-                        batch.set(lotteryLoserRef, loserLog);
-
-                        // Notification to losers
-                        DocumentReference notifRef = fdb.collection("users")
-                                .document(uid)
-                                .collection("notifications")
-                                .document();
-
-                        Map<String, Object> notif = new HashMap<>();
-                        notif.put("type", "lottery_loss");
-                        notif.put("eventId", eventId);
-                        notif.put("title", "Not Selected This Time");
-                        notif.put("message", "You were not selected in the lottery for " + eventName + ".");
-                        notif.put("createdAt", FieldValue.serverTimestamp());
-                        notif.put("read", false);
-                        batch.set(notifRef, notif);
-
-                        // Update waitlist entry
-                        DocumentReference wlRef = fdb.collection("events")
-                                .document(eventId)
-                                .collection("waitlist")
-                                .document(uid);
-
-                        Map<String, Object> wlUpdate = new HashMap<>();
-                        wlUpdate.put("state", "loser");
-                        wlUpdate.put("updatedAt", FieldValue.serverTimestamp());
-                        wlUpdate.put("lastResult", "not_selected");
-                        batch.set(wlRef, wlUpdate, SetOptions.merge());
-
-                        // loser
-                        DocumentReference logRef = fdb.collection("notification_logs").document();
-
-                        Map<String, Object> logData = new HashMap<>();
-                        logData.put("eventId", eventId);
-                        logData.put("timestamp", FieldValue.serverTimestamp());
-                        logData.put("organizerId", organizerId);
-                        logData.put("recipientId", uid);
-                        logData.put("notificationType", "lottery_loss");
-                        logData.put("notificationTitle", "Not Selected This Time");
-                        logData.put("notificationMessage", "You were not selected in the lottery for " + eventName + ".");
-
-                        batch.set(logRef, logData);
-                    }
-
-                    batch.commit()
-                            .addOnSuccessListener(u -> {
-                                Toast.makeText(getContext(),
-                                        "Lottery sent to " + numberOfWinner + " entrant(s).",
-                                        Toast.LENGTH_SHORT).show();
-
-                                db.collection("events").document(eventId)
-                                        .update("lotteryDone", true);
+                    Toast.makeText(getContext(),
+                            "Lottery sent to " + outcome.winners.size() + " entrant(s).",
+                            Toast.LENGTH_SHORT).show();
 
-                                lotteryDone = true;
-                                updateLotteryButtonUi();
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.e("LotteryFix", "Batch commit failed", e);
-                                Toast.makeText(getContext(),
-                                        "Failed: " + e.getMessage(),
-                                        Toast.LENGTH_LONG).show();
-                            });
+                    lotteryDone = true;
+                    lotteryPolicy = policyName;
+                    updateLotteryButtonUi();
 
+                    // The scheduled draw is no longer needed
+                    LotteryScheduler.cancel(requireContext(), eventId);
+                    LotteryScheduler.clearState(db, eventId);
                 })
-                .addOnFailureListener(e ->
-                        Toast.makeText(getContext(),
-                                "Waitlist load failed: " + e.getMessage(),
-                                Toast.LENGTH_LONG).show()
-                );
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Lottery failed", e);
+                    if (getContext() == null) return;
+                    Toast.makeText(getContext(),
+                            "Failed: " + e.getMessage(),
+                            Toast.LENGTH_LONG).show();
+                });
     }
 
     /**
@@ -685,11 +625,10 @@ public class OrganizerEventDetailsFragment extends Fragment {
     private void sendNotificationToWaitlist(String eventId) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
 
-        db.collection("events")
+        fs.get(db.collection("events")
                 .document(eventId)
                 .collection("waitlist")
-                .whereEqualTo("state", "waiting")
-                .get()
+                .whereEqualTo("state", "waiting"))
                 .addOnSuccessListener(query -> {
                     if (query.isEmpty()) {
                         Toast.makeText(getContext(), "No waitlisted entrants found.", Toast.LENGTH_SHORT).show();
@@ -723,8 +662,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
         FirebaseFirestore fdb = FirebaseFirestore.getInstance();
 
         // Load user + check opt-in setting
-        fdb.collection("users").document(uid)
-                .get()
+        fs.get(fdb.collection("users").document(uid))
                 .addOnSuccessListener(userDoc -> {
 
                     Boolean enabled = userDoc.getBoolean("notificationsEnabled");
@@ -749,23 +687,19 @@ public class OrganizerEventDetailsFragment extends Fragment {
                     notif.put("createdAt", FieldValue.serverTimestamp());
                     notif.put("read", false);
 
-                    notifRef.set(notif)
+                    // The notification and its unread count land together
+                    WriteBatch batch = fdb.batch();
+                    batch.set(notifRef, notif);
+                    batch.set(NotificationInbox.stateRef(fdb, uid), NotificationInbox.unreadDelta(1),
+                            SetOptions.merge());
+
+                    fs.commit(batch, 2)
                             .addOnSuccessListener(a -> {
                                 // Log it globally
-                                DocumentReference logRef =
-                                        fdb.collection("notification_logs").document();
-
-                                Map<String, Object> log = new HashMap<>();
-                                log.put("eventId", eventId);
-                                log.put("timestamp", FieldValue.serverTimestamp());
-                                log.put("organizerId", organizerId);
-                                log.put("recipientId", uid);
-                                log.put("notificationType", "waitlist_message");
-                                log.put("notificationTitle", "Update About Your Waitlist Status");
-                                log.put("notificationMessage",
-                                        "There is an update regarding the waitlist for this event.");
-
-                                logRef.set(log);
+                                fs.set(NotificationLogs.logs(fdb).document(),
+                                        NotificationLogs.entry(eventId, organizerId, uid,
+                                                "waitlist_message", "Update About Your Waitlist Status",
+                                                "There is an update regarding the waitlist for this event."));
                             })
                             .addOnFailureListener(e ->
                                     Log.e("NOTIF", "Failed to write notification for " + uid, e)
@@ -790,11 +724,10 @@ public class OrganizerEventDetailsFragment extends Fragment {
 
         FirebaseFirestore db = FirebaseFirestore.getInstance();
 
-        db.collection("events")
+        fs.get(db.collection("events")
                 .document(eventId)
                 .collection("invites")
-                .whereEqualTo("status", status)
-                .get()
+                .whereEqualTo("status", status))
                 .addOnSuccessListener(snap -> {
 
                     if (snap == null || snap.isEmpty()) {
@@ -811,8 +744,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
 
                     //
                     for (String uid : uids) {
-                        db.collection("users").document(uid)
-                                .get()
+                        fs.get(db.collection("users").document(uid))
                                 .addOnSuccessListener(userDoc -> {
 
                                     Boolean enabled = userDoc.getBoolean("notificationsEnabled");
@@ -834,7 +766,11 @@ public class OrganizerEventDetailsFragment extends Fragment {
                                     notif.put("createdAt", FieldValue.serverTimestamp());
                                     notif.put("read", false);
 
-                                    notifRef.set(notif);
+                                    WriteBatch batch = db.batch();
+                                    batch.set(notifRef, notif);
+                                    batch.set(NotificationInbox.stateRef(db, uid),
+                                            NotificationInbox.unreadDelta(1), SetOptions.merge());
+                                    fs.commit(batch, 2);
 
                                 });
                     }
@@ -861,11 +797,7 @@ public class OrganizerEventDetailsFragment extends Fragment {
             );
 
             Bitmap bmp = Bitmap.createBitmap(600, 600, Bitmap.Config.RGB_565);
-            for (int x = 0; x < 600; x++) {
-                for (int y = 0; y < 600; y++) {
-                    bmp.setPixel(x, y, matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
-                }
-            }
+            bmp.setPixels(QrModules.toPixels(matrix), 0, 600, 0, 0, 600, 600);
 
             showQRPopup(bmp);
 
@@ -887,9 +819,41 @@ public class OrganizerEventDetailsFragment extends Fragment {
 
         builder.setView(img)
                 .setPositiveButton("Close", null)
+                .setNeutralButton("Export PDF", (dlg, which) -> exportPoster())
                 .show();
     }
 
+    /**
+     * Exports the currently shown event QR as a printable vector PDF poster
+     * and opens the share sheet once the file has been written.
+     */
+    private void exportPoster() {
+        if (posterForExport == null || posterExporter != null || getContext() == null) return;
+
+        File file = new File(requireContext().getExternalFilesDir(null),
+                "qr_poster_" + eventId + ".pdf");
+
+        posterExporter = new QrPosterExporter();
+        posterExporter.export(Collections.singletonList(posterForExport), file, new QrPosterExporter.Callback() {
+            @Override
+            public void onProgress(int done, int total) { }
+
+            @Override
+            public void onComplete(@NonNull File file, int pages) {
+                posterExporter = null;
+                if (!isAdded()) return;
+                startActivity(QrPosterExporter.shareIntent(requireContext(), file));
+            }
+
+            @Override
+            public void onError(@NonNull Exception e) {
+                posterExporter = null;
+                if (!isAdded()) return;
+                Toast.makeText(getContext(), "Failed to export QR poster", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     /**
      * Updates the "Send Lottery" button text, enabled state, and color based on:
      * - Whether the lottery has already been run (lotteryDone)
@@ -955,18 +919,11 @@ public class OrganizerEventDetailsFragment extends Fragment {
             String message
     ) {
         FirebaseFirestore fdb = FirebaseFirestore.getInstance();
-        DocumentReference logRef = fdb.collection("notification_logs").document();
-
-        Map<String, Object> log = new HashMap<>();
-        log.put("eventId", eventId);
-        log.put("timestamp", FieldValue.serverTimestamp());
-        log.put("organizerId", organizerId);
-        log.put("recipientId", recipientId);
-        log.put("notificationType", type);
-        log.put("notificationTitle", title);
-        log.put("notificationMessage", message);
-
-        logRef.set(log)
+        DocumentReference logRef = NotificationLogs.logs(fdb).document();
+        Map<String, Object> log = NotificationLogs.entry(eventId, organizerId, recipientId,
+                type, title, message);
+
+        fs.set(logRef, log)
                 .addOnSuccessListener(a -> Log.d("NOTIF_LOG", "Log created"))
                 .addOnFailureListener(e -> Log.e("NOTIF_LOG", "Error creating log", e));
     }
@@ -0,0 +1,173 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.example.apollo.R;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * OrganizerEventsAdapter.java
+ *
+ * Purpose:
+ * RecyclerView adapter for the organizer's event list. Each card shows the
+ * event's poster and title plus its live waitlist, invited and registered
+ * counters, read straight from the counter fields on the event document.
+ *
+ * Design:
+ * - {@link #setEvents} replaces the whole list through DiffUtil, so a page
+ *   snapshot (or the cached list shown on return from details) only
+ *   rebinds the cards that actually differ.
+ *
+ * Notes:
+ * Cards reuse item_event_card; the counters line is hidden on other screens.
+ */
+public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEventsAdapter.EventViewHolder> {
+
+    /** Listener interface for handling clicks on event cards. */
+    public interface OnEventClickListener {
+        void onEventClick(@NonNull String eventId);
+    }
+
+    private final List<DocumentSnapshot> events = new ArrayList<>();
+    private final OnEventClickListener listener;
+
+    /**
+     * @param listener Called with the event ID when a card is tapped.
+     */
+    public OrganizerEventsAdapter(@NonNull OnEventClickListener listener) {
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /** @return A copy of the events currently shown, in display order. */
+    @NonNull
+    public List<DocumentSnapshot> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Replaces the list, notifying only the cards that differ.
+     *
+     * @param newEvents Events in display order.
+     */
+    public void setEvents(@NonNull List<DocumentSnapshot> newEvents) {
+        List<DocumentSnapshot> old = new ArrayList<>(events);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() { return old.size(); }
+
+            @Override
+            public int getNewListSize() { return newEvents.size(); }
+
+            @Override
+            public boolean areItemsTheSame(int oldPos, int newPos) {
+                return old.get(oldPos).getId().equals(newEvents.get(newPos).getId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPos, int newPos) {
+                return sameCard(old.get(oldPos), newEvents.get(newPos));
+            }
+        });
+
+        events.clear();
+        events.addAll(newEvents);
+        diff.dispatchUpdatesTo(this);
+    }
+
+    @NonNull
+    @Override
+    public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_event_card, parent, false);
+        return new EventViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
+        DocumentSnapshot event = events.get(position);
+
+        String title = event.getString("title");
+        holder.title.setText(title != null ? title : "Untitled Event");
+
+        // Recycled cards must not keep the previous event's poster
+        String posterUrl = event.getString("eventPosterUrl");
+        if (posterUrl != null && !posterUrl.isEmpty()) {
+            Glide.with(holder.poster.getContext()).load(posterUrl).into(holder.poster);
+        } else {
+            Glide.with(holder.poster.getContext()).clear(holder.poster);
+            holder.poster.setImageResource(R.drawable.placeholder_image);
+        }
+
+        holder.counts.setText(countsText(event));
+        holder.counts.setVisibility(View.VISIBLE);
+
+        holder.itemView.setOnClickListener(v -> listener.onEventClick(event.getId()));
+    }
+
+    @Override
+    public int getItemCount() {
+        return events.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Event IDs are random 20-character strings; hash collisions are negligible
+        return events.get(position).getId().hashCode();
+    }
+
+    /**
+     * @param event Event document.
+     * @return Counter line, e.g. "Waitlist 12 · Invited 3 · Registered 2".
+     */
+    @NonNull
+    static String countsText(@NonNull DocumentSnapshot event) {
+        return String.format(Locale.US, "Waitlist %d · Invited %d · Registered %d",
+                count(event, "waitlistCount"),
+                count(event, "invitedCount"),
+                count(event, "registeredCount"));
+    }
+
+    private static long count(DocumentSnapshot event, String field) {
+        Long value = event.getLong(field);
+        return value != null ? Math.max(0, value) : 0;
+    }
+
+    /** True if two snapshots of the same event render the same card. */
+    private static boolean sameCard(DocumentSnapshot a, DocumentSnapshot b) {
+        return Objects.equals(a.getString("title"), b.getString("title"))
+                && Objects.equals(a.getString("eventPosterUrl"), b.getString("eventPosterUrl"))
+                && countsText(a).equals(countsText(b));
+    }
+
+    /**
+     * ViewHolder for an individual event card.
+     */
+    static class EventViewHolder extends RecyclerView.ViewHolder {
+
+        final TextView title;
+        final ImageView poster;
+        final TextView counts;
+
+        EventViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title  = itemView.findViewById(R.id.eventTitle);
+            poster = itemView.findViewById(R.id.eventPosterImage);
+            counts = itemView.findViewById(R.id.eventCounts);
+        }
+    }
+}
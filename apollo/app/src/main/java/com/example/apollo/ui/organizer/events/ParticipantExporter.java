@@ -0,0 +1,367 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.FileProvider;
+
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.utils.ColumnarWriter;
+import com.example.apollo.utils.CsvWriter;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ParticipantExporter.java
+ *
+ * Purpose:
+ * Exports every participant of an event straight from Firestore to a file:
+ * the waitlist, invites, registrations and cancellations subcollections, each
+ * row joined with the entrant's name, email and phone.
+ *
+ * Design:
+ * - Runs on a single background thread and blocks on Firestore tasks there,
+ *   so the main thread only receives progress and completion callbacks.
+ * - Each subcollection is read in pages of {@link #PAGE_SIZE}; the profiles
+ *   for a page are read with whereIn chunks of 30 and the rows are written
+ *   before the next page is requested. Only one page is in memory at a time,
+ *   so the export uses the same memory for 50 or 500,000 entrants.
+ * - Output is RFC 4180 CSV ({@link CsvWriter}) or the compact columnar format
+ *   ({@link ColumnarWriter}), written through a buffered stream.
+ *
+ * Notes:
+ * - Profiles are not put in the shared UserProfileCache on purpose, so a large
+ *   export does not grow the cache.
+ * - {@link #cancel()} stops after the current page and deletes the partial file.
+ */
+public class ParticipantExporter {
+
+    private static final String TAG = "ParticipantExporter";
+
+    /** Documents read per Firestore page. */
+    private static final int PAGE_SIZE = 500;
+
+    /** Firestore's maximum number of values in a whereIn filter. */
+    private static final int PROFILE_CHUNK = 30;
+
+    /** Subcollections exported, in output order. */
+    private static final String[] SOURCES = {"waitlist", "invites", "registrations", "cancellations"};
+
+    private static final String[] COLUMNS =
+            {"userId", "name", "email", "phone", "list", "status", "timestamp"};
+
+    /**
+     * Output formats supported by the exporter.
+     */
+    public enum Format {
+        CSV("csv", "text/csv"),
+        COLUMNAR("apcol.gz", "application/gzip");
+
+        final String extension;
+        final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+    }
+
+    /**
+     * Receives progress and results. All methods run on the main thread.
+     */
+    public interface Callback {
+        /**
+         * @param rowsWritten Rows written so far.
+         * @param totalRows   Expected total, or -1 if it could not be counted.
+         */
+        void onProgress(long rowsWritten, long totalRows);
+        void onComplete(@NonNull File file, long rowsWritten);
+        void onError(@NonNull Exception e);
+    }
+
+    /** Common interface over the two writers. */
+    private interface RowSink {
+        void write(String[] row) throws IOException;
+        void close() throws IOException;
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    public ParticipantExporter(@NonNull FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Starts the export in the background.
+     *
+     * @param eventId  Event to export.
+     * @param format   Output format.
+     * @param dir      Directory for the output file.
+     * @param callback Receives progress and the result on the main thread.
+     */
+    public void export(@NonNull String eventId, @NonNull Format format,
+                       @NonNull File dir, @NonNull Callback callback) {
+        cancelled.set(false);
+        File file = new File(dir, "participants_" + eventId + "_" + System.currentTimeMillis()
+                + "." + format.extension);
+        executor.execute(() -> runExport(eventId, format, file, callback));
+    }
+
+    /**
+     * Requests cancellation; the export stops after the current page.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Cancels any running export and releases the worker thread.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void runExport(String eventId, Format format, File file, Callback callback) {
+        long written = 0;
+        RowSink sink = null;
+
+        try {
+            long total = countRows(eventId);
+            sink = openSink(format, file);
+            sink.write(COLUMNS);
+
+            for (String source : SOURCES) {
+                DocumentSnapshot last = null;
+                while (true) {
+                    if (cancelled.get()) throw new InterruptedException("Export cancelled");
+
+                    Query page = db.collection("events").document(eventId)
+                            .collection(source)
+                            .orderBy(FieldPath.documentId())
+                            .limit(PAGE_SIZE);
+                    if (last != null) page = page.startAfter(last);
+
+                    List<DocumentSnapshot> docs = Tasks.await(fs.get(page)).getDocuments();
+                    if (docs.isEmpty()) break;
+
+                    Map<String, DocumentSnapshot> profiles = loadProfiles(docs);
+                    for (DocumentSnapshot doc : docs) {
+                        sink.write(toRow(source, doc, profiles.get(doc.getId())));
+                        written++;
+                    }
+
+                    final long done = written;
+                    main.post(() -> callback.onProgress(done, total));
+
+                    if (docs.size() < PAGE_SIZE) break;
+                    last = docs.get(docs.size() - 1);
+                }
+            }
+
+            sink.close();
+            sink = null;
+
+            final long finalRows = written;
+            main.post(() -> callback.onComplete(file, finalRows));
+
+        } catch (Exception e) {
+            closeQuietly(sink);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+
+            Exception cause = (e instanceof ExecutionException && e.getCause() instanceof Exception)
+                    ? (Exception) e.getCause() : e;
+            if (!(cause instanceof InterruptedException)) Log.e(TAG, "Participant export failed", cause);
+            main.post(() -> callback.onError(cause));
+        }
+    }
+
+    /**
+     * Counts rows across all exported subcollections with aggregate queries,
+     * which cost one read per 1000 entries instead of reading the documents.
+     *
+     * @return Total rows, or -1 if counting failed.
+     */
+    private long countRows(String eventId) {
+        long total = 0;
+        try {
+            for (String source : SOURCES) {
+                total += Tasks.await(db.collection("events").document(eventId)
+                        .collection(source)
+                        .count()
+                        .get(AggregateSource.SERVER)).getCount();
+            }
+            return total;
+        } catch (ExecutionException | InterruptedException e) {
+            Log.w(TAG, "Could not count participants", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the users/{uid} documents for one page of participants.
+     */
+    private Map<String, DocumentSnapshot> loadProfiles(List<DocumentSnapshot> docs)
+            throws ExecutionException, InterruptedException {
+        Map<String, DocumentSnapshot> profiles = new HashMap<>();
+        List<String> ids = new ArrayList<>(docs.size());
+        for (DocumentSnapshot doc : docs) ids.add(doc.getId());
+
+        for (int i = 0; i < ids.size(); i += PROFILE_CHUNK) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + PROFILE_CHUNK));
+            for (DocumentSnapshot user : Tasks.await(fs.get(db.collection("users")
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))))
+                    .getDocuments()) {
+                profiles.put(user.getId(), user);
+            }
+        }
+        return profiles;
+    }
+
+    private String[] toRow(String source, DocumentSnapshot doc, DocumentSnapshot user) {
+        String status;
+        Timestamp ts;
+        switch (source) {
+            case "waitlist":
+                status = doc.getString("state");
+                ts = doc.getTimestamp("joinedAt");
+                break;
+            case "invites":
+                status = doc.getString("status");
+                ts = doc.getTimestamp("invitedAt");
+                break;
+            case "registrations":
+                status = "registered";
+                ts = doc.getTimestamp("registeredAt");
+                break;
+            default:
+                status = doc.getString("reason");
+                ts = doc.getTimestamp("cancelledAt");
+                break;
+        }
+
+        return new String[]{
+                doc.getId(),
+                user != null ? user.getString("name") : null,
+                user != null ? user.getString("email") : null,
+                user != null ? user.getString("phone") : null,
+                source,
+                status,
+                ts != null ? isoUtc(ts.toDate()) : null
+        };
+    }
+
+    private static String isoUtc(Date date) {
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return fmt.format(date);
+    }
+
+    private static RowSink openSink(Format format, File file) throws IOException {
+        OutputStream stream = new FileOutputStream(file);
+
+        if (format == Format.COLUMNAR) {
+            ColumnarWriter writer = new ColumnarWriter(stream, COLUMNS);
+            return new RowSink() {
+                private boolean headerSkipped = false;
+
+                @Override
+                public void write(String[] row) throws IOException {
+                    // The schema already carries the column names
+                    if (!headerSkipped) {
+                        headerSkipped = true;
+                        return;
+                    }
+                    writer.writeRow(row);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+
+        CsvWriter writer = new CsvWriter(new BufferedWriter(new OutputStreamWriter(
+                new BufferedOutputStream(stream, 64 * 1024), StandardCharsets.UTF_8)));
+        return new RowSink() {
+            @Override
+            public void write(String[] row) throws IOException {
+                writer.writeRow(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    private static void closeQuietly(RowSink sink) {
+        if (sink == null) return;
+        try {
+            sink.close();
+        } catch (IOException ignored) {
+            // The partial file is deleted anyway
+        }
+    }
+
+    /**
+     * Builds a share intent for an exported file using the app's FileProvider.
+     *
+     * @param context Context used to resolve the FileProvider authority.
+     * @param file    Exported file.
+     * @param format  Format the file was written in.
+     * @return Chooser intent ready to be started.
+     */
+    public static Intent shareIntent(@NonNull Context context, @NonNull File file, @NonNull Format format) {
+        Uri uri = FileProvider.getUriForFile(
+                context,
+                context.getPackageName() + ".fileprovider",
+                file
+        );
+
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType(format.mimeType);
+        intent.putExtra(Intent.EXTRA_STREAM, uri);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+        return Intent.createChooser(intent, "Share Participant Export");
+    }
+}
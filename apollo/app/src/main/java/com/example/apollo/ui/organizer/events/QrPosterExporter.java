@@ -0,0 +1,316 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Typeface;
+import android.graphics.pdf.PdfDocument;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.FileProvider;
+
+import com.example.apollo.utils.QrModules;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * QrPosterExporter.java
+ *
+ * Purpose:
+ * Renders printable QR posters for one or many events into a single multi-page PDF.
+ * Each page holds the event title, date/location line and the QR symbol drawn as
+ * vector rectangles, so output stays sharp at any print size and no bitmaps are
+ * allocated no matter how many events are exported.
+ *
+ * Design:
+ * - QR encoding (the CPU-heavy part) runs on a small worker pool.
+ * - Pages are drawn in order on a single coordinator thread, because
+ *   {@link PdfDocument} is not thread-safe.
+ * - Only a bounded window of encoded posters is held at once, and the finished
+ *   document is written through a buffered stream into the target file.
+ *
+ * Notes:
+ * - Callbacks are always delivered on the main thread.
+ * - Call {@link #cancel()} to stop an export early; the partial file is deleted.
+ */
+public class QrPosterExporter {
+
+    private static final String TAG = "QrPosterExporter";
+
+    /** US Letter at 72 points per inch. */
+    private static final int PAGE_WIDTH = 612;
+    private static final int PAGE_HEIGHT = 792;
+    private static final int MARGIN = 54;
+
+    /** Modules of white space around the QR symbol, as required by the spec. */
+    private static final int QUIET_ZONE = 4;
+
+    /** Number of encoded posters allowed to wait for the PDF writer. */
+    private static final int WINDOW_PER_WORKER = 4;
+
+    /**
+     * Receives progress and results of an export. All methods run on the main thread.
+     */
+    public interface Callback {
+        void onProgress(int done, int total);
+        void onComplete(@NonNull File file, int pages);
+        void onError(@NonNull Exception e);
+    }
+
+    /**
+     * The data printed on one poster.
+     */
+    public static class Poster {
+        final String title;
+        final String subtitle;
+        final String qrValue;
+
+        /**
+         * @param title    Event title printed above the code.
+         * @param subtitle Secondary line (date, time, location); may be null.
+         * @param qrValue  Value encoded in the QR symbol.
+         */
+        public Poster(@Nullable String title, @Nullable String subtitle, @NonNull String qrValue) {
+            this.title = (title != null && !title.isEmpty()) ? title : "Untitled Event";
+            this.subtitle = subtitle;
+            this.qrValue = qrValue;
+        }
+
+        /**
+         * Builds a poster from an event document. Uses the stored "eventQR" value
+         * when present so printed codes match the one shown in the app, and falls
+         * back to the document ID for older events.
+         *
+         * @param doc Event document snapshot.
+         * @return Poster for this event.
+         */
+        public static Poster fromEvent(@NonNull DocumentSnapshot doc) {
+            String qr = doc.getString("eventQR");
+            if (qr == null || qr.isEmpty()) qr = doc.getId();
+
+            StringBuilder sub = new StringBuilder();
+            appendPart(sub, doc.getString("date"));
+            appendPart(sub, doc.getString("time"));
+            appendPart(sub, doc.getString("location"));
+
+            return new Poster(doc.getString("title"), sub.toString(), qr);
+        }
+
+        private static void appendPart(StringBuilder sb, @Nullable String part) {
+            if (part == null || part.trim().isEmpty()) return;
+            if (sb.length() > 0) sb.append(" \u2022 ");
+            sb.append(part.trim());
+        }
+    }
+
+    /** Encoded poster waiting to be drawn. */
+    private static class Encoded {
+        final Poster poster;
+        final int modules;
+        final int[] runs;
+
+        Encoded(Poster poster, int modules, int[] runs) {
+            this.poster = poster;
+            this.modules = modules;
+            this.runs = runs;
+        }
+    }
+
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final int workers;
+
+    /**
+     * Creates an exporter sized to the device's CPU count (between 2 and 4 workers).
+     */
+    public QrPosterExporter() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        this.workers = Math.max(2, Math.min(4, cpus));
+    }
+
+    /**
+     * Starts exporting the given posters into {@code outFile} in the background.
+     *
+     * @param posters  Posters to render, one page each, in order.
+     * @param outFile  Destination PDF file (overwritten).
+     * @param callback Receives progress, completion and errors on the main thread.
+     */
+    public void export(@NonNull List<Poster> posters, @NonNull File outFile, @NonNull Callback callback) {
+        cancelled.set(false);
+        Thread coordinator = new Thread(() -> runExport(posters, outFile, callback), TAG);
+        coordinator.start();
+    }
+
+    /**
+     * Requests cancellation of the running export.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Coordinator loop: keeps a bounded window of encode jobs in flight and draws
+     * each finished poster onto its own PDF page in submission order.
+     */
+    private void runExport(List<Poster> posters, File outFile, Callback callback) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        PdfDocument document = new PdfDocument();
+        ArrayDeque<Future<Encoded>> window = new ArrayDeque<>();
+        int total = posters.size();
+        int next = 0;
+        int pages = 0;
+
+        try {
+            Paint qrPaint = new Paint();
+            qrPaint.setColor(Color.BLACK);
+            qrPaint.setStyle(Paint.Style.FILL);
+            qrPaint.setAntiAlias(false);
+
+            TextPaint titlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+            titlePaint.setColor(Color.BLACK);
+            titlePaint.setTextSize(28f);
+            titlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+            titlePaint.setTextAlign(Paint.Align.CENTER);
+
+            TextPaint bodyPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+            bodyPaint.setColor(Color.DKGRAY);
+            bodyPaint.setTextSize(16f);
+            bodyPaint.setTextAlign(Paint.Align.CENTER);
+
+            int maxInFlight = workers * WINDOW_PER_WORKER;
+
+            while (pages < total) {
+                if (cancelled.get()) throw new InterruptedException("Export cancelled");
+
+                // Top up the encode window
+                while (next < total && window.size() < maxInFlight) {
+                    Poster poster = posters.get(next++);
+                    window.add(pool.submit(() -> {
+                        ByteMatrix matrix = QrModules.encode(poster.qrValue);
+                        return new Encoded(poster, matrix.getWidth(), QrModules.rowRuns(matrix));
+                    }));
+                }
+
+                Encoded encoded = window.poll().get();
+                pages++;
+                drawPage(document, pages, encoded, qrPaint, titlePaint, bodyPaint);
+
+                final int done = pages;
+                main.post(() -> callback.onProgress(done, total));
+            }
+
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile), 64 * 1024)) {
+                document.writeTo(out);
+            }
+
+            final int finalPages = pages;
+            main.post(() -> callback.onComplete(outFile, finalPages));
+
+        } catch (InterruptedException e) {
+            //noinspection ResultOfMethodCallIgnored
+            outFile.delete();
+            main.post(() -> callback.onError(e));
+        } catch (ExecutionException | IOException | RuntimeException e) {
+            Log.e(TAG, "Poster export failed", e);
+            //noinspection ResultOfMethodCallIgnored
+            outFile.delete();
+            Exception cause = (e instanceof ExecutionException && e.getCause() instanceof Exception)
+                    ? (Exception) e.getCause() : e;
+            main.post(() -> callback.onError(cause));
+        } finally {
+            for (Future<Encoded> f : window) f.cancel(true);
+            pool.shutdownNow();
+            document.close();
+        }
+    }
+
+    /**
+     * Draws one poster page: title, subtitle and the QR symbol centered below them.
+     */
+    private void drawPage(PdfDocument document, int pageNumber, Encoded encoded,
+                          Paint qrPaint, TextPaint titlePaint, TextPaint bodyPaint) {
+
+        PdfDocument.PageInfo info =
+                new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageNumber).create();
+        PdfDocument.Page page = document.startPage(info);
+        Canvas canvas = page.getCanvas();
+
+        float centerX = PAGE_WIDTH / 2f;
+        float textWidth = PAGE_WIDTH - 2f * MARGIN;
+
+        CharSequence title = TextUtils.ellipsize(encoded.poster.title, titlePaint, textWidth, TextUtils.TruncateAt.END);
+        canvas.drawText(title, 0, title.length(), centerX, MARGIN + 28f, titlePaint);
+
+        float y = MARGIN + 56f;
+        if (encoded.poster.subtitle != null && !encoded.poster.subtitle.isEmpty()) {
+            CharSequence sub = TextUtils.ellipsize(encoded.poster.subtitle, bodyPaint, textWidth, TextUtils.TruncateAt.END);
+            canvas.drawText(sub, 0, sub.length(), centerX, y, bodyPaint);
+        }
+
+        // QR symbol as one vector path, one rectangle per run of dark modules
+        float qrSize = textWidth;
+        float top = y + 32f;
+        float moduleSize = qrSize / (encoded.modules + 2 * QUIET_ZONE);
+        float originX = MARGIN + QUIET_ZONE * moduleSize;
+        float originY = top + QUIET_ZONE * moduleSize;
+
+        Path path = new Path();
+        int[] runs = encoded.runs;
+        for (int i = 0; i < runs.length; i += 3) {
+            float left = originX + runs[i + 1] * moduleSize;
+            float rowTop = originY + runs[i] * moduleSize;
+            path.addRect(left, rowTop, left + runs[i + 2] * moduleSize, rowTop + moduleSize, Path.Direction.CW);
+        }
+        canvas.drawPath(path, qrPaint);
+
+        canvas.drawText("Scan with the Apollo app to join the waitlist",
+                centerX, top + qrSize + 32f, bodyPaint);
+
+        document.finishPage(page);
+    }
+
+    /**
+     * Builds a share intent for an exported PDF using the app's FileProvider.
+     *
+     * @param context Context used to resolve the FileProvider authority.
+     * @param file    Exported PDF file.
+     * @return Chooser intent ready to be started.
+     */
+    public static Intent shareIntent(@NonNull Context context, @NonNull File file) {
+        Uri uri = FileProvider.getUriForFile(
+                context,
+                context.getPackageName() + ".fileprovider",
+                file
+        );
+
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("application/pdf");
+        intent.putExtra(Intent.EXTRA_STREAM, uri);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+        return Intent.createChooser(intent, "Share QR Posters");
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.NotificationInbox;
+import com.example.apollo.utils.SelectionPolicies;
+import com.example.apollo.utils.SelectionPolicy;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ReplacementDrawProcessor.java
+ *
+ * Purpose:
+ * Draws replacement entrants for invites that were declined or cancelled.
+ * Safe to run from several devices at once and any number of times: each
+ * invite is replaced exactly once.
+ *
+ * Design:
+ * - Lease: every unprocessed declined/cancelled invite is claimed in its own
+ *   transaction by writing {@code leaseOwner} and {@code leaseExpiresAt}.
+ *   Invites leased by another live worker are skipped; expired leases (e.g. a
+ *   worker that was killed) can be taken over.
+ * - Coalescing: all invites leased in one run are replaced by a single draw of
+ *   N winners, instead of N separate lotteries. The draw uses the event's
+ *   "lotteryPolicy", like the initial draw.
+ * - Commit: the draw is written in one transaction that re-checks the leases
+ *   and the winners' waitlist state. If a winner was taken in the meantime the
+ *   transaction aborts and the draw is retried with a fresh candidate pool.
+ *   On success every leased invite is marked {@code replacementProcessed}.
+ *
+ * - Trigger: a decline stamps the event's {@link #FIELD_RELEASED_AT}; once
+ *   a run has replaced every released invite it copies that value into
+ *   {@link #FIELD_CHECKED_AT}. Organizer devices schedule a run for events
+ *   where the two differ ({@link #needsRun}), so the draw runs on the
+ *   organizer's side, never on the entrant's device.
+ *
+ * Notes:
+ * - Blocks on Firestore tasks; call it from a background thread
+ *   ({@link ReplacementDrawWorker}).
+ * - Winner writes use the same layout as the main lottery ({@link LotteryRunner}).
+ */
+public class ReplacementDrawProcessor {
+
+    private static final String TAG = "ReplacementDraw";
+
+    /** Invite statuses that free up a spot. */
+    static final List<String> RELEASED_STATUSES = Arrays.asList("declined", "cancelled");
+
+    /** How long a claimed invite stays reserved for this worker. */
+    private static final long LEASE_MS = 2 * 60 * 1000;
+
+    /** Invites replaced per run; keeps the final transaction well under 500 writes. */
+    static final int MAX_INVITES_PER_RUN = 50;
+
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+
+    /** Event field stamped by every decline. */
+    public static final String FIELD_RELEASED_AT = "replacementsReleasedAt";
+
+    /** Event field holding the last {@link #FIELD_RELEASED_AT} fully processed. */
+    public static final String FIELD_CHECKED_AT = "replacementsCheckedAt";
+
+    /**
+     * Result of one processing run.
+     */
+    public static class Result {
+        /** Invites this run replaced. */
+        public final int invitesProcessed;
+        /** Replacement winners drawn (may be fewer if the pool ran out). */
+        public final int winnersDrawn;
+        /** True if more unprocessed invites were left for a later run. */
+        public final boolean hasMore;
+
+        Result(int invitesProcessed, int winnersDrawn, boolean hasMore) {
+            this.invitesProcessed = invitesProcessed;
+            this.winnersDrawn = winnersDrawn;
+            this.hasMore = hasMore;
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final InstrumentedFirestore fs = InstrumentedFirestore.forCaller(TAG);
+    private final String workerId = UUID.randomUUID().toString();
+
+    public ReplacementDrawProcessor(@NonNull FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * @param event Event document.
+     * @return True if a decline arrived after the last complete run.
+     */
+    public static boolean needsRun(@NonNull DocumentSnapshot event) {
+        Timestamp released = event.getTimestamp(FIELD_RELEASED_AT);
+        return released != null && !released.equals(event.getTimestamp(FIELD_CHECKED_AT));
+    }
+
+    /**
+     * Replaces every unprocessed declined/cancelled invite of an event.
+     *
+     * @param eventId Event ID.
+     * @return What was processed.
+     * @throws ExecutionException   If a Firestore call failed.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    @WorkerThread
+    public Result process(@NonNull String eventId) throws ExecutionException, InterruptedException {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        DocumentSnapshot event = Tasks.await(fs.get(eventRef));
+        if (!event.exists()) return new Result(0, 0, false);
+
+        String title = event.getString("title");
+        String eventName = (title != null && !title.isEmpty()) ? title : "Event";
+        String organizerId = event.getString("creatorId");
+        Timestamp releasedAt = event.getTimestamp(FIELD_RELEASED_AT);
+        // Replacements follow the policy of the event's own draw
+        LotteryRunner runner = new LotteryRunner(db,
+                SelectionPolicies.byName(event.getString("lotteryPolicy")), new SecureRandom().nextLong());
+
+        // Every invite ever sent: the released ones need replacing, and nobody
+        // who already holds an invite may be drawn again
+        Set<String> invitedIds = new HashSet<>();
+        List<DocumentReference> released = new ArrayList<>();
+        for (DocumentSnapshot invite : Tasks.await(fs.get(eventRef.collection("invites"))).getDocuments()) {
+            invitedIds.add(invite.getId());
+            boolean isReleased = RELEASED_STATUSES.contains(invite.getString("status"));
+            if (isReleased && !Boolean.TRUE.equals(invite.getBoolean("replacementProcessed"))) {
+                released.add(invite.getReference());
+            }
+        }
+        if (released.isEmpty()) {
+            markChecked(eventRef, releasedAt);
+            return new Result(0, 0, false);
+        }
+
+        boolean hasMore = released.size() > MAX_INVITES_PER_RUN;
+        List<DocumentReference> leased = new ArrayList<>();
+        for (DocumentReference inviteRef : released.subList(0, Math.min(released.size(), MAX_INVITES_PER_RUN))) {
+            if (acquireLease(inviteRef)) leased.add(inviteRef);
+        }
+        if (leased.isEmpty()) return new Result(0, 0, hasMore);
+
+        FirebaseFirestoreException lastFailure = null;
+        for (int attempt = 1; attempt <= MAX_COMMIT_ATTEMPTS; attempt++) {
+            List<SelectionPolicy.Entrant> pool = new ArrayList<>();
+            for (SelectionPolicy.Entrant entrant
+                    : Tasks.await(runner.loadEntrants(eventId, LotteryRunner.REPLACEMENT_POOL))) {
+                if (!invitedIds.contains(entrant.uid)) pool.add(entrant);
+            }
+            List<String> winners = runner.selectEntrants(pool, leased.size()).winners;
+
+            try {
+                Tasks.await(commitDraw(runner, eventId, eventName, organizerId, leased, winners));
+                Log.d(TAG, "Replaced " + leased.size() + " invite(s) with "
+                        + winners.size() + " winner(s) for " + eventId);
+                if (leased.size() == released.size()) markChecked(eventRef, releasedAt);
+                return new Result(leased.size(), winners.size(), hasMore);
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof FirebaseFirestoreException)
+                        || ((FirebaseFirestoreException) e.getCause()).getCode()
+                        != FirebaseFirestoreException.Code.FAILED_PRECONDITION) {
+                    throw e;
+                }
+                // A winner changed state or a lease was lost; draw again
+                lastFailure = (FirebaseFirestoreException) e.getCause();
+                Log.w(TAG, "Replacement draw attempt " + attempt + " was stale", lastFailure);
+            }
+        }
+        throw new ExecutionException(lastFailure);
+    }
+
+    /**
+     * Records that every decline up to {@code releasedAt} was replaced,
+     * unless another decline arrived since the event was read.
+     */
+    private void markChecked(DocumentReference eventRef, Timestamp releasedAt)
+            throws ExecutionException, InterruptedException {
+        if (releasedAt == null) return;
+        Tasks.await(fs.runTransaction(tx -> {
+            DocumentSnapshot current = tx.get(eventRef);
+            if (releasedAt.equals(current.getTimestamp(FIELD_RELEASED_AT))) {
+                tx.update(eventRef, FIELD_CHECKED_AT, releasedAt);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Claims an invite for this worker.
+     *
+     * @return True if the lease is held; false if the invite is already
+     *         processed or leased by another live worker.
+     */
+    private boolean acquireLease(DocumentReference inviteRef) throws ExecutionException, InterruptedException {
+        return Tasks.await(fs.runTransaction(tx -> {
+            DocumentSnapshot invite = tx.get(inviteRef);
+            if (!invite.exists() || Boolean.TRUE.equals(invite.getBoolean("replacementProcessed"))) {
+                return false;
+            }
+
+            String owner = invite.getString("leaseOwner");
+            Timestamp expires = invite.getTimestamp("leaseExpiresAt");
+            boolean leasedByOther = owner != null && !owner.equals(workerId)
+                    && expires != null && expires.toDate().getTime() > System.currentTimeMillis();
+            if (leasedByOther) return false;
+
+            Map<String, Object> lease = new HashMap<>();
+            lease.put("leaseOwner", workerId);
+            lease.put("leaseExpiresAt", new Timestamp(new Date(System.currentTimeMillis() + LEASE_MS)));
+            tx.update(inviteRef, lease);
+            return true;
+        }));
+    }
+
+    /**
+     * Writes the winners and closes the leased invites in one transaction.
+     * Fails with FAILED_PRECONDITION if a lease was lost or a winner is no
+     * longer eligible.
+     */
+    private Task<Void> commitDraw(LotteryRunner runner, String eventId, String eventName, String organizerId,
+                                  List<DocumentReference> leased, List<String> winners) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        return fs.runTransaction(tx -> {
+            // All reads first, as transactions require
+            for (DocumentReference inviteRef : leased) {
+                DocumentSnapshot invite = tx.get(inviteRef);
+                if (!workerId.equals(invite.getString("leaseOwner"))
+                        || Boolean.TRUE.equals(invite.getBoolean("replacementProcessed"))) {
+                    throw new FirebaseFirestoreException("Lease lost on " + inviteRef.getId(),
+                            FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+                }
+            }
+            for (String uid : winners) {
+                DocumentSnapshot wl = tx.get(eventRef.collection("waitlist").document(uid));
+                DocumentSnapshot existingInvite = tx.get(eventRef.collection("invites").document(uid));
+                if (!LotteryRunner.REPLACEMENT_POOL.contains(wl.getString("state")) || existingInvite.exists()) {
+                    throw new FirebaseFirestoreException("Candidate " + uid + " is no longer eligible",
+                            FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+                }
+            }
+
+            LotteryRunner.DocWriter txWriter = (ref, data, merge) -> {
+                if (merge) tx.set(ref, data, SetOptions.merge());
+                else tx.set(ref, data);
+            };
+
+            String owner = organizerId != null && !organizerId.isEmpty() ? organizerId : "unknown";
+            for (String uid : winners) {
+                runner.writeWinner(txWriter, eventId, eventName, owner, uid);
+            }
+
+            for (int i = 0; i < leased.size(); i++) {
+                Map<String, Object> done = new HashMap<>();
+                done.put("replacementProcessed", true);
+                done.put("replacementDrawnAt", FieldValue.serverTimestamp());
+                done.put("replacementUid", i < winners.size() ? winners.get(i) : null);
+                done.put("leaseOwner", FieldValue.delete());
+                done.put("leaseExpiresAt", FieldValue.delete());
+                tx.update(leased.get(i), done);
+            }
+
+            if (!winners.isEmpty()) {
+                Map<String, Object> counters = new HashMap<>();
+                counters.put("invitedCount", FieldValue.increment(winners.size()));
+                tx.set(eventRef, counters, SetOptions.merge());
+            }
+
+            // One organizer notification per coalesced draw
+            if (organizerId != null && !organizerId.isEmpty() && !winners.isEmpty()) {
+                Map<String, Object> orgNotif = new HashMap<>();
+                orgNotif.put("type", "replacement_drawn");
+                orgNotif.put("eventId", eventId);
+                orgNotif.put("title", "Replacement entrant drawn");
+                orgNotif.put("message", winners.size() == 1
+                        ? "A replacement entrant was drawn automatically for \"" + eventName + "\"."
+                        : winners.size() + " replacement entrants were drawn automatically for \""
+                        + eventName + "\".");
+                orgNotif.put("createdAt", FieldValue.serverTimestamp());
+                orgNotif.put("read", false);
+                tx.set(db.collection("users").document(organizerId)
+                        .collection("notifications").document(), orgNotif);
+                tx.set(NotificationInbox.stateRef(db, organizerId),
+                        NotificationInbox.unreadDelta(1), SetOptions.merge());
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReplacementDrawWorker.java
+ *
+ * Purpose:
+ * Runs {@link ReplacementDrawProcessor} for one event in the background, so
+ * replacements are drawn even when no organizer has the event open.
+ *
+ * Design:
+ * - Enqueued as unique work per event and kept if already enqueued or
+ *   running, so several declines collapse into one run: the processor reads
+ *   every pending decline, and a run keeps processing until a pass finds
+ *   nothing new, which covers declines that land while it is running.
+ * - Requires a network connection and retries with exponential backoff.
+ *
+ * Notes:
+ * - Enqueued from the organizer's devices ({@link #ensureScheduled}, the
+ *   event screen); the processor's leases make concurrent runs on different
+ *   devices safe.
+ */
+public class ReplacementDrawWorker extends Worker {
+
+    private static final String TAG = "ReplacementDrawWorker";
+
+    static final String KEY_EVENT_ID = "eventId";
+
+    /** Wait before running so declines arriving close together share one draw. */
+    private static final long COALESCE_DELAY_SEC = 10;
+
+    public ReplacementDrawWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules a replacement draw for an event.
+     *
+     * @param context Any context.
+     * @param eventId Event whose declined/cancelled invites should be replaced.
+     */
+    public static void enqueue(@NonNull Context context, @NonNull String eventId) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ReplacementDrawWorker.class)
+                .setInputData(new Data.Builder().putString(KEY_EVENT_ID, eventId).build())
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(COALESCE_DELAY_SEC, TimeUnit.SECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork("replacement-draw-" + eventId,
+                        ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Schedules a replacement draw for every event with unprocessed declines.
+     *
+     * @param context Any context.
+     * @param events  Event documents, e.g. the organizer's event list.
+     */
+    public static void ensureScheduled(@NonNull Context context, @NonNull List<DocumentSnapshot> events) {
+        for (DocumentSnapshot event : events) {
+            if (ReplacementDrawProcessor.needsRun(event)) enqueue(context, event.getId());
+        }
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String eventId = getInputData().getString(KEY_EVENT_ID);
+        if (eventId == null || eventId.isEmpty()) return Result.failure();
+
+        try {
+            ReplacementDrawProcessor processor = new ReplacementDrawProcessor(FirebaseFirestore.getInstance());
+            ReplacementDrawProcessor.Result result;
+            do {
+                // Declines that arrive during a pass were ignored by enqueue, so pass again
+                result = processor.process(eventId);
+            } while (result.invitesProcessed > 0 && !isStopped());
+
+            if (result.hasMore) {
+                // Leftover invites get their own run once this one finishes
+                return Result.retry();
+            }
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Replacement draw failed for " + eventId, e);
+            return Result.retry();
+        }
+    }
+}
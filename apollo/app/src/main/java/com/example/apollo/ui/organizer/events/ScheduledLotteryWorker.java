@@ -0,0 +1,136 @@
+package com.example.apollo.ui.organizer.events;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.apollo.utils.DrawSchedule;
+import com.example.apollo.utils.SelectionPolicies;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ScheduledLotteryWorker.java
+ *
+ * Purpose:
+ * Runs an event's initial lottery without the organizer, once registration
+ * has closed. Scheduled by {@link LotteryScheduler}.
+ *
+ * Design:
+ * - Draws as many winners as the event's capacity, through
+ *   {@link LotteryRunner#runInitialDraw}, exactly like the manual button,
+ *   with the event's "lotteryPolicy" (uniform if unset) and a fresh seed.
+ * - Claims the draw first ({@link LotteryScheduler#claim}): the event must
+ *   not be drawn yet and no other run may hold an unexpired lease, so a job
+ *   on another device, or the organizer's button, cannot draw it twice.
+ * - Records every step in the event's "lotteryJob" map: running, then done
+ *   with the number of winners, or failed with the error.
+ * - Retries with exponential backoff up to {@link #MAX_ATTEMPTS} runs, then
+ *   leaves the event as failed for the organizer to draw by hand.
+ */
+public class ScheduledLotteryWorker extends Worker {
+
+    private static final String TAG = "ScheduledLotteryWorker";
+
+    static final String KEY_EVENT_ID = "eventId";
+
+    /** Runs before the job is given up and marked failed. */
+    static final int MAX_ATTEMPTS = 5;
+
+    public ScheduledLotteryWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String eventId = getInputData().getString(KEY_EVENT_ID);
+        if (eventId == null || eventId.isEmpty()) return Result.failure();
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference eventRef = db.collection("events").document(eventId);
+
+        try {
+            DocumentSnapshot event = Tasks.await(eventRef.get());
+            if (!event.exists()) return Result.success();
+
+            if (Boolean.TRUE.equals(event.getBoolean("lotteryDone"))) {
+                // Drawn by hand in the meantime, unless another device's job drew it
+                if (!LotteryScheduler.STATE_DONE.equals(event.getString(LotteryScheduler.FIELD + ".state"))) {
+                    LotteryScheduler.clearState(db, eventId);
+                }
+                return Result.success();
+            }
+
+            long closeAt = DrawSchedule.closeTime(
+                    event.getString("registrationClose"), event.getString("time"));
+            if (closeAt > System.currentTimeMillis()) {
+                // Registration was extended; saving the event scheduled a later run
+                Log.d(TAG, "Registration still open for " + eventId + ", skipping");
+                return Result.success();
+            }
+
+            Long capacity = event.getLong("eventCapacity");
+            if (capacity == null || capacity <= 0) {
+                fail(db, eventId, "event has no capacity");
+                return Result.failure();
+            }
+
+            if (!Tasks.await(LotteryScheduler.claim(db, eventId, false))) {
+                Log.d(TAG, "Draw for " + eventId + " already claimed");
+                return Result.success();
+            }
+
+            String title = event.getString("title");
+            String organizerId = event.getString("creatorId");
+            LotteryRunner runner = new LotteryRunner(db,
+                    SelectionPolicies.byName(event.getString("lotteryPolicy")),
+                    new SecureRandom().nextLong());
+            LotteryRunner.Outcome outcome = Tasks.await(runner.runInitialDraw(
+                    eventId,
+                    title != null && !title.isEmpty() ? title : "Event",
+                    organizerId != null ? organizerId : "scheduler",
+                    (int) Math.min(capacity, Integer.MAX_VALUE)));
+
+            if (outcome.winners.isEmpty()) {
+                // Nothing to draw yet; the event stays open for a manual run
+                fail(db, eventId, "waitlist was empty");
+                return Result.success();
+            }
+
+            Map<String, Object> done = new HashMap<>();
+            done.put("winners", outcome.winners.size());
+            done.put("finishedAt", FieldValue.serverTimestamp());
+            LotteryScheduler.writeState(db, eventId, LotteryScheduler.STATE_DONE, -1, done);
+
+            Log.d(TAG, "Drew " + outcome.winners.size() + " winners for " + eventId);
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Scheduled draw failed for " + eventId, e);
+            if (getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+                fail(db, eventId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                return Result.failure();
+            }
+            // Give up the lease so the retry can claim the draw again
+            LotteryScheduler.writeState(db, eventId, LotteryScheduler.STATE_SCHEDULED, -1,
+                    Collections.singletonMap("leaseUntil", FieldValue.delete()));
+            return Result.retry();
+        }
+    }
+
+    private static void fail(FirebaseFirestore db, String eventId, String error) {
+        LotteryScheduler.writeState(db, eventId, LotteryScheduler.STATE_FAILED, -1,
+                Collections.singletonMap("error", error));
+    }
+}
@@ -11,6 +11,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.Navigation;
 
+import com.example.apollo.data.InstrumentedFirestore;
 import com.example.apollo.databinding.FragmentEditProfileOrganizerBinding;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -39,6 +40,7 @@ public class EditProfileFragment extends Fragment {
 
     private FragmentEditProfileOrganizerBinding binding;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseUser currentUser;
 
     /**
@@ -60,6 +62,7 @@ public class EditProfileFragment extends Fragment {
         View root = binding.getRoot();
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/edit-profile");
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         // Load profile information if user is signed in
@@ -82,7 +85,7 @@ public class EditProfileFragment extends Fragment {
      */
     private void loadUserProfile() {
         DocumentReference docRef = db.collection("Organizers").document(currentUser.getUid());
-        docRef.get().addOnSuccessListener(documentSnapshot -> {
+        fs.get(docRef).addOnSuccessListener(documentSnapshot -> {
             if (documentSnapshot.exists()) {
                 binding.editName.setText(documentSnapshot.getString("name"));
                 binding.editUsername.setText(documentSnapshot.getString("username"));
@@ -113,8 +116,7 @@ public class EditProfileFragment extends Fragment {
         user.put("email", email);
         user.put("phone", phone);
 
-        db.collection("Organizers").document(currentUser.getUid())
-                .set(user)
+        fs.set(db.collection("Organizers").document(currentUser.getUid()), user)
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(getContext(), "Profile updated successfully", Toast.LENGTH_SHORT).show();
                     Navigation.findNavController(binding.getRoot()).navigateUp();
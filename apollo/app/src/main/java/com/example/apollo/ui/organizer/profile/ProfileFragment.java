@@ -13,6 +13,8 @@ import androidx.navigation.Navigation;
 
 import com.example.apollo.R;
 import com.example.apollo.ui.login.LoginActivity;
+import com.example.apollo.data.InstrumentedFirestore;
+import com.example.apollo.data.ListenerRegistry;
 import com.example.apollo.databinding.FragmentProfileOrganizerBinding;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -31,13 +33,14 @@ import com.google.firebase.firestore.FirebaseFirestore;
  * Retrieves user data from Firestore (Model) and displays it in the layout (View).
  *
  * Notes:
- * - Uses a Firestore snapshot listener for real-time updates.
+ * - Uses a Firestore snapshot listener for real-time updates, removed with the view.
  * - Clears the activity stack after logout to prevent navigation back.
  */
 public class ProfileFragment extends Fragment {
 
     private FragmentProfileOrganizerBinding binding;
     private FirebaseFirestore db;
+    private InstrumentedFirestore fs;
     private FirebaseUser currentUser;
 
     /**
@@ -57,6 +60,7 @@ public class ProfileFragment extends Fragment {
         View root = binding.getRoot();
 
         db = FirebaseFirestore.getInstance();
+        fs = InstrumentedFirestore.forScreen("organizer/profile");
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         // Load profile info if user is signed in
@@ -79,8 +83,8 @@ public class ProfileFragment extends Fragment {
      */
     private void loadUserProfile() {
         DocumentReference docRef = db.collection("Organizers").document(currentUser.getUid());
-        docRef.addSnapshotListener((snapshot, e) -> {
-            if (e != null) {
+        ListenerRegistry.getInstance().listen(getViewLifecycleOwner(), fs, docRef, (snapshot, e) -> {
+            if (e != null || binding == null) {
                 return; // Stop if there's an error
             }
 
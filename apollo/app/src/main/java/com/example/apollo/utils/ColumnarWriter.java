@@ -0,0 +1,144 @@
+package com.example.apollo.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ColumnarWriter.java
+ *
+ * Compact, column-oriented export format for large participant lists, in the
+ * spirit of Parquet row groups but with no dependencies.
+ *
+ * Layout (everything inside one gzip stream):
+ * <pre>
+ *   "APCOL1"                         magic
+ *   int columnCount, UTF name * n    schema
+ *   repeated row groups:
+ *     int rowCount                   (0 marks the end of the file)
+ *     per column:
+ *       int dictSize, UTF value * d  distinct values in this group
+ *       varint index * rowCount      each row's value as a dictionary index
+ * </pre>
+ *
+ * Low-cardinality columns such as status collapse to a few bytes per group.
+ * Only one row group is buffered at a time, so memory stays bounded no matter
+ * how many rows are written. Null values are stored as empty strings.
+ */
+public class ColumnarWriter implements Closeable {
+
+    public static final String MAGIC = "APCOL1";
+
+    /** Default number of rows buffered before a group is flushed. */
+    public static final int DEFAULT_ROW_GROUP_SIZE = 4096;
+
+    private final DataOutputStream out;
+    private final int columnCount;
+    private final int rowGroupSize;
+    private final List<String[]> group;
+    private long rows = 0;
+
+    /**
+     * @param target       Destination stream (closed by {@link #close()}).
+     * @param columns      Column names.
+     * @param rowGroupSize Rows per group.
+     * @throws IOException if the header cannot be written.
+     */
+    public ColumnarWriter(OutputStream target, String[] columns, int rowGroupSize) throws IOException {
+        if (rowGroupSize < 1) throw new IllegalArgumentException("rowGroupSize must be positive");
+
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(target, 64 * 1024)));
+        this.columnCount = columns.length;
+        this.rowGroupSize = rowGroupSize;
+        this.group = new ArrayList<>(rowGroupSize);
+
+        out.writeBytes(MAGIC);
+        out.writeInt(columnCount);
+        for (String name : columns) out.writeUTF(name);
+    }
+
+    /**
+     * @param target  Destination stream.
+     * @param columns Column names.
+     * @throws IOException if the header cannot be written.
+     */
+    public ColumnarWriter(OutputStream target, String[] columns) throws IOException {
+        this(target, columns, DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    /**
+     * Adds one row, flushing a row group when it is full.
+     *
+     * @param values One value per column.
+     * @throws IOException if a row group cannot be written.
+     */
+    public void writeRow(String... values) throws IOException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values, got " + values.length);
+        }
+        group.add(values.clone());
+        rows++;
+        if (group.size() >= rowGroupSize) flushGroup();
+    }
+
+    /** @return Number of rows written so far. */
+    public long getRowCount() {
+        return rows;
+    }
+
+    private void flushGroup() throws IOException {
+        if (group.isEmpty()) return;
+
+        out.writeInt(group.size());
+        for (int c = 0; c < columnCount; c++) {
+            Map<String, Integer> dict = new HashMap<>();
+            List<String> values = new ArrayList<>();
+            int[] indices = new int[group.size()];
+
+            for (int r = 0; r < group.size(); r++) {
+                String v = group.get(r)[c];
+                if (v == null) v = "";
+                Integer idx = dict.get(v);
+                if (idx == null) {
+                    idx = values.size();
+                    dict.put(v, idx);
+                    values.add(v);
+                }
+                indices[r] = idx;
+            }
+
+            out.writeInt(values.size());
+            for (String v : values) out.writeUTF(v);
+            for (int idx : indices) writeVarInt(idx);
+        }
+        group.clear();
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Flushes the last row group, writes the end marker and closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushGroup();
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.apollo.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CsvWriter.java
+ *
+ * Minimal streaming CSV writer that follows RFC 4180:
+ * - Records end with CRLF.
+ * - Fields containing a comma, double quote, CR or LF are wrapped in double
+ *   quotes, and embedded double quotes are doubled.
+ * - Null fields are written as empty fields.
+ *
+ * Rows go straight to the underlying {@link Writer}, so memory use does not
+ * depend on how many rows are written. Wrap the target in a buffered stream.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private final Writer out;
+    private long rows = 0;
+
+    /**
+     * @param out Destination for the CSV text.
+     */
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @param fields Field values in column order; nulls become empty fields.
+     * @throws IOException if the underlying writer fails.
+     */
+    public void writeRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write(',');
+            writeField(fields[i]);
+        }
+        out.write("\r\n");
+        rows++;
+    }
+
+    /** @return Number of records written so far, including any header. */
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Escapes a single field according to RFC 4180.
+     *
+     * @param field Raw value, may be null.
+     * @return The value as it should appear in the file.
+     */
+    public static String escape(String field) {
+        if (field == null) return "";
+        if (!needsQuoting(field)) return field;
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) return;
+        if (!needsQuoting(field)) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static boolean needsQuoting(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
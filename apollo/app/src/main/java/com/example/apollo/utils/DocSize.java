@@ -0,0 +1,80 @@
+package com.example.apollo.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DocSize.java
+ *
+ * Estimates how many bytes a Firestore document takes, using Firestore's
+ * storage size rules:
+ * - document name: each path segment's UTF-8 length + 1, plus 16
+ * - field name: UTF-8 length + 1
+ * - string: UTF-8 length + 1; boolean and null: 1; number and date: 8
+ * - array / map: sum of their elements (and field names)
+ * - plus 32 bytes per document
+ *
+ * Firebase value types that this pure-Java class cannot see (Timestamp,
+ * GeoPoint, DocumentReference, Blob) are counted as {@link #OTHER_VALUE}
+ * bytes, so the result is an estimate of what is streamed to the device.
+ */
+public final class DocSize {
+
+    /** Bytes counted for values of a type this class does not know. */
+    public static final int OTHER_VALUE = 16;
+
+    private DocSize() {}
+
+    /**
+     * @param path Document path, e.g. "events/abc/waitlist/uid"; may be null.
+     * @param data Document fields; may be null for a missing document.
+     * @return Estimated size in bytes.
+     */
+    public static long of(String path, Map<String, Object> data) {
+        long size = nameSize(path) + 32;
+        if (data != null) size += fieldsSize(data);
+        return size;
+    }
+
+    /**
+     * @param path Document path; may be null.
+     * @return Size of the document name.
+     */
+    public static long nameSize(String path) {
+        long size = 16;
+        if (path == null || path.isEmpty()) return size;
+        for (String segment : path.split("/")) {
+            size += utf8(segment) + 1;
+        }
+        return size;
+    }
+
+    private static long fieldsSize(Map<?, ?> fields) {
+        long size = 0;
+        for (Map.Entry<?, ?> e : fields.entrySet()) {
+            size += utf8(String.valueOf(e.getKey())) + 1;
+            size += valueSize(e.getValue());
+        }
+        return size;
+    }
+
+    private static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof Number || value instanceof Date) return 8;
+        if (value instanceof String) return utf8((String) value) + 1;
+        if (value instanceof byte[]) return ((byte[]) value).length;
+        if (value instanceof Map) return fieldsSize((Map<?, ?>) value);
+        if (value instanceof List) {
+            long size = 0;
+            for (Object item : (List<?>) value) size += valueSize(item);
+            return size;
+        }
+        return OTHER_VALUE;
+    }
+
+    private static int utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.apollo.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DrawSchedule.java
+ *
+ * When an event's automatic lottery runs. Registration closes at the event's
+ * time of day on its registrationClose date ("MM/dd/yyyy" plus "hh:mm a"),
+ * the same rule the organizer screen uses to enable the lottery button; an
+ * event without a valid time closes at the end of that day.
+ *
+ * Each event's draw is pushed back by a jitter of up to {@link #MAX_JITTER_MS}
+ * so events that close at the same moment (typically midnight) do not all
+ * hit Firestore and send their notifications at once. The jitter is derived
+ * from the event ID, so rescheduling an event gives the same run time on
+ * every device.
+ */
+public final class DrawSchedule {
+
+    /** Latest a draw runs after registration closes. */
+    public static final long MAX_JITTER_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final ThreadLocal<SimpleDateFormat> DATE_TIME =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("MM/dd/yyyy hh:mm a", Locale.US));
+
+    private DrawSchedule() {}
+
+    /**
+     * @param registrationClose Close date as MM/dd/yyyy (may be null).
+     * @param time              Event time as "hh:mm AM" (may be null).
+     * @return Epoch millis at which registration closes, or -1 if the date
+     *         is missing or malformed.
+     */
+    public static long closeTime(String registrationClose, String time) {
+        Date day = EventDates.parse(registrationClose);
+        if (day == null) return -1;
+
+        if (time != null && !time.trim().isEmpty()) {
+            try {
+                return DATE_TIME.get().parse(registrationClose + " " + time.trim()).getTime();
+            } catch (ParseException ignored) {
+                // Fall through to the end of the day
+            }
+        }
+        return day.getTime() + TimeUnit.DAYS.toMillis(1);
+    }
+
+    /**
+     * @param eventId Event ID.
+     * @return Delay in [0, {@link #MAX_JITTER_MS}) added to the event's draw.
+     */
+    public static long jitterMs(String eventId) {
+        // Spread the bits of String.hashCode, which is close to sequential
+        // for IDs that differ only in their last characters
+        int h = eventId.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, MAX_JITTER_MS);
+    }
+
+    /**
+     * @param closeMillis Registration close time.
+     * @param eventId     Event ID.
+     * @param nowMillis   Current time.
+     * @return When the draw should run: the close time plus jitter, or now
+     *         plus jitter if registration has already closed.
+     */
+    public static long runAt(long closeMillis, String eventId, long nowMillis) {
+        return Math.max(closeMillis, nowMillis) + jitterMs(eventId);
+    }
+}
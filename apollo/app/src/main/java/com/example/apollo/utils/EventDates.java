@@ -0,0 +1,80 @@
+package com.example.apollo.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * EventDates.java
+ *
+ * Parsing for the "MM/dd/yyyy" date strings stored on events
+ * (registrationOpen, registrationClose, date), shared by the home feed, the
+ * profile tabs and the JVM benchmarks.
+ *
+ * SimpleDateFormat is expensive to create and not thread-safe, so one
+ * instance is kept per thread instead of building a new one for every event.
+ * Dates are always parsed with {@link Locale#US}: they are stored with ASCII
+ * digits regardless of the device locale.
+ */
+public final class EventDates {
+
+    /** Format used for event dates in Firestore. */
+    public static final String PATTERN = "MM/dd/yyyy";
+
+    private static final ThreadLocal<SimpleDateFormat> FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat(PATTERN, Locale.US));
+
+    private EventDates() {}
+
+    /**
+     * Parses an event date.
+     *
+     * @param value Date formatted as MM/dd/yyyy; may be null or empty.
+     * @return The date at local midnight, or null if missing or malformed.
+     */
+    public static Date parse(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return FORMAT.get().parse(value);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats a date the way events store it.
+     *
+     * @param date Date to format.
+     * @return Date formatted as MM/dd/yyyy.
+     */
+    public static String format(Date date) {
+        return FORMAT.get().format(date);
+    }
+
+    /** @return Today's date at local midnight. */
+    public static Date today() {
+        Date today = parse(format(new Date()));
+        return today != null ? today : new Date();
+    }
+
+    /**
+     * @param value Date formatted as MM/dd/yyyy.
+     * @return true if the date is after the current time; false if it is
+     *         missing or malformed.
+     */
+    public static boolean isFuture(String value) {
+        Date date = parse(value);
+        return date != null && date.after(new Date());
+    }
+
+    /**
+     * @param value Date formatted as MM/dd/yyyy.
+     * @return true if the date is before the current time; false if it is
+     *         missing or malformed.
+     */
+    public static boolean isPast(String value) {
+        Date date = parse(value);
+        return date != null && date.before(new Date());
+    }
+}
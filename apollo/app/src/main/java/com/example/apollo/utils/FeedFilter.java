@@ -0,0 +1,108 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * FeedFilter.java
+ *
+ * The entrant home feed's filter criteria (open/closed status, title,
+ * location, date and categories) and the rule that decides whether an event
+ * is shown. Kept free of Android classes so the same evaluation runs in
+ * HomeFragment and in the JVM benchmarks.
+ *
+ * Keywords are lower-cased once when the filter is built; each event's title
+ * and location are lower-cased at most once per evaluation.
+ */
+public final class FeedFilter {
+
+    /**
+     * What the filter needs to know about an event.
+     */
+    public interface Item {
+        /** @return Event title (may be null). */
+        String getTitle();
+
+        /** @return Event location (may be null). */
+        String getLocation();
+
+        /** @return true if registration is considered open. */
+        boolean isOpen();
+
+        /** @return true if registration is considered closed. */
+        boolean isClosed();
+
+        /**
+         * @param date Date to check.
+         * @return true if the date falls within the registration period.
+         */
+        boolean isAvailableOn(Date date);
+
+        /** @return Category labels of the event (may be null). */
+        List<String> getCategories();
+    }
+
+    private final boolean showOpen;
+    private final boolean showClosed;
+    private final String titleKeyword;
+    private final String locationKeyword;
+    private final Date date;
+    private final List<String> categories;
+
+    /**
+     * @param showOpen        Show events with open registration.
+     * @param showClosed      Show events with closed registration.
+     *                        If neither is set, both are shown.
+     * @param titleKeyword    Substring the title must contain; empty or null for any.
+     * @param locationKeyword Substring the location must contain; empty or null for any.
+     * @param date            Date the registration period must include, or null.
+     * @param categories      Categories of which the event needs at least one;
+     *                        empty or null for any.
+     */
+    public FeedFilter(boolean showOpen, boolean showClosed, String titleKeyword,
+                      String locationKeyword, Date date, List<String> categories) {
+        this.showOpen = showOpen;
+        this.showClosed = showClosed;
+        this.titleKeyword = titleKeyword == null ? "" : titleKeyword.toLowerCase();
+        this.locationKeyword = locationKeyword == null ? "" : locationKeyword.toLowerCase();
+        this.date = date;
+        this.categories = categories == null
+                ? Collections.emptyList()
+                : new ArrayList<>(categories);
+    }
+
+    /**
+     * Decides whether an event is shown.
+     *
+     * @param e Event to check.
+     * @return true if it passes every active criterion.
+     */
+    public boolean matches(Item e) {
+        if (showOpen || showClosed) {
+            boolean status = (showOpen && e.isOpen()) || (showClosed && e.isClosed());
+            if (!status) return false;
+        }
+
+        if (!titleKeyword.isEmpty() && !contains(e.getTitle(), titleKeyword)) return false;
+        if (!locationKeyword.isEmpty() && !contains(e.getLocation(), locationKeyword)) return false;
+
+        if (date != null && !e.isAvailableOn(date)) return false;
+
+        if (!categories.isEmpty()) {
+            List<String> eventCategories = e.getCategories();
+            if (eventCategories == null || eventCategories.isEmpty()) return false;
+
+            for (String c : categories) {
+                if (eventCategories.contains(c)) return true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(String value, String lowerKeyword) {
+        return value != null && value.toLowerCase().contains(lowerKeyword);
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * FeedSearchIndex.java
+ *
+ * In-memory full-text index over the events of the entrant home feed.
+ * Each event is indexed by the words of its title, description, location
+ * and categories, normalized the same way as {@link SearchTokens#words}.
+ *
+ * A query matches an event when every query word is a prefix of one of its
+ * words, so results update as the user types. Terms are kept in sorted order,
+ * which turns a prefix into one range of the term dictionary; only the
+ * posting lists of those terms are read, never the whole event list.
+ *
+ * Matches are ranked with BM25F: term frequencies are weighted per field
+ * (a title hit counts more than a description hit) and normalized by field
+ * length, and rarer words score higher. A query word that is only a prefix
+ * of an event's word scores {@link #PREFIX_WEIGHT} of an exact match.
+ *
+ * Events are added, replaced and removed one at a time; re-adding an event
+ * with unchanged text does nothing. Not thread-safe.
+ */
+public final class FeedSearchIndex {
+
+    /** Indexed fields: title, description, location, categories. */
+    private static final int FIELDS = 4;
+
+    /** Weight of a term occurrence in each field, in the order above. */
+    static final float[] FIELD_WEIGHTS = {3.0f, 1.0f, 1.5f, 2.0f};
+
+    /** BM25 term frequency saturation. */
+    static final float K1 = 1.2f;
+
+    /** BM25 length normalization strength. */
+    static final float B = 0.75f;
+
+    /** Score multiplier for a query word that is only a prefix of the event's word. */
+    static final float PREFIX_WEIGHT = 0.6f;
+
+    /** One indexed event. */
+    private static final class Doc {
+        final String id;
+        final String signature;
+        final int[] lengths;
+        final String[] terms;
+
+        Doc(String id, String signature, int[] lengths, String[] terms) {
+            this.id = id;
+            this.signature = signature;
+            this.lengths = lengths;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Events holding one term, with the term's occurrences per field packed
+     * one byte per field (capped at 255).
+     */
+    private static final class Posting {
+        int[] docs = new int[2];
+        int[] counts = new int[2];
+        int size;
+
+        void add(int doc, int packedCounts) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            docs[size] = doc;
+            counts[size] = packedCounts;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] != doc) continue;
+                size--;
+                docs[i] = docs[size];
+                counts[i] = counts[size];
+                return;
+            }
+        }
+    }
+
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final ArrayDeque<Integer> freeNumbers = new ArrayDeque<>();
+    private final long[] totalLengths = new long[FIELDS];
+
+    /** Field lengths of every event number, {@link #FIELDS} entries each, read while scoring. */
+    private int[] fieldLengths = new int[0];
+
+    /** @return Number of indexed events. */
+    public int size() {
+        return numbers.size();
+    }
+
+    /** @return Number of distinct indexed terms. */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * @param id Event ID.
+     * @return True if the event is indexed.
+     */
+    public boolean contains(String id) {
+        return numbers.containsKey(id);
+    }
+
+    /**
+     * Adds an event, or replaces it if its text changed.
+     *
+     * @param id          Event ID.
+     * @param title       Title (may be null).
+     * @param description Description (may be null).
+     * @param location    Location (may be null).
+     * @param categories  Category labels (may be null).
+     * @return True if the index changed.
+     */
+    public boolean put(String id, String title, String description, String location,
+                       List<String> categories) {
+        String[] text = {title, description, location,
+                categories == null ? null : String.join("\n", categories)};
+        String signature = signature(text);
+
+        Integer existing = numbers.get(id);
+        if (existing != null) {
+            if (docs.get(existing).signature.equals(signature)) return false;
+            remove(id);
+        }
+
+        int[] lengths = new int[FIELDS];
+        Map<String, Integer> counts = new HashMap<>();
+        for (int field = 0; field < FIELDS; field++) {
+            int shift = 8 * field;
+            for (String word : SearchTokens.words(text[field])) {
+                lengths[field]++;
+                counts.merge(word, 1 << shift, (old, one) ->
+                        ((old >>> shift) & 0xFF) == 0xFF ? old : old + one);
+            }
+            totalLengths[field] += lengths[field];
+        }
+
+        int number = freeNumbers.isEmpty() ? docs.size() : freeNumbers.pop();
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), t -> new Posting()).add(number, e.getValue());
+        }
+
+        if ((number + 1) * FIELDS > fieldLengths.length) {
+            fieldLengths = Arrays.copyOf(fieldLengths, Math.max(16, (number + 1) * FIELDS * 2));
+        }
+        System.arraycopy(lengths, 0, fieldLengths, number * FIELDS, FIELDS);
+
+        Doc doc = new Doc(id, signature, lengths, counts.keySet().toArray(new String[0]));
+        if (number == docs.size()) docs.add(doc);
+        else docs.set(number, doc);
+        numbers.put(id, number);
+        return true;
+    }
+
+    /**
+     * Removes an event.
+     *
+     * @param id Event ID.
+     * @return True if it was indexed.
+     */
+    public boolean remove(String id) {
+        Integer number = numbers.remove(id);
+        if (number == null) return false;
+
+        Doc doc = docs.get(number);
+        for (String term : doc.terms) {
+            Posting posting = postings.get(term);
+            posting.remove(number);
+            if (posting.size == 0) postings.remove(term);
+        }
+        for (int field = 0; field < FIELDS; field++) totalLengths[field] -= doc.lengths[field];
+
+        docs.set(number, null);
+        freeNumbers.push(number);
+        return true;
+    }
+
+    /**
+     * Removes every event whose ID is not in the given set, e.g. events that
+     * were deleted since the feed was last loaded.
+     *
+     * @param ids IDs to keep.
+     * @return Number of events removed.
+     */
+    public int retainAll(Set<String> ids) {
+        int removed = 0;
+        for (String id : new ArrayList<>(numbers.keySet())) {
+            if (!ids.contains(id) && remove(id)) removed++;
+        }
+        return removed;
+    }
+
+    /** Removes every event. */
+    public void clear() {
+        postings.clear();
+        numbers.clear();
+        docs.clear();
+        freeNumbers.clear();
+        fieldLengths = new int[0];
+        Arrays.fill(totalLengths, 0);
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query Search text as typed.
+     * @return IDs of the matching events, best match first (ties in the order
+     *         they were added). Empty for an empty query.
+     */
+    public List<String> search(String query) {
+        Set<String> words = new LinkedHashSet<>(SearchTokens.words(query));
+        if (words.isEmpty() || numbers.isEmpty()) return Collections.emptyList();
+
+        int n = numbers.size();
+        float[] avgLengths = new float[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            avgLengths[field] = Math.max(1f, (float) totalLengths[field] / n);
+        }
+
+        // Each word adds its score to the events it matches; an event stays a
+        // candidate only while it has matched every word so far
+        float[] scores = new float[docs.size()];
+        int[] matched = new int[docs.size()];
+        float[] best = new float[docs.size()];
+        int[] touched = new int[docs.size()];
+
+        int round = 0;
+        for (String word : words) {
+            int hits = 0;
+            for (Map.Entry<String, Posting> term
+                    : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                float weight = term.getKey().length() == word.length() ? 1f : PREFIX_WEIGHT;
+                Posting posting = term.getValue();
+
+                for (int i = 0; i < posting.size; i++) {
+                    int doc = posting.docs[i];
+                    if (matched[doc] != round) continue;
+
+                    float score = weight * saturate(posting.counts[i], doc * FIELDS, avgLengths);
+                    if (best[doc] == 0f) touched[hits++] = doc;
+                    if (score > best[doc]) best[doc] = score;
+                }
+            }
+            if (hits == 0) return Collections.emptyList();
+
+            // The word's document frequency is the number of events it matched
+            float idf = (float) Math.log(1 + (n - hits + 0.5) / (hits + 0.5));
+            for (int i = 0; i < hits; i++) {
+                int doc = touched[i];
+                scores[doc] += idf * best[doc];
+                matched[doc] = round + 1;
+                best[doc] = 0f;
+            }
+            round++;
+        }
+
+        // Positive float bits sort like the floats, so one primitive sort ranks
+        // the matches: highest score first, then lowest event number
+        long[] ranked = new long[docs.size()];
+        int count = 0;
+        for (int doc = 0; doc < matched.length; doc++) {
+            if (matched[doc] != round) continue;
+            ranked[count++] = ((long) ~Float.floatToIntBits(scores[doc]) << 32) | doc;
+        }
+        Arrays.sort(ranked, 0, count);
+
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) ids.add(docs.get((int) ranked[i]).id);
+        return ids;
+    }
+
+    /**
+     * BM25F term frequency: occurrences weighted per field and normalized by
+     * field length, then saturated so repeats add less and less.
+     */
+    private float saturate(int packedCounts, int lengthsAt, float[] avgLengths) {
+        float tf = 0f;
+        for (int field = 0; field < FIELDS; field++) {
+            int count = (packedCounts >>> (8 * field)) & 0xFF;
+            if (count == 0) continue;
+            float norm = 1 - B + B * fieldLengths[lengthsAt + field] / avgLengths[field];
+            tf += FIELD_WEIGHTS[field] * count / norm;
+        }
+        return tf / (K1 + tf);
+    }
+
+    private static String signature(String[] text) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : text) {
+            if (value != null) sb.append(value);
+            sb.append('\u0000');
+        }
+        return sb.toString();
+    }
+}
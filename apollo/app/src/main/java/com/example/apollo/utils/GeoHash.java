@@ -0,0 +1,182 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * GeoHash.java
+ *
+ * Pure-Java geohash encoding used for entrant locations.
+ *
+ * A geohash interleaves longitude and latitude bits and writes them in base32,
+ * so points that are close together share a common prefix. Storing the hash as
+ * a string field lets Firestore answer "points in this area" with ordinary
+ * range queries ({@code >= prefix} and {@code < prefix + '~'}).
+ */
+public final class GeoHash {
+
+    /** Precision used when storing entrant locations (about 5 m x 5 m cells). */
+    public static final int STORAGE_PRECISION = 9;
+
+    static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {}
+
+    /**
+     * Encodes a coordinate into a geohash string.
+     *
+     * @param lat       Latitude in degrees (-90..90).
+     * @param lon       Longitude in degrees (-180..180).
+     * @param precision Number of base32 characters (1..12).
+     * @return Geohash of the requested length.
+     */
+    public static String encode(double lat, double lon, int precision) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("precision must be between 1 and 12");
+        }
+
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true; // longitude first
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Encodes a coordinate at {@link #STORAGE_PRECISION}.
+     *
+     * @param lat Latitude in degrees.
+     * @param lon Longitude in degrees.
+     * @return Geohash string.
+     */
+    public static String encode(double lat, double lon) {
+        return encode(lat, lon, STORAGE_PRECISION);
+    }
+
+    /**
+     * Returns the geohash cells that cover a bounding box, at the finest
+     * precision that keeps the number of cells at or below {@code maxCells}.
+     * Each cell maps to one Firestore range query on the stored hash:
+     * {@code geohash >= cell && geohash < cell + "~"}.
+     *
+     * If even single-character cells exceed the limit (e.g. a world view),
+     * precision 1 is used anyway so the result is never empty.
+     *
+     * A box whose west edge lies east of its east edge crosses the
+     * antimeridian and is covered as two boxes, west..180 and -180..east.
+     *
+     * @param minLat   South edge in degrees.
+     * @param minLon   West edge in degrees.
+     * @param maxLat   North edge in degrees.
+     * @param maxLon   East edge in degrees; less than {@code minLon} across the antimeridian.
+     * @param maxCells Upper bound on the number of cells to return.
+     * @return Distinct cell prefixes covering the box.
+     */
+    public static List<String> coveringCells(double minLat, double minLon,
+                                             double maxLat, double maxLon, int maxCells) {
+        double south = clamp(Math.min(minLat, maxLat), -90, 90);
+        double north = clamp(Math.max(minLat, maxLat), -90, 90);
+        double west = clamp(minLon, -180, 180);
+        double east = clamp(maxLon, -180, 180);
+
+        // {west, east} of each box; two boxes across the antimeridian
+        double[][] spans = west <= east
+                ? new double[][]{{west, east}}
+                : new double[][]{{west, 180}, {-180, east}};
+
+        int precision = 1;
+        for (int p = STORAGE_PRECISION; p >= 1; p--) {
+            long count = 0;
+            for (double[] span : spans) count += cellCount(south, span[0], north, span[1], p);
+            if (count <= maxCells) {
+                precision = p;
+                break;
+            }
+        }
+
+        double cellW = cellWidth(precision);
+        double cellH = cellHeight(precision);
+        int firstLat = latIndex(south, cellH), lastLat = latIndex(north, cellH);
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (double[] span : spans) {
+            int firstLon = lonIndex(span[0], cellW), lastLon = lonIndex(span[1], cellW);
+            for (int i = firstLat; i <= lastLat; i++) {
+                double lat = -90 + (i + 0.5) * cellH;
+                for (int j = firstLon; j <= lastLon; j++) {
+                    double lon = -180 + (j + 0.5) * cellW;
+                    cells.add(encode(lat, lon, precision));
+                }
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /** Width in degrees of a cell at the given precision. */
+    static double cellWidth(int precision) {
+        int lonBits = (5 * precision + 1) / 2;
+        return 360.0 / (1L << lonBits);
+    }
+
+    /** Height in degrees of a cell at the given precision. */
+    static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    private static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        double cellW = cellWidth(precision);
+        double cellH = cellHeight(precision);
+        long cols = lonIndex(maxLon, cellW) - lonIndex(minLon, cellW) + 1L;
+        long rows = latIndex(maxLat, cellH) - latIndex(minLat, cellH) + 1L;
+        return cols * rows;
+    }
+
+    private static int lonIndex(double lon, double cellW) {
+        int max = (int) Math.round(360.0 / cellW) - 1;
+        return (int) Math.min(max, Math.floor((lon + 180) / cellW));
+    }
+
+    private static int latIndex(double lat, double cellH) {
+        int max = (int) Math.round(180.0 / cellH) - 1;
+        return (int) Math.min(max, Math.floor((lat + 90) / cellH));
+    }
+
+    private static double clamp(double v, double min, double max) {
+        return Math.max(min, Math.min(max, v));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GridClusterer.java
+ *
+ * Groups map points into clusters by dropping them into a grid of fixed-size
+ * cells and merging everything that lands in the same cell.
+ *
+ * The grid is anchored to world coordinates rather than to the viewport, so a
+ * point stays in the same cluster while the map is panned; only zooming (which
+ * changes the cell size) regroups points. Each cluster sits at the centroid of
+ * its points. Pure Java, so it can run on a background thread and be unit tested.
+ */
+public final class GridClusterer {
+
+    /**
+     * A group of one or more points.
+     */
+    public static final class Cluster {
+        public final double lat;
+        public final double lon;
+        public final int count;
+
+        Cluster(double lat, double lon, int count) {
+            this.lat = lat;
+            this.lon = lon;
+            this.count = count;
+        }
+    }
+
+    private GridClusterer() {}
+
+    /**
+     * Clusters the points that fall inside the bounding box. A box whose west
+     * edge lies east of its east edge crosses the antimeridian and is treated
+     * as two boxes, west..180 and -180..east.
+     *
+     * @param lats      Point latitudes.
+     * @param lons      Point longitudes (same length as {@code lats}).
+     * @param minLat    South edge of the visible area.
+     * @param minLon    West edge of the visible area.
+     * @param maxLat    North edge of the visible area.
+     * @param maxLon    East edge of the visible area; less than {@code minLon} across the antimeridian.
+     * @param cellDegLat Cell height in degrees.
+     * @param cellDegLon Cell width in degrees.
+     * @return Clusters for the visible points, in no particular order.
+     */
+    public static List<Cluster> cluster(double[] lats, double[] lons,
+                                        double minLat, double minLon,
+                                        double maxLat, double maxLon,
+                                        double cellDegLat, double cellDegLon) {
+        if (lats.length != lons.length) {
+            throw new IllegalArgumentException("lats and lons must have the same length");
+        }
+        if (cellDegLat <= 0 || cellDegLon <= 0) {
+            throw new IllegalArgumentException("cell size must be positive");
+        }
+
+        // cell key -> {sumLat, sumLon, count}
+        Map<Long, double[]> cells = new HashMap<>();
+
+        for (int i = 0; i < lats.length; i++) {
+            double lat = lats[i];
+            double lon = lons[i];
+            if (lat < minLat || lat > maxLat) continue;
+            boolean inLon = minLon <= maxLon
+                    ? lon >= minLon && lon <= maxLon
+                    : lon >= minLon || lon <= maxLon;
+            if (!inLon) continue;
+
+            long row = (long) Math.floor((lat + 90) / cellDegLat);
+            long col = (long) Math.floor((lon + 180) / cellDegLon);
+            long key = (row << 32) ^ (col & 0xFFFFFFFFL);
+
+            double[] acc = cells.get(key);
+            if (acc == null) {
+                acc = new double[3];
+                cells.put(key, acc);
+            }
+            acc[0] += lat;
+            acc[1] += lon;
+            acc[2] += 1;
+        }
+
+        List<Cluster> clusters = new ArrayList<>(cells.size());
+        for (double[] acc : cells.values()) {
+            int count = (int) acc[2];
+            clusters.add(new Cluster(acc[0] / count, acc[1] / count, count));
+        }
+        return clusters;
+    }
+}
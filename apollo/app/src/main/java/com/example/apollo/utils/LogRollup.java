@@ -0,0 +1,120 @@
+package com.example.apollo.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogRollup.java
+ *
+ * Folds raw notification log entries into one bucket per event and UTC day,
+ * holding a count per notification type. The buckets become the
+ * notification_log_rollups documents, so their IDs ("{eventId}_{yyyyMMdd}")
+ * must be the same whichever device computes them.
+ *
+ * Days are UTC rather than local time: an admin device in another time zone
+ * adds to the same documents.
+ */
+public final class LogRollup {
+
+    /** Type recorded for entries without a notificationType. */
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final ThreadLocal<SimpleDateFormat> DAY_KEY = ThreadLocal.withInitial(() -> {
+        SimpleDateFormat f = new SimpleDateFormat("yyyyMMdd", Locale.US);
+        f.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return f;
+    });
+
+    private final Map<String, Bucket> buckets = new LinkedHashMap<>();
+
+    /**
+     * Counts of one event on one day.
+     */
+    public static final class Bucket {
+        public final String eventId;
+        public final String day;
+        public final long dayStart;
+        /** Count per notification type, sorted by type. */
+        public final Map<String, Long> counts = new TreeMap<>();
+        public long total;
+
+        Bucket(String eventId, String day, long dayStart) {
+            this.eventId = eventId;
+            this.day = day;
+            this.dayStart = dayStart;
+        }
+
+        /** @return ID of the rollup document for this bucket. */
+        public String id() {
+            return docId(eventId, day);
+        }
+    }
+
+    /**
+     * @param epochMillis Any instant.
+     * @return Its UTC day as "yyyyMMdd".
+     */
+    public static String dayKey(long epochMillis) {
+        return DAY_KEY.get().format(new Date(epochMillis));
+    }
+
+    /**
+     * @param epochMillis Any instant.
+     * @return Start of its UTC day in epoch millis.
+     */
+    public static long dayStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MS) * DAY_MS;
+    }
+
+    /**
+     * @param eventId Event ID.
+     * @param day     Day as returned by {@link #dayKey}.
+     * @return Rollup document ID.
+     */
+    public static String docId(String eventId, String day) {
+        return eventId + "_" + day;
+    }
+
+    /**
+     * @param countedMillis When the raw entry was counted into its bucket.
+     * @param retentionDays How long raw entries are kept once counted.
+     * @return Epoch millis at which the entry may be deleted.
+     */
+    public static long expireAt(long countedMillis, int retentionDays) {
+        return countedMillis + TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    /**
+     * Counts one raw entry.
+     *
+     * @param eventId     Event the notification was about.
+     * @param type        Notification type (may be null).
+     * @param epochMillis When it was sent.
+     */
+    public void add(String eventId, String type, long epochMillis) {
+        String day = dayKey(epochMillis);
+        String id = docId(eventId, day);
+        Bucket bucket = buckets.get(id);
+        if (bucket == null) {
+            bucket = new Bucket(eventId, day, dayStart(epochMillis));
+            buckets.put(id, bucket);
+        }
+        String key = type == null || type.isEmpty() ? UNKNOWN_TYPE : type;
+        bucket.counts.merge(key, 1L, Long::sum);
+        bucket.total++;
+    }
+
+    /** @return Buckets in the order they were first seen. */
+    public Collection<Bucket> buckets() {
+        return buckets.values();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.apollo.utils;
+
+import com.example.apollo.utils.SelectionPolicy.Entrant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * LotteryAudit.java
+ *
+ * The pure part of an audited lottery draw:
+ *
+ * 1. Before drawing, the organizer's device publishes
+ *    {@link #commitment(long)} of a secret seed together with the
+ *    {@link #tree Merkle root} of the candidate list in {@link #canonical}
+ *    order.
+ * 2. Winners are drawn by {@link #draw} from a {@link SplitMixRandom} on
+ *    that seed.
+ * 3. Afterwards the seed and winners are published. Anyone can then check
+ *    the seed against the commitment, rebuild the root from the candidates,
+ *    and {@link #replay} the draw; a single entrant can check their own
+ *    inclusion with a Merkle proof.
+ *
+ * A leaf encodes everything a policy looks at (ID, prior losses, tier,
+ * stratum), so a replay sees exactly the input of the original draw.
+ */
+public final class LotteryAudit {
+
+    private LotteryAudit() {}
+
+    /**
+     * @param seed Secret seed of a draw.
+     * @return SHA-256 commitment to the seed, in hex.
+     */
+    public static String commitment(long seed) {
+        return MerkleTree.sha256Hex("apollo-lottery-seed:" + seed);
+    }
+
+    /**
+     * @param entrants Entrants as loaded.
+     * @return Distinct entrants with a non-empty ID, sorted by ID: the order
+     *         both the Merkle tree and the draw use.
+     */
+    public static List<Entrant> canonical(List<Entrant> entrants) {
+        List<Entrant> out = SelectionPolicies.distinct(entrants);
+        Collections.sort(out, (a, b) -> a.uid.compareTo(b.uid));
+        return out;
+    }
+
+    /**
+     * @param e Entrant.
+     * @return Leaf text of the entrant; strings are length-prefixed so no
+     *         two entrants encode to the same text.
+     */
+    public static String leaf(Entrant e) {
+        return e.uid.length() + ":" + e.uid + "|" + e.priorLosses + "|" + e.tier
+                + "|" + e.stratum.length() + ":" + e.stratum;
+    }
+
+    /**
+     * @param canonical Entrants in {@link #canonical} order.
+     * @return Merkle tree over their {@link #leaf} texts.
+     */
+    public static MerkleTree tree(List<Entrant> canonical) {
+        List<String> leaves = new ArrayList<>(canonical.size());
+        for (Entrant e : canonical) leaves.add(leaf(e));
+        return new MerkleTree(leaves);
+    }
+
+    /**
+     * Draws with the audited random source.
+     *
+     * @param policy    Selection policy.
+     * @param seed      Seed of the draw.
+     * @param canonical Entrants in {@link #canonical} order.
+     * @param k         Winners wanted.
+     * @return Winners.
+     */
+    public static List<String> draw(SelectionPolicy policy, long seed, List<Entrant> canonical, int k) {
+        return policy.select(canonical, k, new SplitMixRandom(seed));
+    }
+
+    /**
+     * Repeats a published draw.
+     *
+     * @param policyName Policy name recorded with the draw.
+     * @param seed       Revealed seed.
+     * @param canonical  Entrants in {@link #canonical} order.
+     * @param k          Winners wanted in the original draw.
+     * @return Winners the draw must have produced.
+     */
+    public static List<String> replay(String policyName, long seed, List<Entrant> canonical, int k) {
+        return draw(SelectionPolicies.byName(policyName), seed, canonical, k);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * LotteryDraw.java
+ *
+ * Pure-Java winner selection shared by the organizer lottery, the headless
+ * replacement draw and the JVM benchmarks.
+ *
+ * Uses a partial Fisher–Yates shuffle: only the first {@code k} positions are
+ * shuffled, so picking 10 winners out of 100,000 entrants does 10 swaps
+ * instead of shuffling the whole list. Every subset of size k is equally likely.
+ */
+public final class LotteryDraw {
+
+    private LotteryDraw() {}
+
+    /**
+     * Picks up to {@code k} distinct winners uniformly at random.
+     * Duplicate and empty IDs in the input are ignored.
+     *
+     * @param candidates Candidate user IDs (not modified).
+     * @param k          Number of winners wanted.
+     * @param rng        Random source.
+     * @return Winners in draw order; fewer than k if there are not enough candidates.
+     */
+    public static List<String> pick(List<String> candidates, int k, Random rng) {
+        List<String> pool = new ArrayList<>(new LinkedHashSet<>(candidates));
+        pool.remove(null);
+        pool.remove("");
+
+        int n = Math.min(Math.max(k, 0), pool.size());
+        for (int i = 0; i < n; i++) {
+            int j = i + rng.nextInt(pool.size() - i);
+            String tmp = pool.get(i);
+            pool.set(i, pool.get(j));
+            pool.set(j, tmp);
+        }
+        return new ArrayList<>(pool.subList(0, n));
+    }
+}
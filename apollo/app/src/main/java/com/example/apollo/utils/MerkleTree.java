@@ -0,0 +1,155 @@
+package com.example.apollo.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MerkleTree.java
+ *
+ * SHA-256 Merkle tree over a list of strings, used to publish one short
+ * digest of a lottery's candidate list and prove that a single candidate
+ * was in it with about log2(n) hashes instead of the whole list.
+ *
+ * Leaves are SHA-256(0x00 || UTF-8 text) and inner nodes
+ * SHA-256(0x01 || left || right); the prefixes keep a leaf from passing as
+ * a node. A node without a right sibling is carried up unchanged. Hashes
+ * are exchanged as lowercase hex.
+ */
+public final class MerkleTree {
+
+    /** Levels from the leaf hashes (index 0) up to the root. */
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    /**
+     * Builds the tree. O(n) hashes.
+     *
+     * @param leaves Leaf texts, in their published order.
+     */
+    public MerkleTree(List<String> leaves) {
+        MessageDigest sha = sha256();
+        byte[][] level = new byte[leaves.size()][];
+        for (int i = 0; i < level.length; i++) level[i] = leafHash(sha, leaves.get(i));
+        levels.add(level);
+
+        while (level.length > 1) {
+            byte[][] up = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < up.length; i++) {
+                up[i] = 2 * i + 1 < level.length
+                        ? nodeHash(sha, level[2 * i], level[2 * i + 1])
+                        : level[2 * i];
+            }
+            levels.add(up);
+            level = up;
+        }
+    }
+
+    /** @return Number of leaves. */
+    public int size() {
+        return levels.get(0).length;
+    }
+
+    /** @return Root hash in hex; the hash of no input for an empty tree. */
+    public String root() {
+        byte[][] top = levels.get(levels.size() - 1);
+        return top.length == 0 ? hex(sha256().digest()) : hex(top[0]);
+    }
+
+    /**
+     * @param index Leaf index.
+     * @return Sibling hashes from the leaf up, for {@link #verify}.
+     */
+    public List<String> proof(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("leaf " + index);
+
+        List<String> siblings = new ArrayList<>();
+        for (int l = 0; l < levels.size() - 1; l++) {
+            byte[][] level = levels.get(l);
+            int sibling = index ^ 1;
+            if (sibling < level.length) siblings.add(hex(level[sibling]));
+            index >>= 1;
+        }
+        return siblings;
+    }
+
+    /**
+     * Checks that {@code leaf} is leaf number {@code index} of the tree with
+     * the given root. O(log n) hashes.
+     *
+     * @param root     Published root hash (hex).
+     * @param leaf     Leaf text.
+     * @param index    Leaf index.
+     * @param size     Number of leaves in the tree.
+     * @param siblings Proof from {@link #proof}.
+     * @return True if the proof is valid.
+     */
+    public static boolean verify(String root, String leaf, int index, int size, List<String> siblings) {
+        if (root == null || leaf == null || siblings == null || index < 0 || index >= size) return false;
+
+        MessageDigest sha = sha256();
+        byte[] hash = leafHash(sha, leaf);
+        int used = 0;
+        for (int width = size; width > 1; width = (width + 1) / 2) {
+            if ((index ^ 1) < width) {
+                if (used == siblings.size()) return false;
+                byte[] sibling = unhex(siblings.get(used++));
+                if (sibling == null) return false;
+                hash = (index & 1) == 0 ? nodeHash(sha, hash, sibling) : nodeHash(sha, sibling, hash);
+            }
+            index >>= 1;
+        }
+        return used == siblings.size() && hex(hash).equals(root);
+    }
+
+    /**
+     * @param text Any text.
+     * @return SHA-256 of its UTF-8 bytes, in hex.
+     */
+    public static String sha256Hex(String text) {
+        return hex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] leafHash(MessageDigest sha, String leaf) {
+        sha.update((byte) 0);
+        return sha.digest(leaf.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] nodeHash(MessageDigest sha, byte[] left, byte[] right) {
+        sha.update((byte) 1);
+        sha.update(left);
+        return sha.digest(right);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            out[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
+    private static byte[] unhex(String hex) {
+        if (hex == null || hex.length() % 2 != 0) return null;
+        byte[] out = new byte[hex.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(hex.charAt(2 * i), 16);
+            int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) return null;
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+}
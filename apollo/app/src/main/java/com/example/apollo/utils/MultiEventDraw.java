@@ -0,0 +1,122 @@
+package com.example.apollo.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * MultiEventDraw.java
+ *
+ * Winner selection for several events drawn together, e.g. the sessions of
+ * one program. Without constraints each event is drawn on its own with
+ * {@link LotteryDraw}. In exclusive mode an entrant wins at most one of the
+ * events, decided in one global assignment pass:
+ *
+ * 1. Every event's waitlist is shuffled once.
+ * 2. Events take turns (in a random order) claiming their next entrant who
+ *    has not won elsewhere, one seat per turn, until no event can fill more
+ *    seats. Taking turns keeps an early event from claiming every shared
+ *    entrant before the others get a chance.
+ * 3. A repair pass fills seats left empty: if an entrant of an unfilled
+ *    event won another event that still has unplaced entrants, that other
+ *    event takes one of them instead and the seat moves.
+ *
+ * Every step is driven by the given Random, so a seeded run is reproducible.
+ */
+public final class MultiEventDraw {
+
+    private MultiEventDraw() {}
+
+    /**
+     * Draws winners for every event.
+     *
+     * @param candidates Candidate user IDs per event ID (lists are not modified).
+     * @param seats      Winners wanted per event ID; missing means none.
+     * @param exclusive  True if an entrant may win at most one event.
+     * @param rng        Random source.
+     * @return Winners per event ID, in the iteration order of {@code candidates}.
+     */
+    public static Map<String, List<String>> assign(Map<String, List<String>> candidates,
+                                                   Map<String, Integer> seats,
+                                                   boolean exclusive, Random rng) {
+        Map<String, List<String>> winners = new LinkedHashMap<>();
+
+        if (!exclusive) {
+            for (Map.Entry<String, List<String>> e : candidates.entrySet()) {
+                winners.put(e.getKey(), LotteryDraw.pick(e.getValue(), seatsOf(seats, e.getKey()), rng));
+            }
+            return winners;
+        }
+
+        // 1. One shuffled pool per event
+        Map<String, List<String>> pools = new LinkedHashMap<>();
+        Map<String, Integer> next = new HashMap<>();
+        for (Map.Entry<String, List<String>> e : candidates.entrySet()) {
+            pools.put(e.getKey(), LotteryDraw.pick(e.getValue(), Integer.MAX_VALUE, rng));
+            next.put(e.getKey(), 0);
+            winners.put(e.getKey(), new ArrayList<>());
+        }
+
+        // 2. Events take turns claiming one unassigned entrant each
+        Map<String, String> wonEvent = new HashMap<>();
+        List<String> order = new ArrayList<>(pools.keySet());
+        Collections.shuffle(order, rng);
+
+        boolean progressed = true;
+        while (progressed) {
+            progressed = false;
+            for (String eventId : order) {
+                if (winners.get(eventId).size() >= seatsOf(seats, eventId)) continue;
+                String uid = nextFree(pools.get(eventId), next, eventId, wonEvent);
+                if (uid == null) continue;
+                winners.get(eventId).add(uid);
+                wonEvent.put(uid, eventId);
+                progressed = true;
+            }
+        }
+
+        // 3. Move seats to unfilled events where another event can replace the entrant
+        for (String eventId : order) {
+            List<String> won = winners.get(eventId);
+            for (String uid : pools.get(eventId)) {
+                if (won.size() >= seatsOf(seats, eventId)) break;
+
+                String other = wonEvent.get(uid);
+                if (other == null || other.equals(eventId)) continue;
+
+                String substitute = nextFree(pools.get(other), next, other, wonEvent);
+                if (substitute == null) continue;
+
+                List<String> otherWon = winners.get(other);
+                otherWon.set(otherWon.indexOf(uid), substitute);
+                wonEvent.put(substitute, other);
+
+                won.add(uid);
+                wonEvent.put(uid, eventId);
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * Advances an event's pointer to its next entrant who has not won yet.
+     *
+     * @return That entrant, or null if the pool is used up.
+     */
+    private static String nextFree(List<String> pool, Map<String, Integer> next, String eventId,
+                                   Map<String, String> wonEvent) {
+        int i = next.get(eventId);
+        while (i < pool.size() && wonEvent.containsKey(pool.get(i))) i++;
+        next.put(eventId, Math.min(i + 1, pool.size()));
+        return i < pool.size() ? pool.get(i) : null;
+    }
+
+    private static int seatsOf(Map<String, Integer> seats, String eventId) {
+        Integer k = seats.get(eventId);
+        return k == null ? 0 : Math.max(k, 0);
+    }
+}
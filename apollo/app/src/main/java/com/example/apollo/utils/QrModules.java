@@ -0,0 +1,104 @@
+package com.example.apollo.utils;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * QrModules.java
+ *
+ * Pure-Java helpers for turning event QR payloads into drawable data.
+ * Nothing in here touches Android classes, so the same code is used by the
+ * fragments, the PDF poster exporter and the JVM benchmarks.
+ *
+ * Two outputs are supported:
+ * - Module runs: the QR symbol at module resolution (e.g. 25x25), collapsed
+ *   into horizontal runs of dark modules. This is what vector output uses,
+ *   one rectangle per run instead of one per pixel.
+ * - Pixels: an ARGB array for a ZXing {@link BitMatrix}, filled row by row so
+ *   callers can hand it to {@code Bitmap.setPixels} in a single call.
+ */
+public final class QrModules {
+
+    /** Opaque black, as an ARGB int. */
+    public static final int DARK = 0xFF000000;
+
+    /** Opaque white, as an ARGB int. */
+    public static final int LIGHT = 0xFFFFFFFF;
+
+    private QrModules() {}
+
+    /**
+     * Encodes the given content into a QR module grid without a quiet zone.
+     *
+     * @param content Text to encode (event QR id or event id).
+     * @return Module matrix where a value of 1 means a dark module.
+     * @throws WriterException if the content cannot be encoded.
+     */
+    public static ByteMatrix encode(String content) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        return Encoder.encode(content, ErrorCorrectionLevel.M, hints).getMatrix();
+    }
+
+    /**
+     * Collapses a module matrix into horizontal runs of dark modules.
+     * The result is a flat array of (row, startColumn, length) triples.
+     *
+     * @param matrix Module matrix from {@link #encode(String)}.
+     * @return Flat run array; its length is always a multiple of 3.
+     */
+    public static int[] rowRuns(ByteMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        // Worst case is alternating modules: ceil(width / 2) runs per row
+        int[] runs = new int[height * ((width + 1) / 2) * 3];
+        int n = 0;
+
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (matrix.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y) == 1) x++;
+                runs[n++] = y;
+                runs[n++] = start;
+                runs[n++] = x - start;
+            }
+        }
+
+        int[] out = new int[n];
+        System.arraycopy(runs, 0, out, 0, n);
+        return out;
+    }
+
+    /**
+     * Renders a ZXing bit matrix into an ARGB pixel array (row-major).
+     *
+     * @param matrix Bit matrix produced by a ZXing writer.
+     * @return Pixel array of size width * height.
+     */
+    public static int[] toPixels(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int[] pixels = new int[width * height];
+
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[offset + x] = matrix.get(x, y) ? DARK : LIGHT;
+            }
+        }
+        return pixels;
+    }
+}
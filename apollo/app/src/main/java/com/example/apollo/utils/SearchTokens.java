@@ -0,0 +1,130 @@
+package com.example.apollo.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * SearchTokens.java
+ *
+ * Prefix tokens for indexed search. Each searchable document stores the
+ * prefixes of the words in its searchable fields in a "searchTokens" array,
+ * so a search becomes one {@code whereArrayContains} query that reads only
+ * the matching documents.
+ *
+ * Text is normalized the same way on both sides: lower-cased, accents
+ * removed, and split into words on anything that is not a letter or digit
+ * ("Amarachi O'Kafor" gives amarachi, o, kafor). A query matches a document
+ * when every query word is a prefix of one of the document's words.
+ *
+ * Prefixes are capped at {@link #MAX_PREFIX} characters and the token list
+ * at {@link #MAX_TOKENS}, which keeps the index entries per document small.
+ */
+public final class SearchTokens {
+
+    /** Document field holding the tokens. */
+    public static final String FIELD = "searchTokens";
+
+    /** Token format version; bump it when tokenization changes so documents get re-indexed. */
+    public static final int VERSION = 1;
+
+    /** Longest prefix stored; longer query words are matched on this prefix. */
+    public static final int MAX_PREFIX = 12;
+
+    /** Most tokens stored per document. */
+    public static final int MAX_TOKENS = 200;
+
+    private SearchTokens() {}
+
+    /**
+     * @param text Text to normalize (may be null).
+     * @return Lower-cased, accent-free words of the text, in order.
+     */
+    public static List<String> words(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) words.add(word.toString());
+        return words;
+    }
+
+    /**
+     * Builds the token array to store with a document.
+     *
+     * @param fields Searchable field values (nulls are skipped).
+     * @return Distinct prefixes of every word, shortest first per word.
+     */
+    public static List<String> forFields(String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            for (String word : words(field)) {
+                int max = Math.min(word.length(), MAX_PREFIX);
+                for (int len = 1; len <= max && tokens.size() < MAX_TOKENS; len++) {
+                    tokens.add(word.substring(0, len));
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Picks the token to query for. The longest query word is the most
+     * selective, so it is the one sent to Firestore; the other words are
+     * checked on the results with {@link #matches}.
+     *
+     * @param query Search text as typed.
+     * @return Token for {@code whereArrayContains}, or null if the query is empty.
+     */
+    public static String queryToken(String query) {
+        String best = null;
+        for (String word : words(query)) {
+            if (best == null || word.length() > best.length()) best = word;
+        }
+        if (best == null) return null;
+        return best.length() > MAX_PREFIX ? best.substring(0, MAX_PREFIX) : best;
+    }
+
+    /**
+     * @param query  Search text as typed.
+     * @param fields Field values of a document (nulls are skipped).
+     * @return True if every query word is a prefix of a word in the fields.
+     *         An empty query matches everything.
+     */
+    public static boolean matches(String query, String... fields) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) return true;
+
+        List<String> fieldWords = new ArrayList<>();
+        for (String field : fields) fieldWords.addAll(words(field));
+
+        for (String q : queryWords) {
+            boolean found = false;
+            for (String w : fieldWords) {
+                if (w.startsWith(q)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.apollo.utils;
+
+import com.example.apollo.utils.SelectionPolicy.Entrant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * SelectionPolicies.java
+ *
+ * The lottery's {@link SelectionPolicy} implementations:
+ *
+ * - uniform: every subset of k entrants is equally likely ({@link LotteryDraw}).
+ * - weighted by prior losses: an entrant who lost L earlier lotteries is
+ *   1 + L times as likely to be picked, drawn without replacement with the
+ *   Efraimidis–Spirakis weighted reservoir (key = ln(u) / w, keep the k
+ *   largest keys in a min-heap), O(n log k).
+ * - priority tiers: lower tiers are filled first; the tier that no longer
+ *   fits entirely is drawn uniformly, O(n).
+ * - stratified: seats are shared between strata in proportion to their size
+ *   (largest remainder), then drawn uniformly within each stratum, O(n).
+ *
+ * Strata and tiers are visited in sorted order and every entrant consumes
+ * the same random numbers whatever the outcome, so a seeded draw is
+ * reproducible for audit.
+ */
+public final class SelectionPolicies {
+
+    public static final String UNIFORM = "uniform";
+    public static final String WEIGHTED_BY_LOSSES = "weighted_losses";
+    public static final String PRIORITY_TIERS = "priority_tiers";
+    public static final String STRATIFIED = "stratified";
+
+    /** Every policy name, in the order offered to organizers. */
+    public static final List<String> NAMES =
+            Arrays.asList(UNIFORM, WEIGHTED_BY_LOSSES, PRIORITY_TIERS, STRATIFIED);
+
+    /** Extra weight per earlier loss in {@link #weightedByLosses()}. */
+    public static final double DEFAULT_LOSS_BOOST = 1.0;
+
+    private SelectionPolicies() {}
+
+    /** @return Policy giving every entrant the same chance. */
+    public static SelectionPolicy uniform() {
+        return new Uniform();
+    }
+
+    /** @return Policy favouring repeat losers with {@link #DEFAULT_LOSS_BOOST}. */
+    public static SelectionPolicy weightedByLosses() {
+        return new WeightedByLosses(DEFAULT_LOSS_BOOST);
+    }
+
+    /**
+     * @param boostPerLoss Weight added per earlier loss; 0 makes the draw uniform.
+     * @return Policy favouring repeat losers.
+     */
+    public static SelectionPolicy weightedByLosses(double boostPerLoss) {
+        return new WeightedByLosses(boostPerLoss);
+    }
+
+    /** @return Policy serving lower tiers first. */
+    public static SelectionPolicy priorityTiers() {
+        return new PriorityTiers();
+    }
+
+    /** @return Policy sharing seats between strata by size. */
+    public static SelectionPolicy stratified() {
+        return new Stratified();
+    }
+
+    /**
+     * @param name Name as returned by {@link SelectionPolicy#name()}.
+     * @return Matching policy with default settings; uniform for null or
+     *         unknown names.
+     */
+    public static SelectionPolicy byName(String name) {
+        if (WEIGHTED_BY_LOSSES.equals(name)) return weightedByLosses();
+        if (PRIORITY_TIERS.equals(name)) return priorityTiers();
+        if (STRATIFIED.equals(name)) return stratified();
+        return uniform();
+    }
+
+    /**
+     * @return Entrants with a non-empty ID, first occurrence of each ID only.
+     */
+    static List<Entrant> distinct(List<Entrant> entrants) {
+        Set<String> seen = new HashSet<>();
+        List<Entrant> out = new ArrayList<>(entrants.size());
+        for (Entrant e : entrants) {
+            if (e == null || e.uid == null || e.uid.isEmpty()) continue;
+            if (seen.add(e.uid)) out.add(e);
+        }
+        return out;
+    }
+
+    private static List<String> uids(List<Entrant> entrants) {
+        List<String> ids = new ArrayList<>(entrants.size());
+        for (Entrant e : entrants) ids.add(e.uid);
+        return ids;
+    }
+
+    private static final class Uniform implements SelectionPolicy {
+        @Override public String name() { return UNIFORM; }
+        @Override public boolean usesLossHistory() { return false; }
+
+        @Override
+        public List<String> select(List<Entrant> entrants, int k, Random rng) {
+            return LotteryDraw.pick(uids(distinct(entrants)), k, rng);
+        }
+    }
+
+    private static final class WeightedByLosses implements SelectionPolicy {
+        private final double boostPerLoss;
+
+        WeightedByLosses(double boostPerLoss) {
+            this.boostPerLoss = Math.max(boostPerLoss, 0);
+        }
+
+        @Override public String name() { return WEIGHTED_BY_LOSSES; }
+        @Override public boolean usesLossHistory() { return true; }
+
+        @Override
+        public List<String> select(List<Entrant> entrants, int k, Random rng) {
+            List<Entrant> pool = distinct(entrants);
+            int size = Math.min(Math.max(k, 0), pool.size());
+
+            // Min-heap of the `size` largest keys seen so far
+            int[] heap = new int[size];
+            double[] keys = new double[size];
+            int filled = 0;
+
+            for (int i = 0; i < pool.size(); i++) {
+                double u = rng.nextDouble();
+                if (size == 0) continue;
+                double key = Math.log(u > 0 ? u : Double.MIN_VALUE)
+                        / (1 + boostPerLoss * pool.get(i).priorLosses);
+
+                if (filled < size) {
+                    heap[filled] = i;
+                    keys[filled] = key;
+                    siftUp(heap, keys, filled++);
+                } else if (key > keys[0]) {
+                    heap[0] = i;
+                    keys[0] = key;
+                    siftDown(heap, keys, 0, size);
+                }
+            }
+
+            // Pop smallest first and fill from the back: winners by descending key
+            String[] winners = new String[size];
+            for (int n = size; n > 0; n--) {
+                winners[n - 1] = pool.get(heap[0]).uid;
+                heap[0] = heap[n - 1];
+                keys[0] = keys[n - 1];
+                siftDown(heap, keys, 0, n - 1);
+            }
+            return new ArrayList<>(Arrays.asList(winners));
+        }
+
+        private static void siftUp(int[] heap, double[] keys, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= keys[i]) return;
+                swap(heap, keys, i, parent);
+                i = parent;
+            }
+        }
+
+        private static void siftDown(int[] heap, double[] keys, int i, int n) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= n) return;
+                int child = left + 1 < n && keys[left + 1] < keys[left] ? left + 1 : left;
+                if (keys[i] <= keys[child]) return;
+                swap(heap, keys, i, child);
+                i = child;
+            }
+        }
+
+        private static void swap(int[] heap, double[] keys, int a, int b) {
+            int h = heap[a];
+            heap[a] = heap[b];
+            heap[b] = h;
+            double k = keys[a];
+            keys[a] = keys[b];
+            keys[b] = k;
+        }
+    }
+
+    private static final class PriorityTiers implements SelectionPolicy {
+        @Override public String name() { return PRIORITY_TIERS; }
+        @Override public boolean usesLossHistory() { return false; }
+
+        @Override
+        public List<String> select(List<Entrant> entrants, int k, Random rng) {
+            Map<Integer, List<String>> tiers = new TreeMap<>();
+            for (Entrant e : distinct(entrants)) {
+                List<String> tier = tiers.get(e.tier);
+                if (tier == null) tiers.put(e.tier, tier = new ArrayList<>());
+                tier.add(e.uid);
+            }
+
+            List<String> winners = new ArrayList<>();
+            int remaining = Math.max(k, 0);
+            for (List<String> tier : tiers.values()) {
+                if (remaining == 0) break;
+                List<String> picked = LotteryDraw.pick(tier, remaining, rng);
+                winners.addAll(picked);
+                remaining -= picked.size();
+            }
+            return winners;
+        }
+    }
+
+    private static final class Stratified implements SelectionPolicy {
+        @Override public String name() { return STRATIFIED; }
+        @Override public boolean usesLossHistory() { return false; }
+
+        @Override
+        public List<String> select(List<Entrant> entrants, int k, Random rng) {
+            Map<String, List<String>> strata = new TreeMap<>();
+            int total = 0;
+            for (Entrant e : distinct(entrants)) {
+                List<String> stratum = strata.get(e.stratum);
+                if (stratum == null) strata.put(e.stratum, stratum = new ArrayList<>());
+                stratum.add(e.uid);
+                total++;
+            }
+
+            int seats = Math.min(Math.max(k, 0), total);
+            List<List<String>> groups = new ArrayList<>(strata.values());
+            int[] quota = new int[groups.size()];
+            long[] remainder = new long[groups.size()];
+
+            // Floor of each stratum's proportional share, then one extra seat
+            // per stratum in order of the largest remainder (ties: sorted order)
+            int given = 0;
+            for (int i = 0; i < groups.size(); i++) {
+                long share = (long) seats * groups.get(i).size();
+                quota[i] = (int) (share / total);
+                remainder[i] = share % total;
+                given += quota[i];
+            }
+            for (; given < seats; given++) {
+                int best = -1;
+                for (int i = 0; i < groups.size(); i++) {
+                    if (remainder[i] >= 0 && (best < 0 || remainder[i] > remainder[best])) best = i;
+                }
+                quota[best]++;
+                remainder[best] = -1;
+            }
+
+            List<String> winners = new ArrayList<>(seats);
+            for (int i = 0; i < groups.size(); i++) {
+                winners.addAll(LotteryDraw.pick(groups.get(i), quota[i], rng));
+            }
+            return winners;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.apollo.utils;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SelectionPolicy.java
+ *
+ * How a lottery chooses its winners from the waitlist. Implementations are
+ * in {@link SelectionPolicies}; each is stateless and draws only from the
+ * given Random, so a draw repeated with the same entrants, in the same
+ * order, and the same seed picks the same winners.
+ */
+public interface SelectionPolicy {
+
+    /**
+     * One waitlist entrant with the attributes policies may look at.
+     */
+    final class Entrant {
+        public final String uid;
+        /** Lotteries of other events this entrant was not selected in. */
+        public final int priorLosses;
+        /** Priority tier; lower tiers are served first (e.g. 0 = residents). */
+        public final int tier;
+        /** Group for stratified draws, e.g. the entrant's category; never null. */
+        public final String stratum;
+
+        public Entrant(String uid, int priorLosses, int tier, String stratum) {
+            this.uid = uid;
+            this.priorLosses = Math.max(priorLosses, 0);
+            this.tier = tier;
+            this.stratum = stratum == null ? "" : stratum;
+        }
+
+        /** @return Entrant with no history, in the default tier and stratum. */
+        public static Entrant of(String uid) {
+            return new Entrant(uid, 0, 0, "");
+        }
+    }
+
+    /**
+     * @return Stable name recorded with a draw, see {@link SelectionPolicies#byName}.
+     */
+    String name();
+
+    /**
+     * @return True if the policy uses {@link Entrant#priorLosses}, so callers
+     *         only look up loss history when it matters.
+     */
+    boolean usesLossHistory();
+
+    /**
+     * Picks up to {@code k} distinct winners. Duplicate and empty IDs in the
+     * input are ignored.
+     *
+     * @param entrants Entrants (not modified).
+     * @param k        Number of winners wanted.
+     * @param rng      Random source.
+     * @return Winners' user IDs; fewer than k if there are not enough entrants.
+     */
+    List<String> select(List<Entrant> entrants, int k, Random rng);
+}
@@ -0,0 +1,92 @@
+package com.example.apollo.utils;
+
+import java.util.Random;
+
+/**
+ * SlotShards.java
+ *
+ * Pure-Java arithmetic for splitting a waitlist capacity across several
+ * counter documents ("slot shards").
+ *
+ * A single counter document can only absorb about one write per second, so
+ * hundreds of entrants joining at once would keep aborting each other's
+ * transactions. Splitting the capacity over up to {@link #MAX_SHARDS}
+ * documents lets joins that land on different shards commit in parallel,
+ * while the shard capacities still add up to exactly the event capacity.
+ */
+public final class SlotShards {
+
+    /** Upper bound on shard documents per event. */
+    public static final int MAX_SHARDS = 20;
+
+    private SlotShards() {}
+
+    /**
+     * @param capacity Waitlist capacity; 0 or less means unlimited.
+     * @return Number of shards to use, or 0 when the waitlist is unlimited.
+     */
+    public static int shardCountFor(int capacity) {
+        if (capacity <= 0) return 0;
+        return Math.min(MAX_SHARDS, capacity);
+    }
+
+    /**
+     * Capacity of one shard. The remainder of {@code capacity / shardCount}
+     * goes to the lowest-numbered shards, so the total is exactly {@code capacity}.
+     *
+     * @param capacity   Total capacity.
+     * @param shardCount Number of shards.
+     * @param shard      Shard index (0-based).
+     * @return Slots in that shard.
+     */
+    public static int capacityOf(int capacity, int shardCount, int shard) {
+        if (shardCount <= 0 || shard < 0 || shard >= shardCount) return 0;
+        int base = capacity / shardCount;
+        return base + (shard < capacity % shardCount ? 1 : 0);
+    }
+
+    /**
+     * Places entries that hold no shard yet (e.g. joined before the shards
+     * were seeded) into the lowest shards with room left, so the seeded
+     * counts never let the total exceed the capacity. Entries beyond the
+     * capacity are spread over all shards, which then stay full.
+     *
+     * @param capacity   Total capacity.
+     * @param shardCount Number of shards (at least 1).
+     * @param used       Slots already taken per shard; updated in place.
+     * @param entries    Number of entries to place.
+     * @return Shard index for each entry.
+     */
+    public static int[] fill(int capacity, int shardCount, int[] used, int entries) {
+        int[] assigned = new int[entries];
+        int shard = 0;
+        for (int i = 0; i < entries; i++) {
+            while (shard < shardCount && used[shard] >= capacityOf(capacity, shardCount, shard)) shard++;
+            int target = shard < shardCount ? shard : i % shardCount;
+            assigned[i] = target;
+            used[target]++;
+        }
+        return assigned;
+    }
+
+    /**
+     * Order in which a joiner tries the shards: a random starting shard, then
+     * the following ones wrapping around. Random starts spread concurrent
+     * joiners across shards; probing all of them guarantees "full" is only
+     * reported when every shard is full.
+     *
+     * @param shardCount Number of shards.
+     * @param rng        Random source.
+     * @return Shard indices, each exactly once.
+     */
+    public static int[] probeOrder(int shardCount, Random rng) {
+        int[] order = new int[Math.max(shardCount, 0)];
+        if (order.length == 0) return order;
+
+        int start = rng.nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            order[i] = (start + i) % shardCount;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.apollo.utils;
+
+import java.util.Random;
+
+/**
+ * SplitMixRandom.java
+ *
+ * Counter-mode random source for audited lottery draws. Output number i
+ * (counting from 1) is the SplitMix64 mix of {@code seed + i * GAMMA}, so
+ * anyone with the published seed can recompute every number of a draw in
+ * any language without depending on a platform's Random implementation.
+ *
+ * Only {@link #nextRaw()} matches {@link java.util.SplittableRandom}: it
+ * returns what {@code new SplittableRandom(seed).nextLong()} does. Every
+ * other method (nextLong, nextInt(bound), nextDouble, ...) is Random's
+ * documented algorithm on top of {@link #next(int)}, which keeps the top
+ * bits of one raw output, and differs from SplittableRandom's.
+ *
+ * Extends {@link Random} so it plugs into {@link SelectionPolicy}. Not thread-safe.
+ */
+public final class SplitMixRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long seed;
+    private long counter;
+
+    public SplitMixRandom(long seed) {
+        super(seed);
+        setSeed(seed);
+    }
+
+    /** Restarts the stream from {@code seed}. */
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.counter = 0;
+    }
+
+    /** @return The next 64 bits of the stream. */
+    public long nextRaw() {
+        long z = seed + (++counter) * GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextRaw() >>> (64 - bits));
+    }
+}
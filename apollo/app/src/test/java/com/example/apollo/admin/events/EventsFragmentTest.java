@@ -14,6 +14,7 @@ import android.widget.TextView;
 
 import androidx.fragment.app.FragmentActivity;
 import androidx.test.core.app.ApplicationProvider;
+import androidx.work.testing.WorkManagerTestInitHelper;
 
 import com.example.apollo.R;
 import com.example.apollo.ui.admin.events.EventsFragment;
@@ -51,6 +52,9 @@ public class EventsFragmentTest {
             FirebaseApp.initializeApp(ApplicationProvider.getApplicationContext());
         }
 
+        // Deleting enqueues the cascade delete worker, which needs WorkManager
+        WorkManagerTestInitHelper.initializeTestWorkManager(ApplicationProvider.getApplicationContext());
+
         // Host activity
         activity = Robolectric.buildActivity(FragmentActivity.class)
                 .setup()
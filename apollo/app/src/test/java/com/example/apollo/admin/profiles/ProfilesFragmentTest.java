@@ -11,6 +11,7 @@ import android.widget.TextView;
 
 import androidx.fragment.app.FragmentActivity;
 import androidx.test.core.app.ApplicationProvider;
+import androidx.work.testing.WorkManagerTestInitHelper;
 
 import com.example.apollo.R;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,6 +50,9 @@ public class ProfilesFragmentTest {
             FirebaseApp.initializeApp(ApplicationProvider.getApplicationContext());
         }
 
+        // Deleting enqueues the cascade delete worker, which needs WorkManager
+        WorkManagerTestInitHelper.initializeTestWorkManager(ApplicationProvider.getApplicationContext());
+
         activity = Robolectric.buildActivity(FragmentActivity.class)
                 .setup()
                 .get();
@@ -0,0 +1,55 @@
+package com.example.apollo.entrant.home;
+
+import static org.junit.Assert.*;
+
+import com.example.apollo.ui.entrant.home.ScanMetrics;
+
+import org.junit.Test;
+
+public class ScanMetricsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void emptyMetricsReportZeroes() {
+        ScanMetrics metrics = new ScanMetrics();
+        assertEquals(0, metrics.latencyPercentileMs(50), 0.0);
+        assertEquals(0, metrics.framesAnalyzedPerSecond(System.nanoTime()), 0.0);
+        assertEquals(-1, metrics.timeToFirstDecodeMs());
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        ScanMetrics metrics = new ScanMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.onFrameAnalyzed(i * MS, false, i * MS);
+        }
+        assertEquals(50.0, metrics.latencyPercentileMs(50), 0.001);
+        assertEquals(90.0, metrics.latencyPercentileMs(90), 0.001);
+        assertEquals(99.0, metrics.latencyPercentileMs(99), 0.001);
+        assertEquals(100, metrics.getFramesAnalyzed());
+    }
+
+    @Test
+    public void percentilesOnlyCoverRecentWindow() {
+        ScanMetrics metrics = new ScanMetrics();
+        for (int i = 0; i < 256; i++) metrics.onFrameAnalyzed(1000 * MS, false, 0);
+        for (int i = 0; i < 256; i++) metrics.onFrameAnalyzed(5 * MS, false, 0);
+        assertEquals(5.0, metrics.latencyPercentileMs(99), 0.001);
+    }
+
+    @Test
+    public void framesPerSecondAndFirstDecode() {
+        ScanMetrics metrics = new ScanMetrics();
+        long start = 10_000 * MS;
+
+        for (int i = 0; i < 30; i++) metrics.onFrameReceived(start + i * 33 * MS);
+        for (int i = 0; i < 10; i++) {
+            metrics.onFrameAnalyzed(20 * MS, i == 4, start + (i + 1) * 100 * MS);
+        }
+
+        assertEquals(30, metrics.getFramesReceived());
+        assertEquals(10.0, metrics.framesAnalyzedPerSecond(start + 1000 * MS), 0.001);
+        assertEquals(500, metrics.timeToFirstDecodeMs());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class ColumnarWriterTest {
+
+    @Test
+    public void roundTripsRowsAcrossGroups() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ColumnarWriter writer = new ColumnarWriter(bytes, new String[]{"id", "status"}, 2);
+        writer.writeRow("u1", "waiting");
+        writer.writeRow("u2", "waiting");
+        writer.writeRow("u3", null);
+        writer.close();
+
+        assertEquals(3, writer.getRowCount());
+
+        List<String[]> rows = read(bytes.toByteArray());
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[]{"u1", "waiting"}, rows.get(0));
+        assertArrayEquals(new String[]{"u2", "waiting"}, rows.get(1));
+        assertArrayEquals(new String[]{"u3", ""}, rows.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongColumnCount() throws IOException {
+        ColumnarWriter writer = new ColumnarWriter(new ByteArrayOutputStream(), new String[]{"a", "b"});
+        writer.writeRow("only one");
+    }
+
+    /** Minimal reader for the format documented on ColumnarWriter. */
+    private static List<String[]> read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)));
+
+        byte[] magic = new byte[ColumnarWriter.MAGIC.length()];
+        in.readFully(magic);
+        assertEquals(ColumnarWriter.MAGIC, new String(magic, "US-ASCII"));
+
+        int columns = in.readInt();
+        for (int c = 0; c < columns; c++) in.readUTF();
+
+        List<String[]> rows = new ArrayList<>();
+        int groupRows;
+        while ((groupRows = in.readInt()) != 0) {
+            String[][] group = new String[groupRows][columns];
+            for (int c = 0; c < columns; c++) {
+                String[] dict = new String[in.readInt()];
+                for (int d = 0; d < dict.length; d++) dict[d] = in.readUTF();
+                for (int r = 0; r < groupRows; r++) group[r][c] = dict[readVarInt(in)];
+            }
+            for (String[] row : group) rows.add(row);
+        }
+        return rows;
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0, shift = 0, b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class CsvWriterTest {
+
+    @Test
+    public void plainFieldsAreNotQuoted() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        csv.writeRow("Name", "Status");
+        csv.writeRow("Alice", "Accepted");
+
+        assertEquals("Name,Status\r\nAlice,Accepted\r\n", out.toString());
+        assertEquals(2, csv.getRowCount());
+    }
+
+    @Test
+    public void specialCharactersAreQuotedAndEscaped() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+        csv.writeRow("Smith, John", "said \"hi\"", "line1\nline2");
+
+        assertEquals("\"Smith, John\",\"said \"\"hi\"\"\",\"line1\nline2\"\r\n", out.toString());
+    }
+
+    @Test
+    public void nullFieldsAreEmpty() throws IOException {
+        StringWriter out = new StringWriter();
+        new CsvWriter(out).writeRow("a", null, "c");
+
+        assertEquals("a,,c\r\n", out.toString());
+    }
+
+    @Test
+    public void escapeMatchesWriterOutput() {
+        assertEquals("plain", CsvWriter.escape("plain"));
+        assertEquals("\"a,b\"", CsvWriter.escape("a,b"));
+        assertEquals("\"\"\"\"", CsvWriter.escape("\""));
+        assertEquals("", CsvWriter.escape(null));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DocSizeTest {
+
+    @Test
+    public void nameSizeCountsEverySegment() {
+        // "users" (5 + 1) + "jeff" (4 + 1) + 16
+        assertEquals(27, DocSize.nameSize("users/jeff"));
+        assertEquals(16, DocSize.nameSize(null));
+    }
+
+    @Test
+    public void emptyDocumentIsNamePlusOverhead() {
+        assertEquals(27 + 32, DocSize.of("users/jeff", new HashMap<>()));
+        assertEquals(27 + 32, DocSize.of("users/jeff", null));
+    }
+
+    @Test
+    public void valuesFollowStorageRules() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "Ann");          // 5 + 4
+        data.put("count", 3L);            // 6 + 8
+        data.put("open", true);           // 5 + 1
+        data.put("note", null);           // 5 + 1
+        data.put("tags", Arrays.asList("a", "bc")); // 5 + 2 + 3
+
+        assertEquals(27 + 32 + 9 + 14 + 6 + 6 + 10, DocSize.of("users/jeff", data));
+    }
+
+    @Test
+    public void nestedMapsAddFieldNames() {
+        Map<String, Object> inner = new HashMap<>();
+        inner.put("x", 1.5);              // 2 + 8
+        Map<String, Object> data = new HashMap<>();
+        data.put("pos", inner);           // 4 + 10
+
+        assertEquals(16 + 32 + 14, DocSize.of("", data));
+    }
+
+    @Test
+    public void unknownTypesUseFallback() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("t", new Object());      // 2 + 16
+        assertEquals(16 + 32 + 2 + DocSize.OTHER_VALUE, DocSize.of(null, data));
+    }
+
+    @Test
+    public void multiByteCharactersCountAsUtf8() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("s", "é");               // 2 + 2 + 1
+        assertEquals(16 + 32 + 5, DocSize.of(null, data));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class DrawScheduleTest {
+
+    @Test
+    public void closesAtTheEventTimeOnTheCloseDate() {
+        long day = EventDates.parse("03/14/2025").getTime();
+        assertEquals(day + TimeUnit.HOURS.toMillis(18) + TimeUnit.MINUTES.toMillis(30),
+                DrawSchedule.closeTime("03/14/2025", "06:30 PM"));
+    }
+
+    @Test
+    public void missingTimeClosesAtTheEndOfTheDay() {
+        long nextDay = EventDates.parse("03/15/2025").getTime();
+        assertEquals(nextDay, DrawSchedule.closeTime("03/14/2025", null));
+        assertEquals(nextDay, DrawSchedule.closeTime("03/14/2025", "soon"));
+        assertEquals(-1, DrawSchedule.closeTime(null, "06:30 PM"));
+        assertEquals(-1, DrawSchedule.closeTime("14.03.2025", "06:30 PM"));
+    }
+
+    @Test
+    public void jitterIsStableBoundedAndSpread() {
+        assertEquals(DrawSchedule.jitterMs("evt123"), DrawSchedule.jitterMs("evt123"));
+
+        Set<Long> minutes = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            long jitter = DrawSchedule.jitterMs("event" + i);
+            assertTrue(jitter >= 0 && jitter < DrawSchedule.MAX_JITTER_MS);
+            minutes.add(TimeUnit.MILLISECONDS.toMinutes(jitter));
+        }
+        // 200 events closing together land in most of the 15 one-minute slots
+        assertTrue(minutes.size() >= 12);
+    }
+
+    @Test
+    public void overdueDrawsRunFromNow() {
+        long close = 1_000_000L;
+        long now = 5_000_000L;
+        long jitter = DrawSchedule.jitterMs("e1");
+        assertEquals(close + jitter, DrawSchedule.runAt(close, "e1", close - 1));
+        assertEquals(now + jitter, DrawSchedule.runAt(close, "e1", now));
+    }
+}
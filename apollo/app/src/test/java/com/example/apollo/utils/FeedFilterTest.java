@@ -0,0 +1,83 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class FeedFilterTest {
+
+    private static FeedFilter.Item item(String title, String location, boolean open,
+                                        String from, String to, List<String> categories) {
+        Date openDate = EventDates.parse(from);
+        Date closeDate = EventDates.parse(to);
+        return new FeedFilter.Item() {
+            @Override public String getTitle() { return title; }
+            @Override public String getLocation() { return location; }
+            @Override public boolean isOpen() { return open; }
+            @Override public boolean isClosed() { return !open; }
+            @Override public List<String> getCategories() { return categories; }
+
+            @Override
+            public boolean isAvailableOn(Date date) {
+                if (openDate != null && date.before(openDate)) return false;
+                return closeDate == null || !date.after(closeDate);
+            }
+        };
+    }
+
+    private final FeedFilter.Item swim = item("Swim Lessons", "Edmonton", true,
+            "01/01/2025", "01/31/2025", Arrays.asList("Sports", "Health"));
+    private final FeedFilter.Item piano = item("Piano", null, false,
+            "02/01/2025", "02/10/2025", Collections.emptyList());
+
+    @Test
+    public void noCriteriaShowsEverything() {
+        FeedFilter f = new FeedFilter(false, false, "", "", null, null);
+        assertTrue(f.matches(swim));
+        assertTrue(f.matches(piano));
+    }
+
+    @Test
+    public void statusFilter() {
+        FeedFilter open = new FeedFilter(true, false, "", "", null, null);
+        assertTrue(open.matches(swim));
+        assertFalse(open.matches(piano));
+
+        FeedFilter closed = new FeedFilter(false, true, "", "", null, null);
+        assertFalse(closed.matches(swim));
+        assertTrue(closed.matches(piano));
+    }
+
+    @Test
+    public void keywordsAreCaseInsensitiveAndNullSafe() {
+        assertTrue(new FeedFilter(true, true, "SWIM", "edm", null, null).matches(swim));
+        assertFalse(new FeedFilter(true, true, "", "edm", null, null).matches(piano));
+    }
+
+    @Test
+    public void dateMustFallInRegistrationWindow() {
+        assertTrue(new FeedFilter(true, true, "", "", EventDates.parse("01/15/2025"), null).matches(swim));
+        assertFalse(new FeedFilter(true, true, "", "", EventDates.parse("02/15/2025"), null).matches(swim));
+    }
+
+    @Test
+    public void anySelectedCategoryMatches() {
+        FeedFilter f = new FeedFilter(true, true, "", "", null, Arrays.asList("Music", "Health"));
+        assertTrue(f.matches(swim));
+        assertFalse(f.matches(piano));
+    }
+
+    @Test
+    public void malformedDatesParseToNull() {
+        assertNull(EventDates.parse(null));
+        assertNull(EventDates.parse(""));
+        assertNull(EventDates.parse("soon"));
+        assertFalse(EventDates.isPast("soon"));
+        assertFalse(EventDates.isFuture(null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class FeedSearchIndexTest {
+
+    private FeedSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new FeedSearchIndex();
+        index.put("swim", "Swim Lessons", "Learn to swim in a heated pool", "Edmonton",
+                Arrays.asList("Sports", "Health"));
+        index.put("piano", "Piano Recital", "Students play piano pieces, with a swim social after",
+                "Calgary", Collections.singletonList("Music"));
+        index.put("yoga", "Sunrise Yoga", null, "Edmonton", null);
+    }
+
+    @Test
+    public void searchesEveryFieldAndRanksTitleHitsFirst() {
+        assertEquals(Arrays.asList("swim", "piano"), index.search("swim"));
+        assertEquals(Collections.singletonList("piano"), index.search("music"));
+        assertEquals(new HashSet<>(Arrays.asList("swim", "yoga")),
+                new HashSet<>(index.search("edmonton")));
+    }
+
+    @Test
+    public void everyWordMustMatchAndTheLastOneMayBeAPrefix() {
+        assertEquals(Collections.singletonList("swim"), index.search("Edmonton swi"));
+        assertEquals(Collections.singletonList("yoga"), index.search("sunr"));
+        assertTrue(index.search("swim zumba").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    @Test
+    public void exactMatchesOutrankPrefixMatches() {
+        index.put("swimming", "Swimming", null, null, null);
+        index.put("swim2", "Swim", null, null, null);
+        assertEquals("swim2", index.search("swim").get(0));
+    }
+
+    @Test
+    public void updatesAndRemovalsAreIncremental() {
+        assertFalse(index.put("yoga", "Sunrise Yoga", null, "Edmonton", null));
+        assertTrue(index.put("yoga", "Sunset Yoga", null, "Edmonton", null));
+        assertTrue(index.search("sunrise").isEmpty());
+        assertEquals(Collections.singletonList("yoga"), index.search("sunset"));
+
+        assertTrue(index.remove("swim"));
+        assertFalse(index.contains("swim"));
+        assertEquals(Collections.singletonList("piano"), index.search("swim"));
+
+        assertEquals(1, index.retainAll(Collections.singleton("yoga")));
+        assertEquals(1, index.size());
+        assertTrue(index.search("piano").isEmpty());
+
+        index.put("chess", "Chess Club", null, null, null);
+        assertEquals(Collections.singletonList("chess"), index.search("chess"));
+    }
+}
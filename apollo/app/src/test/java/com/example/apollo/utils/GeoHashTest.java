@@ -0,0 +1,83 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class GeoHashTest {
+
+    @Test
+    public void encodesKnownCoordinates() {
+        // Reference values from the original geohash.org examples
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+    }
+
+    @Test
+    public void defaultPrecisionIsStoragePrecision() {
+        String hash = GeoHash.encode(53.5232, -113.5263);
+        assertEquals(GeoHash.STORAGE_PRECISION, hash.length());
+        assertTrue(hash.startsWith("c3x2"));
+    }
+
+    @Test
+    public void nearbyPointsSharePrefix() {
+        String a = GeoHash.encode(53.5232, -113.5263);
+        String b = GeoHash.encode(53.5235, -113.5260);
+        assertEquals(a.substring(0, 6), b.substring(0, 6));
+    }
+
+    @Test
+    public void coveringCellsContainEveryPointInBox() {
+        List<String> cells = GeoHash.coveringCells(53.50, -113.60, 53.56, -113.45, 12);
+        assertTrue(cells.size() <= 12);
+
+        for (double lat = 53.50; lat <= 53.56; lat += 0.01) {
+            for (double lon = -113.60; lon <= -113.45; lon += 0.01) {
+                String hash = GeoHash.encode(lat, lon);
+                boolean covered = false;
+                for (String cell : cells) {
+                    if (hash.startsWith(cell)) covered = true;
+                }
+                assertTrue("not covered: " + hash, covered);
+            }
+        }
+    }
+
+    @Test
+    public void coveringCellsOfAPointIsFinestCell() {
+        List<String> cells = GeoHash.coveringCells(53.5232, -113.5263, 53.5232, -113.5263, 12);
+        assertEquals(1, cells.size());
+        assertEquals(GeoHash.encode(53.5232, -113.5263), cells.get(0));
+    }
+
+    @Test
+    public void coveringCellsSplitAtAntimeridian() {
+        // West edge east of the east edge: the box spans 179.9..180 and -180..-179.9
+        List<String> cells = GeoHash.coveringCells(-16.9, 179.9, -16.8, -179.9, 12);
+        assertTrue(cells.size() <= 12);
+
+        double[] lons = {179.9, 179.95, 179.99, -179.99, -179.95, -179.9};
+        for (double lat = -16.9; lat <= -16.8; lat += 0.02) {
+            for (double lon : lons) {
+                String hash = GeoHash.encode(lat, lon);
+                boolean covered = false;
+                for (String cell : cells) {
+                    if (hash.startsWith(cell)) covered = true;
+                }
+                assertTrue("not covered: " + hash, covered);
+            }
+        }
+        // Nothing from the other side of the world
+        for (String cell : cells) {
+            assertFalse(GeoHash.encode(-16.85, 0).startsWith(cell));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidPrecision() {
+        GeoHash.encode(0, 0, 0);
+    }
+}
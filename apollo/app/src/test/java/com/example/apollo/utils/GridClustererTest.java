@@ -0,0 +1,68 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class GridClustererTest {
+
+    @Test
+    public void mergesPointsInSameCellAtCentroid() {
+        double[] lats = {53.501, 53.503};
+        double[] lons = {-113.501, -113.503};
+
+        List<GridClusterer.Cluster> clusters = GridClusterer.cluster(
+                lats, lons, 53.0, -114.0, 54.0, -113.0, 0.1, 0.1);
+
+        assertEquals(1, clusters.size());
+        assertEquals(2, clusters.get(0).count);
+        assertEquals(53.502, clusters.get(0).lat, 1e-9);
+        assertEquals(-113.502, clusters.get(0).lon, 1e-9);
+    }
+
+    @Test
+    public void keepsDistantPointsSeparate() {
+        double[] lats = {53.51, 53.91};
+        double[] lons = {-113.51, -113.11};
+
+        List<GridClusterer.Cluster> clusters = GridClusterer.cluster(
+                lats, lons, 53.0, -114.0, 54.0, -113.0, 0.1, 0.1);
+
+        assertEquals(2, clusters.size());
+    }
+
+    @Test
+    public void skipsPointsOutsideViewport() {
+        double[] lats = {53.5, 10.0};
+        double[] lons = {-113.5, 10.0};
+
+        List<GridClusterer.Cluster> clusters = GridClusterer.cluster(
+                lats, lons, 53.0, -114.0, 54.0, -113.0, 0.1, 0.1);
+
+        assertEquals(1, clusters.size());
+        assertEquals(1, clusters.get(0).count);
+    }
+
+    @Test
+    public void keepsPointsOnBothSidesOfAntimeridian() {
+        double[] lats = {-16.85, -16.85, -16.85};
+        double[] lons = {179.95, -179.95, 0.0};
+
+        // West edge east of the east edge: the viewport crosses the antimeridian
+        List<GridClusterer.Cluster> clusters = GridClusterer.cluster(
+                lats, lons, -17.0, 179.0, -16.0, -179.0, 0.1, 0.1);
+
+        assertEquals(2, clusters.size());
+        for (GridClusterer.Cluster cluster : clusters) {
+            assertEquals(1, cluster.count);
+            assertTrue(Math.abs(cluster.lon) > 179);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedArrays() {
+        GridClusterer.cluster(new double[1], new double[2], 0, 0, 1, 1, 0.1, 0.1);
+    }
+}
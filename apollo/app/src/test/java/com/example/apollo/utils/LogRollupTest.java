@@ -0,0 +1,55 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class LogRollupTest {
+
+    // 2025-03-14T00:00:00Z
+    private static final long DAY = 1741910400000L;
+
+    @Test
+    public void daysAreUtc() {
+        assertEquals("20250314", LogRollup.dayKey(DAY));
+        assertEquals("20250314", LogRollup.dayKey(DAY + TimeUnit.DAYS.toMillis(1) - 1));
+        assertEquals("20250313", LogRollup.dayKey(DAY - 1));
+        assertEquals(DAY, LogRollup.dayStart(DAY + TimeUnit.HOURS.toMillis(23)));
+        assertEquals(DAY - TimeUnit.DAYS.toMillis(1), LogRollup.dayStart(DAY - 1));
+    }
+
+    @Test
+    public void countsPerEventDayAndType() {
+        LogRollup rollup = new LogRollup();
+        rollup.add("e1", "lottery_win", DAY + 10);
+        rollup.add("e1", "lottery_loss", DAY + 20);
+        rollup.add("e1", "lottery_loss", DAY + 30);
+        rollup.add("e2", "lottery_loss", DAY + 40);
+        rollup.add("e1", "lottery_win", DAY + TimeUnit.DAYS.toMillis(1));
+        rollup.add("e1", null, DAY + 50);
+
+        List<LogRollup.Bucket> buckets = new ArrayList<>(rollup.buckets());
+        assertEquals(3, buckets.size());
+
+        LogRollup.Bucket first = buckets.get(0);
+        assertEquals("e1_20250314", first.id());
+        assertEquals(DAY, first.dayStart);
+        assertEquals(4, first.total);
+        assertEquals(Long.valueOf(1), first.counts.get("lottery_win"));
+        assertEquals(Long.valueOf(2), first.counts.get("lottery_loss"));
+        assertEquals(Long.valueOf(1), first.counts.get(LogRollup.UNKNOWN_TYPE));
+
+        assertEquals("e2_20250314", buckets.get(1).id());
+        assertEquals(1, buckets.get(1).total);
+        assertEquals("e1_20250315", buckets.get(2).id());
+    }
+
+    @Test
+    public void expiryAddsRetentionDays() {
+        assertEquals(DAY + TimeUnit.DAYS.toMillis(90), LogRollup.expireAt(DAY, 90));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import com.example.apollo.utils.SelectionPolicy.Entrant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LotteryAuditTest {
+
+    private static List<String> leaves(int n) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add("uid" + i);
+        return out;
+    }
+
+    @Test
+    public void everyLeafHasAValidLogSizedProof() {
+        for (int n = 1; n <= 70; n++) {
+            MerkleTree tree = new MerkleTree(leaves(n));
+            int maxDepth = 32 - Integer.numberOfLeadingZeros(n - 1);
+            for (int i = 0; i < n; i++) {
+                List<String> proof = tree.proof(i);
+                assertTrue(proof.size() <= maxDepth);
+                assertTrue("n=" + n + " i=" + i, MerkleTree.verify(tree.root(), "uid" + i, i, n, proof));
+            }
+        }
+    }
+
+    @Test
+    public void tamperedProofsFail() {
+        MerkleTree tree = new MerkleTree(leaves(13));
+        List<String> proof = tree.proof(5);
+
+        assertFalse(MerkleTree.verify(tree.root(), "uid6", 5, 13, proof));
+        assertFalse(MerkleTree.verify(tree.root(), "uid5", 4, 13, proof));
+        // The last leaf of an odd level is carried up; a different size changes its path
+        assertFalse(MerkleTree.verify(tree.root(), "uid12", 12, 14, tree.proof(12)));
+        assertFalse(MerkleTree.verify(tree.root(), "uid5", 5, 13, proof.subList(1, proof.size())));
+
+        List<String> flipped = new ArrayList<>(proof);
+        char c = flipped.get(0).charAt(0);
+        flipped.set(0, (c == '0' ? '1' : '0') + flipped.get(0).substring(1));
+        assertFalse(MerkleTree.verify(tree.root(), "uid5", 5, 13, flipped));
+    }
+
+    @Test
+    public void rootDependsOnEveryLeafAndItsOrder() {
+        String root = new MerkleTree(leaves(8)).root();
+        List<String> changed = leaves(8);
+        changed.set(7, "someone-else");
+        assertNotEquals(root, new MerkleTree(changed).root());
+
+        List<String> swapped = leaves(8);
+        Collections.swap(swapped, 0, 1);
+        assertNotEquals(root, new MerkleTree(swapped).root());
+
+        assertEquals(root, new MerkleTree(leaves(8)).root());
+        assertEquals(64, new MerkleTree(Collections.<String>emptyList()).root().length());
+    }
+
+    @Test
+    public void commitmentBindsTheSeed() {
+        assertEquals(LotteryAudit.commitment(42L), LotteryAudit.commitment(42L));
+        assertNotEquals(LotteryAudit.commitment(42L), LotteryAudit.commitment(43L));
+    }
+
+    @Test
+    public void counterModeStreamIsReproducibleAndMatchesSplittableRandom() {
+        SplitMixRandom a = new SplitMixRandom(7);
+        java.util.SplittableRandom reference = new java.util.SplittableRandom(7);
+        for (int i = 0; i < 100; i++) assertEquals(reference.nextLong(), a.nextRaw());
+
+        SplitMixRandom b = new SplitMixRandom(7);
+        SplitMixRandom c = new SplitMixRandom(7);
+        for (int i = 0; i < 100; i++) assertEquals(b.nextInt(1000), c.nextInt(1000));
+    }
+
+    @Test
+    public void replayReproducesTheDrawFromCanonicalInput() {
+        List<Entrant> loaded = new ArrayList<>();
+        for (int i = 0; i < 300; i++) loaded.add(new Entrant("u" + i, i % 3, i % 2, "s" + (i % 4)));
+        Collections.shuffle(loaded, new java.util.Random(1));
+
+        List<Entrant> canonical = LotteryAudit.canonical(loaded);
+        assertEquals("u0", canonical.get(0).uid);
+
+        for (String name : SelectionPolicies.NAMES) {
+            List<String> winners = LotteryAudit.draw(SelectionPolicies.byName(name), 99L, canonical, 25);
+            assertEquals(name, winners, LotteryAudit.replay(name, 99L, canonical, 25));
+        }
+    }
+
+    @Test
+    public void leafEncodingIsUnambiguous() {
+        assertNotEquals(LotteryAudit.leaf(new Entrant("a|1", 0, 0, "")),
+                LotteryAudit.leaf(new Entrant("a", 1, 0, "")));
+
+        List<Entrant> canonical = LotteryAudit.canonical(
+                Arrays.asList(Entrant.of("b"), Entrant.of("a"), Entrant.of("b"), Entrant.of("")));
+        assertEquals(2, canonical.size());
+        assertEquals("a", canonical.get(0).uid);
+        assertEquals("b", canonical.get(1).uid);
+    }
+}
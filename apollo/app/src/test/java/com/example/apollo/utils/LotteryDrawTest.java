@@ -0,0 +1,64 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class LotteryDrawTest {
+
+    @Test
+    public void picksDistinctWinnersFromCandidates() {
+        List<String> candidates = Arrays.asList("a", "b", "c", "d", "e");
+        List<String> winners = LotteryDraw.pick(candidates, 3, new Random(1));
+
+        assertEquals(3, winners.size());
+        assertEquals(3, new HashSet<>(winners).size());
+        assertTrue(candidates.containsAll(winners));
+    }
+
+    @Test
+    public void returnsEveryoneWhenPoolIsSmall() {
+        List<String> winners = LotteryDraw.pick(Arrays.asList("a", "b"), 5, new Random(1));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(winners));
+    }
+
+    @Test
+    public void ignoresDuplicatesAndEmptyIds() {
+        List<String> candidates = new ArrayList<>(Arrays.asList("a", "a", "", null, "b"));
+        List<String> winners = LotteryDraw.pick(candidates, 10, new Random(1));
+
+        assertEquals(2, winners.size());
+        assertFalse(winners.contains(null));
+        assertFalse(winners.contains(""));
+    }
+
+    @Test
+    public void doesNotModifyInput() {
+        List<String> candidates = new ArrayList<>(Arrays.asList("a", "b", "c", "d"));
+        LotteryDraw.pick(candidates, 2, new Random(7));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), candidates);
+    }
+
+    @Test
+    public void everyCandidateCanWin() {
+        List<String> candidates = Arrays.asList("a", "b", "c", "d");
+        int[] wins = new int[candidates.size()];
+        Random rng = new Random(42);
+
+        for (int i = 0; i < 4000; i++) {
+            for (String w : LotteryDraw.pick(candidates, 1, rng)) {
+                wins[candidates.indexOf(w)]++;
+            }
+        }
+        // Roughly uniform: each of 4 candidates expects 1000 wins
+        for (int count : wins) {
+            assertTrue("count " + count, count > 850 && count < 1150);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class MultiEventDrawTest {
+
+    private static Map<String, List<String>> waitlists() {
+        Map<String, List<String>> c = new LinkedHashMap<>();
+        c.put("mon", Arrays.asList("a", "b", "c", "d"));
+        c.put("wed", Arrays.asList("a", "b", "c", "e"));
+        c.put("fri", Arrays.asList("a", "b"));
+        return c;
+    }
+
+    private static Map<String, Integer> seats(int mon, int wed, int fri) {
+        Map<String, Integer> s = new HashMap<>();
+        s.put("mon", mon);
+        s.put("wed", wed);
+        s.put("fri", fri);
+        return s;
+    }
+
+    @Test
+    public void withoutConstraintsEachEventIsDrawnOnItsOwn() {
+        Map<String, List<String>> w = MultiEventDraw.assign(waitlists(), seats(4, 4, 2), false, new Random(1));
+        assertEquals(4, w.get("mon").size());
+        assertEquals(4, w.get("wed").size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(w.get("fri")));
+    }
+
+    @Test
+    public void exclusiveModeGivesEachEntrantAtMostOneSeat() {
+        for (long seed = 0; seed < 50; seed++) {
+            Map<String, List<String>> w = MultiEventDraw.assign(waitlists(), seats(2, 2, 1), true, new Random(seed));
+
+            Set<String> all = new HashSet<>();
+            int total = 0;
+            for (Map.Entry<String, List<String>> e : w.entrySet()) {
+                assertTrue(waitlists().get(e.getKey()).containsAll(e.getValue()));
+                all.addAll(e.getValue());
+                total += e.getValue().size();
+            }
+            assertEquals("seed " + seed, total, all.size());
+            // Five distinct entrants exist, so every seat can be filled
+            assertEquals("seed " + seed, 5, total);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameDraw() {
+        assertEquals(MultiEventDraw.assign(waitlists(), seats(2, 2, 1), true, new Random(42)),
+                MultiEventDraw.assign(waitlists(), seats(2, 2, 1), true, new Random(42)));
+    }
+
+    @Test
+    public void eventsWithoutSeatsGetNoWinners() {
+        Map<String, List<String>> w = MultiEventDraw.assign(waitlists(), seats(1, 0, 0), true, new Random(3));
+        assertEquals(1, w.get("mon").size());
+        assertTrue(w.get("wed").isEmpty());
+        assertTrue(w.get("fri").isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class SearchTokensTest {
+
+    @Test
+    public void wordsAreLowerCasedAccentFreeAndSplitOnPunctuation() {
+        assertEquals(Arrays.asList("amelie", "o", "kafor", "2025"),
+                SearchTokens.words("  Amélie O'Kafor-2025 "));
+        assertTrue(SearchTokens.words(null).isEmpty());
+        assertTrue(SearchTokens.words("--").isEmpty());
+    }
+
+    @Test
+    public void tokensAreDistinctPrefixesOfEveryWord() {
+        List<String> tokens = SearchTokens.forFields("Swim Swimming", null);
+        assertEquals(Arrays.asList("s", "sw", "swi", "swim", "swimm", "swimmi", "swimmin", "swimming"),
+                tokens);
+    }
+
+    @Test
+    public void prefixesAreCappedAtMaxPrefix() {
+        List<String> tokens = SearchTokens.forFields("abcdefghijklmnopqrstuvwxyz");
+        assertEquals(SearchTokens.MAX_PREFIX, tokens.size());
+        assertEquals("abcdefghijkl", tokens.get(tokens.size() - 1));
+        assertEquals("abcdefghijkl", SearchTokens.queryToken("abcdefghijklmnop"));
+    }
+
+    @Test
+    public void queryTokenIsTheLongestWordAndInTheDocumentTokens() {
+        assertEquals("basket", SearchTokens.queryToken("Basket ni"));
+        assertNull(SearchTokens.queryToken("   "));
+
+        List<String> tokens = SearchTokens.forFields("Apollo Basketball Night");
+        assertTrue(tokens.contains(SearchTokens.queryToken("basket ni")));
+    }
+
+    @Test
+    public void everyQueryWordMustPrefixSomeFieldWord() {
+        assertTrue(SearchTokens.matches("ama", "Amarachi Okafor", "amarachi"));
+        assertTrue(SearchTokens.matches("oka AMA", "Amarachi Okafor", null));
+        assertFalse(SearchTokens.matches("ama zed", "Amarachi Okafor", "amarachi"));
+        assertFalse(SearchTokens.matches("fair", "Welcome Party"));
+        assertTrue(SearchTokens.matches("", "anything"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import com.example.apollo.utils.SelectionPolicy.Entrant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class SelectionPoliciesTest {
+
+    private static List<Entrant> plain(int n) {
+        List<Entrant> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(Entrant.of("u" + i));
+        return out;
+    }
+
+    @Test
+    public void everyPolicyPicksDistinctWinnersAndIgnoresBadIds() {
+        List<Entrant> entrants = new ArrayList<>(plain(20));
+        entrants.add(Entrant.of("u3"));
+        entrants.add(Entrant.of(""));
+        entrants.add(null);
+
+        for (String name : SelectionPolicies.NAMES) {
+            SelectionPolicy policy = SelectionPolicies.byName(name);
+            assertEquals(name, policy.name());
+
+            List<String> winners = policy.select(entrants, 7, new Random(3));
+            assertEquals(name, 7, winners.size());
+            assertEquals(name, 7, new HashSet<>(winners).size());
+            assertFalse(name, winners.contains(""));
+
+            assertEquals(name, 20, policy.select(entrants, 50, new Random(3)).size());
+            assertTrue(name, policy.select(entrants, 0, new Random(3)).isEmpty());
+        }
+    }
+
+    @Test
+    public void sameSeedSameWinners() {
+        List<Entrant> entrants = new ArrayList<>();
+        for (int i = 0; i < 500; i++) entrants.add(new Entrant("u" + i, i % 4, i % 3, "s" + (i % 5)));
+
+        for (String name : SelectionPolicies.NAMES) {
+            SelectionPolicy policy = SelectionPolicies.byName(name);
+            assertEquals(name, policy.select(entrants, 40, new Random(99)),
+                    policy.select(entrants, 40, new Random(99)));
+        }
+    }
+
+    @Test
+    public void repeatLosersWinMoreOften() {
+        // Half the entrants lost three times before: weight 4 against 1
+        List<Entrant> entrants = new ArrayList<>();
+        for (int i = 0; i < 100; i++) entrants.add(new Entrant("u" + i, i < 50 ? 3 : 0, 0, ""));
+
+        SelectionPolicy policy = SelectionPolicies.weightedByLosses();
+        assertTrue(policy.usesLossHistory());
+
+        Random rng = new Random(7);
+        int losers = 0;
+        int total = 0;
+        for (int round = 0; round < 200; round++) {
+            for (String uid : policy.select(entrants, 10, rng)) {
+                if (Integer.parseInt(uid.substring(1)) < 50) losers++;
+                total++;
+            }
+        }
+        // About 4 in 5 seats go to the repeat losers
+        double share = losers / (double) total;
+        assertTrue("share " + share, share > 0.7 && share < 0.9);
+
+        // Without a boost the draw is even
+        losers = 0;
+        for (int round = 0; round < 200; round++) {
+            for (String uid : SelectionPolicies.weightedByLosses(0).select(entrants, 10, rng)) {
+                if (Integer.parseInt(uid.substring(1)) < 50) losers++;
+            }
+        }
+        share = losers / (double) total;
+        assertTrue("share " + share, share > 0.4 && share < 0.6);
+    }
+
+    @Test
+    public void lowerTiersAreServedFirst() {
+        List<Entrant> entrants = Arrays.asList(
+                new Entrant("visitor1", 0, 1, ""),
+                new Entrant("resident1", 0, 0, ""),
+                new Entrant("visitor2", 0, 1, ""),
+                new Entrant("resident2", 0, 0, ""),
+                new Entrant("late", 0, 5, ""));
+
+        List<String> winners = SelectionPolicies.priorityTiers().select(entrants, 3, new Random(1));
+        assertEquals(3, winners.size());
+        assertTrue(winners.containsAll(Arrays.asList("resident1", "resident2")));
+        assertFalse(winners.contains("late"));
+
+        assertEquals(new HashSet<>(Arrays.asList("resident1", "resident2")),
+                new HashSet<>(SelectionPolicies.priorityTiers().select(entrants, 2, new Random(1))));
+    }
+
+    @Test
+    public void strataGetSeatsInProportion() {
+        List<Entrant> entrants = new ArrayList<>();
+        for (int i = 0; i < 60; i++) entrants.add(new Entrant("a" + i, 0, 0, "adult"));
+        for (int i = 0; i < 30; i++) entrants.add(new Entrant("y" + i, 0, 0, "youth"));
+        for (int i = 0; i < 10; i++) entrants.add(new Entrant("s" + i, 0, 0, "senior"));
+
+        // 60/30/10 of 11 seats: 6.6, 3.3, 1.1 -> 6, 3, 1 plus one for the largest remainder
+        List<String> winners = SelectionPolicies.stratified().select(entrants, 11, new Random(5));
+        int adults = 0;
+        int youth = 0;
+        int seniors = 0;
+        for (String uid : winners) {
+            if (uid.startsWith("a")) adults++;
+            else if (uid.startsWith("y")) youth++;
+            else seniors++;
+        }
+        assertEquals(7, adults);
+        assertEquals(3, youth);
+        assertEquals(1, seniors);
+    }
+
+    @Test
+    public void unknownNamesFallBackToUniform() {
+        assertEquals(SelectionPolicies.UNIFORM, SelectionPolicies.byName(null).name());
+        assertEquals(SelectionPolicies.UNIFORM, SelectionPolicies.byName("lucky_dip").name());
+        assertFalse(SelectionPolicies.uniform().usesLossHistory());
+    }
+}
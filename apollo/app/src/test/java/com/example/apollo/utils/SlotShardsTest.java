@@ -0,0 +1,80 @@
+package com.example.apollo.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SlotShardsTest {
+
+    @Test
+    public void unlimitedCapacityHasNoShards() {
+        assertEquals(0, SlotShards.shardCountFor(0));
+        assertEquals(0, SlotShards.shardCountFor(-1));
+    }
+
+    @Test
+    public void smallCapacityUsesOneSlotPerShard() {
+        assertEquals(3, SlotShards.shardCountFor(3));
+        for (int i = 0; i < 3; i++) assertEquals(1, SlotShards.capacityOf(3, 3, i));
+    }
+
+    @Test
+    public void shardCapacitiesAddUpToCapacity() {
+        for (int capacity = 1; capacity <= 500; capacity++) {
+            int shards = SlotShards.shardCountFor(capacity);
+            assertTrue(shards <= SlotShards.MAX_SHARDS);
+
+            int total = 0;
+            for (int i = 0; i < shards; i++) {
+                int c = SlotShards.capacityOf(capacity, shards, i);
+                assertTrue(c >= 1);
+                total += c;
+            }
+            assertEquals(capacity, total);
+        }
+    }
+
+    @Test
+    public void outOfRangeShardHasNoCapacity() {
+        assertEquals(0, SlotShards.capacityOf(100, 20, 20));
+        assertEquals(0, SlotShards.capacityOf(100, 20, -1));
+    }
+
+    @Test
+    public void fillUsesFreeSlotsFirst() {
+        // capacity 5 over 3 shards: 2, 2, 1
+        int[] used = {2, 0, 0};
+        assertArrayEquals(new int[]{1, 1, 2}, SlotShards.fill(5, 3, used, 3));
+        assertArrayEquals(new int[]{2, 2, 1}, used);
+    }
+
+    @Test
+    public void fillBeyondCapacityKeepsEveryShardFull() {
+        int[] used = {0, 0};
+        int[] assigned = SlotShards.fill(2, 2, used, 4);
+        assertEquals(4, assigned.length);
+        for (int shard = 0; shard < 2; shard++) {
+            assertTrue(used[shard] >= SlotShards.capacityOf(2, 2, shard));
+        }
+    }
+
+    @Test
+    public void probeOrderVisitsEveryShardOnce() {
+        int[] order = SlotShards.probeOrder(7, new Random(3));
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6}, sorted);
+
+        for (int i = 1; i < order.length; i++) {
+            assertEquals((order[i - 1] + 1) % 7, order[i]);
+        }
+    }
+
+    @Test
+    public void probeOrderForNoShardsIsEmpty() {
+        assertEquals(0, SlotShards.probeOrder(0, new Random()).length);
+    }
+}
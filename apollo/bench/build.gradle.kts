@@ -0,0 +1,35 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The pure-Java helpers are compiled straight from the app's sources, so the
+// benchmarks always measure the code that ships.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include("com/example/apollo/utils/**")
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.zxing.core)
+}
+
+// Run with: ./gradlew :bench:jmh
+// Results are written as JSON so releases can be compared with each other.
+jmh {
+    jmhVersion.set(libs.versions.jmhCore)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
@@ -0,0 +1,71 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.EventDates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DateParseBenchmark.java
+ *
+ * Cost of parsing one feed's worth of "MM/dd/yyyy" registration dates (two
+ * per event), depending on how the parser is obtained:
+ * - newFormatPerCall: constructs a SimpleDateFormat for every date
+ * - eventDates: {@link EventDates#parse}, which reuses one format per thread
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateParseBenchmark {
+
+    private static final int EVENTS = 500;
+
+    private String[] dates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(7);
+        dates = new String[EVENTS * 2];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = String.format(Locale.US, "%02d/%02d/%04d",
+                    1 + rng.nextInt(12), 1 + rng.nextInt(28), 2024 + rng.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public void newFormatPerCall(Blackhole bh) {
+        for (String value : dates) {
+            try {
+                SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
+                bh.consume(sdf.parse(value));
+            } catch (Exception e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void eventDates(Blackhole bh) {
+        for (String value : dates) {
+            bh.consume(EventDates.parse(value));
+        }
+    }
+
+    @Benchmark
+    public Date today() {
+        return EventDates.today();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.ColumnarWriter;
+import com.example.apollo.utils.CsvWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExportBenchmark.java
+ *
+ * Writing a participant export, with the same columns and stream stack as
+ * ParticipantExporter, to a stream that discards its bytes (so only
+ * formatting and buffering are measured, not storage):
+ * - csv: {@link CsvWriter}
+ * - columnar: {@link ColumnarWriter}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportBenchmark {
+
+    private static final String[] COLUMNS =
+            {"userId", "name", "email", "phone", "list", "status", "timestamp"};
+    private static final String[] LISTS = {"waitlist", "invites", "registrations", "cancellations"};
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private String[][] data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(3);
+        data = new String[rows][];
+        for (int i = 0; i < rows; i++) {
+            data[i] = new String[]{
+                    "uid" + Long.toHexString(rng.nextLong()),
+                    // Every tenth name needs quoting
+                    i % 10 == 0 ? "Lee, \"Sam\"" : "Entrant " + i,
+                    "entrant" + i + "@example.com",
+                    rng.nextBoolean() ? String.format(Locale.US, "780-555-%04d", i % 10000) : null,
+                    LISTS[i % LISTS.length],
+                    "waiting",
+                    "2025-11-0" + (1 + i % 9) + "T12:00:00Z"
+            };
+        }
+    }
+
+    @Benchmark
+    public long csv() throws IOException {
+        CsvWriter writer = new CsvWriter(new BufferedWriter(new OutputStreamWriter(
+                new BufferedOutputStream(OutputStream.nullOutputStream(), 64 * 1024),
+                StandardCharsets.UTF_8)));
+        writer.writeRow(COLUMNS);
+        for (String[] row : data) writer.writeRow(row);
+        writer.close();
+        return writer.getRowCount();
+    }
+
+    @Benchmark
+    public long columnar() throws IOException {
+        ColumnarWriter writer = new ColumnarWriter(OutputStream.nullOutputStream(), COLUMNS);
+        for (String[] row : data) writer.writeRow(row);
+        writer.close();
+        return writer.getRowCount();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.EventDates;
+import com.example.apollo.utils.FeedFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FeedFilterBenchmark.java
+ *
+ * Evaluating the home feed filter ({@link FeedFilter}) over every loaded
+ * event, as HomeFragment does each time the filters change:
+ * - noFilters: the default, everything shown
+ * - keywords: title and location substring matches
+ * - allCriteria: status, keywords, date and categories together
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeedFilterBenchmark {
+
+    private static final String[] WORDS =
+            {"Swim", "Piano", "Yoga", "Chess", "Robotics", "Dance", "Pottery", "Coding"};
+    private static final String[] CITIES =
+            {"Edmonton", "Calgary", "Red Deer", "St. Albert", "Sherwood Park"};
+    private static final String[] CATEGORIES =
+            {"Sports", "Music", "Education", "Arts", "Health", "Technology"};
+
+    @Param({"100", "1000", "10000"})
+    public int events;
+
+    private List<FeedFilter.Item> items;
+    private FeedFilter noFilters;
+    private FeedFilter keywords;
+    private FeedFilter allCriteria;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(11);
+        Date today = EventDates.today();
+        long day = TimeUnit.DAYS.toMillis(1);
+
+        items = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            Date open = new Date(today.getTime() + (rng.nextInt(60) - 30) * day);
+            Date close = new Date(open.getTime() + (1 + rng.nextInt(30)) * day);
+            List<String> cats = new ArrayList<>();
+            for (int c = rng.nextInt(3); c >= 0; c--) {
+                cats.add(CATEGORIES[rng.nextInt(CATEGORIES.length)]);
+            }
+            items.add(new Item(
+                    WORDS[rng.nextInt(WORDS.length)] + " Lessons " + i,
+                    CITIES[rng.nextInt(CITIES.length)],
+                    open, close, today, cats));
+        }
+
+        noFilters = new FeedFilter(true, true, "", "", null, Collections.emptyList());
+        keywords = new FeedFilter(true, true, "yoga", "edmonton", null, Collections.emptyList());
+        allCriteria = new FeedFilter(true, false, "lessons", "ed", today,
+                Arrays.asList("Music", "Health"));
+    }
+
+    private int count(FeedFilter filter) {
+        int shown = 0;
+        for (FeedFilter.Item item : items) {
+            if (filter.matches(item)) shown++;
+        }
+        return shown;
+    }
+
+    @Benchmark
+    public int noFilters() {
+        return count(noFilters);
+    }
+
+    @Benchmark
+    public int keywords() {
+        return count(keywords);
+    }
+
+    @Benchmark
+    public int allCriteria() {
+        return count(allCriteria);
+    }
+
+    /** Event with the same open/closed rules as the home feed. */
+    private static final class Item implements FeedFilter.Item {
+        private final String title;
+        private final String location;
+        private final Date open;
+        private final Date close;
+        private final boolean isClosed;
+        private final List<String> categories;
+
+        Item(String title, String location, Date open, Date close, Date today, List<String> categories) {
+            this.title = title;
+            this.location = location;
+            this.open = open;
+            this.close = close;
+            this.isClosed = close.before(today);
+            this.categories = categories;
+        }
+
+        @Override public String getTitle() { return title; }
+        @Override public String getLocation() { return location; }
+        @Override public boolean isOpen() { return !isClosed; }
+        @Override public boolean isClosed() { return isClosed; }
+        @Override public List<String> getCategories() { return categories; }
+
+        @Override
+        public boolean isAvailableOn(Date date) {
+            return !date.before(open) && !date.after(close);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.FeedSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FeedSearchBenchmark.java
+ *
+ * Keyword search on the home feed through {@link FeedSearchIndex}:
+ * - prefix: one short word as typed, many matches
+ * - words: several whole words, fewer matches
+ * - reindex: one event edited and put back, as after a feed reload
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeedSearchBenchmark {
+
+    private static final String[] WORDS =
+            {"Swim", "Piano", "Yoga", "Chess", "Robotics", "Dance", "Pottery", "Coding",
+                    "Lessons", "Club", "Night", "Camp", "Beginner", "Advanced", "Family"};
+    private static final String[] CITIES =
+            {"Edmonton", "Calgary", "Red Deer", "St. Albert", "Sherwood Park"};
+    private static final String[] CATEGORIES =
+            {"Sports", "Music", "Education", "Arts", "Health", "Technology"};
+
+    @Param({"1000", "10000", "50000"})
+    public int events;
+
+    private FeedSearchIndex index;
+    private Random rng;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rng = new Random(11);
+        index = new FeedSearchIndex();
+        for (int i = 0; i < events; i++) put(i, "");
+    }
+
+    private void put(int i, String suffix) {
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < 12; w++) description.append(WORDS[rng.nextInt(WORDS.length)]).append(' ');
+
+        List<String> cats = new ArrayList<>();
+        cats.add(CATEGORIES[rng.nextInt(CATEGORIES.length)]);
+
+        index.put("e" + i,
+                WORDS[rng.nextInt(WORDS.length)] + " " + WORDS[rng.nextInt(WORDS.length)] + " " + i + suffix,
+                description.toString(),
+                CITIES[rng.nextInt(CITIES.length)],
+                cats);
+    }
+
+    @Benchmark
+    public int prefix() {
+        return index.search("yo").size();
+    }
+
+    @Benchmark
+    public int words() {
+        return index.search("beginner yoga edmonton").size();
+    }
+
+    @Benchmark
+    public int reindex() {
+        put(edits % events, " " + edits++);
+        return index.size();
+    }
+}
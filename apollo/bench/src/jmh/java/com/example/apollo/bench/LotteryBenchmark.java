@@ -0,0 +1,73 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.LotteryDraw;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LotteryBenchmark.java
+ *
+ * Winner selection for the lottery at different waitlist sizes:
+ * - fullShuffle: copy and shuffle the whole list, take the first k
+ *   (what the organizer screen used to do)
+ * - partialShuffle: {@link LotteryDraw#pick}, the shipped implementation
+ * - reservoir: single pass reservoir sampling (Algorithm R)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LotteryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int candidates;
+
+    @Param({"10", "500"})
+    public int winners;
+
+    private List<String> pool;
+    private Random rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) pool.add("uid-" + i);
+        rng = new Random(42);
+    }
+
+    @Benchmark
+    public List<String> fullShuffle() {
+        List<String> copy = new ArrayList<>(pool);
+        Collections.shuffle(copy, rng);
+        return new ArrayList<>(copy.subList(0, Math.min(winners, copy.size())));
+    }
+
+    @Benchmark
+    public List<String> partialShuffle() {
+        return LotteryDraw.pick(pool, winners, rng);
+    }
+
+    @Benchmark
+    public List<String> reservoir() {
+        int k = Math.min(winners, pool.size());
+        List<String> out = new ArrayList<>(pool.subList(0, k));
+        for (int i = k; i < pool.size(); i++) {
+            int j = rng.nextInt(i + 1);
+            if (j < k) out.set(j, pool.get(i));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.QrModules;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QrBenchmark.java
+ *
+ * Producing drawable data for an event QR code:
+ * - encode: content to module grid
+ * - rowRuns: module grid to dark runs, used for vector poster output
+ * - renderPixels: ZXing bitmap matrix to the ARGB array handed to
+ *   Bitmap.setPixels, at the sizes the app displays
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QrBenchmark {
+
+    private static final String CONTENT = "apollo-event:4Qk9ZsYwT2bN7xLmP0aR";
+
+    @Param({"256", "512", "1024"})
+    public int size;
+
+    private ByteMatrix modules;
+    private BitMatrix bits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WriterException {
+        modules = QrModules.encode(CONTENT);
+        bits = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, size, size);
+    }
+
+    @Benchmark
+    public ByteMatrix encode() throws WriterException {
+        return QrModules.encode(CONTENT);
+    }
+
+    @Benchmark
+    public int[] rowRuns() {
+        return QrModules.rowRuns(modules);
+    }
+
+    @Benchmark
+    public int[] renderPixels() {
+        return QrModules.toPixels(bits);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.apollo.bench;
+
+import com.example.apollo.utils.SelectionPolicies;
+import com.example.apollo.utils.SelectionPolicy;
+import com.example.apollo.utils.SelectionPolicy.Entrant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SelectionPolicyBenchmark.java
+ *
+ * Throughput of every {@link SelectionPolicies} policy on the same waitlist:
+ * entrants with 0–5 earlier losses, three priority tiers and eight strata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SelectionPolicyBenchmark {
+
+    @Param({"10000", "100000"})
+    public int entrants;
+
+    @Param({"10", "500"})
+    public int winners;
+
+    @Param({"uniform", "weighted_losses", "priority_tiers", "stratified"})
+    public String policyName;
+
+    private List<Entrant> pool;
+    private SelectionPolicy policy;
+    private Random rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random data = new Random(7);
+        pool = new ArrayList<>(entrants);
+        for (int i = 0; i < entrants; i++) {
+            pool.add(new Entrant("uid-" + i, data.nextInt(6), data.nextInt(3), "stratum-" + data.nextInt(8)));
+        }
+        policy = SelectionPolicies.byName(policyName);
+        rng = new Random(42);
+    }
+
+    @Benchmark
+    public List<String> select() {
+        return policy.select(pool, winners, rng);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.apollo.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * BaselineProfileGenerator.java
+ *
+ * Purpose:
+ * Generates the app's baseline profile from its critical journeys: cold
+ * start into the role's start screen, scrolling the events feed and visiting
+ * each bottom navigation tab.
+ *
+ * Notes:
+ * - Generate with:
+ *     ./gradlew :app:generateReleaseBaselineProfile
+ *   The profile is written to app/src/release/generated/baselineProfiles and
+ *   should be committed.
+ * - The graph that is walked is the one for the account signed in on the
+ *   device. Run the task once each with an entrant, an organizer and an admin
+ *   account; the Gradle plugin merges the rules from every run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public final BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(Journeys.TARGET_PACKAGE, scope -> {
+            Journeys.launchAndWait(scope);
+            Journeys.scrollEvents(scope.getDevice());
+            Journeys.visitTabs(scope.getDevice());
+            return Unit.INSTANCE;
+        });
+    }
+}
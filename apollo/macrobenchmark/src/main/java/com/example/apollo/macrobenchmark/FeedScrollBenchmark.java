@@ -0,0 +1,64 @@
+package com.example.apollo.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * FeedScrollBenchmark.java
+ *
+ * Purpose:
+ * Measures frame timing (frameDurationCpuMs, frameOverrunMs) while flinging
+ * the events feed of the signed-in role's start screen.
+ *
+ * Design:
+ * The app is launched and the feed is allowed to load in the setup block;
+ * only the flings are measured. The same journey is compiled with and
+ * without the baseline profile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedScrollBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollFeedNoProfile() {
+        scrollFeed(new CompilationMode.None());
+    }
+
+    @Test
+    public void scrollFeedBaselineProfile() {
+        scrollFeed(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void scrollFeed(CompilationMode mode) {
+        rule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                mode,
+                StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    Journeys.launchAndWait(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.scrollEvents(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.apollo.macrobenchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * Journeys.java
+ *
+ * Purpose:
+ * UI steps shared by the benchmarks and the baseline profile generator:
+ * waiting for the role's start screen, scrolling its event list and
+ * walking the bottom navigation.
+ *
+ * Notes:
+ * The app has no in-app sign-in; LoginActivity routes the device's signed-in
+ * account to MainActivity (or to sign-up for a new account). Which graph is
+ * exercised therefore depends on the account the test device is signed into.
+ */
+final class Journeys {
+
+    static final String TARGET_PACKAGE = "com.example.apollo";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    /** Bottom nav items across the entrant, organizer and admin menus. */
+    private static final String[] NAV_ITEMS = {
+            "navigation_home",
+            "navigation_organizer_events",
+            "navigation_events",
+            "navigation_notifications",
+            "navigation_profiles",
+            "navigation_images",
+            "navigation_profile"
+    };
+
+    private Journeys() {}
+
+    private static BySelector res(String id) {
+        return By.res(TARGET_PACKAGE, id);
+    }
+
+    /**
+     * Waits until MainActivity's bottom navigation is on screen.
+     *
+     * @param device UiAutomator device.
+     * @return True if it appeared before the timeout.
+     */
+    static boolean waitForMainScreen(@NonNull UiDevice device) {
+        return device.wait(Until.hasObject(res("nav_view")), TIMEOUT_MS);
+    }
+
+    /**
+     * Flings the events list of the current screen down and back up.
+     * Entrant, organizer and admin screens all render their events into a
+     * LinearLayout named eventsContainer inside a ScrollView.
+     *
+     * @param device UiAutomator device.
+     */
+    static void scrollEvents(@NonNull UiDevice device) {
+        UiObject2 container = device.wait(Until.findObject(res("eventsContainer")), TIMEOUT_MS);
+        if (container == null) return;
+
+        // Wait for the first event card before flinging
+        device.wait(Until.hasObject(res("eventsContainer").hasChild(By.depth(1))), TIMEOUT_MS);
+
+        UiObject2 list = container.getParent();
+        if (list == null || !list.isScrollable()) {
+            list = device.findObject(By.scrollable(true));
+        }
+        if (list == null) return;
+
+        // Keep the gesture away from the system navigation bar
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    /**
+     * Visits every bottom navigation destination present in the current
+     * role's menu, then returns to the first one.
+     *
+     * @param device UiAutomator device.
+     */
+    static void visitTabs(@NonNull UiDevice device) {
+        String first = null;
+        for (String item : NAV_ITEMS) {
+            UiObject2 tab = device.findObject(res(item));
+            if (tab == null) continue;
+            if (first == null) first = item;
+
+            tab.click();
+            device.waitForIdle();
+        }
+
+        if (first != null) {
+            UiObject2 tab = device.findObject(res(first));
+            if (tab != null) tab.click();
+            device.waitForIdle();
+        }
+    }
+
+    /**
+     * Launches the app from the launcher intent and waits for the main screen.
+     *
+     * @param scope Benchmark scope.
+     */
+    static void launchAndWait(@NonNull MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        waitForMainScreen(scope.getDevice());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.apollo.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * StartupBenchmark.java
+ *
+ * Purpose:
+ * Measures cold and warm startup from the launcher until the role's start
+ * screen (bottom navigation) is visible, with and without the baseline
+ * profile, so the profile's effect can be read directly from the results.
+ *
+ * Notes:
+ * Run against the "benchmark" build of the app on a physical device:
+ *   ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ * Results (JSON and Perfetto traces) are pulled into
+ * macrobenchmark/build/outputs/connected_android_test_additional_output.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+    private final StartupMode startupMode;
+
+    /** @return Every combination of compilation and startup mode. */
+    @Parameterized.Parameters(name = "{2}")
+    public static Collection<Object[]> params() {
+        return Arrays.asList(
+                new Object[]{new CompilationMode.None(), StartupMode.COLD, "cold_noProfile"},
+                new Object[]{new CompilationMode.Partial(BaselineProfileMode.Require), StartupMode.COLD, "cold_baselineProfile"},
+                new Object[]{new CompilationMode.None(), StartupMode.WARM, "warm_noProfile"},
+                new Object[]{new CompilationMode.Partial(BaselineProfileMode.Require), StartupMode.WARM, "warm_baselineProfile"}
+        );
+    }
+
+    public StartupBenchmark(CompilationMode compilationMode, StartupMode startupMode, String name) {
+        this.compilationMode = compilationMode;
+        this.startupMode = startupMode;
+    }
+
+    @Test
+    public void startup() {
+        rule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    Journeys.waitForMainScreen(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
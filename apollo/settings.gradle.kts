@@ -19,3 +19,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "apollo"
 include(":app")
+include(":macrobenchmark")
+include(":bench")